@@ -0,0 +1,89 @@
+import time
+SKRIPT_START = time.perf_counter()
+
+import sys
+import json
+import random
+import argparse
+from pathlib import Path
+
+# Stub für scripts/tabellen_extraktor.py zum Messen des Java-Anteils der Extraktion (Prozessstart,
+# stdout/stderr-Threads, JSON-Parsen, Übernahme ins Modell) ohne Camelot.
+# Gleiche Argumente und gleiches JSON-Format wie das echte Skript. Statt einer PDF erwartet --pdf-path eine
+# Steuerdatei (JSON), die Größe und Verzögerung der Ausgabe festlegt; fehlende Angaben -> Standardwerte.
+
+STANDARD = {
+    "tabellen": 2,            # Tabellen je Dokument
+    "zeilen": 50,             # Datenzeilen je Tabelle (ohne Kopfzeile)
+    "verzoegerung_ms": 0,     # Simulierte Rechenzeit vor der Ausgabe
+    "stderr_zeilen": 0,       # Anzahl INFO-Zeilen auf stderr (belastet den stderr-Thread und das Logging)
+    "startwert": 0,           # Startwert des Zufallsgenerators
+    "zeitraum_start": None,   # Abrechnungszeitraum (ISO-Datum), wie vom echten Skript erkannt
+    "zeitraum_ende": None,
+}
+
+KOPFZEILE = ["Pos", "Beschreibung", "Menge", "Einheit", "Einzelpreis", "Betrag"]
+ARTIKEL = ["Grundgebühr", "Arbeitspreis HT", "Arbeitspreis NT", "Verbrauch Wasser", "Abwasser",
+           "Mobilfunk Tarif L", "Datenvolumen", "Kopierpapier A4", "Toner schwarz", "Wartung Heizung",
+           "Versicherungsbeitrag", "Servicepauschale"]
+EINHEITEN = ["Stk", "kWh", "m³", "Monat", "Pauschal"]
+
+
+def betrag(wert):
+    # Deutsches Format: 1.234,56
+    return f"{wert:,.2f}".replace(",", "X").replace(".", ",").replace("X", ".")
+
+
+def lese_steuerung(pfad):
+    steuerung = dict(STANDARD)
+    try:
+        steuerung.update(json.loads(Path(pfad).read_text(encoding="utf-8")))
+    except (OSError, ValueError) as e:
+        print(f"WARNUNG Python-Stub: Steuerdatei nicht lesbar ({e}), verwende Standardwerte.", file=sys.stderr)
+    return steuerung
+
+
+def erzeuge_tabelle(zufall, index, zeilen, flavor):
+    daten = [list(KOPFZEILE)]
+    for z in range(1, zeilen + 1):
+        menge = 1 + zufall.randrange(250)
+        einzelpreis = zufall.randrange(50000) / 100.0
+        daten.append([str(z), zufall.choice(ARTIKEL), str(menge), zufall.choice(EINHEITEN),
+                      betrag(einzelpreis), betrag(menge * einzelpreis)])
+    return {
+        "index": index, "page": 1 + index // 2, "accuracy": 90 + zufall.randrange(1000) / 100.0,
+        "whitespace": zufall.randrange(4000) / 100.0, "flavor": flavor,
+        "data": daten
+    }
+
+
+def main(pdf_pfad, flavor):
+    steuerung = lese_steuerung(pdf_pfad)
+    zufall = random.Random(steuerung["startwert"])
+    for i in range(int(steuerung["stderr_zeilen"])):
+        print(f"INFO Python-Stub: Meldung {i + 1}", file=sys.stderr)
+
+    ergebnis = {
+        "source_pdf": str(Path(pdf_pfad).name), "full_path": str(pdf_pfad),
+        "billing_period_start": steuerung["zeitraum_start"], "billing_period_end": steuerung["zeitraum_ende"],
+        "tables": [erzeuge_tabelle(zufall, i, int(steuerung["zeilen"]), flavor)
+                   for i in range(int(steuerung["tabellen"]))],
+        "error": None
+    }
+    start = time.perf_counter()
+    time.sleep(int(steuerung["verzoegerung_ms"]) / 1000.0)
+    # Laufzeiten wie beim echten Skript (Liste "timings" in ms)
+    ergebnis["timings"] = [
+        {"stage": "verzoegerung", "ms": round((time.perf_counter() - start) * 1000.0, 1)},
+        {"stage": "gesamt", "ms": round((time.perf_counter() - SKRIPT_START) * 1000.0, 1)}
+    ]
+    print(json.dumps(ergebnis, indent=2))
+
+
+if __name__ == "__main__":
+    parser = argparse.ArgumentParser(description='Stub: liefert synthetische Tabellen statt Camelot.')
+    parser.add_argument('--pdf-path', required=True)
+    parser.add_argument('--flavor', default='lattice', choices=['lattice', 'stream'])
+    parser.add_argument('--row-tol', default=None)
+    args = parser.parse_args()
+    main(args.pdf_path, args.flavor)
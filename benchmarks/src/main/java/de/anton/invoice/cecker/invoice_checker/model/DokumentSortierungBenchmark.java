@@ -0,0 +1,63 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sortieren der Dokumentenliste über {@link PdfDokument#compareTo} (Abrechnungszeitraum, dann Dateiname),
+ * wie bei jeder Übernahme eines Dokuments in das Modell. Viele Dokumente teilen sich einen Monat,
+ * der Vergleich der Dateinamen wird also häufig erreicht.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class DokumentSortierungBenchmark {
+
+    @Param({"1000", "100000"})
+    public int anzahl;
+
+    private List<PdfDokument> unsortiert;
+    private List<PdfDokument> sortiert;
+
+    @Setup
+    public void erzeugen() {
+        unsortiert = new SynthetischeDokumente(42).dokumente(anzahl, 0, 0);
+        Collections.shuffle(unsortiert, new Random(7));
+        sortiert = new ArrayList<>(unsortiert);
+        Collections.sort(sortiert);
+    }
+
+    /** Zufällige Reihenfolge (z.B. nach dem Laden). */
+    @Benchmark
+    public List<PdfDokument> sortierenZufaellig() {
+        List<PdfDokument> kopie = new ArrayList<>(unsortiert);
+        Collections.sort(kopie);
+        return kopie;
+    }
+
+    /** Bereits sortierte Liste (der häufige Fall im Modell: ein Dokument wird ersetzt). */
+    @Benchmark
+    public List<PdfDokument> sortierenVorsortiert() {
+        List<PdfDokument> kopie = new ArrayList<>(sortiert);
+        Collections.sort(kopie);
+        return kopie;
+    }
+}
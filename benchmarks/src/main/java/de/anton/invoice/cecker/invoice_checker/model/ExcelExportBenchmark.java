@@ -0,0 +1,63 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ExcelExportService#exportiereNachExcel} für insgesamt {@code zeilen} Tabellenzeilen
+ * (Dokumente mit je einer Tabelle à 100 Zeilen), mit und ohne Streaming-Arbeitsmappe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class ExcelExportBenchmark {
+    private static final int ZEILEN_JE_TABELLE = 100;
+
+    @Param({"1000", "10000", "100000"})
+    public int zeilen;
+
+    @Param({"true", "false"})
+    public boolean streaming;
+
+    private List<PdfDokument> dokumente;
+    private ExcelExportService service;
+    private Path ziel;
+
+    @Setup
+    public void erzeugen() throws IOException {
+        dokumente = new SynthetischeDokumente(42).dokumente(Math.max(1, zeilen / ZEILEN_JE_TABELLE), 1, ZEILEN_JE_TABELLE);
+        service = new ExcelExportService();
+        service.setStreaming(streaming);
+        ziel = Files.createTempFile("benchmark-export", ".xlsx");
+    }
+
+    @TearDown
+    public void aufraeumen() throws IOException {
+        Files.deleteIfExists(ziel);
+    }
+
+    @Benchmark
+    public long exportieren() throws IOException {
+        service.exportiereNachExcel(dokumente, ziel);
+        return Files.size(ziel);
+    }
+}
@@ -0,0 +1,285 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Durchsatz-Messstand für die komplette Extraktion über {@link AnwendungsModell#ladeUndVerarbeitePdfs}, aber mit
+ * einem Stub-Skript ("scripts/stub_extraktor.py") statt Camelot. Gemessen wird damit der Anteil der Java-Seite:
+ * Prozessstart, stdout/stderr-Threads, JSON-Parsen und Übernahme ins Modell.
+ * <p>
+ * Für jede Parallelitätsstufe wird ein neues Modell mit entsprechend großem Thread-Pool angelegt und derselbe Satz
+ * Eingabedateien verarbeitet. Die Eingabedateien sind keine PDFs, sondern Steuerdateien für den Stub (Größe und
+ * Verzögerung der Ausgabe); Dateinamen und Abrechnungszeiträume kommen aus {@link SynthetischeDokumente}.
+ * Ausgegeben werden je Stufe Dokumente pro Sekunde, Latenz-Perzentile (exakt, Beginn bis Ende der Verarbeitung
+ * eines Dokuments im Pool, ohne Wartezeit in der Warteschlange), mittlere Dauer je {@link Verarbeitungsstufe}
+ * und die CPU-Zeit je Dokument, getrennt nach Java-Prozess und Python-Kindprozessen.
+ * <p>
+ * Kein JMH-Benchmark, sondern ein eigenes Hauptprogramm, da jeder Messpunkt echte Prozesse startet
+ * (Aufruf siehe README.md).
+ */
+public final class ExtraktionsDurchsatz {
+
+    private static final String VERWENDUNG = String.join(System.lineSeparator(),
+            "Aufruf: java -cp target/benchmarks.jar " + ExtraktionsDurchsatz.class.getName() + " [Optionen]",
+            "  --python <befehl>         Python-Interpreter (Standard: python3)",
+            "  --skript <pfad>           Stub-Skript (Standard: scripts/stub_extraktor.py)",
+            "  --dokumente <n>           Dokumente je Messung (Standard: 200)",
+            "  --worker <n,n,...>        Parallelitätsstufen (Standard: 1,2,4,8)",
+            "  --tabellen <n>            Tabellen je Dokument (Standard: 2)",
+            "  --zeilen <n>              Datenzeilen je Tabelle (Standard: 50)",
+            "  --verzoegerung-ms <n>     Simulierte Python-Rechenzeit je Dokument (Standard: 0)",
+            "  --stderr-zeilen <n>       Zeilen auf stderr je Dokument (Standard: 0)",
+            "  --aufwaermen <n>          Dokumente zum Aufwärmen vor jeder Messung (Standard: 20)");
+
+    private static final Verarbeitungsstufe[] STUFEN = {Verarbeitungsstufe.PROZESS_START, Verarbeitungsstufe.PYTHON,
+            Verarbeitungsstufe.JSON_PARSEN, Verarbeitungsstufe.UEBERNAHME};
+
+    private ExtraktionsDurchsatz() {
+    }
+
+    /** Ergebnis einer Messung. */
+    static final class Messung {
+        int worker;
+        int dokumente;
+        int fehler;
+        long wandNanos;
+        long[] latenzNanos;
+        final Map<Verarbeitungsstufe, Long> stufenNanos = new LinkedHashMap<>();
+        long javaCpuNanos;
+        long kindCpuNanos = -1; // -1: nicht verfügbar
+
+        double dokumenteProSekunde() {
+            return dokumente * 1e9 / wandNanos;
+        }
+
+        double perzentilMillis(double p) {
+            if (latenzNanos.length == 0) return 0;
+            int index = (int) Math.ceil(p * latenzNanos.length) - 1;
+            return latenzNanos[Math.max(0, index)] / 1e6;
+        }
+
+        double mittelMillis(Verarbeitungsstufe stufe) {
+            return dokumente == 0 ? 0 : stufenNanos.getOrDefault(stufe, 0L) / 1e6 / dokumente;
+        }
+    }
+
+    /**
+     * Extraktionsservice, der je Dokument den Beginn und die Stufenzeiten festhält.
+     * Das Ende misst der Callback von {@link AnwendungsModell#ladeUndVerarbeitePdfs} (nach der Übernahme ins Modell).
+     */
+    private static final class MessenderExtraktionsService extends ExtraktionsService {
+        private final Map<String, Long> beginn = new ConcurrentHashMap<>();
+        private final Map<String, StufenZeiten> zeiten = new ConcurrentHashMap<>();
+
+        MessenderExtraktionsService(String python, String skript) {
+            super(python, skript);
+        }
+
+        @Override
+        public PdfDokument extrahiereTabellenAusPdf(Path pdfPfad, Map<String, String> parameter, StufenZeiten stufenZeiten) {
+            String schluessel = pdfPfad.toAbsolutePath().toString();
+            beginn.put(schluessel, System.nanoTime());
+            zeiten.put(schluessel, stufenZeiten);
+            return super.extrahiereTabellenAusPdf(pdfPfad, parameter, stufenZeiten);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Vor dem ersten Logger setzen: INFO-Meldungen je Dokument würden sonst die Messung dominieren
+        if (System.getProperty("org.slf4j.simpleLogger.defaultLogLevel") == null) {
+            System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", "warn");
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        Map<String, String> optionen = leseOptionen(args);
+        if (optionen == null) {
+            System.err.println(VERWENDUNG);
+            System.exit(1);
+            return;
+        }
+        String python = optionen.getOrDefault("python", "python3");
+        String skript = optionen.getOrDefault("skript", Paths.get("scripts", "stub_extraktor.py").toString());
+        int dokumente = zahl(optionen, "dokumente", 200);
+        int tabellen = zahl(optionen, "tabellen", 2);
+        int zeilen = zahl(optionen, "zeilen", 50);
+        int verzoegerungMs = zahl(optionen, "verzoegerung-ms", 0);
+        int stderrZeilen = zahl(optionen, "stderr-zeilen", 0);
+        int aufwaermen = zahl(optionen, "aufwaermen", 20);
+        List<Integer> workerStufen = Arrays.stream(optionen.getOrDefault("worker", "1,2,4,8").split(","))
+                .map(String::trim).map(Integer::valueOf).collect(Collectors.toList());
+        if (!Files.exists(Paths.get(skript))) {
+            System.err.println("Stub-Skript nicht gefunden: " + Paths.get(skript).toAbsolutePath());
+            System.exit(1);
+            return;
+        }
+
+        Path verzeichnis = Files.createTempDirectory("extraktions-durchsatz");
+        try {
+            List<Path> eingaben = erstelleEingaben(verzeichnis, dokumente, tabellen, zeilen, verzoegerungMs, stderrZeilen);
+            System.out.printf(Locale.GERMANY, "Stub: %s %s | %d Dokumente à %d Tabellen x %d Zeilen, Verzögerung %d ms, "
+                            + "%d stderr-Zeilen | %d CPU-Kerne%n", python, skript, dokumente, tabellen, zeilen,
+                    verzoegerungMs, stderrZeilen, Runtime.getRuntime().availableProcessors());
+            System.out.println();
+            System.out.printf("%6s %8s %6s %9s %9s %9s %9s | %9s %9s %9s %9s | %11s %11s%n",
+                    "Worker", "Dok/s", "Fehler", "p50 ms", "p99 ms", "max ms", "Mittel ms",
+                    "Start", "Python", "JSON", "Übernahme", "Java-CPU ms", "Py-CPU ms");
+            for (int worker : workerStufen) {
+                if (aufwaermen > 0) {
+                    miss(python, skript, eingaben.subList(0, Math.min(aufwaermen, eingaben.size())), worker);
+                }
+                Messung m = miss(python, skript, eingaben, worker);
+                System.out.printf(Locale.GERMANY, "%6d %8.1f %6d %9.1f %9.1f %9.1f %9.1f | %9.2f %9.2f %9.2f %9.2f | %11.2f %11s%n",
+                        m.worker, m.dokumenteProSekunde(), m.fehler, m.perzentilMillis(0.50), m.perzentilMillis(0.99),
+                        m.perzentilMillis(1.0), mittel(m.latenzNanos) / 1e6,
+                        m.mittelMillis(Verarbeitungsstufe.PROZESS_START), m.mittelMillis(Verarbeitungsstufe.PYTHON),
+                        m.mittelMillis(Verarbeitungsstufe.JSON_PARSEN), m.mittelMillis(Verarbeitungsstufe.UEBERNAHME),
+                        m.javaCpuNanos / 1e6 / m.dokumente,
+                        m.kindCpuNanos < 0 ? "-" : String.format(Locale.GERMANY, "%.2f", m.kindCpuNanos / 1e6 / m.dokumente));
+            }
+            System.out.println();
+            System.out.println("Latenz: Beginn der Extraktion im Pool bis nach der Übernahme ins Modell (ohne Wartezeit). "
+                    + "CPU je Dokument: Java-Prozess gesamt bzw. beendete Kindprozesse (nur Linux).");
+        } finally {
+            try (Stream<Path> dateien = Files.walk(verzeichnis)) {
+                dateien.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+        System.exit(0); // EDT aus den PropertyChange-Events nicht abwarten
+    }
+
+    /**
+     * Verarbeitet die Eingaben mit einem neuen Modell und {@code worker} Threads.
+     * @return Die Messwerte.
+     */
+    static Messung miss(String python, String skript, List<Path> eingaben, int worker) {
+        MessenderExtraktionsService service = new MessenderExtraktionsService(python, skript);
+        AnwendungsModell modell = new AnwendungsModell(service, worker);
+        Map<String, Long> ende = new ConcurrentHashMap<>();
+        AtomicInteger fehler = new AtomicInteger();
+        Map<String, String> parameter = new LinkedHashMap<>();
+        parameter.put("flavor", "lattice");
+
+        Messung m = new Messung();
+        m.worker = worker;
+        m.dokumente = eingaben.size();
+        long javaCpuVorher = javaCpuNanos();
+        long kindCpuVorher = kindCpuNanos();
+        long start = System.nanoTime();
+        try {
+            modell.ladeUndVerarbeitePdfs(eingaben, parameter, doc -> {
+                ende.put(doc.getFullPath(), System.nanoTime());
+                if (doc.getError() != null) fehler.incrementAndGet();
+            }).join();
+            m.wandNanos = System.nanoTime() - start;
+            m.javaCpuNanos = javaCpuNanos() - javaCpuVorher;
+            long kindCpuNachher = kindCpuNanos();
+            m.kindCpuNanos = (kindCpuVorher < 0 || kindCpuNachher < 0) ? -1 : kindCpuNachher - kindCpuVorher;
+        } finally {
+            modell.shutdownExecutor();
+        }
+
+        m.fehler = fehler.get();
+        List<Long> latenzen = new ArrayList<>(eingaben.size());
+        for (Path eingabe : eingaben) {
+            String schluessel = eingabe.toAbsolutePath().toString();
+            Long von = service.beginn.get(schluessel);
+            Long bis = ende.get(schluessel);
+            if (von != null && bis != null) latenzen.add(bis - von);
+            StufenZeiten zeiten = service.zeiten.get(schluessel);
+            if (zeiten == null) continue;
+            for (Verarbeitungsstufe stufe : STUFEN) m.stufenNanos.merge(stufe, zeiten.getNanos(stufe), Long::sum);
+        }
+        m.latenzNanos = latenzen.stream().mapToLong(Long::longValue).sorted().toArray();
+        return m;
+    }
+
+    /**
+     * Legt je Dokument eine Steuerdatei für den Stub an, benannt wie eine Rechnung.
+     * @return Die absoluten Pfade in Verarbeitungsreihenfolge.
+     */
+    static List<Path> erstelleEingaben(Path verzeichnis, int anzahl, int tabellen, int zeilen,
+                                       int verzoegerungMs, int stderrZeilen) throws IOException {
+        SynthetischeDokumente generator = new SynthetischeDokumente(42);
+        ObjectMapper mapper = new ObjectMapper();
+        List<Path> eingaben = new ArrayList<>(anzahl);
+        for (int i = 0; i < anzahl; i++) {
+            PdfDokument vorlage = generator.dokument(i, 0, 0);
+            Map<String, Object> steuerung = new LinkedHashMap<>();
+            steuerung.put("tabellen", tabellen);
+            steuerung.put("zeilen", zeilen);
+            steuerung.put("verzoegerung_ms", verzoegerungMs);
+            steuerung.put("stderr_zeilen", stderrZeilen);
+            steuerung.put("startwert", i); // unterschiedliche Inhalte, sonst meldet der Duplikatindex jedes Dokument
+            steuerung.put("zeitraum_start", vorlage.getAbrechnungszeitraumStartStr());
+            steuerung.put("zeitraum_ende", vorlage.getAbrechnungszeitraumEndeStr());
+            Path datei = verzeichnis.resolve(vorlage.getSourcePdf()).toAbsolutePath();
+            Files.write(datei, mapper.writeValueAsBytes(steuerung));
+            eingaben.add(datei);
+        }
+        return eingaben;
+    }
+
+    /** @return Optionen ohne führendes "--", oder null bei ungültigem Aufruf. */
+    private static Map<String, String> leseOptionen(String[] args) {
+        Map<String, String> optionen = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) return null;
+            optionen.put(args[i].substring(2), args[i + 1]);
+        }
+        List<String> bekannt = Arrays.asList("python", "skript", "dokumente", "worker", "tabellen", "zeilen",
+                "verzoegerung-ms", "stderr-zeilen", "aufwaermen");
+        return bekannt.containsAll(optionen.keySet()) ? optionen : null;
+    }
+
+    private static int zahl(Map<String, String> optionen, String name, int standard) {
+        String wert = optionen.get(name);
+        return wert == null ? standard : Integer.parseInt(wert.trim());
+    }
+
+    private static double mittel(long[] werte) {
+        return werte.length == 0 ? 0 : Arrays.stream(werte).average().orElse(0);
+    }
+
+    /** @return CPU-Zeit des Java-Prozesses in Nanosekunden, -1 wenn nicht verfügbar. */
+    private static long javaCpuNanos() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    /**
+     * CPU-Zeit aller beendeten und abgeholten Kindprozesse (cutime + cstime aus /proc/self/stat, in Ticks zu 10 ms).
+     * @return Nanosekunden, -1 außerhalb von Linux.
+     */
+    private static long kindCpuNanos() {
+        try {
+            String stat = new String(Files.readAllBytes(Paths.get("/proc/self/stat")), StandardCharsets.US_ASCII);
+            // Felder nach dem Programmnamen "(...)": state ist Feld 3, cutime Feld 16, cstime Feld 17
+            String[] felder = stat.substring(stat.lastIndexOf(')') + 2).trim().split(" ");
+            long ticks = Long.parseLong(felder[13]) + Long.parseLong(felder[14]);
+            return ticks * 10_000_000L;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Spielt ein Jobprotokoll des {@link JobRekorder} gegen die Verarbeitung im {@link AnwendungsModell} ab, um
+ * abzuschätzen, wie ein Rechner mit anderer Workeranzahl die aufgezeichnete Last bewältigt hätte.
+ * <p>
+ * Die Ankunftsmuster bleiben erhalten: Jobs, die gemeinsam eingereicht wurden, werden wieder gemeinsam eingereicht,
+ * die Abstände dazwischen optional im Zeitraffer und mit gekürzten Pausen (Nächte, Wochenenden). Verarbeitet wird
+ * <ul>
+ *   <li>im Modus "stub" ohne Python: je Job werden die aufgezeichneten Dauern von Prozessstart, Python und
+ *       JSON-Parsen abgewartet und ein synthetisches Dokument mit der aufgezeichneten Tabellen- und Zeilenzahl
+ *       übernommen. Das bildet Warteschlange und Pool ab, aber keine CPU-Konkurrenz der Python-Prozesse;</li>
+ *   <li>im Modus "echt" mit dem Python-Skript auf den aufgezeichneten PDFs (fehlende Dateien werden übersprungen).</li>
+ * </ul>
+ * Je Workeranzahl werden Wartezeit in der Warteschlange (Perzentile) und Auslastung des Pools ausgegeben; gemessen
+ * wird dazu mit einem eigenen {@link JobRekorder}. Aufruf siehe README.md.
+ */
+public final class JobWiedergabe {
+
+    private static final String VERWENDUNG = String.join(System.lineSeparator(),
+            "Aufruf: java -cp target/benchmarks.jar " + JobWiedergabe.class.getName() + " --protokoll <datei> [Optionen]",
+            "  --protokoll <datei>       Jobprotokoll (aufgezeichnet mit -Djobprotokoll.datei=...)",
+            "  --modus <m>               stub (aufgezeichnete Dauern) oder echt (Python-Skript) (Standard: stub)",
+            "  --worker <n,n,...>        Workeranzahlen (Standard: 1,2,4,8)",
+            "  --zeitraffer <faktor>     Abstände zwischen Ankünften durch Faktor teilen (Standard: 1)",
+            "  --max-pause-ms <n>        Längere Abstände (nach Zeitraffer) darauf kürzen, 0 = nie (Standard: 0)",
+            "  --max-jobs <n>            Nur die ersten n Jobs, 0 = alle (Standard: 0)",
+            "  --python <befehl>         Python-Interpreter für --modus echt (Standard wie in der Anwendung)",
+            "  --skript <pfad>           Extraktionsskript für --modus echt (Standard wie in der Anwendung)");
+
+    private static final Verarbeitungsstufe[] EXTRAKTIONSSTUFEN = {Verarbeitungsstufe.PROZESS_START,
+            Verarbeitungsstufe.PYTHON, Verarbeitungsstufe.JSON_PARSEN};
+
+    private JobWiedergabe() {
+    }
+
+    /** Gemeinsam eingereichte Jobs mit ihrem Zeitpunkt in der Wiedergabe. */
+    static final class Stapel {
+        final long versatzNanos;
+        final List<Path> pfade = new ArrayList<>();
+        final Map<String, String> parameter;
+
+        Stapel(long versatzNanos, Map<String, String> parameter) {
+            this.versatzNanos = versatzNanos;
+            this.parameter = parameter;
+        }
+    }
+
+    /** Ergebnis eines Durchlaufs, oder die Werte der Aufzeichnung selbst. */
+    static final class Auswertung {
+        int worker;
+        int jobs;
+        int fehler;
+        double dauerSek;
+        double[] wartezeitMs; // sortiert
+        double auslastung; // 0..1
+
+        double perzentil(double p) {
+            if (wartezeitMs.length == 0) return 0;
+            int index = (int) Math.ceil(p * wartezeitMs.length) - 1;
+            return wartezeitMs[Math.max(0, index)];
+        }
+
+        /**
+         * @param eintraege Die Jobs eines Durchlaufs (mit gemessener Wartezeit und Gesamtdauer).
+         * @param worker Größe des Pools.
+         * @param dauerNanos Wandzeit des Durchlaufs.
+         */
+        static Auswertung aus(List<JobEintrag> eintraege, int worker, long dauerNanos) {
+            Auswertung a = new Auswertung();
+            a.worker = worker;
+            a.jobs = eintraege.size();
+            a.dauerSek = dauerNanos / 1e9;
+            double belegtNanos = 0;
+            for (JobEintrag e : eintraege) {
+                if (!e.istErfolgreich()) a.fehler++;
+                belegtNanos += e.getDauerNanos(Verarbeitungsstufe.GESAMT);
+            }
+            a.wartezeitMs = eintraege.stream().mapToDouble(JobEintrag::getWartezeitMs).sorted().toArray();
+            a.auslastung = dauerNanos <= 0 ? 0 : belegtNanos / ((double) worker * dauerNanos);
+            return a;
+        }
+    }
+
+    /**
+     * Extraktionsservice für den Modus "stub": wartet die aufgezeichneten Dauern ab, ohne Python zu starten.
+     */
+    private static final class AufgezeichneteExtraktion extends ExtraktionsService {
+        private final Map<String, JobEintrag> jobs;
+        private final Map<String, Integer> nummern;
+
+        AufgezeichneteExtraktion(Map<String, JobEintrag> jobs) {
+            super("-", "-"); // Es wird kein Prozess gestartet
+            this.jobs = jobs;
+            this.nummern = new HashMap<>();
+            int nummer = 0;
+            for (String pfad : jobs.keySet()) nummern.put(pfad, nummer++);
+        }
+
+        @Override
+        public PdfDokument extrahiereTabellenAusPdf(Path pdfPfad, Map<String, String> parameter, StufenZeiten zeiten) {
+            String schluessel = pdfPfad.toString();
+            JobEintrag job = jobs.get(schluessel);
+            for (Verarbeitungsstufe stufe : EXTRAKTIONSSTUFEN) {
+                long start = System.nanoTime();
+                if (stufe == Verarbeitungsstufe.JSON_PARSEN) {
+                    // Aufbau des Dokuments zählt zur JSON-Dauer (entspricht dem Parsen)
+                    PdfDokument doc = erzeugeDokument(job, nummern.get(schluessel), schluessel);
+                    warteBis(start + job.getDauerNanos(stufe));
+                    zeiten.erfasse(stufe, start);
+                    return doc;
+                }
+                warteBis(start + job.getDauerNanos(stufe));
+                zeiten.erfasse(stufe, start);
+            }
+            throw new IllegalStateException("JSON_PARSEN fehlt in den Extraktionsstufen");
+        }
+
+        private static PdfDokument erzeugeDokument(JobEintrag job, int nummer, String pfad) {
+            int tabellen = job.istErfolgreich() ? job.getTabellen() : 0;
+            int datenzeilen = tabellen == 0 ? 0 : Math.max(1, job.getZeilen() / tabellen - 1);
+            PdfDokument doc = new SynthetischeDokumente(nummer).dokument(nummer, tabellen, datenzeilen);
+            doc.setFullPath(pfad);
+            if (!job.istErfolgreich()) doc.setError("Wiedergabe eines aufgezeichneten Fehlers");
+            return doc;
+        }
+
+        private static void warteBis(long zielNanos) {
+            long rest;
+            while ((rest = zielNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(rest);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Vor dem ersten Logger setzen: INFO-Meldungen je Dokument würden sonst die Messung dominieren
+        if (System.getProperty("org.slf4j.simpleLogger.defaultLogLevel") == null) {
+            System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", "warn");
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        Map<String, String> optionen = leseOptionen(args);
+        if (optionen == null || !optionen.containsKey("protokoll")) {
+            System.err.println(VERWENDUNG);
+            System.exit(1);
+            return;
+        }
+        String modus = optionen.getOrDefault("modus", "stub");
+        if (!modus.equals("stub") && !modus.equals("echt")) {
+            System.err.println("Unbekannter Modus: " + modus + System.lineSeparator() + VERWENDUNG);
+            System.exit(1);
+            return;
+        }
+        double zeitraffer = Double.parseDouble(optionen.getOrDefault("zeitraffer", "1"));
+        long maxPauseMs = Long.parseLong(optionen.getOrDefault("max-pause-ms", "0"));
+        int maxJobs = Integer.parseInt(optionen.getOrDefault("max-jobs", "0"));
+        List<Integer> workerStufen = Arrays.stream(optionen.getOrDefault("worker", "1,2,4,8").split(","))
+                .map(String::trim).map(Integer::valueOf).collect(Collectors.toList());
+
+        List<JobEintrag> jobs = JobRekorder.lese(Paths.get(optionen.get("protokoll")));
+        if (maxJobs > 0 && jobs.size() > maxJobs) jobs = new ArrayList<>(jobs.subList(0, maxJobs));
+        if (modus.equals("echt")) {
+            int vorher = jobs.size();
+            jobs = jobs.stream().filter(j -> Files.isRegularFile(Paths.get(j.getDatei()))).collect(Collectors.toList());
+            if (jobs.size() < vorher) System.out.printf("%d Jobs ohne vorhandenes PDF übersprungen.%n", vorher - jobs.size());
+        }
+        if (jobs.isEmpty()) {
+            System.err.println("Keine Jobs im Protokoll.");
+            System.exit(1);
+            return;
+        }
+
+        // Pfade der Wiedergabe: im Stub-Modus eindeutig je Job (sonst ersetzt das Modell wiederholte PDFs)
+        Map<String, JobEintrag> jobsNachPfad = new LinkedHashMap<>();
+        List<Path> pfade = new ArrayList<>(jobs.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            JobEintrag job = jobs.get(i);
+            Path pfad = modus.equals("stub")
+                    ? Paths.get("wiedergabe", i + "_" + Paths.get(job.getDatei()).getFileName()).toAbsolutePath()
+                    : Paths.get(job.getDatei());
+            jobsNachPfad.put(pfad.toString(), job);
+            pfade.add(pfad);
+        }
+        List<Stapel> plan = planeAnkuenfte(jobs, pfade, zeitraffer, maxPauseMs);
+
+        long aufgezeichnetMs = jobs.get(jobs.size() - 1).getAnkunftMillis() - jobs.get(0).getAnkunftMillis();
+        System.out.printf(Locale.GERMANY, "Protokoll: %d Jobs in %d Stapeln über %s; Wiedergabe (%s) über mind. %.1f s "
+                        + "(Zeitraffer %s, max. Pause %s) | %d CPU-Kerne%n",
+                jobs.size(), plan.size(), dauerText(aufgezeichnetMs), modus,
+                plan.get(plan.size() - 1).versatzNanos / 1e9, optionen.getOrDefault("zeitraffer", "1"),
+                maxPauseMs > 0 ? maxPauseMs + " ms" : "-", Runtime.getRuntime().availableProcessors());
+        System.out.println();
+        String kopf = "%-12s %6s %6s %9s %8s | %10s %9s %9s %9s | %10s%n";
+        String zeile = "%-12s %6d %6d %9.1f %8.2f | %10.1f %9.1f %9.1f %9.1f | %9.1f%%%n";
+        System.out.printf(kopf, "Worker", "Jobs", "Fehler", "Dauer s", "Jobs/s", "Warten p50", "p95", "p99", "max", "Auslastung");
+
+        Auswertung aufzeichnung = Auswertung.aus(jobs, haeufigsteWorkeranzahl(jobs), aufgezeichnetDauerNanos(jobs));
+        System.out.printf(Locale.GERMANY, zeile, aufzeichnung.worker + " (aufgez.)", aufzeichnung.jobs, aufzeichnung.fehler,
+                aufzeichnung.dauerSek, aufzeichnung.jobs / aufzeichnung.dauerSek, aufzeichnung.perzentil(0.50),
+                aufzeichnung.perzentil(0.95), aufzeichnung.perzentil(0.99), aufzeichnung.perzentil(1.0),
+                aufzeichnung.auslastung * 100);
+        for (int worker : workerStufen) {
+            ExtraktionsService service;
+            if (modus.equals("stub")) {
+                service = new AufgezeichneteExtraktion(jobsNachPfad);
+            } else {
+                String python = optionen.get("python");
+                String skript = optionen.get("skript");
+                service = new ExtraktionsService(python != null ? python : ExtraktionsService.standardPythonAusfuehrbar(),
+                        skript != null ? skript : ExtraktionsService.standardSkriptPfad());
+            }
+            Auswertung a = spiele(plan, service, worker);
+            System.out.printf(Locale.GERMANY, zeile, Integer.toString(a.worker), a.jobs, a.fehler, a.dauerSek,
+                    a.jobs / a.dauerSek, a.perzentil(0.50), a.perzentil(0.95), a.perzentil(0.99), a.perzentil(1.0),
+                    a.auslastung * 100);
+        }
+        System.out.println();
+        System.out.println("Warten: Einreichen bis Beginn im Pool (ms). Auslastung: Summe der Verarbeitungszeiten "
+                + "je Worker und Wandzeit (erste Ankunft bis letzter Abschluss).");
+        System.exit(0); // EDT aus den PropertyChange-Events nicht abwarten
+    }
+
+    /**
+     * Fasst gemeinsam eingereichte Jobs zu Stapeln zusammen und berechnet ihren Zeitpunkt in der Wiedergabe.
+     * @param jobs Die Jobs, nach Ankunft sortiert.
+     * @param pfade Die Pfade der Wiedergabe, parallel zu {@code jobs}.
+     * @param zeitraffer Teiler für die Abstände zwischen Ankünften.
+     * @param maxPauseMs Obergrenze für einen Abstand nach dem Zeitraffer (0 = keine).
+     */
+    static List<Stapel> planeAnkuenfte(List<JobEintrag> jobs, List<Path> pfade, double zeitraffer, long maxPauseMs) {
+        List<Stapel> plan = new ArrayList<>();
+        Stapel aktuell = null;
+        long versatzNanos = 0;
+        long letzteAnkunft = jobs.get(0).getAnkunftMillis();
+        for (int i = 0; i < jobs.size(); i++) {
+            JobEintrag job = jobs.get(i);
+            if (aktuell == null || job.getAnkunftMillis() != letzteAnkunft || !job.getParameter().equals(aktuell.parameter)) {
+                long abstandNanos = (long) ((job.getAnkunftMillis() - letzteAnkunft) * 1_000_000 / zeitraffer);
+                if (maxPauseMs > 0) abstandNanos = Math.min(abstandNanos, maxPauseMs * 1_000_000);
+                versatzNanos += abstandNanos;
+                aktuell = new Stapel(versatzNanos, job.getParameter());
+                plan.add(aktuell);
+                letzteAnkunft = job.getAnkunftMillis();
+            }
+            aktuell.pfade.add(pfade.get(i));
+        }
+        return plan;
+    }
+
+    /**
+     * Reicht die Stapel zu ihren Zeitpunkten bei einem neuen Modell mit {@code worker} Threads ein.
+     * @return Die gemessenen Werte.
+     */
+    static Auswertung spiele(List<Stapel> plan, ExtraktionsService service, int worker) throws IOException {
+        Path messung = Files.createTempFile("job-wiedergabe", ".ndjson");
+        try {
+            AnwendungsModell modell = new AnwendungsModell(service, worker);
+            modell.setJobRekorder(new JobRekorder(messung, false));
+            List<CompletableFuture<Void>> auftraege = new ArrayList<>(plan.size());
+            long start = System.nanoTime();
+            long dauerNanos;
+            try {
+                for (Stapel stapel : plan) {
+                    long rest;
+                    while ((rest = start + stapel.versatzNanos - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(rest);
+                    }
+                    auftraege.add(modell.ladeUndVerarbeitePdfs(stapel.pfade, stapel.parameter, null));
+                }
+                CompletableFuture.allOf(auftraege.toArray(new CompletableFuture<?>[0])).join();
+                dauerNanos = System.nanoTime() - start;
+            } finally {
+                modell.shutdownExecutor(); // schließt auch den Rekorder
+            }
+            return Auswertung.aus(JobRekorder.lese(messung), worker, dauerNanos);
+        } finally {
+            Files.deleteIfExists(messung);
+        }
+    }
+
+    private static String dauerText(long millis) {
+        if (millis < 120_000) return String.format(Locale.GERMANY, "%.1f s", millis / 1000.0);
+        if (millis < 7_200_000) return String.format(Locale.GERMANY, "%.1f min", millis / 60_000.0);
+        return String.format(Locale.GERMANY, "%.1f h", millis / 3_600_000.0);
+    }
+
+    private static int haeufigsteWorkeranzahl(List<JobEintrag> jobs) {
+        Map<Integer, Long> anzahl = jobs.stream().collect(Collectors.groupingBy(JobEintrag::getWorker, Collectors.counting()));
+        return anzahl.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(1);
+    }
+
+    /** @return Erste Ankunft bis spätestes Ende (Ankunft + Wartezeit + Verarbeitung) der Aufzeichnung. */
+    private static long aufgezeichnetDauerNanos(List<JobEintrag> jobs) {
+        long erste = jobs.get(0).getAnkunftMillis() * 1_000_000;
+        long ende = erste;
+        for (JobEintrag job : jobs) {
+            long jobEnde = job.getAnkunftMillis() * 1_000_000 + Math.round(job.getWartezeitMs() * 1_000_000)
+                    + job.getDauerNanos(Verarbeitungsstufe.GESAMT);
+            ende = Math.max(ende, jobEnde);
+        }
+        return Math.max(1, ende - erste);
+    }
+
+    /** @return Optionen ohne führendes "--", oder null bei ungültigem Aufruf. */
+    private static Map<String, String> leseOptionen(String[] args) {
+        Map<String, String> optionen = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) return null;
+            optionen.put(args[i].substring(2), args[i + 1]);
+        }
+        List<String> bekannt = Arrays.asList("protokoll", "modus", "worker", "zeitraffer", "max-pause-ms", "max-jobs",
+                "python", "skript");
+        return bekannt.containsAll(optionen.keySet()) ? optionen : null;
+    }
+}
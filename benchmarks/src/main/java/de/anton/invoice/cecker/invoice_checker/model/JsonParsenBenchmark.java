@@ -0,0 +1,50 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsen der JSON-Ausgabe des Python-Skripts in ein {@link PdfDokument}, mit demselben ObjectMapper
+ * wie im {@link ExtraktionsService} (inkl. Setzen der Daten und Ermitteln der Spaltenzahl je Tabelle).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class JsonParsenBenchmark {
+
+    @Param({"1", "10"})
+    public int tabellen;
+
+    @Param({"20", "500"})
+    public int zeilenJeTabelle;
+
+    private final ObjectMapper mapper = ExtraktionsService.erstelleObjectMapper();
+    private String json;
+
+    @Setup
+    public void erzeugen() throws IOException {
+        PdfDokument doc = new SynthetischeDokumente(42).dokument(1, tabellen, zeilenJeTabelle);
+        json = SynthetischeDokumente.alsPythonJson(doc, new ObjectMapper());
+    }
+
+    @Benchmark
+    public PdfDokument parsen() throws IOException {
+        return mapper.readValue(json, PdfDokument.class);
+    }
+}
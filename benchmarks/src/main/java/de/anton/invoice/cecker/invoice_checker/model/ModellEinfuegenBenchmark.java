@@ -0,0 +1,71 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Übernahme verarbeiteter Dokumente in das {@link AnwendungsModell} aus mehreren Threads gleichzeitig,
+ * wie bei der parallelen Verarbeitung (Dokumentenliste unter Sperre sortieren, Volltext-, Zeitraum- und
+ * Duplikatindex aktualisieren). Der Bestand bleibt konstant: die Threads verarbeiten reihum dieselben
+ * Dokumente erneut, jede Übernahme ersetzt also einen vorhandenen Eintrag.
+ * Threadzahl mit "-t" auf der Kommandozeile ändern.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class ModellEinfuegenBenchmark {
+
+    @Param({"100", "1000"})
+    public int bestand;
+
+    private List<PdfDokument> dokumente;
+    private Path[] pfade;
+    private AnwendungsModell modell;
+    private final AtomicInteger naechstes = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void erzeugen() {
+        dokumente = new SynthetischeDokumente(42).dokumente(bestand, 2, 30);
+        pfade = new Path[bestand];
+        for (int i = 0; i < bestand; i++) pfade[i] = Paths.get(dokumente.get(i).getFullPath());
+    }
+
+    @Setup(Level.Iteration)
+    public void fuellen() {
+        modell = new AnwendungsModell();
+        for (int i = 0; i < bestand; i++) modell.uebernehmeDokument(pfade[i], dokumente.get(i));
+    }
+
+    @TearDown(Level.Iteration)
+    public void beenden() {
+        modell.shutdownExecutor();
+    }
+
+    @Benchmark
+    public void einfuegen() {
+        int i = Math.floorMod(naechstes.getAndIncrement(), bestand);
+        modell.uebernehmeDokument(pfade[i], dokumente.get(i));
+    }
+}
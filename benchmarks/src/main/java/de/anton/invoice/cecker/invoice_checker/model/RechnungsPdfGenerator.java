@@ -0,0 +1,317 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Erzeugt einen Korpus synthetischer Rechnungs-PDFs für Last- und Korrektheitstests der Extraktion,
+ * ohne echte Kundenrechnungen weitergeben zu müssen.
+ * <p>
+ * Jede Rechnung hat einen Kopf mit Lieferant, Rechnungsnummer und der Zeile "Abrechnung von TT.MM.JJJJ bis
+ * TT.MM.JJJJ" (wie sie das Python-Skript sucht) und je Seite eine Positionstabelle mit Beträgen im deutschen
+ * Format. Die Tabellen sind entweder mit Linien gerastert (für Camelot "lattice") oder rahmenlos mit
+ * ausgerichteten Spalten (für "stream"). Neben jedem PDF liegt die erwartete Ausgabe als
+ * "&lt;name&gt;.erwartet.json" im Format des Python-Skripts (Tabellen mit Kopfzeile als Zeile 0).
+ * Camelot liefert zusätzlich eine Zeile mit Spaltennummern vor der Kopfzeile; beim Vergleich ist sie zu überspringen.
+ * <p>
+ * Inhalte und Zeiträume kommen aus {@link SynthetischeDokumente}; jede Rechnung hat einen eigenen Startwert,
+ * sodass derselbe Aufruf unabhängig von der Thread-Anzahl dieselben Dateien erzeugt. Aufruf siehe README.md.
+ */
+public final class RechnungsPdfGenerator {
+
+    /** Tabellenlayout der erzeugten PDFs. */
+    public enum Layout { LATTICE, STREAM, GEMISCHT }
+
+    /** Höchstzahl an Datenzeilen, die mit Kopf auf eine Seite passen; mehr Zeilen über mehr Seiten. */
+    public static final int MAX_ZEILEN_JE_SEITE = 35;
+
+    private static final String VERWENDUNG = String.join(System.lineSeparator(),
+            "Aufruf: java -cp target/benchmarks.jar " + RechnungsPdfGenerator.class.getName() + " [Optionen]",
+            "  --ziel <verzeichnis>      Ausgabeverzeichnis (Standard: korpus)",
+            "  --anzahl <n>              Anzahl der Rechnungen (Standard: 100)",
+            "  --seiten <n>              Seiten je Rechnung, je Seite eine Tabelle (Standard: 1)",
+            "  --zeilen <n>              Datenzeilen je Tabelle, 1 bis " + MAX_ZEILEN_JE_SEITE + " (Standard: 20)",
+            "  --layout <l>              lattice, stream oder gemischt (Standard: gemischt)",
+            "  --startwert <n>           Startwert für reproduzierbare Inhalte (Standard: 42)",
+            "  --threads <n>             Parallel erzeugte Rechnungen (Standard: Anzahl CPU-Kerne)");
+
+    // Seitengeometrie (A4, Punkte)
+    private static final float RAND = 50f;
+    private static final float ZEILENHOEHE = 15f;
+    private static final float SCHRIFT = 9f;
+    private static final float SCHRIFT_KOPF = 14f;
+    private static final float ZELLABSTAND = 4f;
+    /** Spaltenbreiten zu {@link SynthetischeDokumente#KOPFZEILE}; Spalten ab Index 2 sind rechtsbündig (Zahlen). */
+    private static final float[] SPALTEN = {35f, 185f, 50f, 60f, 80f, 85f};
+    private static final int ERSTE_ZAHLENSPALTE = 2;
+
+    private static final PDFont SCHRIFTART = PDType1Font.HELVETICA;
+    private static final PDFont SCHRIFTART_FETT = PDType1Font.HELVETICA_BOLD;
+    // Zeichenbreiten (WinAnsi, je 1 pt Schriftgröße), einmalig ermittelt. Das füllt zugleich die internen
+    // Caches der gemeinsam genutzten Standardschriften, die danach von mehreren Threads nur noch gelesen werden.
+    private static final float[] BREITEN = zeichenBreiten(SCHRIFTART);
+    private static final float[] BREITEN_FETT = zeichenBreiten(SCHRIFTART_FETT);
+
+    private static final DateTimeFormatter DATUM = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final Path ziel;
+    private final int seiten;
+    private final int zeilen;
+    private final Layout layout;
+    private final long startwert;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * @param ziel Ausgabeverzeichnis (wird angelegt).
+     * @param seiten Seiten (= Tabellen) je Rechnung, mindestens 1.
+     * @param zeilen Datenzeilen je Tabelle, 1 bis {@link #MAX_ZEILEN_JE_SEITE}.
+     * @param layout Tabellenlayout; bei {@link Layout#GEMISCHT} wechselt es von Rechnung zu Rechnung.
+     * @param startwert Startwert für die Inhalte.
+     */
+    public RechnungsPdfGenerator(Path ziel, int seiten, int zeilen, Layout layout, long startwert) {
+        if (seiten < 1) throw new IllegalArgumentException("Seitenanzahl muss mindestens 1 sein: " + seiten);
+        if (zeilen < 1 || zeilen > MAX_ZEILEN_JE_SEITE) {
+            throw new IllegalArgumentException("Zeilen je Tabelle müssen zwischen 1 und " + MAX_ZEILEN_JE_SEITE + " liegen: " + zeilen);
+        }
+        this.ziel = ziel;
+        this.seiten = seiten;
+        this.zeilen = zeilen;
+        this.layout = layout;
+        this.startwert = startwert;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> optionen = leseOptionen(args);
+        if (optionen == null) {
+            System.err.println(VERWENDUNG);
+            System.exit(1);
+            return;
+        }
+        Path ziel = Paths.get(optionen.getOrDefault("ziel", "korpus"));
+        int anzahl = Integer.parseInt(optionen.getOrDefault("anzahl", "100"));
+        int threads = Integer.parseInt(optionen.getOrDefault("threads", Integer.toString(Runtime.getRuntime().availableProcessors())));
+        RechnungsPdfGenerator generator = new RechnungsPdfGenerator(ziel,
+                Integer.parseInt(optionen.getOrDefault("seiten", "1")),
+                Integer.parseInt(optionen.getOrDefault("zeilen", "20")),
+                Layout.valueOf(optionen.getOrDefault("layout", "gemischt").toUpperCase(Locale.ROOT)),
+                Long.parseLong(optionen.getOrDefault("startwert", "42")));
+
+        long start = System.nanoTime();
+        long bytes = generator.erzeuge(anzahl, threads);
+        double sekunden = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.GERMANY, "%d Rechnungen (%.1f MB PDF) in %.1f s nach %s erzeugt (%.0f Rechnungen/s).%n",
+                anzahl, bytes / 1e6, sekunden, ziel.toAbsolutePath(), anzahl / sekunden);
+    }
+
+    /**
+     * Erzeugt die Rechnungen 0 bis anzahl-1 (vorhandene Dateien gleichen Namens werden überschrieben).
+     * @param anzahl Anzahl der Rechnungen.
+     * @param threads Anzahl paralleler Threads.
+     * @return Gesamtgröße der erzeugten PDFs in Bytes.
+     */
+    public long erzeuge(int anzahl, int threads) throws IOException, InterruptedException {
+        Files.createDirectories(ziel);
+        AtomicLong bytes = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<?>> auftraege = new ArrayList<>(anzahl);
+            for (int i = 0; i < anzahl; i++) {
+                final int nummer = i;
+                auftraege.add(pool.submit(() -> {
+                    try {
+                        bytes.addAndGet(Files.size(erzeugeRechnung(nummer)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            for (Future<?> auftrag : auftraege) {
+                try {
+                    auftrag.get();
+                } catch (java.util.concurrent.ExecutionException e) {
+                    Throwable ursache = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+                    if (ursache instanceof IOException) throw (IOException) ursache;
+                    throw new IllegalStateException("Erzeugen einer Rechnung fehlgeschlagen", ursache);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return bytes.get();
+    }
+
+    /**
+     * Erzeugt eine Rechnung samt erwarteter Ausgabe.
+     * @param nummer Laufende Nummer (bestimmt Lieferant, Monat, Inhalt und bei gemischtem Layout das Layout).
+     * @return Pfad des PDFs.
+     */
+    public Path erzeugeRechnung(int nummer) throws IOException {
+        Layout rechnungsLayout = layout != Layout.GEMISCHT ? layout : (nummer % 2 == 0 ? Layout.LATTICE : Layout.STREAM);
+        PdfDokument doc = new SynthetischeDokumente(startwert + nummer).dokument(nummer, seiten, zeilen);
+        LocalDate von = LocalDate.parse(doc.getAbrechnungszeitraumStartStr());
+        LocalDate bis = LocalDate.parse(doc.getAbrechnungszeitraumEndeStr());
+        Path verzeichnis = ziel.resolve(Integer.toString(von.getYear()));
+        Files.createDirectories(verzeichnis);
+        Path pdf = verzeichnis.resolve(doc.getSourcePdf());
+
+        String flavor = rechnungsLayout.name().toLowerCase(Locale.ROOT);
+        for (int t = 0; t < doc.getTables().size(); t++) {
+            ExtrahierteTabelle tabelle = doc.getTables().get(t);
+            tabelle.setIndex(0); // Camelot zählt je Seite
+            tabelle.setPage(t + 1);
+            tabelle.setFlavor(flavor);
+            tabelle.setAccuracy(100);
+            tabelle.setWhitespace(0);
+        }
+        doc.setFullPath(pdf.toAbsolutePath().toString());
+
+        try (PDDocument pdDoc = new PDDocument()) {
+            List<ExtrahierteTabelle> tabellen = doc.getTables();
+            for (int t = 0; t < tabellen.size(); t++) {
+                PDPage seite = new PDPage(PDRectangle.A4);
+                pdDoc.addPage(seite);
+                try (PDPageContentStream inhalt = new PDPageContentStream(pdDoc, seite)) {
+                    float y = seite.getMediaBox().getHeight() - RAND;
+                    if (t == 0) {
+                        y = schreibeKopf(inhalt, y, doc, nummer, von, bis);
+                    } else {
+                        text(inhalt, SCHRIFTART, SCHRIFT, RAND, y - SCHRIFT, lieferantName(doc) + " - Rechnung RE-" + nummer
+                                + " - Seite " + (t + 1) + " von " + tabellen.size());
+                        y -= 3 * ZEILENHOEHE;
+                    }
+                    schreibeTabelle(inhalt, y, tabellen.get(t).getData(), rechnungsLayout == Layout.LATTICE);
+                }
+            }
+            pdDoc.save(pdf.toFile());
+        }
+        String stamm = doc.getSourcePdf().replaceFirst("(?i)\\.pdf$", "");
+        Files.write(verzeichnis.resolve(stamm + ".erwartet.json"),
+                SynthetischeDokumente.alsPythonJson(doc, mapper).getBytes(StandardCharsets.UTF_8));
+        return pdf;
+    }
+
+    /** Schreibt Absender, Empfänger und Rechnungsdaten; gibt die y-Position unter dem Kopf zurück. */
+    private float schreibeKopf(PDPageContentStream inhalt, float y, PdfDokument doc, int nummer,
+                               LocalDate von, LocalDate bis) throws IOException {
+        text(inhalt, SCHRIFTART_FETT, SCHRIFT_KOPF, RAND, y - SCHRIFT_KOPF, lieferantName(doc));
+        y -= SCHRIFT_KOPF + ZEILENHOEHE;
+        for (String zeile : Arrays.asList("Musterfirma GmbH", "Musterstraße 1", "12345 Musterstadt")) {
+            text(inhalt, SCHRIFTART, SCHRIFT, RAND, y - SCHRIFT, zeile);
+            y -= ZEILENHOEHE;
+        }
+        y -= ZEILENHOEHE;
+        text(inhalt, SCHRIFTART_FETT, SCHRIFT + 2, RAND, y - SCHRIFT, "Rechnung Nr. RE-" + von.getYear() + "-" + nummer);
+        y -= ZEILENHOEHE + 2;
+        text(inhalt, SCHRIFTART, SCHRIFT, RAND, y - SCHRIFT, "Rechnungsdatum: " + bis.plusDays(3).format(DATUM));
+        y -= ZEILENHOEHE;
+        text(inhalt, SCHRIFTART, SCHRIFT, RAND, y - SCHRIFT, "Abrechnung von " + von.format(DATUM) + " bis " + bis.format(DATUM));
+        return y - 2 * ZEILENHOEHE;
+    }
+
+    /**
+     * Schreibt eine Tabelle ab der y-Position (Oberkante). Zeile 0 ist die Kopfzeile (fett).
+     * @param gerastert true: Linien um jede Zelle (lattice); false: nur ausgerichtete Spalten (stream).
+     */
+    private void schreibeTabelle(PDPageContentStream inhalt, float oben, List<List<String>> daten, boolean gerastert) throws IOException {
+        float breite = 0;
+        for (float spalte : SPALTEN) breite += spalte;
+        for (int z = 0; z < daten.size(); z++) {
+            float grundlinie = oben - (z + 1) * ZEILENHOEHE + (ZEILENHOEHE - SCHRIFT) / 2 + 1;
+            PDFont schrift = z == 0 ? SCHRIFTART_FETT : SCHRIFTART;
+            float[] breiten = z == 0 ? BREITEN_FETT : BREITEN;
+            float x = RAND;
+            List<String> zeile = daten.get(z);
+            for (int s = 0; s < SPALTEN.length && s < zeile.size(); s++) {
+                String wert = zeile.get(s);
+                float textX = s >= ERSTE_ZAHLENSPALTE && z > 0
+                        ? x + SPALTEN[s] - ZELLABSTAND - textBreite(wert, breiten) // rechtsbündig
+                        : x + ZELLABSTAND;
+                text(inhalt, schrift, SCHRIFT, textX, grundlinie, wert);
+                x += SPALTEN[s];
+            }
+        }
+        if (!gerastert) return;
+        float unten = oben - daten.size() * ZEILENHOEHE;
+        inhalt.setLineWidth(0.5f);
+        for (int z = 0; z <= daten.size(); z++) {
+            float y = oben - z * ZEILENHOEHE;
+            inhalt.moveTo(RAND, y);
+            inhalt.lineTo(RAND + breite, y);
+        }
+        float x = RAND;
+        for (int s = 0; s <= SPALTEN.length; s++) {
+            inhalt.moveTo(x, oben);
+            inhalt.lineTo(x, unten);
+            if (s < SPALTEN.length) x += SPALTEN[s];
+        }
+        inhalt.stroke();
+    }
+
+    private static void text(PDPageContentStream inhalt, PDFont schrift, float groesse, float x, float y, String text) throws IOException {
+        inhalt.beginText();
+        inhalt.setFont(schrift, groesse);
+        inhalt.newLineAtOffset(x, y);
+        inhalt.showText(text);
+        inhalt.endText();
+    }
+
+    private static float textBreite(String text, float[] breiten) {
+        float summe = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            summe += c < breiten.length ? breiten[c] : 0.5f;
+        }
+        return summe * SCHRIFT;
+    }
+
+    private static float[] zeichenBreiten(PDFont schrift) {
+        float[] breiten = new float[256];
+        for (int c = 32; c < breiten.length; c++) {
+            try {
+                breiten[c] = schrift.getStringWidth(String.valueOf((char) c)) / 1000f;
+            } catch (IllegalArgumentException | IOException e) {
+                breiten[c] = 0.5f; // Nicht in WinAnsi kodierbar
+            }
+        }
+        return breiten;
+    }
+
+    private static String lieferantName(PdfDokument doc) {
+        return doc.getSourcePdf().substring(0, doc.getSourcePdf().indexOf("_Rechnung_")).replace('_', ' ');
+    }
+
+    /** @return Optionen ohne führendes "--", oder null bei ungültigem Aufruf. */
+    private static Map<String, String> leseOptionen(String[] args) {
+        Map<String, String> optionen = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) return null;
+            optionen.put(args[i].substring(2), args[i + 1]);
+        }
+        List<String> bekannt = Arrays.asList("ziel", "anzahl", "seiten", "zeilen", "layout", "startwert", "threads");
+        return bekannt.containsAll(optionen.keySet()) ? optionen : null;
+    }
+}
@@ -0,0 +1,142 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Erzeugt reproduzierbare synthetische Rechnungsdokumente für die Benchmarks.
+ * <p>
+ * Die Dokumente ähneln der Ausgabe des Python-Skripts: Dateinamen wie "Stadtwerke_Rechnung_2020-04_17.pdf"
+ * und Tabellen mit Positionen, Mengen und Beträgen im deutschen Format ("1.234,56"). Wie in einem echten
+ * Bestand hat jeder Lieferant eine Rechnung je Monat (ab Januar 2020), es gibt also keine überschneidenden
+ * Zeiträume und keine Duplikate. Gleicher Startwert ergibt gleiche Daten, damit Messungen vergleichbar bleiben.
+ */
+public final class SynthetischeDokumente {
+
+    /** Spaltenköpfe der erzeugten Tabellen. */
+    public static final List<String> KOPFZEILE = Arrays.asList("Pos", "Beschreibung", "Menge", "Einheit", "Einzelpreis", "Betrag");
+
+    private static final String[] LIEFERANTEN = {"Stadtwerke", "Telekom", "Vodafone", "Hausverwaltung_Mueller",
+            "Allianz", "EnBW", "Rundfunkbeitrag", "Buerobedarf_Schmidt"};
+    private static final String[] ARTIKEL = {"Grundgebühr", "Arbeitspreis HT", "Arbeitspreis NT", "Verbrauch Wasser",
+            "Abwasser", "Mobilfunk Tarif L", "Datenvolumen", "Kopierpapier A4", "Toner schwarz", "Wartung Heizung",
+            "Versicherungsbeitrag", "Servicepauschale"};
+    private static final String[] EINHEITEN = {"Stk", "kWh", "m³", "Monat", "Pauschal"};
+
+    private static final YearMonth ERSTER_MONAT = YearMonth.of(2020, 1);
+
+    private final Random zufall;
+
+    /**
+     * @param startwert Startwert des Zufallsgenerators (gleicher Wert = gleiche Dokumente).
+     */
+    public SynthetischeDokumente(long startwert) {
+        this.zufall = new Random(startwert);
+    }
+
+    /**
+     * @param anzahl Anzahl der Dokumente.
+     * @param tabellen Tabellen je Dokument.
+     * @param zeilenJeTabelle Datenzeilen je Tabelle (ohne Kopfzeile).
+     * @return Dokumente mit eindeutigen Pfaden, nach Monat und Lieferant aufsteigend.
+     */
+    public List<PdfDokument> dokumente(int anzahl, int tabellen, int zeilenJeTabelle) {
+        List<PdfDokument> ergebnis = new ArrayList<>(anzahl);
+        for (int i = 0; i < anzahl; i++) ergebnis.add(dokument(i, tabellen, zeilenJeTabelle));
+        return ergebnis;
+    }
+
+    /**
+     * @param nummer Laufende Nummer (bestimmt Lieferant und Monat, macht Dateinamen und Pfad eindeutig).
+     * @param tabellen Anzahl der Tabellen.
+     * @param zeilenJeTabelle Datenzeilen je Tabelle (ohne Kopfzeile).
+     * @return Ein Dokument mit geparstem Abrechnungszeitraum.
+     */
+    public PdfDokument dokument(int nummer, int tabellen, int zeilenJeTabelle) {
+        String lieferant = LIEFERANTEN[nummer % LIEFERANTEN.length];
+        YearMonth monat = ERSTER_MONAT.plusMonths(nummer / LIEFERANTEN.length);
+        String name = lieferant + "_Rechnung_" + monat + "_" + nummer + ".pdf";
+
+        PdfDokument doc = new PdfDokument();
+        doc.setSourcePdf(name);
+        doc.setFullPath("/rechnungen/" + monat.getYear() + "/" + name);
+        doc.setAbrechnungszeitraumStartStr(monat.atDay(1).toString());
+        doc.setAbrechnungszeitraumEndeStr(monat.atEndOfMonth().toString());
+        List<ExtrahierteTabelle> liste = new ArrayList<>(tabellen);
+        for (int t = 0; t < tabellen; t++) {
+            ExtrahierteTabelle tabelle = new ExtrahierteTabelle();
+            tabelle.setIndex(t);
+            tabelle.setPage(1 + t / 2);
+            tabelle.setFlavor(zufall.nextBoolean() ? "lattice" : "stream");
+            tabelle.setAccuracy(90 + zufall.nextInt(1000) / 100.0);
+            tabelle.setWhitespace(zufall.nextInt(4000) / 100.0);
+            tabelle.setData(tabellenDaten(zeilenJeTabelle));
+            liste.add(tabelle);
+        }
+        doc.setTables(liste);
+        return doc;
+    }
+
+    /**
+     * @param zeilen Anzahl der Datenzeilen.
+     * @return Tabelleninhalt mit {@link #KOPFZEILE} als Zeile 0.
+     */
+    public List<List<String>> tabellenDaten(int zeilen) {
+        List<List<String>> daten = new ArrayList<>(zeilen + 1);
+        daten.add(new ArrayList<>(KOPFZEILE));
+        for (int z = 1; z <= zeilen; z++) {
+            int menge = 1 + zufall.nextInt(250);
+            double einzelpreis = zufall.nextInt(50_000) / 100.0;
+            List<String> zeile = new ArrayList<>(KOPFZEILE.size());
+            zeile.add(Integer.toString(z));
+            zeile.add(ARTIKEL[zufall.nextInt(ARTIKEL.length)]);
+            zeile.add(Integer.toString(menge));
+            zeile.add(EINHEITEN[zufall.nextInt(EINHEITEN.length)]);
+            zeile.add(betrag(einzelpreis));
+            zeile.add(betrag(menge * einzelpreis));
+            daten.add(zeile);
+        }
+        return daten;
+    }
+
+    /**
+     * Serialisiert ein Dokument so, wie das Python-Skript es auf stdout ausgibt (snake_case, Datumsangaben als Text).
+     * @param doc Das Dokument.
+     * @param mapper Ein beliebiger ObjectMapper.
+     * @return Das JSON.
+     */
+    public static String alsPythonJson(PdfDokument doc, ObjectMapper mapper) throws JsonProcessingException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("source_pdf", doc.getSourcePdf());
+        json.put("full_path", doc.getFullPath());
+        json.put("billing_period_start", doc.getAbrechnungszeitraumStartStr());
+        json.put("billing_period_end", doc.getAbrechnungszeitraumEndeStr());
+        List<Map<String, Object>> tabellen = new ArrayList<>();
+        for (ExtrahierteTabelle tabelle : doc.getTables()) {
+            Map<String, Object> t = new LinkedHashMap<>();
+            t.put("index", tabelle.getIndex());
+            t.put("page", tabelle.getPage());
+            t.put("flavor", tabelle.getFlavor());
+            t.put("accuracy", tabelle.getAccuracy());
+            t.put("whitespace", tabelle.getWhitespace());
+            t.put("data", tabelle.getData());
+            tabellen.add(t);
+        }
+        json.put("tables", tabellen);
+        json.put("error", doc.getError());
+        return mapper.writeValueAsString(json);
+    }
+
+    private static String betrag(double wert) {
+        return String.format(Locale.GERMANY, "%,.2f", wert);
+    }
+}
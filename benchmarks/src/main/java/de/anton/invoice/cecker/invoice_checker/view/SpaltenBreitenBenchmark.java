@@ -0,0 +1,59 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import de.anton.invoice.cecker.invoice_checker.model.SynthetischeDokumente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messen der Spaltenbreiten im {@link TabellenSpaltenAnpasser} (der Teil, der im Hintergrund läuft,
+ * inkl. Stichprobenauswahl bei großen Tabellen). Läuft ohne Bildschirm (headless).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class SpaltenBreitenBenchmark {
+
+    @Param({"1000", "100000"})
+    public int zeilen;
+
+    private List<List<String>> daten;
+    private Graphics2D grafik;
+    private FontMetrics fontMetrics;
+
+    @Setup
+    public void erzeugen() {
+        daten = new SynthetischeDokumente(42).tabellenDaten(zeilen);
+        grafik = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        fontMetrics = grafik.getFontMetrics(new Font(Font.DIALOG, Font.PLAIN, 12));
+    }
+
+    @TearDown
+    public void aufraeumen() {
+        grafik.dispose();
+    }
+
+    @Benchmark
+    public int[] messen() {
+        return TabellenSpaltenAnpasser.measureDataWidths(daten, SynthetischeDokumente.KOPFZEILE.size(), fontMetrics, 3);
+    }
+}
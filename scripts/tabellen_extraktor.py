@@ -1,3 +1,6 @@
+import time
+SKRIPT_START = time.perf_counter() # Vor den Importen, damit deren Dauer mitgemessen wird
+
 import camelot
 import sys
 import json
@@ -9,6 +12,9 @@ import PyPDF2
 from datetime import datetime
 import warnings
 import argparse
+from contextlib import contextmanager
+
+IMPORT_MS = round((time.perf_counter() - SKRIPT_START) * 1000.0, 1)
 
 # warnings.filterwarnings("ignore") # Kann auskommentiert bleiben, stört nicht mehr
 
@@ -40,19 +46,33 @@ def finde_abrechnungszeitraum(pdf_pfad, max_seiten=3):
     return start_datum, end_datum
 
 
+@contextmanager
+def gemessen(zeiten, stufe, **details):
+    # Hängt die Dauer des Blocks (auch bei Ausnahme) an die Liste "timings" im Ergebnis an
+    start = time.perf_counter()
+    try:
+        yield
+    finally:
+        zeiten.append(dict(stage=stufe, ms=round((time.perf_counter() - start) * 1000.0, 1), **details))
+
+
 def extrahiere_tabellen_nach_json(pdf_pfad, flavor_param, row_tol_str):
     ergebnis = {
         "source_pdf": str(Path(pdf_pfad).name), "full_path": str(pdf_pfad),
         "billing_period_start": None, "billing_period_end": None,
-        "tables": [], "error": None
+        "tables": [], "error": None,
+        # Laufzeiten der Python-Seite in ms, von Java mit den eigenen Stufen zu einem Verlauf je Dokument verbunden
+        "timings": [{"stage": "imports", "ms": IMPORT_MS}]
     }
+    zeiten = ergebnis["timings"]
     tabellen_gefunden = False
 
     try:
         if not os.path.exists(pdf_pfad):
              raise FileNotFoundError(f"Eingabe-PDF nicht gefunden: {pdf_pfad}")
 
-        start_datum, end_datum = finde_abrechnungszeitraum(pdf_pfad)
+        with gemessen(zeiten, "datum_scan"):
+            start_datum, end_datum = finde_abrechnungszeitraum(pdf_pfad)
         ergebnis["billing_period_start"] = start_datum
         ergebnis["billing_period_end"] = end_datum
 
@@ -74,7 +94,8 @@ def extrahiere_tabellen_nach_json(pdf_pfad, flavor_param, row_tol_str):
         # --- Camelot Aufruf ---
         print(f"INFO Python: Versuche camelot.read_pdf mit flavor='{aktiver_flavor}'...", file=sys.stderr)
         try:
-            tabellen = camelot.read_pdf(pdf_pfad, **camelot_kwargs)
+            with gemessen(zeiten, "camelot.read_pdf", flavor=aktiver_flavor):
+                tabellen = camelot.read_pdf(pdf_pfad, **camelot_kwargs)
             print(f"INFO Python: Camelot ({aktiver_flavor}) hat {tabellen.n} Tabellen gefunden.", file=sys.stderr)
 
             if tabellen.n > 0:
@@ -103,7 +124,8 @@ def extrahiere_tabellen_nach_json(pdf_pfad, flavor_param, row_tol_str):
                           except ValueError: pass # Warnung wurde ggf. schon oben ausgegeben
 
                       try:
-                          tabellen_stream = camelot.read_pdf(pdf_pfad, **stream_kwargs)
+                          with gemessen(zeiten, "stream_fallback", flavor="stream"):
+                              tabellen_stream = camelot.read_pdf(pdf_pfad, **stream_kwargs)
                           print(f"INFO Python: Camelot (stream Fallback) hat {tabellen_stream.n} Tabellen gefunden.", file=sys.stderr)
                           if tabellen_stream.n > 0:
                                # Verarbeite Stream Tabellen
@@ -137,6 +159,7 @@ def extrahiere_tabellen_nach_json(pdf_pfad, flavor_param, row_tol_str):
         tb_lines = traceback.format_exc().splitlines(); short_tb = "\n".join(tb_lines[:15]+["..."]); ergebnis["error"] = f"Allg. Fehler: {e}\n{short_tb}"; print(f"FEHLER Python: Allg.: {e}", file=sys.stderr); print(traceback.format_exc(), file=sys.stderr)
 
     # --- JSON-Ausgabe ---
+    zeiten.append({"stage": "gesamt", "ms": round((time.perf_counter() - SKRIPT_START) * 1000.0, 1)})
     print(json.dumps(ergebnis, indent=2))
 
 
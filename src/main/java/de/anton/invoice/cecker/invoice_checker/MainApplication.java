@@ -5,15 +5,36 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.anton.invoice.cecker.invoice_checker.controller.AppController;
+import de.anton.invoice.cecker.invoice_checker.controller.KommandozeilenController;
 import de.anton.invoice.cecker.invoice_checker.model.AnwendungsModell;
+import de.anton.invoice.cecker.invoice_checker.model.JobRekorder;
+import de.anton.invoice.cecker.invoice_checker.model.MetrikRegistry;
+import de.anton.invoice.cecker.invoice_checker.view.EdtWaechter;
 import de.anton.invoice.cecker.invoice_checker.view.MainFrame;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class MainApplication {
     private static final Logger log = LoggerFactory.getLogger(MainApplication.class);
 
     public static void main(String[] args) {
+        // Kennzahlen per JMX (JConsole/VisualVM) und periodisch im Log (Intervall per -Dmetriken.logIntervallSek, 0 = aus)
+        MetrikRegistry.global().registriereJmx();
+        MetrikRegistry.global().starteLogAusgabe(Long.getLong("metriken.logIntervallSek", 300));
+
+        // Betrieb ohne GUI (z.B. für Batch-Auswertungen): --headless [Optionen] <pdfs...>
+        if (args.length > 0 && args[0].equals("--headless")) {
+            System.setProperty("java.awt.headless", "true");
+            log.info("Starte im Kommandozeilenmodus.");
+            AnwendungsModell model = erzeugeModell();
+            int exitCode = new KommandozeilenController(model, System.out).ausfuehren(Arrays.copyOfRange(args, 1, args.length));
+            model.shutdownExecutor();
+            System.exit(exitCode);
+        }
+
         // Look and Feel setzen (optional, für besseres Aussehen der UI)
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -21,15 +42,38 @@ public class MainApplication {
             log.warn("Konnte System Look and Feel nicht setzen.", e);
         }
 
+        // Blockaden des EDT erkennen (Schwelle und Abtastintervall per -Dedt.schwelleMs / -Dedt.abtastIntervallMs)
+        EdtWaechter edtWaechter = new EdtWaechter(
+                Long.getLong("edt.schwelleMs", EdtWaechter.STANDARD_SCHWELLE_MS),
+                Long.getLong("edt.abtastIntervallMs", EdtWaechter.STANDARD_ABTASTINTERVALL_MS));
+        edtWaechter.starten();
+
         // Sicherstellen, dass die GUI-Erstellung im Event Dispatch Thread (EDT) erfolgt
         SwingUtilities.invokeLater(() -> {
             log.info("Initialisiere Anwendung...");
-            AnwendungsModell model = new AnwendungsModell();
+            AnwendungsModell model = erzeugeModell();
             MainFrame view = new MainFrame(model);
-            new AppController(model, view); // Controller verbindet Modell und View
+            new AppController(model, view, edtWaechter); // Controller verbindet Modell und View
 
             view.setVisible(true);
             log.info("Anwendung gestartet und View ist sichtbar.");
         });
     }
+
+    /**
+     * Erzeugt das Modell; mit -Djobprotokoll.datei=&lt;pfad&gt; wird jede Verarbeitung für die Kapazitätsplanung
+     * aufgezeichnet (siehe {@link JobRekorder}).
+     */
+    private static AnwendungsModell erzeugeModell() {
+        AnwendungsModell model = new AnwendungsModell();
+        String jobprotokoll = System.getProperty("jobprotokoll.datei");
+        if (jobprotokoll != null && !jobprotokoll.isBlank()) {
+            try {
+                model.setJobRekorder(new JobRekorder(Paths.get(jobprotokoll)));
+            } catch (IOException e) {
+                log.error("Jobprotokoll {} kann nicht geöffnet werden, Aufzeichnung deaktiviert.", jobprotokoll, e);
+            }
+        }
+        return model;
+    }
 }
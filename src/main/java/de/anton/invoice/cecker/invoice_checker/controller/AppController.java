@@ -4,17 +4,32 @@ package de.anton.invoice.cecker.invoice_checker.controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.anton.invoice.cecker.invoice_checker.model.Abfrage;
+import de.anton.invoice.cecker.invoice_checker.model.AbfrageErgebnis;
 import de.anton.invoice.cecker.invoice_checker.model.AnwendungsModell;
+import de.anton.invoice.cecker.invoice_checker.model.AufgeteilterExportService;
+import de.anton.invoice.cecker.invoice_checker.model.DatenbankExportErgebnis;
+import de.anton.invoice.cecker.invoice_checker.model.DatenbankExportService;
+import de.anton.invoice.cecker.invoice_checker.model.ExportAufteilung;
 import de.anton.invoice.cecker.invoice_checker.model.ExtrahierteTabelle;
 import de.anton.invoice.cecker.invoice_checker.model.PdfDokument;
+import de.anton.invoice.cecker.invoice_checker.model.SuchTreffer;
+import de.anton.invoice.cecker.invoice_checker.view.AuswertungsDialog;
+import de.anton.invoice.cecker.invoice_checker.view.DiagnoseDialog;
+import de.anton.invoice.cecker.invoice_checker.view.EdtWaechter;
 import de.anton.invoice.cecker.invoice_checker.view.MainFrame;
 
 // Swing-Komponenten und Event-Handling
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;     // Für JSpinner
 import javax.swing.event.ChangeListener;  // Für JSpinner
+import javax.swing.event.DocumentEvent;   // Für das Suchfeld
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListSelectionEvent;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.BorderLayout;
 import java.awt.event.ActionEvent;
+import java.beans.PropertyChangeListener;
 import java.awt.AWTEvent; // Import für allgemeines AWTEvent
 import java.io.File;
 import java.io.IOException;
@@ -25,6 +40,7 @@ import java.util.Arrays;
 import java.util.Collections; // Für Collections.singletonList
 import java.util.HashMap;     // Für Parameter Map
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;     // Für Parameter Map
 import java.util.Objects; // Für Vergleich
 
@@ -41,15 +57,27 @@ public class AppController {
     private JFileChooser dateiAuswahlDialog;
     // Flag, um zu verhindern, dass programmgesteuerte Änderungen Events auslösen (optional)
     private boolean isProgrammaticChange = false;
+    // Volltextsuche: Verzögerung der Suche während der Eingabe und laufende Nummer gegen veraltete Ergebnisse
+    private static final int SUCH_VERZOEGERUNG_MS = 150;
+    private static final int MAX_SUCHTREFFER = 500;
+    private Timer suchTimer;
+    private int suchLaufNummer = 0;
+    // Auswertungsdialog (wird beim ersten Öffnen erzeugt)
+    private AuswertungsDialog auswertungsDialog;
+    // Blockade-Erkennung des EDT und ihr Diagnosedialog (wird beim ersten Öffnen erzeugt)
+    private final EdtWaechter edtWaechter;
+    private DiagnoseDialog diagnoseDialog;
 
     /**
      * Konstruktor. Initialisiert Modell und View und registriert die Listener.
      * @param model Das Anwendungsmodell.
      * @param view Das Hauptfenster (GUI).
+     * @param edtWaechter Der laufende EDT-Wächter für den Diagnosedialog.
      */
-    public AppController(AnwendungsModell model, MainFrame view) {
+    public AppController(AnwendungsModell model, MainFrame view, EdtWaechter edtWaechter) {
         this.model = model;
         this.view = view;
+        this.edtWaechter = edtWaechter;
         initController();
     }
 
@@ -60,16 +88,133 @@ public class AppController {
         // Listener für Buttons
         view.addLadeButtonListener(this::handleLadePdfAktion);
         view.addExportButtonListener(this::handleExportExcelAktion);
+        view.addAuswertungButtonListener(this::handleAuswertungAktion);
+        view.addDiagnoseButtonListener(this::handleDiagnoseAktion);
         // Listener für ComboBoxen
-        view.addPdfComboBoxListener(this::handlePdfComboBoxAuswahl);
+        view.addDokumentAuswahlListener(this::handleDokumentAuswahl);
         view.addTabelleComboBoxListener(this::handleTabelleComboBoxAuswahl);
         // Listener für Parameter-Änderungen
         view.addFlavorComboBoxListener(this::handleParameterChange); // Gleicher Handler für beide
         view.addRowToleranceSpinnerListener(this::handleParameterChange); // Gleicher Handler für beide
+        // Listener für die Volltextsuche
+        setupVolltextSuche();
         // Dateiauswahldialog initialisieren
         setupDateiAuswahlDialog();
     }
 
+    /**
+     * Richtet die Suche während der Eingabe ein: Jede Änderung im Suchfeld startet einen kurzen Timer neu,
+     * erst nach dessen Ablauf wird (im Hintergrund) gesucht.
+     */
+    private void setupVolltextSuche() {
+        suchTimer = new Timer(SUCH_VERZOEGERUNG_MS, e -> starteVolltextSuche());
+        suchTimer.setRepeats(false);
+        view.getSuchPanel().addSuchfeldListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { suchTimer.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { suchTimer.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { suchTimer.restart(); }
+        });
+        view.getSuchPanel().addTrefferAuswahlListener(this::handleSuchTrefferAuswahl);
+    }
+
+    /**
+     * Führt die Volltextsuche mit dem aktuellen Suchbegriff im Hintergrund aus und zeigt die Treffer an.
+     * Ergebnisse überholter Suchen (der Benutzer hat weitergetippt) werden verworfen.
+     */
+    private void starteVolltextSuche() {
+        final String anfrage = view.getSuchPanel().getSuchbegriff();
+        final int laufNummer = ++suchLaufNummer;
+        new SwingWorker<List<SuchTreffer>, Void>() {
+            private long dauerMs;
+
+            @Override
+            protected List<SuchTreffer> doInBackground() {
+                long start = System.nanoTime();
+                List<SuchTreffer> treffer = model.suche(anfrage, MAX_SUCHTREFFER);
+                dauerMs = (System.nanoTime() - start) / 1_000_000;
+                return treffer;
+            }
+
+            @Override
+            protected void done() {
+                if (laufNummer != suchLaufNummer) return; // Veraltet
+                try {
+                    List<SuchTreffer> treffer = get();
+                    log.debug("Volltextsuche '{}': {} Treffer in {} ms", anfrage, treffer.size(), dauerMs);
+                    view.getSuchPanel().zeigeTreffer(treffer, MAX_SUCHTREFFER, dauerMs);
+                } catch (Exception ex) {
+                    log.error("Fehler bei der Volltextsuche nach '{}': {}", anfrage, ex.getMessage(), ex);
+                    view.setStatus("Fehler bei der Suche: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Behandelt die Auswahl eines Suchtreffers: wählt Dokument und Tabelle im Modell aus
+     * und springt in der Datentabelle zur Trefferzeile.
+     * @param e Das ListSelectionEvent.
+     */
+    private void handleSuchTrefferAuswahl(ListSelectionEvent e) {
+        if (e.getValueIsAdjusting()) return;
+        SuchTreffer treffer = view.getSuchPanel().getAusgewaehlterTreffer();
+        if (treffer == null) return;
+        log.info("Springe zu Suchtreffer: {}", treffer);
+        // Erst den Sprung vormerken, dann die Auswahl ändern (die View führt ihn nach dem Tabellen-Update aus)
+        view.springeZuZeile(treffer.getTabelle(), treffer.getZeilenIndex());
+        model.setAusgewaehltesDokument(treffer.getDokument());
+        model.setAusgewaehlteTabelle(treffer.getTabelle());
+    }
+
+    /**
+     * Behandelt den Klick auf den "Auswertung..."-Button: öffnet den Auswertungsdialog.
+     * @param e Das ActionEvent (wird nicht direkt verwendet).
+     */
+    private void handleAuswertungAktion(ActionEvent e) {
+        if (auswertungsDialog == null) {
+            auswertungsDialog = new AuswertungsDialog(view);
+            auswertungsDialog.addAuswertenListener(ev -> starteAuswertung());
+        }
+        auswertungsDialog.setVisible(true);
+    }
+
+    /**
+     * Behandelt den Klick auf den "Diagnose..."-Button: öffnet das Verarbeitungs-Dashboard und die Liste der erkannten EDT-Blockaden.
+     * @param e Das ActionEvent (wird nicht direkt verwendet).
+     */
+    private void handleDiagnoseAktion(ActionEvent e) {
+        if (diagnoseDialog == null) {
+            diagnoseDialog = new DiagnoseDialog(view, edtWaechter, model.getPipelineStatistik());
+        }
+        diagnoseDialog.setVisible(true);
+    }
+
+    /**
+     * Führt die im Dialog eingestellte Abfrage im Hintergrund aus und zeigt das Ergebnis an.
+     */
+    private void starteAuswertung() {
+        final Abfrage abfrage = auswertungsDialog.getAbfrage();
+        log.info("Starte Auswertung mit Gruppierung {} und Wertspalte {}", abfrage.getGruppierungen(), abfrage.getWertSpalte());
+        auswertungsDialog.setLaeuft(true);
+        new SwingWorker<AbfrageErgebnis, Void>() {
+            @Override
+            protected AbfrageErgebnis doInBackground() {
+                return model.fuehreAbfrageAus(abfrage);
+            }
+
+            @Override
+            protected void done() {
+                auswertungsDialog.setLaeuft(false);
+                try {
+                    auswertungsDialog.zeigeErgebnis(get());
+                } catch (Exception ex) {
+                    log.error("Fehler bei der Auswertung: {}", ex.getMessage(), ex);
+                    auswertungsDialog.setInfo("Fehler bei der Auswertung: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
     /**
      * Konfiguriert den JFileChooser.
      */
@@ -89,6 +234,7 @@ public class AppController {
          view.setStatus("Öffne Dateiauswahl zum Laden...");
          dateiAuswahlDialog.setDialogTitle("PDF-Dateien auswählen");
          dateiAuswahlDialog.setMultiSelectionEnabled(true);
+         dateiAuswahlDialog.resetChoosableFileFilters(); // Exportformate entfernen
          dateiAuswahlDialog.setFileFilter(new FileNameExtensionFilter("PDF Dokumente", "pdf"));
 
          int rueckgabeWert = dateiAuswahlDialog.showOpenDialog(view);
@@ -130,40 +276,98 @@ public class AppController {
 
     /**
      * Behandelt den Klick auf den "Nach Excel exportieren"-Button.
-     * Öffnet einen Speichern-Dialog und startet den Export im Hintergrund.
+     * Öffnet einen Speichern-Dialog (Excel, CSV, NDJSON oder H2-Datenbank) und startet den Export im Hintergrund.
      * @param e Das ActionEvent (wird nicht direkt verwendet).
      */
     private void handleExportExcelAktion(ActionEvent e) {
         log.info("Export nach Excel Button geklickt.");
 
-        dateiAuswahlDialog.setDialogTitle("Excel-Datei speichern unter...");
+        dateiAuswahlDialog.setDialogTitle("Export speichern unter...");
         dateiAuswahlDialog.setMultiSelectionEnabled(false); // Nur eine Datei speichern
-        dateiAuswahlDialog.setFileFilter(new FileNameExtensionFilter("Excel Arbeitsmappe (*.xlsx)", "xlsx"));
+        dateiAuswahlDialog.resetChoosableFileFilters();
+        FileNameExtensionFilter excelFilter = new FileNameExtensionFilter("Excel Arbeitsmappe (*.xlsx)", "xlsx");
+        FileNameExtensionFilter csvFilter = new FileNameExtensionFilter("CSV, Semikolon-getrennt (*.csv)", "csv");
+        FileNameExtensionFilter ndjsonFilter = new FileNameExtensionFilter("NDJSON, optional gzip (*.ndjson, *.ndjson.gz)", "ndjson", "gz");
+        dateiAuswahlDialog.addChoosableFileFilter(csvFilter);
+        FileNameExtensionFilter datenbankFilter = new FileNameExtensionFilter("H2-Datenbank, inkrementell (*.mv.db)", "db");
+        dateiAuswahlDialog.addChoosableFileFilter(ndjsonFilter);
+        dateiAuswahlDialog.addChoosableFileFilter(datenbankFilter);
+        dateiAuswahlDialog.setFileFilter(excelFilter);
         dateiAuswahlDialog.setSelectedFile(new File("Extrahierte_Tabellen.xlsx")); // Vorschlag
+        // Zusatzauswahl im Dialog: Export in eine Datei oder aufgeteilt (parallel) in mehrere Dateien
+        JComboBox<ExportAufteilung> aufteilungComboBox = new JComboBox<>(ExportAufteilung.values());
+        JPanel aufteilungPanel = new JPanel(new BorderLayout(0, 3));
+        aufteilungPanel.add(new JLabel("Aufteilung:"), BorderLayout.NORTH);
+        aufteilungPanel.add(aufteilungComboBox, BorderLayout.CENTER);
+        aufteilungPanel.setBorder(BorderFactory.createEmptyBorder(0, 8, 0, 0));
+        dateiAuswahlDialog.setAccessory(aufteilungPanel);
+        // Aufteilen kann nur der Excel-Export; bei anderen Formaten ist die Auswahl gesperrt
+        PropertyChangeListener filterWechsel = evt -> aufteilungComboBox.setEnabled(dateiAuswahlDialog.getFileFilter() == excelFilter);
+        dateiAuswahlDialog.addPropertyChangeListener(JFileChooser.FILE_FILTER_CHANGED_PROPERTY, filterWechsel);
 
         int rueckgabeWert = dateiAuswahlDialog.showSaveDialog(view);
+        dateiAuswahlDialog.removePropertyChangeListener(JFileChooser.FILE_FILTER_CHANGED_PROPERTY, filterWechsel);
+        dateiAuswahlDialog.setAccessory(null); // Dialog wird auch zum Laden verwendet
         if (rueckgabeWert == JFileChooser.APPROVE_OPTION) {
+             final ExportAufteilung gewaehlteAufteilung = (ExportAufteilung) aufteilungComboBox.getSelectedItem();
              File ausgewaehlteDatei = dateiAuswahlDialog.getSelectedFile();
              Path zielPfad = ausgewaehlteDatei.toPath();
 
-             // Sicherstellen, dass die Dateiendung .xlsx ist
-             if (!zielPfad.toString().toLowerCase().endsWith(".xlsx")) {
+             // Format über die Dateiendung bestimmen, sonst über den gewählten Filter (Endung ergänzen)
+             String name = zielPfad.getFileName().toString().toLowerCase(Locale.ROOT);
+             final String format;
+             if (name.endsWith(".csv")) {
+                 format = "csv";
+             } else if (name.endsWith(".ndjson") || name.endsWith(".ndjson.gz")) {
+                 format = "ndjson";
+             } else if (name.endsWith(DatenbankExportService.DATEI_ENDUNG)) {
+                 format = "h2";
+             } else if (name.endsWith(".xlsx")) {
+                 format = "xlsx";
+             } else if (dateiAuswahlDialog.getFileFilter() == csvFilter) {
+                 format = "csv";
+                 zielPfad = zielPfad.resolveSibling(zielPfad.getFileName() + ".csv");
+             } else if (dateiAuswahlDialog.getFileFilter() == ndjsonFilter) {
+                 format = "ndjson";
+                 zielPfad = zielPfad.resolveSibling(zielPfad.getFileName() + (name.endsWith(".gz") ? "" : ".ndjson.gz"));
+             } else if (dateiAuswahlDialog.getFileFilter() == datenbankFilter) {
+                 format = "h2";
+                 zielPfad = zielPfad.resolveSibling(zielPfad.getFileName() + DatenbankExportService.DATEI_ENDUNG);
+             } else {
+                 format = "xlsx";
                  zielPfad = zielPfad.resolveSibling(zielPfad.getFileName() + ".xlsx");
              }
 
              final Path finalZielPfad = zielPfad;
-             view.setStatus("Exportiere nach Excel... Bitte warten.");
+             // Auch bei Excel-Filter kann die Endung ein anderes Format wählen: Aufteilung dann nicht anwenden
+             final boolean aufteilungIgnoriert = !format.equals("xlsx") && gewaehlteAufteilung != null && gewaehlteAufteilung != ExportAufteilung.KEINE;
+             final ExportAufteilung aufteilung = format.equals("xlsx") ? gewaehlteAufteilung : ExportAufteilung.KEINE;
+             if (aufteilungIgnoriert) log.info("--> Aufteilung {} gilt nur für Excel, wird für {} ignoriert.", gewaehlteAufteilung, format);
+             view.setStatus("Exportiere nach " + format.toUpperCase() + "... Bitte warten.");
              log.info("Versuche zu exportieren nach: {}", finalZielPfad);
 
              // Export im Hintergrund ausführen (SwingWorker), um die GUI nicht zu blockieren
              SwingWorker<Void, Void> exportWorker = new SwingWorker<>() {
                  private boolean erfolg = false;
                  private String fehlerMeldung = null;
+                 private int dateiAnzahl = 1;
+                 private DatenbankExportErgebnis datenbankErgebnis = null;
 
                  @Override
                  protected Void doInBackground() throws Exception {
                      try {
-                         model.exportiereAlleNachExcel(finalZielPfad);
+                         if (format.equals("csv")) {
+                             model.exportiereAlleNachCsv(finalZielPfad);
+                         } else if (format.equals("ndjson")) {
+                             model.exportiereAlleNachNdjson(finalZielPfad);
+                         } else if (format.equals("h2")) {
+                             datenbankErgebnis = model.exportiereAlleNachDatenbank(finalZielPfad);
+                         } else if (aufteilung == null || aufteilung == ExportAufteilung.KEINE) {
+                             model.exportiereAlleNachExcel(finalZielPfad);
+                         } else {
+                             log.info("--> Aufgeteilter Export: {}", aufteilung);
+                             dateiAnzahl = model.exportiereAufgeteiltNachExcel(finalZielPfad, aufteilung, AufgeteilterExportService.STANDARD_ZEILENLIMIT).size();
+                         }
                          erfolg = true;
                      } catch (IOException ioException) {
                          log.error("Fehler beim Excel-Export: {}", ioException.getMessage(), ioException);
@@ -183,7 +387,10 @@ public class AppController {
                      if (erfolg) {
                          view.setStatus("Export nach " + finalZielPfad.getFileName() + " erfolgreich abgeschlossen.");
                          JOptionPane.showMessageDialog(view,
-                                 "Daten erfolgreich nach\n" + finalZielPfad + "\nexportiert.",
+                                 "Daten erfolgreich nach\n" + finalZielPfad + "\nexportiert."
+                                         + (dateiAnzahl > 1 ? "\n(aufgeteilt in " + dateiAnzahl + " Dateien inkl. Übersicht)" : "")
+                                         + (datenbankErgebnis != null ? "\n(" + datenbankErgebnis + ")" : "")
+                                         + (aufteilungIgnoriert ? "\nHinweis: Die Aufteilung gilt nur für den Excel-Export und wurde nicht angewendet." : ""),
                                  "Export erfolgreich",
                                  JOptionPane.INFORMATION_MESSAGE);
                      } else {
@@ -205,21 +412,16 @@ public class AppController {
 
 
     /**
-     * Behandelt eine Änderung in der PDF-Auswahl-ComboBox.
+     * Behandelt eine Auswahl in der Dokumentenliste durch den Benutzer.
      * Informiert das Modell über das neu ausgewählte Dokument.
-     * @param e Das ActionEvent.
+     * @param e Das ListSelectionEvent.
      */
-    private void handlePdfComboBoxAuswahl(ActionEvent e) {
-        // Nur auf tatsächliche Auswahländerungen reagieren
-        if (e.getActionCommand().equals("comboBoxChanged")) {
-             JComboBox<PdfDokument> comboBox = view.getPdfComboBox();
-             PdfDokument selectedDoc = (PdfDokument) comboBox.getSelectedItem();
-
-             // Aktualisiere das Modell nur, wenn sich die Auswahl wirklich geändert hat
-             if (!Objects.equals(model.getAusgewaehltesDokument(), selectedDoc)) {
-                 log.info("PDF ComboBox Auswahl geändert zu: {}", selectedDoc);
-                 model.setAusgewaehltesDokument(selectedDoc); // Update Modell -> löst Events aus
-             }
+    private void handleDokumentAuswahl(ListSelectionEvent e) {
+        PdfDokument selectedDoc = view.getDokumentListe().getAusgewaehltesDokument();
+        // Aufgehobene Auswahl (z.B. durch den Filter) ändert die Anzeige nicht
+        if (selectedDoc != null && !Objects.equals(model.getAusgewaehltesDokument(), selectedDoc)) {
+            log.info("Dokumentauswahl geändert zu: {}", selectedDoc);
+            model.setAusgewaehltesDokument(selectedDoc); // Update Modell -> löst Events aus
         }
     }
 
@@ -0,0 +1,288 @@
+package de.anton.invoice.cecker.invoice_checker.controller;
+
+// Logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.anton.invoice.cecker.invoice_checker.model.Abfrage;
+import de.anton.invoice.cecker.invoice_checker.model.AbfrageErgebnis;
+import de.anton.invoice.cecker.invoice_checker.model.AbfrageGruppe;
+import de.anton.invoice.cecker.invoice_checker.model.AnwendungsModell;
+import de.anton.invoice.cecker.invoice_checker.model.AufgeteilterExportService;
+import de.anton.invoice.cecker.invoice_checker.model.ExportAufteilung;
+import de.anton.invoice.cecker.invoice_checker.model.Gruppierung;
+import de.anton.invoice.cecker.invoice_checker.model.PdfDokument;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Controller für den Betrieb ohne GUI (Aufruf mit {@code --headless}).
+ * Verarbeitet die angegebenen PDFs bzw. Verzeichnisse, führt eine Auswertung über alle
+ * Tabellenzeilen aus und gibt das Ergebnis als Semikolon-getrennte Tabelle auf der
+ * Standardausgabe aus. Optional werden die Daten zusätzlich nach Excel exportiert.
+ */
+public class KommandozeilenController {
+    private static final Logger log = LoggerFactory.getLogger(KommandozeilenController.class);
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_AUFRUFFEHLER = 1;
+    public static final int EXIT_VERARBEITUNGSFEHLER = 2;
+
+    private static final String HILFE =
+            "Aufruf: --headless [Optionen] <pdf-datei|verzeichnis>...\n"
+          + "  --flavor <lattice|stream>   Camelot-Flavor (Standard: lattice)\n"
+          + "  --row-tol <n>               Zeilentoleranz für stream (Standard: 2)\n"
+          + "  --gruppiere <m1,m2,...>     lieferant, monat, datei, seite, flavor\n"
+          + "  --wert <spalte|betrag>      Wertspalte (1-basiert) oder letzter Betrag der Zeile (Standard)\n"
+          + "  --filter <text>             Nur Zeilen, die den Text enthalten\n"
+          + "  --lieferant <name>          Nur Rechnungen dieses Lieferanten\n"
+          + "  --excel <datei.xlsx>        Zusätzlich alle Tabellen nach Excel exportieren\n"
+          + "  --aufteilung <art>          Excel-Export parallel aufteilen: monat, lieferant oder zeilen:<n>\n"
+          + "                              (höchstens n Zeilen je Datei inkl. Kopfzeile, 2 bis 1048576)\n"
+          + "  --csv <datei.csv>           Zusätzlich alle Zeilen als CSV exportieren\n"
+          + "  --ndjson <datei[.gz]>       Zusätzlich alle Zeilen als NDJSON exportieren (.gz = komprimiert)\n"
+          + "  --datenbank <datei.mv.db>   Zusätzlich inkrementell in eine H2-Datenbank schreiben\n"
+          + "  --datenbank-ueberschreiben  Bereits gespeicherte Dokumente in der Datenbank neu schreiben\n"
+          + "  --fortlaufend <datei>       Schon während der Verarbeitung exportieren (.csv, .ndjson[.gz])\n"
+          + "  --nach-zeitraum             Fortlaufenden Export nach Abrechnungszeitraum ordnen\n";
+
+    private final AnwendungsModell model;
+    private final PrintStream ausgabe;
+
+    /**
+     * Konstruktor.
+     * @param model Das Anwendungsmodell.
+     * @param ausgabe Ziel für Ergebnis und Hilfetext (normalerweise System.out).
+     */
+    public KommandozeilenController(AnwendungsModell model, PrintStream ausgabe) {
+        this.model = model;
+        this.ausgabe = ausgabe;
+    }
+
+    /**
+     * Führt den Kommandozeilenlauf aus.
+     * @param args Die Argumente (ohne {@code --headless}).
+     * @return Der Exit-Code.
+     */
+    public int ausfuehren(String[] args) {
+        Map<String, String> parameter = new HashMap<>();
+        parameter.put("flavor", "lattice");
+        parameter.put("row_tol", "2");
+        Abfrage abfrage = new Abfrage();
+        Path excelZiel = null;
+        Path csvZiel = null;
+        Path ndjsonZiel = null;
+        Path fortlaufendZiel = null;
+        Path datenbankZiel = null;
+        boolean datenbankUeberschreiben = false;
+        boolean nachZeitraum = false;
+        ExportAufteilung aufteilung = ExportAufteilung.KEINE;
+        int zeilenLimit = AufgeteilterExportService.STANDARD_ZEILENLIMIT;
+        List<Path> eingaben = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--hilfe":
+                    case "--help":
+                        ausgabe.print(HILFE);
+                        return EXIT_OK;
+                    case "--flavor":
+                        parameter.put("flavor", wert(args, ++i, arg));
+                        break;
+                    case "--row-tol":
+                        parameter.put("row_tol", String.valueOf(Integer.parseInt(wert(args, ++i, arg))));
+                        break;
+                    case "--gruppiere":
+                        List<Gruppierung> gruppierungen = new ArrayList<>();
+                        for (String name : wert(args, ++i, arg).split(",")) {
+                            if (!name.isBlank()) gruppierungen.add(Gruppierung.vonName(name));
+                        }
+                        abfrage.gruppiertNach(gruppierungen);
+                        break;
+                    case "--wert":
+                        String spalte = wert(args, ++i, arg);
+                        if (spalte.equalsIgnoreCase("betrag")) {
+                            abfrage.mitWertSpalte(Abfrage.LETZTER_BETRAG);
+                        } else {
+                            int nummer = Integer.parseInt(spalte);
+                            if (nummer < 1) throw new IllegalArgumentException("Spaltennummer muss mindestens 1 sein: " + nummer);
+                            abfrage.mitWertSpalte(nummer - 1);
+                        }
+                        break;
+                    case "--filter":
+                        abfrage.mitTextFilter(wert(args, ++i, arg));
+                        break;
+                    case "--lieferant":
+                        abfrage.mitLieferant(wert(args, ++i, arg));
+                        break;
+                    case "--excel":
+                        excelZiel = Paths.get(wert(args, ++i, arg));
+                        break;
+                    case "--csv":
+                        csvZiel = Paths.get(wert(args, ++i, arg));
+                        break;
+                    case "--ndjson":
+                        ndjsonZiel = Paths.get(wert(args, ++i, arg));
+                        break;
+                    case "--datenbank":
+                        datenbankZiel = Paths.get(wert(args, ++i, arg));
+                        break;
+                    case "--datenbank-ueberschreiben":
+                        datenbankUeberschreiben = true;
+                        break;
+                    case "--fortlaufend":
+                        fortlaufendZiel = Paths.get(wert(args, ++i, arg));
+                        break;
+                    case "--nach-zeitraum":
+                        nachZeitraum = true;
+                        break;
+                    case "--aufteilung":
+                        String art = wert(args, ++i, arg).toLowerCase(Locale.ROOT);
+                        if (art.equals("monat")) {
+                            aufteilung = ExportAufteilung.ABRECHNUNGSMONAT;
+                        } else if (art.equals("lieferant")) {
+                            aufteilung = ExportAufteilung.LIEFERANT;
+                        } else if (art.startsWith("zeilen:")) {
+                            aufteilung = ExportAufteilung.ZEILENLIMIT;
+                            zeilenLimit = Integer.parseInt(art.substring("zeilen:".length()));
+                            AufgeteilterExportService.pruefeZeilenLimit(zeilenLimit);
+                        } else {
+                            throw new IllegalArgumentException("Unbekannte Aufteilung: " + art);
+                        }
+                        break;
+                    default:
+                        if (arg.startsWith("--")) throw new IllegalArgumentException("Unbekannte Option: " + arg);
+                        eingaben.add(Paths.get(arg));
+                }
+            }
+        } catch (IllegalArgumentException e) { // Auch NumberFormatException
+            System.err.println("Fehler: " + e.getMessage());
+            System.err.print(HILFE);
+            return EXIT_AUFRUFFEHLER;
+        }
+
+        List<Path> pdfPfade;
+        try {
+            pdfPfade = sammlePdfs(eingaben);
+        } catch (IOException e) {
+            System.err.println("Fehler beim Lesen der Eingaben: " + e.getMessage());
+            return EXIT_AUFRUFFEHLER;
+        }
+        if (pdfPfade.isEmpty()) {
+            System.err.println("Fehler: Keine PDF-Dateien angegeben.");
+            System.err.print(HILFE);
+            return EXIT_AUFRUFFEHLER;
+        }
+
+        log.info("Kommandozeile: verarbeite {} PDF(s) mit Parametern {}", pdfPfade.size(), parameter);
+        try {
+            if (fortlaufendZiel != null) {
+                Path geschrieben = model.ladeUndExportiereFortlaufend(pdfPfade, parameter, null, fortlaufendZiel, nachZeitraum).join();
+                log.info("Fortlaufender Export nach {} abgeschlossen.", geschrieben);
+            } else {
+                model.ladeUndVerarbeitePdfs(pdfPfade, parameter, null).join();
+            }
+        } catch (Exception e) {
+            log.error("Fehler bei der Verarbeitung: {}", e.getMessage(), e);
+            return EXIT_VERARBEITUNGSFEHLER;
+        }
+        long fehlerhaft = model.getDokumente().stream().filter(d -> d.getError() != null).count();
+        for (PdfDokument doc : model.getDokumente()) {
+            if (doc.getError() != null) System.err.println("Fehler in " + doc.getSourcePdf() + ": " + doc.getError());
+        }
+
+        AbfrageErgebnis ergebnis = model.fuehreAbfrageAus(abfrage);
+        druckeErgebnis(ergebnis);
+
+        if (excelZiel != null) {
+            try {
+                if (aufteilung == ExportAufteilung.KEINE) {
+                    model.exportiereAlleNachExcel(excelZiel);
+                } else {
+                    model.exportiereAufgeteiltNachExcel(excelZiel, aufteilung, zeilenLimit);
+                }
+                log.info("Excel-Export nach {} abgeschlossen.", excelZiel);
+            } catch (IOException e) {
+                System.err.println("Fehler beim Excel-Export: " + e.getMessage());
+                return EXIT_VERARBEITUNGSFEHLER;
+            }
+        }
+        try {
+            if (csvZiel != null) model.exportiereAlleNachCsv(csvZiel);
+            if (ndjsonZiel != null) model.exportiereAlleNachNdjson(ndjsonZiel);
+            if (datenbankZiel != null) log.info("Datenbank-Export: {}", model.exportiereAlleNachDatenbank(datenbankZiel, datenbankUeberschreiben));
+        } catch (IOException e) {
+            System.err.println("Fehler beim Export: " + e.getMessage());
+            return EXIT_VERARBEITUNGSFEHLER;
+        }
+        return fehlerhaft > 0 ? EXIT_VERARBEITUNGSFEHLER : EXIT_OK;
+    }
+
+    /**
+     * Gibt das Ergebnis als Semikolon-getrennte Tabelle (Zahlen im deutschen Format) aus.
+     */
+    private void druckeErgebnis(AbfrageErgebnis ergebnis) {
+        List<String> kopf = new ArrayList<>();
+        for (Gruppierung g : ergebnis.getGruppierungen()) kopf.add(g.getAnzeigeName());
+        kopf.add("Zeilen");
+        kopf.add("Mit Wert");
+        kopf.add("Summe");
+        kopf.add("Minimum");
+        kopf.add("Maximum");
+        ausgabe.println(String.join(";", kopf));
+        for (AbfrageGruppe g : ergebnis.getGruppen()) {
+            List<String> zeile = new ArrayList<>(g.getSchluessel());
+            zeile.add(String.valueOf(g.getAnzahlZeilen()));
+            zeile.add(String.valueOf(g.getAnzahlWerte()));
+            zeile.add(formatiere(g.getSumme()));
+            zeile.add(formatiere(g.getMin()));
+            zeile.add(formatiere(g.getMax()));
+            ausgabe.println(String.join(";", zeile));
+        }
+        log.info("Auswertung: {} Gruppen aus {} Zeilen in {} ms", ergebnis.getGruppen().size(), ergebnis.getGepruefteZeilen(), ergebnis.getDauerMs());
+    }
+
+    private static String formatiere(double wert) {
+        return Double.isNaN(wert) ? "" : String.format(Locale.GERMANY, "%.2f", wert);
+    }
+
+    private static String wert(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException("Option " + option + " erwartet einen Wert.");
+        return args[i];
+    }
+
+    /**
+     * Löst Verzeichnisse (rekursiv) in die enthaltenen PDF-Dateien auf.
+     */
+    private static List<Path> sammlePdfs(List<Path> eingaben) throws IOException {
+        List<Path> pdfs = new ArrayList<>();
+        for (Path eingabe : eingaben) {
+            if (Files.isDirectory(eingabe)) {
+                try (Stream<Path> dateien = Files.walk(eingabe)) {
+                    pdfs.addAll(dateien
+                            .filter(p -> Files.isRegularFile(p) && p.getFileName().toString().toLowerCase().endsWith(".pdf"))
+                            .sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else if (Files.isRegularFile(eingabe)) {
+                pdfs.add(eingabe);
+            } else {
+                throw new IOException("Datei nicht gefunden: " + eingabe);
+            }
+        }
+        return pdfs;
+    }
+}
@@ -0,0 +1,123 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Beschreibung einer Auswertung über alle extrahierten Tabellenzeilen:
+ * Filter (auf Dokument- und Zeilenebene), Gruppierungsmerkmale und die Spalte, deren Werte
+ * summiert werden. Ausgeführt wird die Abfrage von der {@link AbfrageEngine}.
+ * Kopfzeilen (Zeile 0 jeder Tabelle) werden nie mitgezählt.
+ *
+ * <pre>
+ * Abfrage abfrage = new Abfrage()
+ *         .gruppiertNach(Gruppierung.LIEFERANT, Gruppierung.ABRECHNUNGSMONAT)
+ *         .mitTextFilter("strom");
+ * </pre>
+ */
+public class Abfrage {
+
+    /** Wertspalte: der letzte Betrag (Zahl mit zwei Nachkommastellen) einer Zeile. */
+    public static final int LETZTER_BETRAG = -1;
+
+    private Predicate<PdfDokument> dokumentFilter = doc -> true;
+    private Predicate<List<String>> zeilenFilter = null; // null = alle Zeilen
+    private List<Gruppierung> gruppierungen = Collections.emptyList();
+    private int wertSpalte = LETZTER_BETRAG;
+
+    /**
+     * Schränkt die Abfrage auf Dokumente ein, die das Prädikat erfüllen.
+     * Mehrfache Aufrufe werden mit UND verknüpft.
+     */
+    public Abfrage mitDokumentFilter(Predicate<PdfDokument> filter) {
+        this.dokumentFilter = this.dokumentFilter.and(filter);
+        return this;
+    }
+
+    /**
+     * Schränkt die Abfrage auf Zeilen (Liste der Zellen) ein, die das Prädikat erfüllen.
+     * Mehrfache Aufrufe werden mit UND verknüpft.
+     */
+    public Abfrage mitZeilenFilter(Predicate<List<String>> filter) {
+        this.zeilenFilter = this.zeilenFilter == null ? filter : this.zeilenFilter.and(filter);
+        return this;
+    }
+
+    /**
+     * Berücksichtigt nur Zeilen, in denen eine Zelle den Text enthält (ohne Beachtung der Groß-/Kleinschreibung).
+     * Ein leerer Text filtert nicht.
+     */
+    public Abfrage mitTextFilter(String text) {
+        if (text == null || text.isBlank()) return this;
+        final String gesucht = text.trim();
+        return mitZeilenFilter(zeile -> {
+            for (String zelle : zeile) {
+                if (enthaeltOhneGrossKlein(zelle, gesucht)) return true;
+            }
+            return false;
+        });
+    }
+
+    /** Berücksichtigt nur Dokumente des angegebenen Lieferanten (siehe {@link PdfDokument#getLieferant()}). */
+    public Abfrage mitLieferant(String lieferant) {
+        if (lieferant == null || lieferant.isBlank()) return this;
+        final String gesucht = lieferant.trim();
+        return mitDokumentFilter(doc -> gesucht.equalsIgnoreCase(doc.getLieferant()));
+    }
+
+    /** Legt die Gruppierungsmerkmale fest (ohne Merkmale entsteht eine einzige Gesamtgruppe). */
+    public Abfrage gruppiertNach(Gruppierung... merkmale) {
+        return gruppiertNach(Arrays.asList(merkmale));
+    }
+
+    /** Legt die Gruppierungsmerkmale fest (ohne Merkmale entsteht eine einzige Gesamtgruppe). */
+    public Abfrage gruppiertNach(List<Gruppierung> merkmale) {
+        this.gruppierungen = Collections.unmodifiableList(new ArrayList<>(merkmale));
+        return this;
+    }
+
+    /**
+     * Legt die Spalte fest, deren Zahlenwerte summiert werden.
+     * @param spalte Spaltenindex (0-basiert) oder {@link #LETZTER_BETRAG}.
+     */
+    public Abfrage mitWertSpalte(int spalte) {
+        if (spalte < LETZTER_BETRAG) throw new IllegalArgumentException("Ungültige Wertspalte: " + spalte);
+        this.wertSpalte = spalte;
+        return this;
+    }
+
+    // --- Getter (für die Engine) ---
+    public Predicate<PdfDokument> getDokumentFilter() { return dokumentFilter; }
+    public Predicate<List<String>> getZeilenFilter() { return zeilenFilter; }
+    public List<Gruppierung> getGruppierungen() { return gruppierungen; }
+    public int getWertSpalte() { return wertSpalte; }
+
+    /**
+     * Ermittelt den Wert einer Zeile gemäß der eingestellten Wertspalte.
+     * @param zeile Die Zellen der Zeile.
+     * @return Der Zahlenwert oder NaN, wenn die Zeile keinen Wert hat.
+     */
+    double wertVon(List<String> zeile) {
+        if (wertSpalte == LETZTER_BETRAG) {
+            for (int i = zeile.size() - 1; i >= 0; i--) {
+                double betrag = BetragParser.parseBetrag(zeile.get(i));
+                if (!Double.isNaN(betrag)) return betrag;
+            }
+            return Double.NaN;
+        }
+        return wertSpalte < zeile.size() ? BetragParser.parse(zeile.get(wertSpalte)) : Double.NaN;
+    }
+
+    // Teilstring-Suche ohne Kopien (toLowerCase würde pro Zelle ein neues Objekt erzeugen)
+    private static boolean enthaeltOhneGrossKlein(String text, String gesucht) {
+        if (text == null) return false;
+        int max = text.length() - gesucht.length();
+        for (int i = 0; i <= max; i++) {
+            if (text.regionMatches(true, i, gesucht, 0, gesucht.length())) return true;
+        }
+        return false;
+    }
+}
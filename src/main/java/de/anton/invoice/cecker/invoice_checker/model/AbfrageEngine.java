@@ -0,0 +1,93 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Führt {@link Abfrage}n über die Zeilen aller Tabellen einer Dokumentenliste aus.
+ * Jedes Dokument bildet eine Partition, die Partitionen werden parallel (Fork/Join-Pool über
+ * {@code parallelStream}) in eigene Gruppen-Maps aggregiert und anschließend zusammengeführt.
+ * Zwischen den Threads wird dadurch nichts geteilt oder gesperrt.
+ */
+public class AbfrageEngine {
+    private static final Logger log = LoggerFactory.getLogger(AbfrageEngine.class);
+
+    /** Teilergebnis einer oder mehrerer Partitionen. */
+    private static final class Teilergebnis {
+        final Map<List<String>, AbfrageGruppe> gruppen = new HashMap<>();
+        long gepruefteZeilen;
+
+        Teilergebnis vereinige(Teilergebnis anderes) {
+            gepruefteZeilen += anderes.gepruefteZeilen;
+            for (Map.Entry<List<String>, AbfrageGruppe> e : anderes.gruppen.entrySet()) {
+                AbfrageGruppe vorhanden = gruppen.putIfAbsent(e.getKey(), e.getValue());
+                if (vorhanden != null) vorhanden.vereinige(e.getValue());
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Führt die Abfrage aus. Thread-sicher, solange die Dokumente nicht verändert werden
+     * (das Modell ersetzt Dokumente bei Neuverarbeitung, statt sie zu ändern).
+     * @param dokumente Die auszuwertenden Dokumente.
+     * @param abfrage Die Abfrage.
+     * @return Das Ergebnis mit nach Schlüssel sortierten Gruppen.
+     */
+    public AbfrageErgebnis ausfuehren(List<PdfDokument> dokumente, Abfrage abfrage) {
+        long start = System.nanoTime();
+        Teilergebnis gesamt = dokumente.parallelStream()
+                .filter(doc -> doc.getTables() != null && abfrage.getDokumentFilter().test(doc))
+                .map(doc -> aggregiereDokument(doc, abfrage))
+                .reduce(Teilergebnis::vereinige)
+                .orElseGet(Teilergebnis::new);
+
+        List<AbfrageGruppe> gruppen = new ArrayList<>(gesamt.gruppen.values());
+        gruppen.sort(AbfrageEngine::vergleicheSchluessel);
+        long dauerMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Abfrage über {} Dokumente: {} Zeilen geprüft, {} Gruppen in {} ms", dokumente.size(), gesamt.gepruefteZeilen, gruppen.size(), dauerMs);
+        return new AbfrageErgebnis(abfrage.getGruppierungen(), Collections.unmodifiableList(gruppen), gesamt.gepruefteZeilen, dauerMs);
+    }
+
+    /** Aggregiert alle Datenzeilen eines Dokuments (eine Partition). */
+    private Teilergebnis aggregiereDokument(PdfDokument doc, Abfrage abfrage) {
+        Teilergebnis teil = new Teilergebnis();
+        List<Gruppierung> merkmale = abfrage.getGruppierungen();
+        for (ExtrahierteTabelle tabelle : doc.getTables()) {
+            List<List<String>> daten = tabelle.getData();
+            if (daten == null || daten.size() < 2) continue; // Nur Kopfzeile oder leer
+            // Gruppenschlüssel hängt nur von Dokument/Tabelle ab -> einmal pro Tabelle bestimmen
+            String[] werte = new String[merkmale.size()];
+            for (int i = 0; i < werte.length; i++) werte[i] = merkmale.get(i).wertFuer(doc, tabelle);
+            AbfrageGruppe gruppe = teil.gruppen.computeIfAbsent(Arrays.asList(werte), AbfrageGruppe::new);
+
+            for (int z = 1; z < daten.size(); z++) { // Zeile 0 ist die Kopfzeile
+                List<String> zeile = daten.get(z);
+                if (zeile == null) continue;
+                teil.gepruefteZeilen++;
+                if (abfrage.getZeilenFilter() != null && !abfrage.getZeilenFilter().test(zeile)) continue;
+                gruppe.aufnehmen(abfrage.wertVon(zeile));
+            }
+        }
+        // Gruppen ohne Treffer (alle Zeilen weggefiltert) nicht ausweisen
+        teil.gruppen.values().removeIf(g -> g.getAnzahlZeilen() == 0);
+        return teil;
+    }
+
+    private static int vergleicheSchluessel(AbfrageGruppe a, AbfrageGruppe b) {
+        List<String> ka = a.getSchluessel();
+        List<String> kb = b.getSchluessel();
+        for (int i = 0; i < ka.size(); i++) {
+            int c = ka.get(i).compareToIgnoreCase(kb.get(i));
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+}
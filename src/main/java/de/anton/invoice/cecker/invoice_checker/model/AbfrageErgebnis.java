@@ -0,0 +1,35 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.util.List;
+
+/**
+ * Ergebnis einer {@link Abfrage}: die Gruppen (nach Schlüssel sortiert) sowie Angaben
+ * zum Umfang der Auswertung.
+ */
+public class AbfrageErgebnis {
+    private final List<Gruppierung> gruppierungen;
+    private final List<AbfrageGruppe> gruppen;
+    private final long gepruefteZeilen;
+    private final long dauerMs;
+
+    public AbfrageErgebnis(List<Gruppierung> gruppierungen, List<AbfrageGruppe> gruppen, long gepruefteZeilen, long dauerMs) {
+        this.gruppierungen = gruppierungen;
+        this.gruppen = gruppen;
+        this.gepruefteZeilen = gepruefteZeilen;
+        this.dauerMs = dauerMs;
+    }
+
+    // --- Getter ---
+    public List<Gruppierung> getGruppierungen() { return gruppierungen; }
+    public List<AbfrageGruppe> getGruppen() { return gruppen; }
+    /** @return Anzahl aller betrachteten Datenzeilen (vor dem Zeilenfilter). */
+    public long getGepruefteZeilen() { return gepruefteZeilen; }
+    public long getDauerMs() { return dauerMs; }
+
+    /** @return Anzahl der Zeilen, die den Filter erfüllt haben. */
+    public long getTrefferZeilen() {
+        long summe = 0;
+        for (AbfrageGruppe g : gruppen) summe += g.getAnzahlZeilen();
+        return summe;
+    }
+}
@@ -0,0 +1,60 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.util.List;
+
+/**
+ * Eine Ergebniszeile einer {@link Abfrage}: die Gruppenwerte und die Kennzahlen der Gruppe.
+ * Während der Ausführung dient die Klasse als Akkumulator (nur innerhalb einer Partition
+ * veränderlich), danach wird sie nicht mehr geändert.
+ */
+public class AbfrageGruppe {
+    private final List<String> schluessel;
+    private long anzahlZeilen;
+    private long anzahlWerte;
+    private double summe;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    AbfrageGruppe(List<String> schluessel) {
+        this.schluessel = schluessel;
+    }
+
+    /** Nimmt eine Zeile auf; NaN zählt nur als Zeile ohne Wert. */
+    void aufnehmen(double wert) {
+        anzahlZeilen++;
+        if (Double.isNaN(wert)) return;
+        anzahlWerte++;
+        summe += wert;
+        if (wert < min) min = wert;
+        if (wert > max) max = wert;
+    }
+
+    /** Übernimmt die Kennzahlen einer Teilgruppe mit demselben Schlüssel. */
+    void vereinige(AbfrageGruppe andere) {
+        anzahlZeilen += andere.anzahlZeilen;
+        anzahlWerte += andere.anzahlWerte;
+        summe += andere.summe;
+        min = Math.min(min, andere.min);
+        max = Math.max(max, andere.max);
+    }
+
+    // --- Getter ---
+    /** @return Die Gruppenwerte in der Reihenfolge der Gruppierungsmerkmale (leer bei Gesamtgruppe). */
+    public List<String> getSchluessel() { return schluessel; }
+    /** @return Anzahl der Zeilen in der Gruppe. */
+    public long getAnzahlZeilen() { return anzahlZeilen; }
+    /** @return Anzahl der Zeilen mit Zahlenwert in der Wertspalte. */
+    public long getAnzahlWerte() { return anzahlWerte; }
+    public double getSumme() { return summe; }
+    /** @return Kleinster Wert oder NaN, wenn die Gruppe keine Werte hat. */
+    public double getMin() { return anzahlWerte > 0 ? min : Double.NaN; }
+    /** @return Größter Wert oder NaN, wenn die Gruppe keine Werte hat. */
+    public double getMax() { return anzahlWerte > 0 ? max : Double.NaN; }
+    /** @return Durchschnitt der Werte oder NaN, wenn die Gruppe keine Werte hat. */
+    public double getDurchschnitt() { return anzahlWerte > 0 ? summe / anzahlWerte : Double.NaN; }
+
+    @Override
+    public String toString() {
+        return schluessel + ": " + anzahlZeilen + " Zeilen, Summe " + summe;
+    }
+}
@@ -0,0 +1,183 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Index über die Abrechnungszeiträume aller geladenen Dokumente, der beim Laden mitgeführt wird.
+ * Beantwortet in logarithmischer Zeit
+ * <ul>
+ *   <li>welche Rechnungen ein bestimmtes Datum abdecken,</li>
+ *   <li>welche Rechnungen desselben Lieferanten sich zeitlich überschneiden (Doppelabrechnung) und</li>
+ *   <li>welche Monate zwischen erster und letzter Rechnung eines Lieferanten fehlen.</li>
+ * </ul>
+ * Dokumente ohne erkannten Abrechnungszeitraum werden nicht aufgenommen. Ist nur Beginn oder
+ * Ende bekannt, wird ein eintägiger Zeitraum angenommen. Dokumente ohne erkannten Lieferanten stehen nur im
+ * Gesamtbestand (Datumssuche), nicht in der Überschneidungs- und Lückenprüfung. Alle Methoden sind synchronisiert.
+ */
+public class AbrechnungszeitraumIndex {
+
+    /** Interner Eintrag pro Dokument (für das Entfernen bei Neuverarbeitung). */
+    private static final class Eintrag {
+        final String lieferant; // null: Lieferant unbekannt, nur im Gesamtbaum
+        final long start;
+        final long ende;
+        final long id;
+
+        Eintrag(String lieferant, long start, long ende, long id) {
+            this.lieferant = lieferant;
+            this.start = start;
+            this.ende = ende;
+            this.id = id;
+        }
+    }
+
+    private final IntervallBaum<PdfDokument> alle = new IntervallBaum<>();
+    private final Map<String, IntervallBaum<PdfDokument>> proLieferant = new HashMap<>();
+    // Abgedeckte Monate je Lieferant mit Anzahl der abdeckenden Rechnungen
+    private final Map<String, TreeMap<YearMonth, Integer>> monateProLieferant = new HashMap<>();
+    private final Map<String, Eintrag> eintraege = new HashMap<>(); // Schlüssel (voller Pfad) -> Eintrag
+    private long naechsteId = 0;
+
+    /**
+     * Nimmt ein Dokument auf (ersetzt einen alten Eintrag für denselben Pfad) und liefert die
+     * Überschneidungen mit anderen Rechnungen desselben Lieferanten.
+     * Ist der Lieferant unbekannt, wird das Dokument nur für die Datumssuche aufgenommen.
+     * @param doc Das verarbeitete Dokument.
+     * @return Überschneidungen (leer, wenn keine vorhanden sind oder das Dokument keinen Zeitraum hat).
+     */
+    public synchronized List<ZeitraumUeberschneidung> fuegeHinzu(PdfDokument doc) {
+        String schluessel = DuplikatIndex.schluesselFuer(doc);
+        entferne(schluessel);
+        LocalDate start = startVon(doc);
+        LocalDate ende = endeVon(doc);
+        if (start == null || ende == null) return Collections.emptyList();
+
+        String lieferant = doc.getLieferant();
+        Eintrag eintrag = new Eintrag(lieferant, start.toEpochDay(), ende.toEpochDay(), naechsteId++);
+        eintraege.put(schluessel, eintrag);
+        alle.einfuegen(eintrag.start, eintrag.ende, eintrag.id, doc);
+        if (lieferant == null) return Collections.emptyList();
+
+        List<ZeitraumUeberschneidung> ueberschneidungen = findeUeberschneidungen(lieferant, start, ende, doc);
+        proLieferant.computeIfAbsent(lieferant, k -> new IntervallBaum<>()).einfuegen(eintrag.start, eintrag.ende, eintrag.id, doc);
+        TreeMap<YearMonth, Integer> monate = monateProLieferant.computeIfAbsent(lieferant, k -> new TreeMap<>());
+        for (YearMonth m = YearMonth.from(start); !m.isAfter(YearMonth.from(ende)); m = m.plusMonths(1)) {
+            monate.merge(m, 1, Integer::sum);
+        }
+        return ueberschneidungen;
+    }
+
+    /**
+     * Entfernt ein Dokument aus dem Index.
+     * @param schluessel Der Schlüssel des Dokuments (voller Pfad, sonst Dateiname).
+     */
+    public synchronized void entferne(String schluessel) {
+        Eintrag alt = eintraege.remove(schluessel);
+        if (alt == null) return;
+        alle.entfernen(alt.start, alt.ende, alt.id);
+        if (alt.lieferant == null) return;
+        IntervallBaum<PdfDokument> baum = proLieferant.get(alt.lieferant);
+        if (baum != null) {
+            baum.entfernen(alt.start, alt.ende, alt.id);
+            if (baum.groesse() == 0) proLieferant.remove(alt.lieferant);
+        }
+        TreeMap<YearMonth, Integer> monate = monateProLieferant.get(alt.lieferant);
+        if (monate != null) {
+            YearMonth letzter = YearMonth.from(LocalDate.ofEpochDay(alt.ende));
+            for (YearMonth m = YearMonth.from(LocalDate.ofEpochDay(alt.start)); !m.isAfter(letzter); m = m.plusMonths(1)) {
+                monate.computeIfPresent(m, (k, anzahl) -> anzahl > 1 ? anzahl - 1 : null);
+            }
+            if (monate.isEmpty()) monateProLieferant.remove(alt.lieferant);
+        }
+    }
+
+    /**
+     * @param datum Das Datum.
+     * @return Alle Rechnungen, deren Abrechnungszeitraum das Datum enthält.
+     */
+    public synchronized List<PdfDokument> findeAbdeckend(LocalDate datum) {
+        return alle.enthaltend(datum.toEpochDay());
+    }
+
+    /**
+     * @param doc Ein Dokument mit Abrechnungszeitraum.
+     * @return Alle anderen Rechnungen desselben Lieferanten, deren Zeitraum sich mit dem des Dokuments überschneidet
+     *         (leer bei unbekanntem Lieferanten).
+     */
+    public synchronized List<ZeitraumUeberschneidung> findeUeberschneidungen(PdfDokument doc) {
+        LocalDate start = startVon(doc);
+        LocalDate ende = endeVon(doc);
+        if (start == null || ende == null || doc.getLieferant() == null) return Collections.emptyList();
+        return findeUeberschneidungen(doc.getLieferant(), start, ende, doc);
+    }
+
+    /**
+     * Ermittelt die Monate ohne Rechnung zwischen der ersten und der letzten Rechnung eines Lieferanten.
+     * Der Aufwand hängt nur von der Anzahl abgedeckter Monate ab, nicht von der Anzahl der Rechnungen.
+     * @param lieferant Der Lieferant (siehe {@link PdfDokument#getLieferant()}).
+     * @return Die fehlenden Monate in aufsteigender Reihenfolge.
+     */
+    public synchronized List<YearMonth> findeLuecken(String lieferant) {
+        TreeMap<YearMonth, Integer> monate = lieferant != null ? monateProLieferant.get(lieferant) : null;
+        if (monate == null || monate.isEmpty()) return Collections.emptyList();
+        List<YearMonth> luecken = new ArrayList<>();
+        YearMonth vorheriger = null;
+        for (YearMonth m : monate.keySet()) {
+            if (vorheriger != null) {
+                for (YearMonth fehlend = vorheriger.plusMonths(1); fehlend.isBefore(m); fehlend = fehlend.plusMonths(1)) {
+                    luecken.add(fehlend);
+                }
+            }
+            vorheriger = m;
+        }
+        return luecken;
+    }
+
+    /** @return Alle Lieferanten mit mindestens einer Rechnung mit Abrechnungszeitraum (sortiert). */
+    public synchronized Set<String> getLieferanten() {
+        return new TreeSet<>(proLieferant.keySet());
+    }
+
+    // --- Hilfsmethoden ---
+
+    private List<ZeitraumUeberschneidung> findeUeberschneidungen(String lieferant, LocalDate start, LocalDate ende, PdfDokument doc) {
+        IntervallBaum<PdfDokument> baum = proLieferant.get(lieferant);
+        if (baum == null) return Collections.emptyList();
+        List<ZeitraumUeberschneidung> ergebnis = new ArrayList<>();
+        for (PdfDokument anderes : baum.ueberlappend(start.toEpochDay(), ende.toEpochDay())) {
+            if (anderes == doc || anderes.equals(doc)) continue;
+            LocalDate ueStart = max(start, startVon(anderes));
+            LocalDate ueEnde = min(ende, endeVon(anderes));
+            ergebnis.add(new ZeitraumUeberschneidung(doc, anderes, ueStart, ueEnde));
+        }
+        return ergebnis;
+    }
+
+    private static LocalDate startVon(PdfDokument doc) {
+        return doc.getAbrechnungszeitraumStart() != null ? doc.getAbrechnungszeitraumStart() : doc.getAbrechnungszeitraumEnde();
+    }
+
+    private static LocalDate endeVon(PdfDokument doc) {
+        LocalDate start = startVon(doc);
+        LocalDate ende = doc.getAbrechnungszeitraumEnde() != null ? doc.getAbrechnungszeitraumEnde() : start;
+        // Unplausible Angaben (Ende vor Beginn) als eintägigen Zeitraum behandeln
+        return (start != null && ende != null && ende.isBefore(start)) ? start : ende;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -13,7 +13,10 @@ import java.beans.PropertyChangeSupport;
 
 // IO und NIO für Dateipfade und Exceptions
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
 
 // Java Util für Listen, Maps, Optional etc.
 import java.util.ArrayList;
@@ -25,9 +28,12 @@ import java.util.Objects; // Import für Objects.equals
 import java.util.Optional;
 
 // Java Concurrency für Hintergrundverarbeitung
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit; // Für shutdown
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer; // Für Callback
 
 /**
@@ -39,10 +45,17 @@ import java.util.function.Consumer; // Für Callback
 public class AnwendungsModell {
     private static final Logger log = LoggerFactory.getLogger(AnwendungsModell.class);
 
+    // Metriken je Dokument (siehe MetrikRegistry; Erfassen ohne Objekterzeugung)
+    private static final LatenzHistogramm UEBERNAHME_MS = MetrikRegistry.global().latenz("modell.uebernahme", "Übernahme eines Dokuments in Liste und Indizes (ms)");
+    private static final LatenzHistogramm VERARBEITUNG_MS = MetrikRegistry.global().latenz("modell.verarbeitung", "Verarbeitung eines PDFs im Pool, Extraktion bis Übernahme (ms)");
+    private static final LongAdder UNERWARTETE_FEHLER = MetrikRegistry.global().zaehler("modell.unerwarteteFehler", "Ausnahmen bei der Verarbeitung im Pool");
+
     // Konstanten für Property-Namen (Events für die View)
     public static final String DOCUMENTS_UPDATED_PROPERTY = "documentsUpdated"; // Liste der Dokumente geändert
     public static final String SELECTED_DOCUMENT_PROPERTY = "selectedDocument"; // Ausgewähltes PDF geändert
     public static final String SELECTED_TABLE_PROPERTY = "selectedTable";       // Ausgewählte Tabelle geändert
+    public static final String DUPLICATES_FOUND_PROPERTY = "duplicatesFound";   // Duplikat(e) beim Einfügen erkannt
+    public static final String BILLING_OVERLAP_PROPERTY = "billingOverlap";     // Überschneidende Abrechnungszeiträume erkannt
 
     // Zustand des Modells
     private final List<PdfDokument> dokumente = Collections.synchronizedList(new ArrayList<>()); // Thread-sichere Liste für Dokumente
@@ -52,21 +65,71 @@ public class AnwendungsModell {
     // Service-Klassen für externe Aufgaben
     private final ExtraktionsService extraktionsService; // Für die PDF-Extraktion via Python
     private final ExcelExportService excelExportService; // Für den Excel-Export
+    private final AufgeteilterExportService aufgeteilterExportService; // Export in mehrere Dateien (parallel)
+    private final CsvExportService csvExportService = new CsvExportService(); // CSV für ETL-Jobs
+    private final NdjsonExportService ndjsonExportService = new NdjsonExportService(); // NDJSON (optional gzip)
+    private final DatenbankExportService datenbankExportService = new DatenbankExportService(); // Eingebettete H2-Datenbank
+    private final SeitenVorschauService seitenVorschauService = new SeitenVorschauService(); // PDF-Seitenvorschau mit Cache
+    private final AbfrageEngine abfrageEngine = new AbfrageEngine(); // Auswertungen über alle Zeilen
+
+    // Indizes über den Dokumentenbestand
+    private final DuplikatIndex duplikatIndex = new DuplikatIndex(); // Erkennt doppelt gelieferte Rechnungen
+    private final VolltextIndex volltextIndex = new VolltextIndex(); // Volltextsuche über alle Zellen
+    private final AbrechnungszeitraumIndex zeitraumIndex = new AbrechnungszeitraumIndex(); // Abdeckung und Überschneidungen
 
     // MVC Unterstützung
     private final PropertyChangeSupport support = new PropertyChangeSupport(this);
 
-    // Thread-Pool für asynchrone Extraktion
-    private final ExecutorService executorService = Executors.newFixedThreadPool(
-            Runtime.getRuntime().availableProcessors() // Nutze verfügbare Prozessorkerne
-    );
+    // Thread-Pool für asynchrone Extraktion (als ThreadPoolExecutor, damit die Warteschlange messbar ist)
+    private final ThreadPoolExecutor executorService;
+    // Kennzahlen der Extraktion (Warteschlange, Durchsatz, Laufzeiten je Stufe) für das Dashboard
+    private final PipelineStatistik pipelineStatistik;
+    // Optionales Jobprotokoll für Kapazitätsplanung (null = aus)
+    private volatile JobRekorder jobRekorder;
 
     /**
      * Konstruktor: Initialisiert die Service-Klassen.
      */
     public AnwendungsModell() {
-        this.extraktionsService = new ExtraktionsService();
+        this(new ExtraktionsService(), Runtime.getRuntime().availableProcessors()); // Nutze verfügbare Prozessorkerne
+    }
+
+    /**
+     * Konstruktor mit eigenem Extraktionsservice und fester Zahl paralleler Extraktionen,
+     * z.B. für Durchsatzmessungen mit einem Stub-Skript bei verschiedenen Parallelitätsstufen.
+     * @param extraktionsService Der zu verwendende Extraktionsservice.
+     * @param worker Anzahl der Threads im Extraktions-Pool (mindestens 1).
+     */
+    public AnwendungsModell(ExtraktionsService extraktionsService, int worker) {
+        if (worker < 1) throw new IllegalArgumentException("Workeranzahl muss mindestens 1 sein: " + worker);
+        this.extraktionsService = extraktionsService;
         this.excelExportService = new ExcelExportService();
+        this.aufgeteilterExportService = new AufgeteilterExportService(excelExportService);
+        this.executorService = new ThreadPoolExecutor(worker, worker, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        this.pipelineStatistik = new PipelineStatistik(worker);
+        registriereMetriken();
+    }
+
+    /**
+     * Stellt Warteschlange, Pool-Auslastung und Bestand als Messwerte in der {@link MetrikRegistry} bereit
+     * (ein später erzeugtes Modell ersetzt diese Messwerte).
+     */
+    private void registriereMetriken() {
+        MetrikRegistry metriken = MetrikRegistry.global();
+        metriken.messwert("modell.warteschlange", "Auf einen Worker wartende PDFs", () -> executorService.getQueue().size());
+        metriken.messwert("modell.aktiveWorker", "Gerade extrahierende Worker", executorService::getActiveCount);
+        metriken.messwert("modell.worker", "Größe des Extraktions-Pools", executorService::getMaximumPoolSize);
+        metriken.messwert("modell.dokumente", "Dokumente im Modell", dokumente::size);
+        metriken.messwert("modell.volltextTokens", "Unterschiedliche Tokens im Volltextindex", volltextIndex::getTokenAnzahl);
+    }
+
+    /**
+     * Schaltet das Jobprotokoll ein oder aus. Ab dann wird jedes verarbeitete PDF aufgezeichnet; der Rekorder
+     * wird mit {@link #shutdownExecutor()} geschlossen.
+     * @param jobRekorder Der Rekorder, oder null zum Ausschalten (ein bisheriger Rekorder bleibt offen).
+     */
+    public void setJobRekorder(JobRekorder jobRekorder) {
+        this.jobRekorder = jobRekorder;
     }
 
     // --- PropertyChange Support Methoden (Standard MVC) ---
@@ -81,6 +144,14 @@ public class AnwendungsModell {
 
     // --- Getter für den Modellzustand ---
 
+    /**
+     * Gibt die laufenden Kennzahlen der PDF-Verarbeitung zurück (wird von den Worker-Threads fortgeschrieben).
+     * @return Die Statistik.
+     */
+    public PipelineStatistik getPipelineStatistik() {
+        return pipelineStatistik;
+    }
+
     /**
      * Gibt eine thread-sichere Kopie der Liste aller verarbeiteten Dokumente zurück.
      * Die Liste ist nach Abrechnungsdatum (falls vorhanden) und Dateiname sortiert.
@@ -179,13 +250,16 @@ public class AnwendungsModell {
     public void setAusgewaehlteTabelle(ExtrahierteTabelle selectedTable) {
          log.info("AnwendungsModell.setAusgewaehlteTabelle wird aufgerufen für: {}", selectedTable);
          ExtrahierteTabelle oldSelection = this.ausgewaehlteTabelle;
-         // Nur fortfahren und Event feuern, wenn sich die Auswahl tatsächlich ändert
-         if (!Objects.equals(oldSelection, selectedTable)) {
+         // Nur fortfahren und Event feuern, wenn sich die Auswahl tatsächlich ändert.
+         // Vergleich über die Identität: Tabellen verschiedener Dokumente mit gleicher Seite/Index sind "equals".
+         if (oldSelection != selectedTable) {
              this.ausgewaehlteTabelle = selectedTable;
              log.info("--> Tabellen-Auswahl hat sich geändert. Feuere PropertyChangeEvent '{}'.", SELECTED_TABLE_PROPERTY);
+             // Bei "equals"-gleichen Tabellen alten Wert weglassen, sonst unterdrückt PropertyChangeSupport das Event
+             final ExtrahierteTabelle alterWert = Objects.equals(oldSelection, selectedTable) ? null : oldSelection;
              // Feuere Event im EDT für die GUI
              SwingUtilities.invokeLater(() -> {
-                support.firePropertyChange(SELECTED_TABLE_PROPERTY, oldSelection, this.ausgewaehlteTabelle);
+                support.firePropertyChange(SELECTED_TABLE_PROPERTY, alterWert, this.ausgewaehlteTabelle);
              });
          } else {
               log.debug("--> Tabellen-Auswahl hat sich NICHT geändert.");
@@ -204,33 +278,81 @@ public class AnwendungsModell {
      * @param parameter Map mit Extraktionsparametern (z.B. "flavor", "row_tol") für Camelot.
      * @param onSingleDocumentProcessedForStatus Optionaler Callback, der nach der Verarbeitung *jedes einzelnen*
      *                                           Dokuments aufgerufen wird (nützlich für Status-Updates in der GUI).
+     * @return Ein Future, das abgeschlossen ist, sobald alle PDFs verarbeitet und übernommen wurden
+     *         (z.B. für die Kommandozeile, die vor der Auswertung warten muss).
+     */
+    public CompletableFuture<Void> ladeUndVerarbeitePdfs(List<Path> pdfPfade, Map<String, String> parameter, Consumer<PdfDokument> onSingleDocumentProcessedForStatus) {
+        return verarbeitePdfs(pdfPfade, parameter, onSingleDocumentProcessedForStatus, null);
+    }
+
+    /**
+     * Wie {@link #ladeUndVerarbeitePdfs}, exportiert aber jedes Dokument schon während der Verarbeitung
+     * über eine {@link ExportPipeline}, sodass die Exportdatei kurz nach dem letzten Dokument fertig ist.
+     *
+     * @param pdfPfade Liste der zu verarbeitenden PDF-Pfade (bestimmt die Reihenfolge in der Datei).
+     * @param parameter Map mit Extraktionsparametern für Camelot.
+     * @param onSingleDocumentProcessedForStatus Optionaler Callback je verarbeitetem Dokument.
+     * @param zielPfad Die Exportdatei (CSV, bzw. NDJSON bei ".ndjson"/".jsonl", optional ".gz").
+     * @param nachZeitraumSortieren true = Dokumente in der Datei nach Abrechnungszeitraum ordnen.
+     * @return Ein Future mit der Zieldatei, das abgeschlossen ist, sobald alle PDFs verarbeitet und exportiert sind.
      */
-    public void ladeUndVerarbeitePdfs(List<Path> pdfPfade, Map<String, String> parameter, Consumer<PdfDokument> onSingleDocumentProcessedForStatus) {
+    public CompletableFuture<Path> ladeUndExportiereFortlaufend(List<Path> pdfPfade, Map<String, String> parameter, Consumer<PdfDokument> onSingleDocumentProcessedForStatus,
+                                                              Path zielPfad, boolean nachZeitraumSortieren) {
+        ExportPipeline pipeline;
+        try {
+            pipeline = new ExportPipeline(zielPfad, nachZeitraumSortieren, ExportPipeline.STANDARD_KAPAZITAET);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return verarbeitePdfs(pdfPfade, parameter, onSingleDocumentProcessedForStatus, pipeline)
+                .thenApplyAsync(v -> {
+                    try {
+                        return pipeline.abschliessen();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CompletionException(e);
+                    }
+                }, executorService);
+    }
+
+    private CompletableFuture<Void> verarbeitePdfs(List<Path> pdfPfade, Map<String, String> parameter, Consumer<PdfDokument> onSingleDocumentProcessedForStatus, ExportPipeline pipeline) {
         log.info("Starte Ladevorgang für {} PDFs mit Parametern: {}", pdfPfade.size(), parameter);
-        for (Path pdfPfad : pdfPfade) {
+        List<CompletableFuture<Void>> auftraege = new ArrayList<>();
+        pipelineStatistik.eingereicht(pdfPfade.size());
+        final long ankunftMillis = System.currentTimeMillis(); // Für das Jobprotokoll: alle PDFs des Aufrufs kommen zugleich an
+        final long ankunftNanos = System.nanoTime();
+        for (int i = 0; i < pdfPfade.size(); i++) {
             // Erstelle eine finale Kopie der Parameter für den Lambda-Ausdruck
             final Map<String, String> aktuelleParameter = (parameter != null) ? new HashMap<>(parameter) : Collections.emptyMap();
-            final Path aktuellerPdfPfad = pdfPfad; // Finale Referenz für Lambda
+            final Path aktuellerPdfPfad = pdfPfade.get(i); // Finale Referenz für Lambda
+            final int position = i; // Position in der Eingabeliste (Reihenfolge im fortlaufenden Export)
 
             // *** KEINE Prüfung auf 'schonVorhanden' mehr, um Neuverarbeitung mit anderen Parametern zu ermöglichen ***
             log.info("Reiche PDF zur Verarbeitung ein: {} mit Parametern: {}", aktuellerPdfPfad, aktuelleParameter);
 
-            executorService.submit(() -> { // Starte Verarbeitung im Thread-Pool
+            auftraege.add(CompletableFuture.runAsync(() -> { // Starte Verarbeitung im Thread-Pool
                 PdfDokument verarbeitetesDoc = null;
                 boolean listUpdated = false; // Flag, ob die Liste geändert wurde
+                pipelineStatistik.gestartet();
+                final long startNanos = System.nanoTime();
+                final long wartezeitNanos = startNanos - ankunftNanos;
+                final StufenZeiten zeiten = new StufenZeiten();
+                final DokumentVerlaufEreignis verlauf = DokumentVerlaufEreignis.beginne(); // JFR: ganzer Verlauf des Dokuments
                 try {
                     // Rufe den Extraktionsservice mit den spezifischen Parametern auf
-                    verarbeitetesDoc = extraktionsService.extrahiereTabellenAusPdf(aktuellerPdfPfad, aktuelleParameter);
-
-                    // Synchronisiere den Zugriff auf die gemeinsame Dokumentenliste
-                    synchronized (dokumente) {
-                        // Entferne IMMER den alten Eintrag (falls vorhanden), um ihn durch den neuen zu ersetzen
-                        final String pfadStr = aktuellerPdfPfad.toString(); // Finale Variable für Lambda
-                        dokumente.removeIf(d -> d.getFullPath() != null && d.getFullPath().equals(pfadStr));
-                        dokumente.add(verarbeitetesDoc); // Füge neues/aktualisiertes Dokument hinzu
-                        Collections.sort(dokumente); // Halte die Liste sortiert
-                        listUpdated = true; // Markiere, dass die Liste geändert wurde
-                    }
+                    verarbeitetesDoc = extraktionsService.extrahiereTabellenAusPdf(aktuellerPdfPfad, aktuelleParameter, zeiten);
+
+                    // Übernimm das Dokument in die Liste und die Indizes
+                    long uebernahmeStart = System.nanoTime();
+                    ExtraktionsStufeEreignis schritt = ExtraktionsStufeEreignis.beginne(
+                            aktuellerPdfPfad.getFileName().toString(), ExtraktionsStufeEreignis.UEBERNAHME);
+                    uebernehmeDokument(aktuellerPdfPfad, verarbeitetesDoc);
+                    schritt.beende(zeiten);
+                    zeiten.erfasse(Verarbeitungsstufe.UEBERNAHME, uebernahmeStart);
+                    UEBERNAHME_MS.erfasse((System.nanoTime() - uebernahmeStart) / 1_000_000);
+                    listUpdated = true; // Markiere, dass die Liste geändert wurde
                     // Rufe den optionalen Callback für Status-Updates auf
                     if (onSingleDocumentProcessedForStatus != null) {
                          onSingleDocumentProcessedForStatus.accept(verarbeitetesDoc);
@@ -239,24 +361,32 @@ public class AnwendungsModell {
                 } catch (Exception e) {
                     // Fehlerbehandlung bei Extraktion
                     log.error("Fehler bei der Verarbeitung von PDF im Hintergrund-Thread: {}", aktuellerPdfPfad, e);
+                    UNERWARTETE_FEHLER.increment();
                     // Erstelle ein Fehler-Dokumentobjekt
                     verarbeitetesDoc = new PdfDokument();
                     verarbeitetesDoc.setSourcePdf(aktuellerPdfPfad.getFileName().toString());
                     verarbeitetesDoc.setFullPath(aktuellerPdfPfad.toString());
                     verarbeitetesDoc.setError("Fehler während der Verarbeitung: " + e.getMessage());
-                    // Füge das Fehler-Dokument zur Liste hinzu (synchronisiert)
-                    synchronized (dokumente) {
-                        final String pfadStr = aktuellerPdfPfad.toString(); // Finale Variable für Lambda
-                        dokumente.removeIf(d -> d.getFullPath() != null && d.getFullPath().equals(pfadStr));
-                        dokumente.add(verarbeitetesDoc);
-                        Collections.sort(dokumente);
-                        listUpdated = true; // Liste wurde geändert (Fehlereintrag hinzugefügt)
-                    }
+                    // Füge das Fehler-Dokument zur Liste hinzu
+                    uebernehmeDokument(aktuellerPdfPfad, verarbeitetesDoc);
+                    listUpdated = true; // Liste wurde geändert (Fehlereintrag hinzugefügt)
                      // Rufe den optionalen Callback für Status-Updates auf
                     if (onSingleDocumentProcessedForStatus != null) {
                          onSingleDocumentProcessedForStatus.accept(verarbeitetesDoc);
                     }
                 } finally {
+                     zeiten.erfasse(Verarbeitungsstufe.GESAMT, startNanos);
+                     VERARBEITUNG_MS.erfasse((System.nanoTime() - startNanos) / 1_000_000);
+                     verlauf.beende(aktuellerPdfPfad.getFileName().toString(), verarbeitetesDoc, zeiten);
+                     if (log.isDebugEnabled()) {
+                          log.debug("--> Verlauf {}: {}", aktuellerPdfPfad.getFileName(), zeiten.verlaufAlsText(ExtraktionsStufeEreignis.ERSTES_BYTE));
+                     }
+                     pipelineStatistik.abgeschlossen(verarbeitetesDoc, zeiten);
+                     JobRekorder rekorder = jobRekorder;
+                     if (rekorder != null) {
+                          rekorder.erfasse(aktuellerPdfPfad, aktuelleParameter, ankunftMillis, wartezeitNanos,
+                                  executorService.getMaximumPoolSize(), zeiten, verarbeitetesDoc);
+                     }
                      // Feuere das Update-Event für die View, wenn die Liste geändert wurde
                      if (listUpdated) {
                           log.debug("Feuere PropertyChangeEvent '{}'", DOCUMENTS_UPDATED_PROPERTY);
@@ -266,9 +396,143 @@ public class AnwendungsModell {
                                 support.firePropertyChange(DOCUMENTS_UPDATED_PROPERTY, null, getDokumente());
                           });
                      }
+                     // Fertiges Dokument an den fortlaufenden Export übergeben (blockiert bei voller Warteschlange).
+                     // Im finally, damit jede Position genau einmal übergeben wird und die Pipeline nicht auf sie wartet.
+                     if (pipeline != null) {
+                          try {
+                               pipeline.uebergebe(position, verarbeitetesDoc);
+                          } catch (InterruptedException e) {
+                               log.warn("Übergabe von {} an den Export unterbrochen.", aktuellerPdfPfad);
+                               Thread.currentThread().interrupt();
+                          }
+                     }
                 }
-            }); // Ende des Runnables für den ExecutorService
+            }, executorService)); // Ende des Runnables für den ExecutorService
         } // Ende der for-Schleife über pdfPfade
+        return CompletableFuture.allOf(auftraege.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((v, e) -> log.info("Ladevorgang abgeschlossen: {}", pipelineStatistik.zusammenfassung()));
+    }
+
+    /**
+     * Übernimmt ein verarbeitetes Dokument in die Dokumentenliste (ersetzt einen alten Eintrag
+     * für denselben Pfad) und aktualisiert die Indizes. Wird aus den Hintergrund-Threads aufgerufen
+     * (paketweit sichtbar für die Benchmarks im Modul "benchmarks").
+     * @param pdfPfad Der Pfad, unter dem das Dokument verarbeitet wurde.
+     * @param doc Das verarbeitete Dokument (auch Fehler-Dokumente).
+     */
+    void uebernehmeDokument(Path pdfPfad, PdfDokument doc) {
+        // Synchronisiere den Zugriff auf die gemeinsame Dokumentenliste
+        synchronized (dokumente) {
+            // Entferne IMMER den alten Eintrag (falls vorhanden), um ihn durch den neuen zu ersetzen
+            final String pfadStr = pdfPfad.toString(); // Finale Variable für Lambda
+            dokumente.removeIf(d -> d.getFullPath() != null && d.getFullPath().equals(pfadStr));
+            dokumente.add(doc); // Füge neues/aktualisiertes Dokument hinzu
+            Collections.sort(dokumente); // Halte die Liste sortiert
+        }
+        // Ersetzt das Dokument das ausgewählte (Neuverarbeitung), folgt die Auswahl dem neuen Objekt
+        SwingUtilities.invokeLater(() -> folgeNeuVerarbeitetemDokument(doc));
+
+        // Indizes aktualisieren (alle ersetzen einen alten Eintrag für denselben Pfad selbst)
+        volltextIndex.indiziere(doc);
+        List<ZeitraumUeberschneidung> ueberschneidungen = zeitraumIndex.fuegeHinzu(doc);
+        if (!ueberschneidungen.isEmpty()) {
+            log.warn("Überschneidende Abrechnungszeiträume für '{}' (Lieferant '{}'): {}", doc.getSourcePdf(), doc.getLieferant(), ueberschneidungen);
+            SwingUtilities.invokeLater(() -> {
+                support.firePropertyChange(BILLING_OVERLAP_PROPERTY, null, ueberschneidungen);
+            });
+        }
+        List<DuplikatTreffer> duplikate = duplikatIndex.pruefeUndFuegeHinzu(doc);
+        if (!duplikate.isEmpty()) {
+            log.warn("Mögliche Duplikate für '{}' erkannt: {}", doc.getSourcePdf(), duplikate);
+            SwingUtilities.invokeLater(() -> {
+                support.firePropertyChange(DUPLICATES_FOUND_PROPERTY, null, duplikate);
+            });
+        }
+    }
+
+    /**
+     * Ersetzt die Auswahl durch das neu verarbeitete Dokument, wenn dieses das ausgewählte Dokument ersetzt
+     * (gleicher Pfad). Ausgewählt wird die Tabelle mit gleicher Seite und gleichem Index im neuen Dokument
+     * (sonst die erste), damit die Anzeige den neuen Stand derselben Tabelle übernehmen kann. Läuft im EDT.
+     * @param doc Das gerade übernommene Dokument.
+     */
+    private void folgeNeuVerarbeitetemDokument(PdfDokument doc) {
+        PdfDokument bisher = this.ausgewaehltesDokument;
+        if (bisher == null || bisher == doc || !bisher.equals(doc)) return;
+        ExtrahierteTabelle bisherigeTabelle = this.ausgewaehlteTabelle;
+        this.ausgewaehltesDokument = doc;
+        log.info("--> Ausgewähltes PDF '{}' wurde neu verarbeitet. Feuere PropertyChangeEvent '{}'.", doc.getSourcePdf(), SELECTED_DOCUMENT_PROPERTY);
+        // Alten Wert weglassen, sonst unterdrückt PropertyChangeSupport das Event (gleicher Pfad = "equals")
+        SwingUtilities.invokeLater(() -> {
+            support.firePropertyChange(SELECTED_DOCUMENT_PROPERTY, null, doc);
+        });
+
+        List<ExtrahierteTabelle> tabellen = getVerfuegbareTabellen();
+        ExtrahierteTabelle neueTabelle = tabellen.isEmpty() ? null : tabellen.get(0);
+        if (bisherigeTabelle != null) {
+            for (ExtrahierteTabelle tabelle : tabellen) {
+                if (tabelle.equals(bisherigeTabelle)) { // Gleiche Seite und gleicher Index
+                    neueTabelle = tabelle;
+                    break;
+                }
+            }
+        }
+        setAusgewaehlteTabelle(neueTabelle);
+    }
+
+    /**
+     * Gibt die beim Einfügen erkannten Duplikate eines Dokuments zurück.
+     * @param doc Das Dokument.
+     * @return Liste der Duplikat-Treffer (leer, wenn keine erkannt wurden).
+     */
+    public List<DuplikatTreffer> getDuplikate(PdfDokument doc) {
+        return duplikatIndex.getTreffer(doc);
+    }
+
+    /**
+     * @param datum Ein Datum.
+     * @return Alle Rechnungen, deren Abrechnungszeitraum das Datum abdeckt.
+     */
+    public List<PdfDokument> findeRechnungenFuerDatum(LocalDate datum) {
+        return zeitraumIndex.findeAbdeckend(datum);
+    }
+
+    /**
+     * @param doc Ein geladenes Dokument.
+     * @return Rechnungen desselben Lieferanten mit überschneidendem Abrechnungszeitraum.
+     */
+    public List<ZeitraumUeberschneidung> findeUeberschneidungen(PdfDokument doc) {
+        return zeitraumIndex.findeUeberschneidungen(doc);
+    }
+
+    /**
+     * @param lieferant Der Lieferant (siehe {@link PdfDokument#getLieferant()}).
+     * @return Monate ohne Rechnung zwischen erster und letzter Rechnung des Lieferanten.
+     */
+    public List<YearMonth> findeAbdeckungsluecken(String lieferant) {
+        return zeitraumIndex.findeLuecken(lieferant);
+    }
+
+    /**
+     * Durchsucht die Zellen aller geladenen Tabellen (Volltextsuche, letztes Wort als Präfix).
+     * Thread-sicher; kann aus einem Hintergrund-Thread aufgerufen werden.
+     * @param anfrage Die Suchanfrage.
+     * @param maxTreffer Maximale Anzahl an Treffern.
+     * @return Liste der Treffer auf Zeilenebene.
+     */
+    public List<SuchTreffer> suche(String anfrage, int maxTreffer) {
+        return volltextIndex.suche(anfrage, maxTreffer);
+    }
+
+    /**
+     * Führt eine Auswertung (Filter, Gruppierung, Summe/Anzahl/Min/Max) über alle Zeilen
+     * aller geladenen Tabellen aus. Die Dokumente werden parallel verarbeitet.
+     * Thread-sicher; sollte aus einem Hintergrund-Thread aufgerufen werden.
+     * @param abfrage Die Abfrage.
+     * @return Das Ergebnis.
+     */
+    public AbfrageErgebnis fuehreAbfrageAus(Abfrage abfrage) {
+        return abfrageEngine.ausfuehren(getDokumente(), abfrage);
     }
 
      /**
@@ -283,12 +547,83 @@ public class AnwendungsModell {
         excelExportService.exportiereNachExcel(getDokumente(), zielPfad);
     }
 
+    /**
+     * Exportiert alle geladenen Dokumente aufgeteilt auf mehrere Excel-Dateien, die parallel
+     * erstellt werden, und schreibt eine Übersichtsdatei mit Verweisen auf die Teile.
+     *
+     * @param basisPfad Pfad der Gesamtdatei; die Teildateien entstehen daneben mit Namenszusatz.
+     * @param aufteilung Das Aufteilungskriterium.
+     * @param zeilenLimit Maximale Zeilenzahl je Datei (nur für {@link ExportAufteilung#ZEILENLIMIT}).
+     * @return Die geschriebenen Dateien.
+     * @throws IOException Wenn ein Fehler beim Schreiben auftritt.
+     */
+    public List<Path> exportiereAufgeteiltNachExcel(Path basisPfad, ExportAufteilung aufteilung, int zeilenLimit) throws IOException {
+        return aufgeteilterExportService.exportiere(getDokumente(), basisPfad, aufteilung, zeilenLimit);
+    }
+
+    /**
+     * Exportiert alle Zeilen aller geladenen Dokumente als CSV (Semikolon-getrennt, UTF-8).
+     * @param zielPfad Die CSV-Datei.
+     * @throws IOException Wenn ein Fehler beim Schreiben auftritt.
+     */
+    public void exportiereAlleNachCsv(Path zielPfad) throws IOException {
+        csvExportService.exportiere(getDokumente(), zielPfad);
+    }
+
+    /**
+     * Exportiert alle Zeilen aller geladenen Dokumente als NDJSON (bei Endung ".gz" komprimiert).
+     * @param zielPfad Die NDJSON-Datei.
+     * @throws IOException Wenn ein Fehler beim Schreiben auftritt.
+     */
+    public void exportiereAlleNachNdjson(Path zielPfad) throws IOException {
+        ndjsonExportService.exportiere(getDokumente(), zielPfad);
+    }
+
+    /**
+     * Schreibt alle geladenen Dokumente inkrementell in eine eingebettete H2-Datenbank
+     * (Dokumente mit bereits vorhandenem PDF-Inhalt werden übersprungen).
+     * @param datenbankDatei Die Datenbankdatei (".mv.db", wird bei Bedarf angelegt).
+     * @return Die Zusammenfassung des Exports.
+     * @throws IOException Wenn ein Datenbankfehler auftritt.
+     */
+    public DatenbankExportErgebnis exportiereAlleNachDatenbank(Path datenbankDatei) throws IOException {
+        return exportiereAlleNachDatenbank(datenbankDatei, false);
+    }
+
+    /**
+     * Wie {@link #exportiereAlleNachDatenbank(Path)}, ersetzt auf Wunsch aber Tabellen und Zeilen bereits
+     * vorhandener Dokumente (z.B. nach erneuter Extraktion mit anderen Parametern).
+     * @param datenbankDatei Die Datenbankdatei (".mv.db", wird bei Bedarf angelegt).
+     * @param ueberschreiben true = vorhandene Dokumente neu schreiben.
+     * @return Die Zusammenfassung des Exports.
+     * @throws IOException Wenn ein Datenbankfehler auftritt.
+     */
+    public DatenbankExportErgebnis exportiereAlleNachDatenbank(Path datenbankDatei, boolean ueberschreiben) throws IOException {
+        DatenbankExportService service = datenbankExportService;
+        if (ueberschreiben) { // Eigene Instanz, damit die Einstellung nicht für spätere Exporte bestehen bleibt
+            service = new DatenbankExportService();
+            service.setUeberschreiben(true);
+        }
+        return service.exportiere(getDokumente(), datenbankDatei);
+    }
+
+    /**
+     * Lädt die Vorschau einer PDF-Seite im Hintergrund (aus dem Cache sofort) und lädt die Nachbarseiten voraus.
+     * @param pdfPfad Die PDF-Datei.
+     * @param seite Die Seite (1-basiert).
+     * @return Future mit der gerenderten Seite.
+     */
+    public CompletableFuture<SeitenVorschau> ladeSeitenVorschau(Path pdfPfad, int seite) {
+        return seitenVorschauService.ladeSeite(pdfPfad, seite);
+    }
+
 
     /**
      * Fährt den internen ExecutorService herunter. Sollte beim Beenden der Anwendung aufgerufen werden.
      */
     public void shutdownExecutor() {
          log.info("Fahre Executor Service herunter.");
+        seitenVorschauService.schliessen();
         executorService.shutdown(); // Initiiert das Herunterfahren, akzeptiert keine neuen Tasks
         try {
             // Warte eine kurze Zeit auf die Beendigung laufender Tasks
@@ -304,5 +639,13 @@ public class AnwendungsModell {
             // Setze den Interrupt-Status des aktuellen Threads wieder
             Thread.currentThread().interrupt();
         }
+        JobRekorder rekorder = jobRekorder;
+        if (rekorder != null) {
+            try {
+                rekorder.close();
+            } catch (IOException e) {
+                log.error("Fehler beim Schließen des Jobprotokolls.", e);
+            }
+        }
     }
 }
\ No newline at end of file
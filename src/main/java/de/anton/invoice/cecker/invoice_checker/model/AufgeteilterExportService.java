@@ -0,0 +1,247 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.apache.poi.common.usermodel.HyperlinkType;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exportiert die Dokumente aufgeteilt auf mehrere Excel-Dateien (Abrechnungsmonat, Lieferant
+ * oder Zeilenlimit). Jede Teildatei wird in einem eigenen Thread mit einer eigenen Arbeitsmappe
+ * erstellt (POI-Arbeitsmappen sind nicht thread-sicher), sodass alle Kerne genutzt werden.
+ * Zusätzlich entsteht eine Übersichtsdatei mit Verweisen (Hyperlinks) auf die Teildateien.
+ */
+public class AufgeteilterExportService {
+    private static final Logger log = LoggerFactory.getLogger(AufgeteilterExportService.class);
+
+    public static final int STANDARD_ZEILENLIMIT = 100_000;
+    private static final String UEBERSICHT = "Uebersicht";
+
+    private final ExcelExportService vorlage; // Liefert die Einstellungen (Streaming, Fenster, Stichprobe)
+    private int threadAnzahl = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * @param vorlage Exportdienst, dessen Einstellungen für alle Teildateien übernommen werden.
+     */
+    public AufgeteilterExportService(ExcelExportService vorlage) {
+        this.vorlage = vorlage;
+    }
+
+    public void setThreadAnzahl(int threadAnzahl) {
+        if (threadAnzahl < 1) throw new IllegalArgumentException("Threadanzahl muss mindestens 1 sein: " + threadAnzahl);
+        this.threadAnzahl = threadAnzahl;
+    }
+
+    /**
+     * Exportiert die Dokumente aufgeteilt in mehrere Dateien neben dem Basispfad.
+     * Aus "Export.xlsx" werden z.B. "Export_2024-01.xlsx", "Export_2024-02.xlsx" und die
+     * Übersicht "Export_Uebersicht.xlsx". Ergeben zwei Teile nach dem Ersetzen von Sonderzeichen denselben
+     * Namen, erhält der spätere einen Zähler ("Export_a_b_2.xlsx").
+     *
+     * @param dokumente Die zu exportierenden Dokumente.
+     * @param basisPfad Pfad der (gedachten) Gesamtdatei; bestimmt Verzeichnis und Namensanfang.
+     * @param aufteilung Das Aufteilungskriterium ({@link ExportAufteilung#KEINE} schreibt nur die Basisdatei).
+     * @param zeilenLimit Maximale Zeilenzahl je Datei inkl. Kopfzeile bei {@link ExportAufteilung#ZEILENLIMIT}
+     *                    (höchstens {@link ExcelExportService#MAX_ZEILEN}; ein einzelnes Dokument wird nie getrennt).
+     * @return Die geschriebenen Dateien (Teildateien, zuletzt die Übersicht).
+     * @throws IOException Wenn keine Dokumente vorhanden sind oder eine Datei nicht geschrieben werden kann.
+     */
+    public List<Path> exportiere(List<PdfDokument> dokumente, Path basisPfad, ExportAufteilung aufteilung, int zeilenLimit) throws IOException {
+        if (dokumente == null || dokumente.isEmpty()) {
+            throw new IOException("Keine Dokumente zum Exportieren angegeben.");
+        }
+        List<Path> geschrieben = new ArrayList<>();
+        if (aufteilung == ExportAufteilung.KEINE) {
+            erstelleExportDienst().exportiereNachExcel(dokumente, basisPfad);
+            geschrieben.add(basisPfad);
+            return geschrieben;
+        }
+
+        Map<String, List<PdfDokument>> teile = teileAuf(dokumente, aufteilung, zeilenLimit);
+        Path uebersicht = teilPfad(basisPfad, UEBERSICHT);
+        Map<String, Path> teilPfade = teilPfade(basisPfad, teile.keySet(), uebersicht);
+        log.info("Starte aufgeteilten Export ({}) von {} Dokumenten in {} Dateien mit {} Threads.", aufteilung, dokumente.size(), teile.size(), threadAnzahl);
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threadAnzahl, teile.size()));
+        Map<String, Future<Path>> auftraege = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, List<PdfDokument>> teil : teile.entrySet()) {
+                final Path teilPfad = teilPfade.get(teil.getKey());
+                final List<PdfDokument> teilDokumente = teil.getValue();
+                auftraege.put(teil.getKey(), pool.submit(() -> {
+                    // Eigener Dienst je Teil: jede Teildatei hat ihre eigene Arbeitsmappe
+                    erstelleExportDienst().exportiereNachExcel(teilDokumente, teilPfad);
+                    return teilPfad;
+                }));
+            }
+            IOException fehler = null;
+            for (Map.Entry<String, Future<Path>> auftrag : auftraege.entrySet()) {
+                try {
+                    geschrieben.add(auftrag.getValue().get());
+                } catch (ExecutionException e) {
+                    log.error("Fehler beim Export des Teils '{}': {}", auftrag.getKey(), e.getCause().getMessage(), e.getCause());
+                    if (fehler == null) fehler = new IOException("Export des Teils '" + auftrag.getKey() + "' fehlgeschlagen: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            if (fehler != null) throw fehler;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Aufgeteilter Export wurde unterbrochen.", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        schreibeUebersicht(teile, teilPfade, uebersicht);
+        geschrieben.add(uebersicht);
+        log.info("Aufgeteilter Export abgeschlossen: {} Dateien in {} ms.", geschrieben.size(), (System.nanoTime() - start) / 1_000_000);
+        return geschrieben;
+    }
+
+    /**
+     * Teilt die Dokumente nach dem Kriterium auf. Die Reihenfolge der Dokumente bleibt je Teil erhalten.
+     * @return Teilschlüssel (sortiert bzw. in Reihenfolge) -> Dokumente.
+     */
+    static Map<String, List<PdfDokument>> teileAuf(List<PdfDokument> dokumente, ExportAufteilung aufteilung, int zeilenLimit) {
+        Map<String, List<PdfDokument>> teile;
+        switch (aufteilung) {
+            case ABRECHNUNGSMONAT:
+            case LIEFERANT:
+                teile = new TreeMap<>();
+                Gruppierung merkmal = aufteilung == ExportAufteilung.LIEFERANT ? Gruppierung.LIEFERANT : Gruppierung.ABRECHNUNGSMONAT;
+                for (PdfDokument doc : dokumente) {
+                    teile.computeIfAbsent(merkmal.wertFuer(doc, null), k -> new ArrayList<>()).add(doc);
+                }
+                return teile;
+            case ZEILENLIMIT:
+                pruefeZeilenLimit(zeilenLimit);
+                teile = new LinkedHashMap<>();
+                List<PdfDokument> aktuell = new ArrayList<>();
+                long zeilen = 1; // Kopfzeile jeder Teildatei
+                for (PdfDokument doc : dokumente) {
+                    long docZeilen = ExcelExportService.zeilenFuer(doc); // Tatsächlich geschriebene Zeilen
+                    // Neuer Teil, wenn das Dokument das Limit überschreiten würde (ein Dokument wird nie getrennt)
+                    if (!aktuell.isEmpty() && zeilen + docZeilen > zeilenLimit) {
+                        teile.put(String.format("Teil%03d", teile.size() + 1), aktuell);
+                        aktuell = new ArrayList<>();
+                        zeilen = 1;
+                    }
+                    aktuell.add(doc);
+                    zeilen += docZeilen;
+                }
+                if (!aktuell.isEmpty()) teile.put(String.format("Teil%03d", teile.size() + 1), aktuell);
+                return teile;
+            default:
+                throw new IllegalArgumentException("Keine Aufteilung für: " + aufteilung);
+        }
+    }
+
+    /**
+     * Prüft ein Zeilenlimit für {@link ExportAufteilung#ZEILENLIMIT}.
+     * @param zeilenLimit Maximale Zeilenzahl je Datei inkl. Kopfzeile.
+     * @throws IllegalArgumentException Wenn das Limit unter 2 (Kopfzeile plus eine Zeile) oder über
+     *                                  {@link ExcelExportService#MAX_ZEILEN} liegt.
+     */
+    public static void pruefeZeilenLimit(int zeilenLimit) {
+        if (zeilenLimit < 2 || zeilenLimit > ExcelExportService.MAX_ZEILEN) {
+            throw new IllegalArgumentException("Zeilenlimit muss zwischen 2 und " + ExcelExportService.MAX_ZEILEN
+                    + " liegen (inkl. Kopfzeile): " + zeilenLimit);
+        }
+    }
+
+    private ExcelExportService erstelleExportDienst() {
+        ExcelExportService dienst = new ExcelExportService();
+        dienst.setStreaming(vorlage.isStreaming());
+        dienst.setZeilenFenster(vorlage.getZeilenFenster());
+        dienst.setKomprimierteTempDateien(vorlage.isKomprimierteTempDateien());
+        dienst.setBreitenStichprobenIntervall(vorlage.getBreitenStichprobenIntervall());
+        return dienst;
+    }
+
+    /** Bildet den Dateinamen eines Teils: "Basis_Schluessel.xlsx" (Sonderzeichen werden ersetzt). */
+    static Path teilPfad(Path basisPfad, String schluessel) {
+        String name = basisPfad.getFileName().toString();
+        if (name.toLowerCase(Locale.ROOT).endsWith(".xlsx")) name = name.substring(0, name.length() - 5);
+        String bereinigt = schluessel.replaceAll("[^A-Za-z0-9äöüÄÖÜß._-]+", "_");
+        return basisPfad.resolveSibling(name + "_" + bereinigt + ".xlsx");
+    }
+
+    /**
+     * Bildet eindeutige Dateinamen für alle Teile. Namen, die nach dem Ersetzen von Sonderzeichen
+     * (ohne Beachtung der Groß-/Kleinschreibung) bereits vergeben sind, auch der der Übersicht,
+     * erhalten einen Zähler: "Basis_a_b.xlsx", "Basis_a_b_2.xlsx".
+     * @return Teilschlüssel (in Reihenfolge der Teile) -> Dateipfad.
+     */
+    static Map<String, Path> teilPfade(Path basisPfad, Set<String> schluessel, Path uebersicht) {
+        Set<String> vergeben = new HashSet<>();
+        vergeben.add(uebersicht.getFileName().toString().toLowerCase(Locale.ROOT));
+        Map<String, Path> pfade = new LinkedHashMap<>();
+        for (String s : schluessel) {
+            Path pfad = teilPfad(basisPfad, s);
+            String stamm = pfad.getFileName().toString();
+            stamm = stamm.substring(0, stamm.length() - 5);
+            for (int zaehler = 2; !vergeben.add(pfad.getFileName().toString().toLowerCase(Locale.ROOT)); zaehler++) {
+                pfad = basisPfad.resolveSibling(stamm + "_" + zaehler + ".xlsx");
+            }
+            pfade.put(s, pfad);
+        }
+        return pfade;
+    }
+
+    /**
+     * Schreibt die Übersichtsdatei: je Teil Dateiname (als Verweis), Schlüssel, Dokumente und Zeilen.
+     */
+    private void schreibeUebersicht(Map<String, List<PdfDokument>> teile, Map<String, Path> teilPfade, Path uebersicht) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook();
+             FileOutputStream fileOut = new FileOutputStream(uebersicht.toFile())) {
+            Sheet sheet = workbook.createSheet("Übersicht");
+            CreationHelper helper = workbook.getCreationHelper();
+            ZellStilPool stile = new ZellStilPool(workbook);
+            CellStyle linkStyle = stile.verweis();
+            CellStyle headerStyle = stile.kopf();
+
+            Row kopf = sheet.createRow(0);
+            String[] titel = {"Datei", "Teil", "Dokumente", "Zeilen"};
+            for (int i = 0; i < titel.length; i++) {
+                Cell cell = kopf.createCell(i);
+                cell.setCellValue(titel[i]);
+                cell.setCellStyle(headerStyle);
+            }
+            int rowIndex = 1;
+            for (Map.Entry<String, List<PdfDokument>> teil : teile.entrySet()) {
+                String dateiName = teilPfade.get(teil.getKey()).getFileName().toString();
+                Row row = sheet.createRow(rowIndex++);
+                Cell link = row.createCell(0);
+                link.setCellValue(dateiName);
+                Hyperlink hyperlink = helper.createHyperlink(HyperlinkType.FILE);
+                hyperlink.setAddress(dateiName); // Relativ: Teildateien liegen neben der Übersicht
+                link.setHyperlink(hyperlink);
+                link.setCellStyle(linkStyle);
+                row.createCell(1).setCellValue(teil.getKey());
+                row.createCell(2).setCellValue(teil.getValue().size());
+                long zeilen = 0;
+                for (PdfDokument doc : teil.getValue()) zeilen += ExcelExportService.zeilenFuer(doc);
+                row.createCell(3).setCellValue(zeilen);
+            }
+            for (int i = 0; i < titel.length; i++) sheet.autoSizeColumn(i); // Nur wenige Zeilen
+            workbook.write(fileOut);
+        }
+    }
+}
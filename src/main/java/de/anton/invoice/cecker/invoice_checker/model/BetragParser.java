@@ -0,0 +1,180 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+/**
+ * Schneller, allokationsfreier Parser für Zahlen und Geldbeträge aus Tabellenzellen.
+ * Versteht deutsche ("1.234,56 €", "-12,5") und englische ("1,234.56", "12.5") Schreibweisen,
+ * Währungszeichen/-kürzel, nachgestellte Minuszeichen ("12,50-") und Klammern für negative Werte.
+ * Tausendertrenner (Punkt, Komma, Leerzeichen, Apostroph) müssen einheitlich sein und Dreiergruppen bilden,
+ * damit zusammengelaufene Zellen wie "2 12,50" (Menge und Preis) nicht als Zahl gelten.
+ * Liefert {@link Double#NaN}, wenn die Zelle keine Zahl ist.
+ */
+public final class BetragParser {
+
+    private BetragParser() {
+        // Nur statische Methoden
+    }
+
+    /**
+     * Interpretiert eine Zelle als Zahl.
+     * @param text Der Zellinhalt.
+     * @return Der Zahlenwert oder NaN, wenn der Text keine Zahl darstellt.
+     */
+    public static double parse(String text) {
+        if (text == null) return Double.NaN;
+        int anfang = 0;
+        int ende = text.length();
+        // Leerraum, Währungszeichen und -kürzel an den Rändern überspringen
+        while (anfang < ende && istRandzeichen(text.charAt(anfang))) anfang++;
+        while (ende > anfang && istRandzeichen(text.charAt(ende - 1))) ende--;
+        if (ende - anfang >= 3 && text.regionMatches(true, ende - 3, "EUR", 0, 3)) {
+            ende -= 3;
+            while (ende > anfang && istRandzeichen(text.charAt(ende - 1))) ende--;
+        }
+        if (anfang >= ende) return Double.NaN;
+
+        boolean negativ = false;
+        char erstes = text.charAt(anfang);
+        char letztes = text.charAt(ende - 1);
+        if (erstes == '(' && letztes == ')') { negativ = true; anfang++; ende--; }
+        else if (erstes == '-' || erstes == '\u2212') { negativ = true; anfang++; }
+        else if (erstes == '+') { anfang++; }
+        else if (letztes == '-') { negativ = true; ende--; }
+        if (anfang >= ende) return Double.NaN;
+
+        // Dezimaltrennzeichen bestimmen: das letzte Komma bzw. der letzte Punkt
+        int letztesKomma = -1, letzterPunkt = -1, punkte = 0, kommas = 0;
+        for (int i = anfang; i < ende; i++) {
+            char c = text.charAt(i);
+            if (c == ',') { letztesKomma = i; kommas++; }
+            else if (c == '.') { letzterPunkt = i; punkte++; }
+            else if ((c < '0' || c > '9') && c != ' ' && c != '\'' && c != '\u00A0') return Double.NaN;
+        }
+        int dezimal;
+        if (kommas > 0 && punkte > 0) {
+            dezimal = Math.max(letztesKomma, letzterPunkt); // "1.234,56" bzw. "1,234.56"
+        } else if (kommas == 1) {
+            dezimal = letztesKomma; // Deutsches Dezimalkomma
+        } else if (punkte == 1 && ende - letzterPunkt - 1 != 3) {
+            dezimal = letzterPunkt; // "12.5" - englischer Dezimalpunkt
+        } else {
+            dezimal = -1; // Nur Tausendertrenner ("1.234", "1.234.567") oder Ganzzahl
+        }
+        int ganzEnde = dezimal >= 0 ? dezimal : ende;
+        if (ganzEnde > anfang && !istGruppierteGanzzahl(text, anfang, ganzEnde, false)) return Double.NaN;
+
+        long ganz = 0;
+        long bruch = 0;
+        long teiler = 1;
+        int ziffern = 0;
+        for (int i = anfang; i < ende; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++ziffern > 18) return Double.NaN; // Zu lang für long, keine sinnvolle Betragsangabe
+                if (dezimal >= 0 && i > dezimal) {
+                    bruch = bruch * 10 + (c - '0');
+                    teiler *= 10;
+                } else {
+                    ganz = ganz * 10 + (c - '0');
+                }
+            } else if (i == dezimal) {
+                continue;
+            } else if (dezimal >= 0 && i > dezimal) {
+                return Double.NaN; // Trennzeichen nach dem Dezimaltrenner
+            }
+        }
+        if (ziffern == 0) return Double.NaN;
+        double wert = ganz + (double) bruch / teiler;
+        return negativ ? -wert : wert;
+    }
+
+    /**
+     * Prüft, ob die Zelle wie ein Geldbetrag mit zwei Nachkommastellen aussieht
+     * (z.B. "1.234,56", "-12,50 €"). Reine Ganzzahlen wie Artikelnummern zählen nicht dazu.
+     * @param text Der Zellinhalt.
+     * @return true, wenn es sich um einen Betrag handelt.
+     */
+    public static boolean istBetrag(String text) {
+        return !Double.isNaN(parseBetrag(text));
+    }
+
+    /**
+     * Interpretiert eine Zelle als Geldbetrag (siehe {@link #istBetrag(String)}).
+     * @param text Der Zellinhalt.
+     * @return Der Betrag oder NaN, wenn die Zelle kein Betrag mit zwei Nachkommastellen ist.
+     */
+    public static double parseBetrag(String text) {
+        int dezimal = dezimalTrennerVonBetrag(text);
+        return dezimal >= 0 ? parse(text) : Double.NaN;
+    }
+
+    /**
+     * Interpretiert eine Zelle streng als deutschen Geldbetrag: Dezimalkomma mit genau zwei
+     * Nachkommastellen, Punkte nur als Tausendertrenner in Dreiergruppen (z.B. "1.234,56", "-12,50 €", "0,99").
+     * Leerzeichen oder Apostrophe innerhalb der Zahl sind nicht erlaubt: Bei "stream" verschmelzen oft
+     * Nachbarzellen ("2 12,50" = Menge und Preis), die sonst als falscher Betrag übernommen würden.
+     * Für die Typisierung beim Export, wo eine Fehlinterpretation den Wert verfälschen würde.
+     * @param text Der Zellinhalt.
+     * @return Der Betrag oder NaN, wenn die Zelle diesem Muster nicht entspricht.
+     */
+    public static double parseDeutscherBetrag(String text) {
+        int dezimal = dezimalTrennerVonBetrag(text);
+        if (dezimal < 0 || text.charAt(dezimal) != ',' || text.indexOf(',') != dezimal) return Double.NaN;
+        int anfang = 0;
+        while (anfang < dezimal && istRandzeichen(text.charAt(anfang))) anfang++;
+        if (anfang < dezimal) {
+            char vorzeichen = text.charAt(anfang);
+            if (vorzeichen == '(' || vorzeichen == '-' || vorzeichen == '\u2212' || vorzeichen == '+') anfang++;
+        }
+        if (!istGruppierteGanzzahl(text, anfang, dezimal, true)) return Double.NaN;
+        return parse(text);
+    }
+
+    /**
+     * Prüft den ganzzahligen Teil einer Zahl (ohne Vorzeichen und Dezimalteil).
+     * @param nurPunkt true = nur "." als Tausendertrenner (deutsch, streng), sonst ein beliebiges,
+     *                 aber einheitliches Trennzeichen.
+     * @return true, wenn der Bereich nur Ziffern enthält, oder 1 bis 3 Ziffern gefolgt von Dreiergruppen
+     *         mit vorangestelltem Trenner (z.B. "1.234.567").
+     */
+    private static boolean istGruppierteGanzzahl(String text, int von, int bis, boolean nurPunkt) {
+        int gruppe = 0;
+        char trenner = 0;
+        for (int i = von; i < bis; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++gruppe > 3 && trenner != 0) return false;
+            } else if (nurPunkt ? c == '.' && (trenner == 0 || c == trenner) : (trenner == 0 || c == trenner)) {
+                if (gruppe == 0 || (trenner != 0 ? gruppe != 3 : gruppe > 3)) return false;
+                trenner = c;
+                gruppe = 0;
+            } else {
+                return false; // Gemischte Trenner, Leerzeichen/Apostroph im strengen Modus oder sonstiges Zeichen
+            }
+        }
+        return gruppe > 0 && (trenner == 0 || gruppe == 3);
+    }
+
+    /**
+     * @return Position des Dezimaltrenners, wenn der Text auf einen Betrag mit zwei Nachkommastellen
+     *         endet (nach Abzug von Währung und Vorzeichen), sonst -1.
+     */
+    private static int dezimalTrennerVonBetrag(String text) {
+        if (text == null) return -1;
+        int ende = text.length();
+        while (ende > 0 && istRandzeichen(text.charAt(ende - 1))) ende--;
+        if (ende >= 3 && text.regionMatches(true, ende - 3, "EUR", 0, 3)) {
+            ende -= 3;
+            while (ende > 0 && istRandzeichen(text.charAt(ende - 1))) ende--;
+        }
+        if (ende > 0 && (text.charAt(ende - 1) == '-' || text.charAt(ende - 1) == ')')) ende--;
+        boolean zweiNachkommastellen = ende >= 4
+                && (text.charAt(ende - 3) == ',' || text.charAt(ende - 3) == '.')
+                && Character.isDigit(text.charAt(ende - 1)) && Character.isDigit(text.charAt(ende - 2))
+                && Character.isDigit(text.charAt(ende - 4));
+        return zweiNachkommastellen ? ende - 3 : -1;
+    }
+
+    private static boolean istRandzeichen(char c) {
+        return c == ' ' || c == '\u00A0' || c == '\t' || c == '\n' || c == '\r' || c == '€' || c == '$';
+    }
+}
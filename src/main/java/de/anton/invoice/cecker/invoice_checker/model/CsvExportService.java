@@ -0,0 +1,209 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Exportiert die extrahierten Tabellenzeilen als CSV-Datei (UTF-8, Trennzeichen ';', Quoting nach RFC 4180).
+ * Die Spalten entsprechen dem Excel-Export (Metadaten, dann "Daten Spalte 1..n"), Datumswerte
+ * werden im ISO-Format (JJJJ-MM-TT) geschrieben. Die Zeilen werden direkt aus den Dokumenten
+ * in einen Byte-Puffer kodiert und über einen {@link FileChannel} geschrieben, ohne Zwischenstrukturen.
+ */
+public class CsvExportService {
+    private static final Logger log = LoggerFactory.getLogger(CsvExportService.class);
+
+    public static final char TRENNZEICHEN = ';';
+    private static final int PUFFER_GROESSE = 256 * 1024;
+
+    /**
+     * Exportiert alle Zeilen aller Tabellen der Dokumente in eine CSV-Datei.
+     * @param dokumente Die Dokumente.
+     * @param ausgabePfad Die Zieldatei (wird überschrieben).
+     * @throws IOException Wenn keine Dokumente vorhanden sind oder beim Schreiben ein Fehler auftritt.
+     */
+    public void exportiere(List<PdfDokument> dokumente, Path ausgabePfad) throws IOException {
+        if (dokumente == null || dokumente.isEmpty()) {
+            throw new IOException("Keine Dokumente zum Exportieren angegeben.");
+        }
+        log.info("Starte CSV-Export von {} Dokumenten nach: {}", dokumente.size(), ausgabePfad);
+        long start = System.nanoTime();
+        int datenSpalten = 0;
+        for (PdfDokument doc : dokumente) {
+            if (doc.getTables() == null) continue;
+            for (ExtrahierteTabelle tabelle : doc.getTables()) datenSpalten = Math.max(datenSpalten, tabelle.getMaxSpalten());
+        }
+        try (CsvSchreiber schreiber = new CsvSchreiber(ausgabePfad, datenSpalten)) {
+            schreiber.schreibeKopf();
+            for (PdfDokument doc : dokumente) schreiber.schreibeDokument(doc);
+        }
+        log.info("CSV-Export nach {} abgeschlossen ({} ms).", ausgabePfad, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Schreibt CSV-Zeilen in eine Datei. Kann auch dokumentweise verwendet werden (z.B. für Teildateien).
+     */
+    public static class CsvSchreiber implements DokumentSchreiber {
+        private final FileChannel kanal;
+        private final ByteBuffer puffer = ByteBuffer.allocate(PUFFER_GROESSE);
+        private final int datenSpalten;
+
+        /**
+         * @param ziel Die Zieldatei (wird angelegt bzw. überschrieben).
+         * @param datenSpalten Anzahl der Datenspalten, auf die kürzere Zeilen aufgefüllt werden (0 = nicht auffüllen).
+         */
+        public CsvSchreiber(Path ziel, int datenSpalten) throws IOException {
+            this.kanal = FileChannel.open(ziel, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.datenSpalten = datenSpalten;
+        }
+
+        /** Schreibt die Kopfzeile. */
+        public void schreibeKopf() throws IOException {
+            schreibeFeld("Quelldatei");
+            trenner(); schreibeFeld("Abrechnungszeitraum Start");
+            trenner(); schreibeFeld("Abrechnungszeitraum Ende");
+            trenner(); schreibeFeld("Seite (PDF)");
+            trenner(); schreibeFeld("Tabellenindex (Camelot)");
+            trenner(); schreibeFeld("Flavor (Camelot)");
+            trenner(); schreibeFeld("Zeilenindex (Original)");
+            for (int i = 0; i < datenSpalten; i++) {
+                trenner(); schreibeFeld("Daten Spalte " + (i + 1));
+            }
+            zeilenende();
+        }
+
+        @Override
+        public void schreibeDokument(PdfDokument doc) throws IOException {
+            if (doc.getTables() == null || doc.getTables().isEmpty()) {
+                if (doc.getError() != null && !doc.getError().isBlank()) {
+                    schreibeFeld(doc.getSourcePdf());
+                    for (int i = 0; i < 6; i++) trenner();
+                    trenner(); schreibeFeld("FEHLER: " + doc.getError());
+                    zeilenende();
+                }
+                return;
+            }
+            String start = doc.getAbrechnungszeitraumStart() != null ? doc.getAbrechnungszeitraumStart().toString() : "";
+            String ende = doc.getAbrechnungszeitraumEnde() != null ? doc.getAbrechnungszeitraumEnde().toString() : "";
+            for (ExtrahierteTabelle tabelle : doc.getTables()) {
+                List<List<String>> daten = tabelle.getData();
+                if (daten == null) continue;
+                for (int z = 0; z < daten.size(); z++) {
+                    List<String> zeile = daten.get(z);
+                    schreibeFeld(doc.getSourcePdf());
+                    trenner(); schreibeFeld(start);
+                    trenner(); schreibeFeld(ende);
+                    trenner(); schreibeZahl(tabelle.getPage());
+                    trenner(); schreibeZahl(tabelle.getIndex());
+                    trenner(); schreibeFeld(tabelle.getFlavor());
+                    trenner(); schreibeZahl(z);
+                    int zellen = zeile != null ? zeile.size() : 0;
+                    for (int s = 0; s < zellen; s++) {
+                        trenner(); schreibeFeld(zeile.get(s));
+                    }
+                    for (int s = zellen; s < datenSpalten; s++) trenner(); // Auffüllen
+                    zeilenende();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                leere();
+            } finally {
+                kanal.close();
+            }
+        }
+
+        // --- Kodierung direkt in den Puffer ---
+
+        private void trenner() throws IOException {
+            schreibeByte(TRENNZEICHEN);
+        }
+
+        private void zeilenende() throws IOException {
+            schreibeByte('\r');
+            schreibeByte('\n');
+        }
+
+        private void schreibeZahl(int zahl) throws IOException {
+            schreibeText(Integer.toString(zahl));
+        }
+
+        /** Schreibt ein Feld; mit Anführungszeichen, wenn es Trennzeichen, Anführungszeichen oder Zeilenumbrüche enthält. */
+        private void schreibeFeld(String wert) throws IOException {
+            if (wert == null || wert.isEmpty()) return;
+            boolean quoten = false;
+            for (int i = 0; i < wert.length() && !quoten; i++) {
+                char c = wert.charAt(i);
+                quoten = c == TRENNZEICHEN || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quoten) {
+                schreibeText(wert);
+                return;
+            }
+            schreibeByte('"');
+            for (int i = 0; i < wert.length(); i++) {
+                char c = wert.charAt(i);
+                if (c == '"') schreibeByte('"'); // Verdoppeln
+                schreibeZeichen(wert, i);
+                if (Character.isHighSurrogate(c) && i + 1 < wert.length()) i++;
+            }
+            schreibeByte('"');
+        }
+
+        private void schreibeText(String text) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    schreibeByte(c);
+                } else {
+                    schreibeZeichen(text, i);
+                    if (Character.isHighSurrogate(c) && i + 1 < text.length()) i++;
+                }
+            }
+        }
+
+        /** Kodiert das Zeichen an Position i als UTF-8. */
+        private void schreibeZeichen(String text, int i) throws IOException {
+            int cp = text.codePointAt(i);
+            if (cp < 0x80) {
+                schreibeByte(cp);
+            } else if (cp < 0x800) {
+                schreibeByte(0xC0 | (cp >> 6));
+                schreibeByte(0x80 | (cp & 0x3F));
+            } else if (cp < 0x10000) {
+                if (Character.isSurrogate((char) cp)) { // Einzelnes Surrogat ist nicht kodierbar
+                    schreibeByte('?');
+                    return;
+                }
+                schreibeByte(0xE0 | (cp >> 12));
+                schreibeByte(0x80 | ((cp >> 6) & 0x3F));
+                schreibeByte(0x80 | (cp & 0x3F));
+            } else {
+                schreibeByte(0xF0 | (cp >> 18));
+                schreibeByte(0x80 | ((cp >> 12) & 0x3F));
+                schreibeByte(0x80 | ((cp >> 6) & 0x3F));
+                schreibeByte(0x80 | (cp & 0x3F));
+            }
+        }
+
+        private void schreibeByte(int b) throws IOException {
+            if (!puffer.hasRemaining()) leere();
+            puffer.put((byte) b);
+        }
+
+        private void leere() throws IOException {
+            puffer.flip();
+            while (puffer.hasRemaining()) kanal.write(puffer);
+            puffer.clear();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Berechnet SHA-256-Prüfsummen über den Inhalt von PDF-Dateien. Dient als stabiler Schlüssel
+ * für ein Dokument, unabhängig von Dateiname und Ablageort (z.B. für den inkrementellen Datenbank-Export).
+ */
+public final class DateiHasher {
+
+    private static final int PUFFER_GROESSE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private DateiHasher() {
+        // Nur statische Methoden
+    }
+
+    /**
+     * Berechnet die Prüfsumme einer Datei.
+     * @param datei Die Datei.
+     * @return SHA-256 als Hex-String (64 Zeichen).
+     * @throws IOException Wenn die Datei nicht gelesen werden kann.
+     */
+    public static String sha256(Path datei) throws IOException {
+        MessageDigest digest = neuerDigest();
+        byte[] puffer = new byte[PUFFER_GROESSE];
+        try (InputStream ein = Files.newInputStream(datei)) {
+            int gelesen;
+            while ((gelesen = ein.read(puffer)) > 0) {
+                digest.update(puffer, 0, gelesen);
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Prüfsumme eines Dokuments: über den PDF-Inhalt, falls die Datei lesbar ist, sonst
+     * (z.B. bei gelöschter Quelldatei) über den Pfad, damit jedes Dokument einen Schlüssel hat.
+     * @param doc Das Dokument.
+     * @return SHA-256 als Hex-String.
+     */
+    public static String schluesselFuer(PdfDokument doc) {
+        String pfad = doc.getFullPath() != null ? doc.getFullPath() : doc.getSourcePdf();
+        if (pfad != null) {
+            Path datei = Paths.get(pfad);
+            if (Files.isRegularFile(datei)) {
+                try {
+                    return sha256(datei);
+                } catch (IOException e) {
+                    // Weiter mit dem Pfad als Ersatz
+                }
+            }
+        }
+        MessageDigest digest = neuerDigest();
+        digest.update(("pfad:" + pfad).getBytes(StandardCharsets.UTF_8));
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest neuerDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e); // Von jeder JVM garantiert
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] zeichen = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            zeichen[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            zeichen[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(zeichen);
+    }
+}
@@ -0,0 +1,33 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+/**
+ * Zusammenfassung eines Datenbank-Exports.
+ */
+public class DatenbankExportErgebnis {
+    private final int neueDokumente;
+    private final int uebersprungeneDokumente;
+    private final long zeilen;
+    private final long dauerMs;
+
+    public DatenbankExportErgebnis(int neueDokumente, int uebersprungeneDokumente, long zeilen, long dauerMs) {
+        this.neueDokumente = neueDokumente;
+        this.uebersprungeneDokumente = uebersprungeneDokumente;
+        this.zeilen = zeilen;
+        this.dauerMs = dauerMs;
+    }
+
+    // --- Getter ---
+    /** @return Anzahl neu geschriebener (bzw. überschriebener) Dokumente. */
+    public int getNeueDokumente() { return neueDokumente; }
+    /** @return Anzahl Dokumente, deren Inhalt bereits in der Datenbank war. */
+    public int getUebersprungeneDokumente() { return uebersprungeneDokumente; }
+    /** @return Anzahl geschriebener Tabellenzeilen. */
+    public long getZeilen() { return zeilen; }
+    public long getDauerMs() { return dauerMs; }
+
+    @Override
+    public String toString() {
+        return neueDokumente + " neue Dokumente, " + uebersprungeneDokumente + " unverändert, "
+                + zeilen + " Zeilen in " + dauerMs + " ms";
+    }
+}
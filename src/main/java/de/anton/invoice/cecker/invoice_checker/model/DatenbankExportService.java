@@ -0,0 +1,285 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Schreibt Dokumente, Tabellen und Zeilen in eine eingebettete H2-Datenbank (läuft im Prozess, kein Server),
+ * z.B. für Auswertungen über viele Abrechnungsperioden hinweg.
+ * <p>
+ * Fachlicher Schlüssel eines Dokuments ist die SHA-256-Prüfsumme des PDF-Inhalts ({@link DateiHasher}); Tabellen und
+ * Zeilen verweisen platzsparend über eine fortlaufende Nummer ({@code dokument_id}) darauf. Tabellen und Zeilen
+ * werden nur für Dokumente geschrieben, deren Inhalt noch nicht in der Datenbank ist - wiederholte Läufe über dieselben
+ * Ordner sind dadurch inkrementell. Bei bekannten Dokumenten wird nur der Dokumenteintrag per MERGE aktualisiert
+ * (z.B. neuer Ablageort), wenn beide Extraktionen erfolgreich waren. War die gespeicherte Extraktion fehlerhaft und die
+ * neue ist es nicht, wird das Dokument neu geschrieben; eine neue fehlerhafte Extraktion lässt den Eintrag unverändert.
+ * Mit {@link #setUeberschreiben(boolean)} werden vorhandene Zeilen ersetzt (z.B. nach Extraktion mit anderen Parametern).
+ * <p>
+ * Geschrieben wird mit Prepared Statements im Batch ({@link #setBatchGroesse(int)}) und periodischem Commit an Dokumentgrenzen
+ * ({@link #setCommitGroesse(int)}). Auf Fremdschlüssel wird zugunsten des Durchsatzes verzichtet; die Dokumentnummern
+ * vergibt der Export selbst (H2 im Dateimodus erlaubt ohnehin nur einen schreibenden Prozess).
+ * <p>
+ * Schema:
+ * <pre>
+ * dokument(id PK, hash UNIQUE, quelldatei, pfad, lieferant, zeitraum_start, zeitraum_ende, fehler, aktualisiert)
+ * tabelle(dokument_id, tabellen_nr, seite, tabellenindex, flavor, genauigkeit)          PK(dokument_id, tabellen_nr)
+ * zeile(dokument_id, tabellen_nr, zeilen_nr, zellen VARCHAR ARRAY, betrag)              PK(dokument_id, tabellen_nr, zeilen_nr)
+ * </pre>
+ * {@code betrag} ist der letzte Geldbetrag der Zeile (wie bei der Auswertung), NULL für Kopfzeilen und Zeilen ohne Betrag.
+ */
+public class DatenbankExportService {
+    private static final Logger log = LoggerFactory.getLogger(DatenbankExportService.class);
+
+    public static final int STANDARD_BATCH_GROESSE = 1_000;
+    public static final int STANDARD_COMMIT_GROESSE = 50_000;
+    /** Endung der H2-Datenbankdatei; die JDBC-URL wird ohne sie angegeben. */
+    public static final String DATEI_ENDUNG = ".mv.db";
+
+    private static final Abfrage BETRAG = new Abfrage(); // Standard-Wertspalte: letzter Betrag der Zeile
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS dokument (id INT PRIMARY KEY, hash VARCHAR(64) NOT NULL UNIQUE, quelldatei VARCHAR(1000), pfad VARCHAR(4000),"
+                    + " lieferant VARCHAR(200), zeitraum_start DATE, zeitraum_ende DATE, fehler VARCHAR(4000), aktualisiert TIMESTAMP)",
+            "CREATE TABLE IF NOT EXISTS tabelle (dokument_id INT NOT NULL, tabellen_nr INT NOT NULL, seite INT,"
+                    + " tabellenindex INT, flavor VARCHAR(20), genauigkeit DOUBLE PRECISION, PRIMARY KEY (dokument_id, tabellen_nr))",
+            "CREATE TABLE IF NOT EXISTS zeile (dokument_id INT NOT NULL, tabellen_nr INT NOT NULL, zeilen_nr INT NOT NULL,"
+                    + " zellen VARCHAR ARRAY, betrag DOUBLE PRECISION, PRIMARY KEY (dokument_id, tabellen_nr, zeilen_nr))",
+            "CREATE INDEX IF NOT EXISTS dokument_lieferant ON dokument (lieferant, zeitraum_start)"
+    };
+
+    private int batchGroesse = STANDARD_BATCH_GROESSE;
+    private int commitGroesse = STANDARD_COMMIT_GROESSE;
+    private boolean ueberschreiben = false;
+
+    /**
+     * @param batchGroesse Anzahl Zeilen, nach denen die gesammelten Statements an die Datenbank gehen.
+     */
+    public void setBatchGroesse(int batchGroesse) {
+        if (batchGroesse < 1) throw new IllegalArgumentException("Batchgröße muss mindestens 1 sein: " + batchGroesse);
+        this.batchGroesse = batchGroesse;
+    }
+
+    /**
+     * @param commitGroesse Anzahl Zeilen, nach der (am Ende des jeweiligen Dokuments) committet wird.
+     */
+    public void setCommitGroesse(int commitGroesse) {
+        if (commitGroesse < 1) throw new IllegalArgumentException("Commitgröße muss mindestens 1 sein: " + commitGroesse);
+        this.commitGroesse = commitGroesse;
+    }
+
+    /**
+     * @param ueberschreiben true = Tabellen und Zeilen bereits vorhandener Dokumente neu schreiben.
+     */
+    public void setUeberschreiben(boolean ueberschreiben) {
+        this.ueberschreiben = ueberschreiben;
+    }
+
+    /**
+     * Bildet die JDBC-URL für eine H2-Datenbankdatei.
+     * @param datei Die Datei, mit oder ohne Endung {@value #DATEI_ENDUNG}.
+     * @return Die JDBC-URL.
+     */
+    public static String jdbcUrlFuer(Path datei) {
+        String pfad = datei.toAbsolutePath().toString();
+        if (pfad.toLowerCase(Locale.ROOT).endsWith(DATEI_ENDUNG)) pfad = pfad.substring(0, pfad.length() - DATEI_ENDUNG.length());
+        return "jdbc:h2:file:" + pfad;
+    }
+
+    /**
+     * Exportiert die Dokumente in die H2-Datenbankdatei (wird bei Bedarf angelegt).
+     * @param dokumente Die Dokumente.
+     * @param datei Die Datenbankdatei.
+     * @return Die Zusammenfassung.
+     * @throws IOException Wenn keine Dokumente vorhanden sind oder ein Datenbankfehler auftritt.
+     */
+    public DatenbankExportErgebnis exportiere(List<PdfDokument> dokumente, Path datei) throws IOException {
+        return exportiere(dokumente, jdbcUrlFuer(datei));
+    }
+
+    /**
+     * Exportiert die Dokumente in die Datenbank mit der angegebenen JDBC-URL.
+     * @param dokumente Die Dokumente.
+     * @param jdbcUrl Die JDBC-URL (z.B. {@code jdbc:h2:file:/pfad/rechnungen}).
+     * @return Die Zusammenfassung.
+     * @throws IOException Wenn keine Dokumente vorhanden sind oder ein Datenbankfehler auftritt.
+     */
+    public DatenbankExportErgebnis exportiere(List<PdfDokument> dokumente, String jdbcUrl) throws IOException {
+        if (dokumente == null || dokumente.isEmpty()) {
+            throw new IOException("Keine Dokumente zum Exportieren angegeben.");
+        }
+        log.info("Starte Datenbank-Export von {} Dokumenten nach: {}", dokumente.size(), jdbcUrl);
+        long start = System.nanoTime();
+        // Prüfsummen parallel berechnen (Lesen der PDFs dominiert)
+        String[] schluessel = dokumente.parallelStream().map(DateiHasher::schluesselFuer).toArray(String[]::new);
+        log.debug("--> Prüfsummen berechnet in {} ms", (System.nanoTime() - start) / 1_000_000);
+
+        try (Connection verbindung = DriverManager.getConnection(jdbcUrl)) {
+            verbindung.setAutoCommit(false);
+            try {
+                DatenbankExportErgebnis ergebnis = schreibe(verbindung, dokumente, schluessel, start);
+                log.info("Datenbank-Export abgeschlossen: {}", ergebnis);
+                return ergebnis;
+            } catch (SQLException e) {
+                verbindung.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Fehler beim Datenbank-Export: {}", e.getMessage(), e);
+            throw new IOException("Datenbankfehler: " + e.getMessage(), e);
+        }
+    }
+
+    private DatenbankExportErgebnis schreibe(Connection verbindung, List<PdfDokument> dokumente, String[] schluessel, long start) throws SQLException {
+        try (Statement st = verbindung.createStatement()) {
+            for (String ddl : SCHEMA) st.execute(ddl);
+        }
+        verbindung.commit();
+        Set<String> mitFehler = new HashSet<>(); // Prüfsummen, deren gespeicherte Extraktion fehlerhaft war
+        Map<String, Integer> vorhanden = ladeVorhandeneSchluessel(verbindung, mitFehler);
+        int naechsteId = 1;
+        for (int id : vorhanden.values()) naechsteId = Math.max(naechsteId, id + 1);
+
+        int neu = 0;
+        int uebersprungen = 0;
+        long zeilen = 0;
+        int imBatch = 0;
+        int inTransaktion = 0;
+        Timestamp jetzt = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement dokumentSt = verbindung.prepareStatement(
+                     "MERGE INTO dokument (id, hash, quelldatei, pfad, lieferant, zeitraum_start, zeitraum_ende, fehler, aktualisiert)"
+                             + " KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement tabelleSt = verbindung.prepareStatement(
+                     "INSERT INTO tabelle (dokument_id, tabellen_nr, seite, tabellenindex, flavor, genauigkeit) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement zeileSt = verbindung.prepareStatement(
+                     "INSERT INTO zeile (dokument_id, tabellen_nr, zeilen_nr, zellen, betrag) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement loescheTabellenSt = verbindung.prepareStatement("DELETE FROM tabelle WHERE dokument_id = ?");
+             PreparedStatement loescheZeilenSt = verbindung.prepareStatement("DELETE FROM zeile WHERE dokument_id = ?")) {
+
+            for (int d = 0; d < dokumente.size(); d++) {
+                PdfDokument doc = dokumente.get(d);
+                String hash = schluessel[d];
+                Integer bekannteId = vorhanden.get(hash);
+                int id = bekannteId != null ? bekannteId : naechsteId++;
+                boolean neuSchreiben = bekannteId == null || ueberschreiben
+                        || (mitFehler.contains(hash) && doc.getError() == null); // Fehler von früher reparieren
+                if (!neuSchreiben) { // Bereits in der Datenbank (oder doppelt in dieser Liste)
+                    uebersprungen++;
+                    if (doc.getError() != null) continue; // Gespeicherten Eintrag samt Zeilen unverändert lassen
+                }
+                dokumentSt.setInt(1, id);
+                dokumentSt.setString(2, hash);
+                dokumentSt.setString(3, doc.getSourcePdf());
+                dokumentSt.setString(4, doc.getFullPath());
+                dokumentSt.setString(5, doc.getLieferant());
+                dokumentSt.setDate(6, doc.getAbrechnungszeitraumStart() != null ? Date.valueOf(doc.getAbrechnungszeitraumStart()) : null);
+                dokumentSt.setDate(7, doc.getAbrechnungszeitraumEnde() != null ? Date.valueOf(doc.getAbrechnungszeitraumEnde()) : null);
+                dokumentSt.setString(8, doc.getError());
+                dokumentSt.setTimestamp(9, jetzt);
+                dokumentSt.addBatch();
+                if (!neuSchreiben) continue; // Nur Ablageort und Zeitstempel aktualisiert
+
+                if (doc.getError() != null) mitFehler.add(hash); else mitFehler.remove(hash);
+                if (bekannteId != null) {
+                    // Ausstehende Zeilen zuerst schreiben, damit das Löschen sie mit erfasst
+                    fuehreBatchesAus(dokumentSt, tabelleSt, zeileSt);
+                    imBatch = 0;
+                    loescheZeilenSt.setInt(1, id);
+                    loescheZeilenSt.executeUpdate();
+                    loescheTabellenSt.setInt(1, id);
+                    loescheTabellenSt.executeUpdate();
+                } else {
+                    vorhanden.put(hash, id);
+                }
+                neu++;
+                if (doc.getTables() == null) continue;
+
+                int tabellenNr = 0;
+                for (ExtrahierteTabelle tabelle : doc.getTables()) {
+                    tabelleSt.setInt(1, id);
+                    tabelleSt.setInt(2, tabellenNr);
+                    tabelleSt.setInt(3, tabelle.getPage());
+                    tabelleSt.setInt(4, tabelle.getIndex());
+                    tabelleSt.setString(5, tabelle.getFlavor());
+                    tabelleSt.setDouble(6, tabelle.getAccuracy());
+                    tabelleSt.addBatch();
+
+                    List<List<String>> daten = tabelle.getData();
+                    for (int z = 0; daten != null && z < daten.size(); z++) {
+                        List<String> zeile = daten.get(z);
+                        zeileSt.setInt(1, id);
+                        zeileSt.setInt(2, tabellenNr);
+                        zeileSt.setInt(3, z);
+                        if (zeile != null) {
+                            zeileSt.setArray(4, verbindung.createArrayOf("VARCHAR", zeile.toArray()));
+                        } else {
+                            zeileSt.setNull(4, Types.ARRAY);
+                        }
+                        double betrag = z > 0 && zeile != null ? BETRAG.wertVon(zeile) : Double.NaN;
+                        if (Double.isNaN(betrag)) {
+                            zeileSt.setNull(5, Types.DOUBLE);
+                        } else {
+                            zeileSt.setDouble(5, betrag);
+                        }
+                        zeileSt.addBatch();
+                        zeilen++;
+
+                        inTransaktion++;
+                        if (++imBatch >= batchGroesse) {
+                            fuehreBatchesAus(dokumentSt, tabelleSt, zeileSt);
+                            imBatch = 0;
+                        }
+                    }
+                    tabellenNr++;
+                }
+                // Nur an Dokumentgrenzen committen: ein abgebrochener Lauf hinterlässt keine halben Dokumente
+                if (inTransaktion >= commitGroesse) {
+                    fuehreBatchesAus(dokumentSt, tabelleSt, zeileSt);
+                    imBatch = 0;
+                    verbindung.commit();
+                    inTransaktion = 0;
+                }
+            }
+            fuehreBatchesAus(dokumentSt, tabelleSt, zeileSt);
+            verbindung.commit();
+        }
+        return new DatenbankExportErgebnis(neu, uebersprungen, zeilen, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @param mitFehler Erhält die Prüfsummen der Dokumente, die mit Fehler gespeichert sind.
+     * @return Prüfsumme -> Dokumentnummer aller bereits gespeicherten Dokumente.
+     */
+    private static Map<String, Integer> ladeVorhandeneSchluessel(Connection verbindung, Set<String> mitFehler) throws SQLException {
+        Map<String, Integer> vorhanden = new HashMap<>();
+        try (Statement st = verbindung.createStatement();
+             ResultSet rs = st.executeQuery("SELECT hash, id, fehler IS NOT NULL FROM dokument")) {
+            while (rs.next()) {
+                vorhanden.put(rs.getString(1), rs.getInt(2));
+                if (rs.getBoolean(3)) mitFehler.add(rs.getString(1));
+            }
+        }
+        return vorhanden;
+    }
+
+    private static void fuehreBatchesAus(PreparedStatement... statements) throws SQLException {
+        for (PreparedStatement st : statements) st.executeBatch();
+    }
+}
@@ -0,0 +1,18 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Schreibt die Zeilen einzelner Dokumente fortlaufend in eine Exportdatei
+ * (implementiert vom CSV- und NDJSON-Export, genutzt z.B. von der {@link ExportPipeline}).
+ */
+public interface DokumentSchreiber extends Closeable {
+
+    /**
+     * Schreibt alle Zeilen aller Tabellen eines Dokuments (bzw. eine Fehlerzeile).
+     * @param doc Das Dokument.
+     * @throws IOException Wenn beim Schreiben ein Fehler auftritt.
+     */
+    void schreibeDokument(PdfDokument doc) throws IOException;
+}
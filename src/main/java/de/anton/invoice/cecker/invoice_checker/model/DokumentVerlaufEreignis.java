@@ -0,0 +1,106 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR-Ereignis mit dem vollständigen Verlauf eines Dokuments: Es umspannt die Verarbeitung im Pool von der
+ * Extraktion bis zur Übernahme ins Modell und fasst die Java-Schritte ({@link ExtraktionsStufeEreignis}) und
+ * die Python-Zeiten ({@link PythonStufenZeit}) in einem Ereignis zusammen - als einzelne Felder zum Sortieren
+ * und Filtern und als Text in zeitlicher Reihenfolge.
+ */
+@Name("de.anton.invoice.Dokumentverlauf")
+@Label("Dokumentverlauf")
+@Category({"Invoice Checker", "Extraktion"})
+@Description("Verarbeitung eines PDFs mit allen Java- und Python-Schritten")
+@StackTrace(false)
+class DokumentVerlaufEreignis extends Event {
+    @Label("Datei")
+    String datei;
+
+    @Label("Fehler")
+    String fehler;
+
+    @Label("Verlauf")
+    String verlauf;
+
+    @Label("Vorprüfung") @Timespan(Timespan.NANOSECONDS)
+    long vorpruefung;
+
+    @Label("Prozessstart") @Timespan(Timespan.NANOSECONDS)
+    long prozessStart;
+
+    @Label("Bis erstes stdout-Byte") @Timespan(Timespan.NANOSECONDS)
+    long erstesByte;
+
+    @Label("Bis Prozessende") @Timespan(Timespan.NANOSECONDS)
+    long prozessEnde;
+
+    @Label("JSON-Parsen") @Timespan(Timespan.NANOSECONDS)
+    long jsonParsen;
+
+    @Label("Übernahme") @Timespan(Timespan.NANOSECONDS)
+    long uebernahme;
+
+    @Label("Python: Importe") @Timespan(Timespan.NANOSECONDS)
+    long pythonImporte;
+
+    @Label("Python: Datumssuche") @Timespan(Timespan.NANOSECONDS)
+    long pythonDatumssuche;
+
+    @Label("Python: camelot.read_pdf") @Timespan(Timespan.NANOSECONDS)
+    long pythonCamelot;
+
+    @Label("Python: Stream-Fallback") @Timespan(Timespan.NANOSECONDS)
+    long pythonStreamFallback;
+
+    @Label("Python: gesamt") @Timespan(Timespan.NANOSECONDS)
+    long pythonGesamt;
+
+    /** @return Ein begonnenes Ereignis (zu Beginn der Verarbeitung eines Dokuments erzeugen). */
+    static DokumentVerlaufEreignis beginne() {
+        DokumentVerlaufEreignis ereignis = new DokumentVerlaufEreignis();
+        ereignis.begin();
+        return ereignis;
+    }
+
+    /**
+     * Beendet das Ereignis und meldet es an JFR (falls aufgezeichnet wird).
+     * @param datei Dateiname des PDFs.
+     * @param doc Das Ergebnis (kann null sein).
+     * @param zeiten Der Verlauf des Dokuments.
+     */
+    void beende(String datei, PdfDokument doc, StufenZeiten zeiten) {
+        end();
+        if (!shouldCommit()) return;
+        this.datei = datei;
+        this.fehler = doc != null ? doc.getError() : "Kein Ergebnis";
+        this.verlauf = zeiten.verlaufAlsText(ExtraktionsStufeEreignis.ERSTES_BYTE);
+        StufenZeiten.Quelle java = StufenZeiten.Quelle.JAVA;
+        vorpruefung = zeiten.getSchrittNanos(java, ExtraktionsStufeEreignis.VORPRUEFUNG);
+        prozessStart = zeiten.getSchrittNanos(java, ExtraktionsStufeEreignis.PROZESS_START);
+        erstesByte = zeiten.getSchrittNanos(java, ExtraktionsStufeEreignis.ERSTES_BYTE);
+        prozessEnde = zeiten.getSchrittNanos(java, ExtraktionsStufeEreignis.PROZESS_ENDE);
+        jsonParsen = zeiten.getSchrittNanos(java, ExtraktionsStufeEreignis.JSON_PARSEN);
+        uebernahme = zeiten.getSchrittNanos(java, ExtraktionsStufeEreignis.UEBERNAHME);
+        if (doc != null) {
+            for (PythonStufenZeit zeit : doc.getPythonZeiten()) {
+                String stufe = String.valueOf(zeit.getStufe());
+                switch (stufe) {
+                    case "imports": pythonImporte += zeit.getNanos(); break;
+                    case "datum_scan": pythonDatumssuche += zeit.getNanos(); break;
+                    case "camelot.read_pdf": pythonCamelot += zeit.getNanos(); break;
+                    case "stream_fallback": pythonStreamFallback += zeit.getNanos(); break;
+                    case "gesamt": pythonGesamt += zeit.getNanos(); break;
+                    default: break; // Unbekannte Schritte stehen nur im Verlauf
+                }
+            }
+        }
+        commit();
+    }
+}
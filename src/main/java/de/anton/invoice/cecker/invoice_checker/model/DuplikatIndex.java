@@ -0,0 +1,329 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index über den normalisierten Tabelleninhalt aller Dokumente zur Erkennung doppelt
+ * gelieferter Rechnungen - auch dann, wenn das PDF neu eingescannt wurde und einen
+ * anderen Dateinamen hat (dort greift {@link PdfDokument#equals(Object)} nicht).
+ *
+ * Jede Tabellenzeile wird normalisiert und zu einem 64-Bit-Hash verdichtet. Aus der Menge
+ * der Zeilen-Hashes eines Dokuments entstehen
+ * <ul>
+ *   <li>ein ordnungsunabhängiger Fingerabdruck für exakt gleiche Inhalte und</li>
+ *   <li>eine MinHash-Signatur, die per LSH (Banding) in Buckets einsortiert wird.</li>
+ * </ul>
+ * Ein Einfügen kostet damit O(Zeilen * SIGNATUR_LAENGE) plus eine feste Anzahl an
+ * Bucket-Zugriffen - unabhängig davon, wie viele Dokumente bereits indiziert sind.
+ * Alle öffentlichen Methoden sind synchronisiert (Aufruf aus den Extraktions-Threads).
+ */
+public class DuplikatIndex {
+    private static final Logger log = LoggerFactory.getLogger(DuplikatIndex.class);
+
+    // LSH-Parameter: 16 Bänder à 4 Zeilen -> Kandidat ab ca. 50% Ähnlichkeit, sehr wahrscheinlich ab 80%
+    static final int BAENDER = 16;
+    static final int ZEILEN_PRO_BAND = 4;
+    static final int SIGNATUR_LAENGE = BAENDER * ZEILEN_PRO_BAND;
+    // Begrenzt den Vergleichsaufwand, falls ein Band-Wert sehr häufig vorkommt
+    private static final int MAX_KANDIDATEN_PRO_BUCKET = 32;
+    // Ab dieser geschätzten Ähnlichkeit gilt ein Dokument als Beinahe-Duplikat
+    private static final double STANDARD_SCHWELLE = 0.8;
+
+    // Feste Seeds für die MinHash-Funktionen (deterministisch über Programmläufe hinweg)
+    private static final long[] SEEDS = new long[SIGNATUR_LAENGE];
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < SIGNATUR_LAENGE; i++) {
+            seed = mische(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    /** Interner Eintrag pro indiziertem Dokument. */
+    private static final class Eintrag {
+        final String name;
+        final long fingerabdruck;
+        final int[] signatur;
+        final long[] bandSchluessel;
+
+        Eintrag(String name, long fingerabdruck, int[] signatur, long[] bandSchluessel) {
+            this.name = name;
+            this.fingerabdruck = fingerabdruck;
+            this.signatur = signatur;
+            this.bandSchluessel = bandSchluessel;
+        }
+    }
+
+    private final double schwelle;
+    private final Map<String, Eintrag> eintraege = new HashMap<>();                  // Schlüssel -> Eintrag
+    private final Map<Long, Set<String>> exakteFingerabdruecke = new HashMap<>();    // Fingerabdruck -> Schlüssel
+    private final Map<Long, ArrayDeque<String>> lshBuckets = new HashMap<>();        // Band-Schlüssel -> Schlüssel
+    private final Map<String, List<DuplikatTreffer>> trefferProDokument = new HashMap<>();
+    // Original -> Dokumente, in deren Treffern es vorkommt (zum Bereinigen beim Entfernen)
+    private final Map<String, Set<String>> verweise = new HashMap<>();
+
+    public DuplikatIndex() {
+        this(STANDARD_SCHWELLE);
+    }
+
+    /**
+     * @param schwelle Minimale geschätzte Ähnlichkeit (0..1), ab der ein Beinahe-Duplikat gemeldet wird.
+     */
+    public DuplikatIndex(double schwelle) {
+        this.schwelle = schwelle;
+    }
+
+    /**
+     * Prüft das Dokument gegen den Index und fügt es anschließend hinzu.
+     * Ein evtl. vorhandener Eintrag mit demselben Schlüssel (Neuverarbeitung) wird vorher entfernt.
+     *
+     * @param doc Das neu verarbeitete Dokument.
+     * @return Die gefundenen Duplikate (leer, wenn keine gefunden wurden oder das Dokument keine Daten hat).
+     */
+    public synchronized List<DuplikatTreffer> pruefeUndFuegeHinzu(PdfDokument doc) {
+        String schluessel = schluesselFuer(doc);
+        entferne(schluessel);
+
+        long[] zeilenHashes = berechneZeilenHashes(doc);
+        if (zeilenHashes.length == 0) {
+            log.debug("Dokument '{}' hat keine Tabellenzeilen, wird nicht in den Duplikat-Index aufgenommen.", doc.getSourcePdf());
+            return Collections.emptyList();
+        }
+
+        long fingerabdruck = berechneFingerabdruck(zeilenHashes);
+        int[] signatur = berechneSignatur(zeilenHashes);
+        long[] bandSchluessel = berechneBandSchluessel(signatur);
+        Eintrag neu = new Eintrag(doc.getSourcePdf(), fingerabdruck, signatur, bandSchluessel);
+
+        // --- Kandidaten suchen ---
+        List<DuplikatTreffer> treffer = new ArrayList<>();
+        Set<String> geprueft = new LinkedHashSet<>();
+        Set<String> exakt = exakteFingerabdruecke.get(fingerabdruck);
+        if (exakt != null) {
+            for (String anderer : exakt) {
+                geprueft.add(anderer);
+                treffer.add(new DuplikatTreffer(schluessel, neu.name, anderer, eintraege.get(anderer).name, 1.0, true));
+            }
+        }
+        for (long band : bandSchluessel) {
+            ArrayDeque<String> bucket = lshBuckets.get(band);
+            if (bucket == null) continue;
+            for (String anderer : bucket) {
+                if (!geprueft.add(anderer)) continue;
+                Eintrag kandidat = eintraege.get(anderer);
+                double aehnlichkeit = schaetzeAehnlichkeit(signatur, kandidat.signatur);
+                if (aehnlichkeit >= schwelle) {
+                    treffer.add(new DuplikatTreffer(schluessel, neu.name, anderer, kandidat.name, aehnlichkeit, false));
+                }
+            }
+        }
+
+        // --- Einfügen ---
+        eintraege.put(schluessel, neu);
+        exakteFingerabdruecke.computeIfAbsent(fingerabdruck, k -> new LinkedHashSet<>()).add(schluessel);
+        for (long band : bandSchluessel) {
+            ArrayDeque<String> bucket = lshBuckets.computeIfAbsent(band, k -> new ArrayDeque<>());
+            if (bucket.size() >= MAX_KANDIDATEN_PRO_BUCKET) {
+                bucket.pollFirst(); // Älteste Einträge fallen aus dem Bucket, der Eintrag selbst bleibt bestehen
+            }
+            bucket.addLast(schluessel);
+        }
+        if (!treffer.isEmpty()) {
+            trefferProDokument.put(schluessel, Collections.unmodifiableList(treffer));
+            for (DuplikatTreffer t : treffer) {
+                verweise.computeIfAbsent(t.getOriginalSchluessel(), k -> new LinkedHashSet<>()).add(schluessel);
+            }
+        }
+        return treffer;
+    }
+
+    /**
+     * Entfernt ein Dokument aus dem Index (z.B. vor einer Neuverarbeitung). Auch die Treffer
+     * anderer Dokumente, die auf dieses Dokument verweisen, werden entfernt.
+     * @param schluessel Der Schlüssel des Dokuments (voller Pfad, sonst Dateiname).
+     */
+    public synchronized void entferne(String schluessel) {
+        Eintrag alt = eintraege.remove(schluessel);
+        List<DuplikatTreffer> eigene = trefferProDokument.remove(schluessel);
+        if (eigene != null) {
+            for (DuplikatTreffer t : eigene) {
+                Set<String> verweisende = verweise.get(t.getOriginalSchluessel());
+                if (verweisende != null) {
+                    verweisende.remove(schluessel);
+                    if (verweisende.isEmpty()) verweise.remove(t.getOriginalSchluessel());
+                }
+            }
+        }
+        Set<String> verweisende = verweise.remove(schluessel);
+        if (verweisende != null) {
+            for (String anderer : verweisende) entferneTrefferAuf(anderer, schluessel);
+        }
+        if (alt == null) return;
+        Set<String> exakt = exakteFingerabdruecke.get(alt.fingerabdruck);
+        if (exakt != null) {
+            exakt.remove(schluessel);
+            if (exakt.isEmpty()) exakteFingerabdruecke.remove(alt.fingerabdruck);
+        }
+        for (long band : alt.bandSchluessel) {
+            ArrayDeque<String> bucket = lshBuckets.get(band);
+            if (bucket != null) {
+                bucket.remove(schluessel);
+                if (bucket.isEmpty()) lshBuckets.remove(band);
+            }
+        }
+    }
+
+    /** Entfernt aus den Treffern eines Dokuments alle Verweise auf das Original. */
+    private void entferneTrefferAuf(String dokument, String original) {
+        List<DuplikatTreffer> treffer = trefferProDokument.get(dokument);
+        if (treffer == null) return;
+        List<DuplikatTreffer> verbleibend = new ArrayList<>(treffer.size());
+        for (DuplikatTreffer t : treffer) {
+            if (!t.getOriginalSchluessel().equals(original)) verbleibend.add(t);
+        }
+        if (verbleibend.isEmpty()) {
+            trefferProDokument.remove(dokument);
+        } else {
+            trefferProDokument.put(dokument, Collections.unmodifiableList(verbleibend));
+        }
+    }
+
+    /**
+     * Gibt die beim letzten Einfügen gefundenen Duplikate für ein Dokument zurück.
+     * @param doc Das Dokument.
+     * @return Die Treffer oder eine leere Liste.
+     */
+    public synchronized List<DuplikatTreffer> getTreffer(PdfDokument doc) {
+        return trefferProDokument.getOrDefault(schluesselFuer(doc), Collections.emptyList());
+    }
+
+    /** @return Anzahl der indizierten Dokumente. */
+    public synchronized int groesse() {
+        return eintraege.size();
+    }
+
+    // --- Hilfsmethoden: Schlüssel, Normalisierung und Hashing ---
+
+    static String schluesselFuer(PdfDokument doc) {
+        return doc.getFullPath() != null ? doc.getFullPath() : doc.getSourcePdf();
+    }
+
+    /**
+     * Berechnet die (eindeutigen) Hashes aller Datenzeilen eines Dokuments.
+     * Die erste Zeile jeder Tabelle enthält bei Camelot nur die Spaltennummern und wird übersprungen.
+     * Zellen werden ohne Leerraum und in Kleinschreibung verglichen, damit abweichende
+     * Zeilenumbrüche und Abstände aus OCR/Neuscan nicht ins Gewicht fallen.
+     */
+    static long[] berechneZeilenHashes(PdfDokument doc) {
+        if (doc.getTables() == null) return new long[0];
+        long[] hashes = new long[16];
+        int anzahl = 0;
+        for (ExtrahierteTabelle tabelle : doc.getTables()) {
+            List<List<String>> daten = tabelle.getData();
+            if (daten == null) continue;
+            for (int zeile = 1; zeile < daten.size(); zeile++) {
+                long h = zeilenHash(daten.get(zeile));
+                if (h == 0L) continue; // Leere Zeile
+                if (anzahl == hashes.length) hashes = Arrays.copyOf(hashes, anzahl * 2);
+                hashes[anzahl++] = h;
+            }
+        }
+        long[] ergebnis = Arrays.copyOf(hashes, anzahl);
+        Arrays.sort(ergebnis);
+        // Duplikate entfernen (Mengensemantik für Jaccard)
+        int eindeutig = 0;
+        for (int i = 0; i < ergebnis.length; i++) {
+            if (i == 0 || ergebnis[i] != ergebnis[i - 1]) ergebnis[eindeutig++] = ergebnis[i];
+        }
+        return Arrays.copyOf(ergebnis, eindeutig);
+    }
+
+    /**
+     * FNV-1a über die normalisierten Zeichen aller Zellen einer Zeile.
+     * @return Der Hash oder 0, wenn die Zeile nach der Normalisierung leer ist.
+     */
+    static long zeilenHash(List<String> zeile) {
+        long h = 0xcbf29ce484222325L;
+        boolean inhalt = false;
+        for (String zelle : zeile) {
+            if (zelle != null) {
+                for (int i = 0; i < zelle.length(); i++) {
+                    char c = zelle.charAt(i);
+                    if (Character.isWhitespace(c)) continue;
+                    c = Character.toLowerCase(c);
+                    h ^= c;
+                    h *= 0x100000001b3L;
+                    inhalt = true;
+                }
+            }
+            h ^= 0x1F; // Zelltrenner, damit "ab|c" != "a|bc"
+            h *= 0x100000001b3L;
+        }
+        return inhalt ? mische(h) | 1L : 0L;
+    }
+
+    /** Ordnungsunabhängiger Fingerabdruck einer Menge von Zeilen-Hashes. */
+    private static long berechneFingerabdruck(long[] zeilenHashes) {
+        long summe = zeilenHashes.length;
+        for (long h : zeilenHashes) {
+            summe += mische(h ^ 0x632BE59BD9B4E019L);
+        }
+        return mische(summe);
+    }
+
+    private static int[] berechneSignatur(long[] zeilenHashes) {
+        int[] signatur = new int[SIGNATUR_LAENGE];
+        Arrays.fill(signatur, Integer.MAX_VALUE);
+        for (long h : zeilenHashes) {
+            for (int i = 0; i < SIGNATUR_LAENGE; i++) {
+                int wert = (int) (mische(h ^ SEEDS[i]) >>> 33);
+                if (wert < signatur[i]) signatur[i] = wert;
+            }
+        }
+        return signatur;
+    }
+
+    private static long[] berechneBandSchluessel(int[] signatur) {
+        long[] baender = new long[BAENDER];
+        for (int b = 0; b < BAENDER; b++) {
+            long h = b;
+            for (int r = 0; r < ZEILEN_PRO_BAND; r++) {
+                h = mische(h * 31 + signatur[b * ZEILEN_PRO_BAND + r]);
+            }
+            baender[b] = h;
+        }
+        return baender;
+    }
+
+    private static double schaetzeAehnlichkeit(int[] a, int[] b) {
+        int gleich = 0;
+        for (int i = 0; i < SIGNATUR_LAENGE; i++) {
+            if (a[i] == b[i]) gleich++;
+        }
+        return (double) gleich / SIGNATUR_LAENGE;
+    }
+
+    /** SplitMix64-Finalizer: verteilt die Bits eines 64-Bit-Werts gleichmäßig. */
+    private static long mische(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "DuplikatIndex[dokumente=%d, buckets=%d]", eintraege.size(), lshBuckets.size());
+    }
+}
@@ -0,0 +1,41 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+/**
+ * Ergebnis der Duplikatprüfung: Ein neu eingefügtes Dokument ist (nahezu) inhaltsgleich
+ * mit einem bereits bekannten Dokument.
+ */
+public class DuplikatTreffer {
+    private final String dokumentSchluessel;   // Voller Pfad des neu eingefügten Dokuments
+    private final String dokumentName;         // Dateiname des neu eingefügten Dokuments
+    private final String originalSchluessel;   // Voller Pfad des bereits bekannten Dokuments
+    private final String originalName;         // Dateiname des bereits bekannten Dokuments
+    private final double aehnlichkeit;         // Geschätzte Jaccard-Ähnlichkeit der Zeilenmengen (0..1)
+    private final boolean exakt;               // true, wenn der normalisierte Inhalt identisch ist
+
+    public DuplikatTreffer(String dokumentSchluessel, String dokumentName,
+                           String originalSchluessel, String originalName,
+                           double aehnlichkeit, boolean exakt) {
+        this.dokumentSchluessel = dokumentSchluessel;
+        this.dokumentName = dokumentName;
+        this.originalSchluessel = originalSchluessel;
+        this.originalName = originalName;
+        this.aehnlichkeit = aehnlichkeit;
+        this.exakt = exakt;
+    }
+
+    // --- Getter ---
+    public String getDokumentSchluessel() { return dokumentSchluessel; }
+    public String getDokumentName() { return dokumentName; }
+    public String getOriginalSchluessel() { return originalSchluessel; }
+    public String getOriginalName() { return originalName; }
+    public double getAehnlichkeit() { return aehnlichkeit; }
+    public boolean isExakt() { return exakt; }
+
+    @Override
+    public String toString() {
+        if (exakt) {
+            return dokumentName + " ist identisch mit " + originalName;
+        }
+        return dokumentName + " ähnelt " + originalName + " (" + Math.round(aehnlichkeit * 100) + "%)";
+    }
+}
@@ -1,6 +1,8 @@
 package de.anton.invoice.cecker.invoice_checker.model;
 
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook; // Streaming-Variante für große Exporte
 import org.apache.poi.xssf.usermodel.XSSFWorkbook; // Für .xlsx Format
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,18 +10,79 @@ import org.slf4j.LoggerFactory;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.time.format.DateTimeFormatter; // Für Datumsformatierung
+import java.time.LocalDate;
 import java.util.List; // Für die Liste der Dokumente
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Diese Klasse ist verantwortlich für den Export der extrahierten Tabellendaten
  * aus mehreren PdfDokument-Objekten in eine einzelne Excel-Datei (.xlsx).
+ * Standardmäßig wird im Streaming-Modus ({@link SXSSFWorkbook}) geschrieben: Nur ein Fenster
+ * der letzten Zeilen bleibt im Speicher, ältere Zeilen werden in (komprimierte) temporäre
+ * Dateien ausgelagert. Der Speicherbedarf hängt damit nicht von der Zeilenzahl ab.
+ * Metadaten werden typisiert geschrieben (Datum, Ganzzahl); Tabellenspalten, deren Datenzellen
+ * ausnahmslos deutsche Geldbeträge sind, werden als Zahlen mit Betragsformat geschrieben.
+ * Alle Stile stammen aus einem gemeinsamen {@link ZellStilPool}.
+ * Passen die Zeilen nicht in ein Arbeitsblatt ({@link #MAX_ZEILEN}), wird vor dem Anlegen der Datei abgebrochen.
  */
 public class ExcelExportService {
 
     private static final Logger log = LoggerFactory.getLogger(ExcelExportService.class);
-    // Definiere ein konsistentes Datumsformat für die Ausgabe in Excel
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final int DATUM_ZEICHEN = 10; // "TT.MM.JJJJ" für die Breitenschätzung
+    public static final int STANDARD_ZEILENFENSTER = 100;
+    /** Maximale Zeilenzahl eines Arbeitsblatts (.xlsx), inklusive Kopfzeile. */
+    public static final int MAX_ZEILEN = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    // Metriken (siehe MetrikRegistry), je Export einmal erfasst
+    private static final LongAdder EXPORTE = MetrikRegistry.global().zaehler("export.anzahl", "Abgeschlossene Excel-Exporte");
+    private static final LongAdder EXPORT_FEHLER = MetrikRegistry.global().zaehler("export.fehler", "Fehlgeschlagene Excel-Exporte");
+    private static final LongAdder EXPORT_ZEILEN = MetrikRegistry.global().zaehler("export.zeilen", "Geschriebene Excel-Zeilen insgesamt");
+    private static final LatenzHistogramm EXPORT_DAUER_MS = MetrikRegistry.global().latenz("export.dauer", "Dauer eines Excel-Exports (ms)");
+    private static final AtomicLong LETZTE_ZEILEN_PRO_SEKUNDE = new AtomicLong();
+
+    static {
+        MetrikRegistry.global().messwert("export.zeilenProSekunde", "Zeilen pro Sekunde beim letzten Excel-Export", LETZTE_ZEILEN_PRO_SEKUNDE::get);
+    }
+
+    // Konfiguration des Streaming-Modus
+    private boolean streaming = true;
+    private int zeilenFenster = STANDARD_ZEILENFENSTER;
+    private boolean komprimierteTempDateien = true;
+    private int breitenStichprobenIntervall = 1;
+
+    /**
+     * Schaltet zwischen Streaming-Export (SXSSF, konstanter Speicherbedarf) und dem
+     * klassischen Export (gesamte Arbeitsmappe im Speicher) um.
+     */
+    public void setStreaming(boolean streaming) { this.streaming = streaming; }
+    public boolean isStreaming() { return streaming; }
+
+    /**
+     * @param zeilenFenster Anzahl der Zeilen, die im Streaming-Modus im Speicher gehalten werden (mind. 1).
+     */
+    public void setZeilenFenster(int zeilenFenster) {
+        if (zeilenFenster < 1) throw new IllegalArgumentException("Zeilenfenster muss mindestens 1 sein: " + zeilenFenster);
+        this.zeilenFenster = zeilenFenster;
+    }
+    public int getZeilenFenster() { return zeilenFenster; }
+
+    /**
+     * @param komprimierteTempDateien true, um die temporären Dateien des Streaming-Modus mit GZIP zu komprimieren
+     *                                (weniger Plattenplatz, etwas mehr CPU).
+     */
+    public void setKomprimierteTempDateien(boolean komprimierteTempDateien) { this.komprimierteTempDateien = komprimierteTempDateien; }
+    public boolean isKomprimierteTempDateien() { return komprimierteTempDateien; }
+
+    /**
+     * @param intervall 1 = Spaltenbreiten aus allen Zeilen schätzen (Standard); n &gt; 1 = nach den ersten
+     *                  Zeilen nur jede n-te Zeile berücksichtigen (siehe {@link SpaltenBreitenSchaetzer}).
+     */
+    public void setBreitenStichprobenIntervall(int intervall) {
+        if (intervall < 1) throw new IllegalArgumentException("Stichprobenintervall muss mindestens 1 sein: " + intervall);
+        this.breitenStichprobenIntervall = intervall;
+    }
+    public int getBreitenStichprobenIntervall() { return breitenStichprobenIntervall; }
 
     /**
      * Exportiert die Daten aller Tabellen aus der Liste der PdfDokumente in eine Excel-Datei.
@@ -28,7 +91,8 @@ public class ExcelExportService {
      *
      * @param dokumente Die Liste der zu exportierenden PdfDokument-Objekte.
      * @param ausgabePfad Der Pfad zur zu erstellenden Excel-Datei.
-     * @throws IOException Wenn ein Fehler beim Schreiben der Datei auftritt oder keine Dokumente vorhanden sind.
+     * @throws IOException Wenn ein Fehler beim Schreiben der Datei auftritt, keine Dokumente vorhanden sind
+     *                     oder die Zeilen nicht in ein Arbeitsblatt passen.
      */
     public void exportiereNachExcel(List<PdfDokument> dokumente, Path ausgabePfad) throws IOException {
         log.info("Starte Excel-Export von {} Dokumenten nach: {}", (dokumente != null ? dokumente.size() : 0), ausgabePfad);
@@ -40,44 +104,56 @@ public class ExcelExportService {
             throw new IOException("Keine Dokumente zum Exportieren angegeben.");
             // return; // Alternative: Einfach nichts tun und keine Datei erstellen.
         }
+        // Vor dem Anlegen der Datei prüfen: POI bricht sonst mitten im Schreiben ab und hinterlässt eine halbe Datei
+        long zeilen = 1; // Kopfzeile
+        for (PdfDokument doc : dokumente) zeilen += zeilenFuer(doc);
+        if (zeilen > MAX_ZEILEN) {
+            EXPORT_FEHLER.increment();
+            throw new IOException(String.format("Der Export umfasst %,d Zeilen, ein Excel-Arbeitsblatt fasst höchstens %,d. "
+                    + "Bitte aufgeteilt exportieren (z.B. nach Zeilenlimit) oder CSV/NDJSON verwenden.", zeilen, MAX_ZEILEN));
+        }
 
+        long startNanos = System.nanoTime();
         // Verwende try-with-resources, um sicherzustellen, dass Workbook und FileOutputStream geschlossen werden
-        try (Workbook workbook = new XSSFWorkbook(); // Erstelle eine neue .xlsx Arbeitsmappe
+        Workbook workbook = erstelleArbeitsmappe(); // Erstelle eine neue .xlsx Arbeitsmappe (ggf. Streaming)
+        try (workbook;
              FileOutputStream fileOut = new FileOutputStream(ausgabePfad.toFile())) { // Öffne den Ausgabestream
 
             // Erstelle ein neues Arbeitsblatt
             Sheet sheet = workbook.createSheet("Extrahierte Tabellen");
+            // Spaltenbreiten werden beim Schreiben geschätzt (ausgelagerte Zeilen sind später nicht mehr zugänglich)
+            SpaltenBreitenSchaetzer breiten = new SpaltenBreitenSchaetzer();
+            breiten.setStichprobenIntervall(breitenStichprobenIntervall);
 
             // Index für die aktuelle Zeile im Excel-Blatt
             int rowIndex = 0;
-            // Definiere Zellstile für Header und Datum
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle dateStyle = createDateStyle(workbook);
+            // Zellstile aus dem gemeinsamen Pool (jeder Stil existiert nur einmal in der Datei)
+            ZellStilPool stile = new ZellStilPool(workbook);
+            CellStyle headerStyle = stile.kopf();
+            CellStyle dateStyle = stile.datum();
+            CellStyle ganzzahlStyle = stile.ganzzahl();
+            CellStyle betragStyle = stile.betrag();
 
             // --- Header-Zeile erstellen ---
             Row headerRow = sheet.createRow(rowIndex++);
             int cellIndex = 0;
             // Statische Metadaten-Spalten
-            createCell(headerRow, cellIndex++, "Quelldatei", headerStyle);
-            createCell(headerRow, cellIndex++, "Abrechnungszeitraum Start", headerStyle);
-            createCell(headerRow, cellIndex++, "Abrechnungszeitraum Ende", headerStyle);
-            createCell(headerRow, cellIndex++, "Seite (PDF)", headerStyle);
-            createCell(headerRow, cellIndex++, "Tabellenindex (Camelot)", headerStyle);
-            createCell(headerRow, cellIndex++, "Flavor (Camelot)", headerStyle); // Camelot Flavor hinzugefügt
-            createCell(headerRow, cellIndex++, "Zeilenindex (Original)", headerStyle); // Index der Zeile innerhalb der Originaltabelle
+            createCell(headerRow, cellIndex++, "Quelldatei", headerStyle, breiten);
+            createCell(headerRow, cellIndex++, "Abrechnungszeitraum Start", headerStyle, breiten);
+            createCell(headerRow, cellIndex++, "Abrechnungszeitraum Ende", headerStyle, breiten);
+            createCell(headerRow, cellIndex++, "Seite (PDF)", headerStyle, breiten);
+            createCell(headerRow, cellIndex++, "Tabellenindex (Camelot)", headerStyle, breiten);
+            createCell(headerRow, cellIndex++, "Flavor (Camelot)", headerStyle, breiten); // Camelot Flavor hinzugefügt
+            createCell(headerRow, cellIndex++, "Zeilenindex (Original)", headerStyle, breiten); // Index der Zeile innerhalb der Originaltabelle
 
             // Finde die maximale Anzahl von Datenspalten über alle Tabellen hinweg
+            // (jede Tabelle kennt ihre breiteste Zeile bereits, kein Durchlauf über alle Zeilen nötig)
             int basisSpaltenAnzahl = cellIndex; // Anzahl der Metadaten-Spalten
             int maxDatenSpalten = 0;
             for (PdfDokument doc : dokumente) {
                  if(doc.getTables() != null){
                       for(ExtrahierteTabelle tabelle : doc.getTables()){
-                           if(tabelle.getData() != null){
-                                for(List<String> rowData : tabelle.getData()){
-                                     // Vergleiche die Größe jeder Zeile (inkl. Header der Originaltabelle)
-                                     maxDatenSpalten = Math.max(maxDatenSpalten, rowData.size());
-                                }
-                           }
+                           maxDatenSpalten = Math.max(maxDatenSpalten, tabelle.getMaxSpalten());
                       }
                  }
             }
@@ -85,7 +161,7 @@ public class ExcelExportService {
 
             // Füge Header für die dynamischen Datenspalten hinzu
             for (int i = 0; i < maxDatenSpalten; i++) {
-                createCell(headerRow, cellIndex++, "Daten Spalte " + (i + 1), headerStyle);
+                createCell(headerRow, cellIndex++, "Daten Spalte " + (i + 1), headerStyle, breiten);
             }
 
 
@@ -98,8 +174,8 @@ public class ExcelExportService {
                      // Optional: Eine Zeile mit der Fehlermeldung schreiben
                      if (doc.getError() != null && !doc.getError().isBlank()) {
                           Row errorRow = sheet.createRow(rowIndex++);
-                          createCell(errorRow, 0, doc.getSourcePdf(), null);
-                          createCell(errorRow, basisSpaltenAnzahl, "FEHLER: " + doc.getError(), null); // Fehler in erster Datenspalte
+                          createCell(errorRow, 0, doc.getSourcePdf(), null, breiten);
+                          createCell(errorRow, basisSpaltenAnzahl, "FEHLER: " + doc.getError(), null, breiten); // Fehler in erster Datenspalte
                      }
                     continue; // Nächstes Dokument
                 }
@@ -110,64 +186,170 @@ public class ExcelExportService {
                     if (tabelle.getData() == null || tabelle.getData().isEmpty()) {
                         continue; // Nächste Tabelle
                     }
+                    // Spalten, die nur Beträge enthalten, als Zahlen schreiben
+                    boolean[] betragsSpalten = ermittleBetragsSpalten(tabelle);
 
                     // Iteriere durch jede Zeile der Originaltabelle (inklusive des Original-Headers)
                     for (int originalRowIndex = 0; originalRowIndex < tabelle.getData().size(); originalRowIndex++) {
                          List<String> rowData = tabelle.getData().get(originalRowIndex); // Die Daten der aktuellen Zeile
+                         // Breiten nur für Stichprobenzeilen erfassen (bei Intervall 1 für alle)
+                         SpaltenBreitenSchaetzer messen = breiten.istStichprobe(rowIndex) ? breiten : null;
                          Row dataRow = sheet.createRow(rowIndex++); // Neue Zeile im Excel-Blatt erstellen
                          cellIndex = 0; // Spaltenindex zurücksetzen
 
                          // Schreibe die Metadaten in die ersten Spalten
-                         createCell(dataRow, cellIndex++, doc.getSourcePdf(), null);
-                         createCell(dataRow, cellIndex++, doc.getAbrechnungszeitraumStart() != null ? doc.getAbrechnungszeitraumStart().format(DATE_FORMATTER) : "", dateStyle);
-                         createCell(dataRow, cellIndex++, doc.getAbrechnungszeitraumEnde() != null ? doc.getAbrechnungszeitraumEnde().format(DATE_FORMATTER) : "", dateStyle);
-                         createCell(dataRow, cellIndex++, String.valueOf(tabelle.getPage()), null); // Seite als String
-                         createCell(dataRow, cellIndex++, String.valueOf(tabelle.getIndex()), null); // Index als String
-                         createCell(dataRow, cellIndex++, tabelle.getFlavor(), null); // Flavor (lattice/stream)
-                         createCell(dataRow, cellIndex++, String.valueOf(originalRowIndex), null); // Original-Zeilenindex als String
+                         createCell(dataRow, cellIndex++, doc.getSourcePdf(), null, messen);
+                         createDateCell(dataRow, cellIndex++, doc.getAbrechnungszeitraumStart(), dateStyle, messen);
+                         createDateCell(dataRow, cellIndex++, doc.getAbrechnungszeitraumEnde(), dateStyle, messen);
+                         createNumberCell(dataRow, cellIndex++, tabelle.getPage(), ganzzahlStyle, messen, ziffern(tabelle.getPage())); // Seite als Zahl
+                         createNumberCell(dataRow, cellIndex++, tabelle.getIndex(), ganzzahlStyle, messen, ziffern(tabelle.getIndex())); // Index als Zahl
+                         createCell(dataRow, cellIndex++, tabelle.getFlavor(), null, messen); // Flavor (lattice/stream)
+                         createNumberCell(dataRow, cellIndex++, originalRowIndex, ganzzahlStyle, messen, ziffern(originalRowIndex)); // Original-Zeilenindex als Zahl
 
                          // Schreibe die eigentlichen Tabellendaten in die nachfolgenden Spalten
                          for (int dataColIndex = 0; dataColIndex < rowData.size(); dataColIndex++) {
                              // Stelle sicher, dass der Index gültig ist (sollte durch maxDatenSpalten abgedeckt sein)
                              if (cellIndex < basisSpaltenAnzahl + maxDatenSpalten) {
-                                createCell(dataRow, cellIndex++, rowData.get(dataColIndex), null);
+                                String wert = rowData.get(dataColIndex);
+                                if (wert == null || wert.isEmpty()) {
+                                    cellIndex++; // Leere Zellen gar nicht erst anlegen
+                                } else if (originalRowIndex > 0 && betragsSpalten[dataColIndex]) {
+                                    createNumberCell(dataRow, cellIndex++, BetragParser.parseDeutscherBetrag(wert), betragStyle, messen, wert.length());
+                                } else {
+                                    createCell(dataRow, cellIndex++, wert, null, messen);
+                                }
                              } else {
                                  log.warn("Zu viele Datenzellen in Zeile {} von Tabelle {}({}) in Datei '{}'. Überspringe Zelle '{}'.",
                                            originalRowIndex, tabelle.getIndex(), tabelle.getFlavor(), doc.getSourcePdf(), rowData.get(dataColIndex));
                              }
                          }
-                         // Fülle ggf. restliche Datenspalten mit Leerstrings, wenn diese Zeile weniger Spalten hatte
-                         while (cellIndex < basisSpaltenAnzahl + maxDatenSpalten) {
-                             createCell(dataRow, cellIndex++, "", null);
-                         }
                     }
                 }
             }
 
-             // Spaltenbreiten automatisch anpassen (optional, kann bei sehr großen Dateien dauern)
+             // Spaltenbreiten aus den beim Schreiben geschätzten Werten setzen
+             // (ersetzt autoSizeColumn, das jede Zelle mit Fontmetriken vermessen würde)
              log.debug("Passe Spaltenbreiten an...");
-             for (int i = 0; i < basisSpaltenAnzahl + maxDatenSpalten; i++) {
-                try {
-                    sheet.autoSizeColumn(i);
-                } catch (Exception e) {
-                    // Fange potenzielle Fehler bei autoSizeColumn ab (z.B. bei sehr breiten Zellen)
-                    log.warn("Fehler beim Anpassen der Spaltenbreite für Spalte {}: {}", i, e.getMessage());
-                    // Setze eine Standardbreite als Fallback
-                    // sheet.setColumnWidth(i, 20 * 256); // Beispiel: 20 Zeichen breit
-                }
-             }
+             breiten.wendeAn(sheet, basisSpaltenAnzahl + maxDatenSpalten);
 
             // Schreibe die gesamte Arbeitsmappe in die Ausgabedatei
             workbook.write(fileOut);
             log.info("Excel-Export nach {} erfolgreich abgeschlossen.", ausgabePfad);
+            erfasseExport(rowIndex, System.nanoTime() - startNanos);
 
         } catch (IOException e) {
              // Fange Fehler beim Erstellen/Schreiben der Datei
              log.error("Fehler beim Schreiben der Excel-Datei nach {}: {}", ausgabePfad, e.getMessage(), e);
+             EXPORT_FEHLER.increment();
              throw e; // Leite den Fehler weiter, damit der Aufrufer ihn behandeln kann
+        } finally {
+            if (workbook instanceof SXSSFWorkbook) {
+                // Temporäre Dateien des Streaming-Modus löschen
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+        }
+    }
+
+    /**
+     * @param doc Ein Dokument.
+     * @return Anzahl der Zeilen, die der Export für das Dokument schreibt (ohne die Kopfzeile der Datei):
+     *         alle Zeilen aller Tabellen, bzw. eine Fehlerzeile für Dokumente ohne Tabellen mit Fehlermeldung.
+     */
+    static long zeilenFuer(PdfDokument doc) {
+        if (doc.getTables() == null || doc.getTables().isEmpty()) {
+            return doc.getError() != null && !doc.getError().isBlank() ? 1 : 0;
+        }
+        long zeilen = 0;
+        for (ExtrahierteTabelle tabelle : doc.getTables()) {
+            if (tabelle.getData() != null) zeilen += tabelle.getData().size();
+        }
+        return zeilen;
+    }
+
+    private static void erfasseExport(int zeilen, long dauerNanos) {
+        EXPORTE.increment();
+        EXPORT_ZEILEN.add(zeilen);
+        EXPORT_DAUER_MS.erfasse(dauerNanos / 1_000_000);
+        LETZTE_ZEILEN_PRO_SEKUNDE.set(dauerNanos > 0 ? zeilen * 1_000_000_000L / dauerNanos : 0);
+    }
+
+    /**
+     * Erstellt die Arbeitsmappe entsprechend der Konfiguration.
+     * @return Eine {@link SXSSFWorkbook} im Streaming-Modus, sonst eine {@link XSSFWorkbook}.
+     */
+    private Workbook erstelleArbeitsmappe() {
+        if (streaming) {
+            log.debug("--> Streaming-Export mit Zeilenfenster {} (komprimierte Temp-Dateien: {})", zeilenFenster, komprimierteTempDateien);
+            return new SXSSFWorkbook(null, zeilenFenster, komprimierteTempDateien);
+        }
+        return new XSSFWorkbook();
+    }
+
+    /**
+     * Ermittelt die Spalten einer Tabelle, deren Datenzellen (ohne Kopfzeile) alle leer oder
+     * deutsche Geldbeträge sind, mit mindestens einem Betrag. Nur diese werden als Zahl geschrieben,
+     * damit z.B. Artikelnummern oder gemischte Spalten unverändert als Text erhalten bleiben.
+     * @param tabelle Die Tabelle.
+     * @return Je Spalte true, wenn es eine Betragsspalte ist.
+     */
+    static boolean[] ermittleBetragsSpalten(ExtrahierteTabelle tabelle) {
+        boolean[] betrag = new boolean[tabelle.getMaxSpalten()];
+        boolean[] ausgeschlossen = new boolean[betrag.length];
+        List<List<String>> daten = tabelle.getData();
+        for (int z = 1; z < daten.size(); z++) {
+            List<String> zeile = daten.get(z);
+            if (zeile == null) continue;
+            for (int s = 0; s < zeile.size(); s++) {
+                if (ausgeschlossen[s]) continue;
+                String wert = zeile.get(s);
+                if (wert == null || wert.isEmpty()) continue;
+                if (Double.isNaN(BetragParser.parseDeutscherBetrag(wert))) {
+                    ausgeschlossen[s] = true;
+                    betrag[s] = false;
+                } else {
+                    betrag[s] = true;
+                }
+            }
+        }
+        return betrag;
+    }
+
+    /**
+     * Erstellt eine Zahlenzelle.
+     * @param zeichen Anzahl der angezeigten Zeichen (für die Breitenschätzung).
+     */
+    private void createNumberCell(Row row, int columnIndex, double value, CellStyle style, SpaltenBreitenSchaetzer breiten, int zeichen) {
+        Cell cell = row.createCell(columnIndex);
+        cell.setCellValue(value);
+        cell.setCellStyle(style);
+        if (breiten != null) {
+            breiten.erfasseZiffern(columnIndex, zeichen);
+        }
+    }
+
+    /**
+     * Erstellt eine Datumszelle; ohne Datum wird keine Zelle angelegt.
+     */
+    private void createDateCell(Row row, int columnIndex, LocalDate value, CellStyle style, SpaltenBreitenSchaetzer breiten) {
+        if (value == null) return;
+        Cell cell = row.createCell(columnIndex);
+        cell.setCellValue(value);
+        cell.setCellStyle(style);
+        if (breiten != null) {
+            breiten.erfasseZiffern(columnIndex, DATUM_ZEICHEN);
         }
     }
 
+    /** @return Anzahl der Dezimalstellen einer nicht-negativen Ganzzahl. */
+    private static int ziffern(int zahl) {
+        int anzahl = 1;
+        while (zahl >= 10) {
+            zahl /= 10;
+            anzahl++;
+        }
+        return anzahl;
+    }
+
     /**
      * Hilfsmethode zum Erstellen einer Zelle in einer Zeile mit gegebenem Wert und Stil.
      * Behandelt Null-Werte für den Wert.
@@ -176,44 +358,16 @@ public class ExcelExportService {
      * @param columnIndex Der 0-basierte Index der Spalte.
      * @param value Der Wert, der in die Zelle geschrieben werden soll (wird in String umgewandelt).
      * @param style Der anzuwendende Zellstil (kann null sein).
+     * @param breiten Schätzer für die Spaltenbreite, der den Wert erfassen soll (kann null sein).
      */
-    private void createCell(Row row, int columnIndex, String value, CellStyle style) {
+    private void createCell(Row row, int columnIndex, String value, CellStyle style, SpaltenBreitenSchaetzer breiten) {
         Cell cell = row.createCell(columnIndex);
         cell.setCellValue(value != null ? value : ""); // Stelle sicher, dass kein Null geschrieben wird
+        if (breiten != null) {
+            breiten.erfasse(columnIndex, value, row.getRowNum() == 0); // Zeile 0 ist die fette Kopfzeile
+        }
         if (style != null) {
             cell.setCellStyle(style);
         }
     }
-
-     /**
-      * Erstellt einen Zellstil für Header-Zellen (fett, zentriert).
-      *
-      * @param workbook Die Arbeitsmappe, für die der Stil erstellt wird.
-      * @return Der erstellte Header-Zellstil.
-      */
-    private CellStyle createHeaderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true); // Fett
-        style.setFont(font);
-        style.setAlignment(HorizontalAlignment.CENTER); // Zentriert
-        // Optional: Füllung, Rahmen etc. hinzufügen
-        // style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        // style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        return style;
-    }
-
-     /**
-      * Erstellt einen Zellstil für Datumszellen im Format TT.MM.JJJJ.
-      *
-      * @param workbook Die Arbeitsmappe, für die der Stil erstellt wird.
-      * @return Der erstellte Datums-Zellstil.
-      */
-    private CellStyle createDateStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        CreationHelper createHelper = workbook.getCreationHelper();
-        // Definiere das Datumsformat für Excel
-        style.setDataFormat(createHelper.createDataFormat().getFormat("dd.mm.yyyy"));
-        return style;
-    }
 }
\ No newline at end of file
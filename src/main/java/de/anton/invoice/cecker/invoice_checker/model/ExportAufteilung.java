@@ -0,0 +1,31 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+/**
+ * Kriterien, nach denen ein Excel-Export auf mehrere Arbeitsmappen aufgeteilt wird
+ * (siehe {@link AufgeteilterExportService}).
+ */
+public enum ExportAufteilung {
+    /** Alles in eine Datei (keine Aufteilung). */
+    KEINE("Eine Datei"),
+    /** Eine Datei je Abrechnungsmonat (Beginn des Abrechnungszeitraums). */
+    ABRECHNUNGSMONAT("Je Abrechnungsmonat"),
+    /** Eine Datei je Lieferant (aus dem Dateinamen ermittelt). */
+    LIEFERANT("Je Lieferant"),
+    /** Dateien mit höchstens einer vorgegebenen Zeilenzahl (Dokumente werden nicht getrennt). */
+    ZEILENLIMIT("Je Zeilenlimit");
+
+    private final String anzeigeName;
+
+    ExportAufteilung(String anzeigeName) {
+        this.anzeigeName = anzeigeName;
+    }
+
+    public String getAnzeigeName() {
+        return anzeigeName;
+    }
+
+    @Override
+    public String toString() {
+        return anzeigeName;
+    }
+}
@@ -0,0 +1,299 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
+
+/**
+ * Exportiert Dokumente fortlaufend, während die Extraktion noch läuft (CSV oder NDJSON).
+ * Die Extraktions-Threads übergeben jedes fertige Dokument mit seiner Position in der Eingabeliste
+ * über eine begrenzte Warteschlange an einen eigenen Schreib-Thread; ist sie voll, warten die
+ * Extraktions-Threads (Gegendruck statt unbegrenztem Speicherbedarf).
+ * <p>
+ * Die Reihenfolge in der Datei ist unabhängig von der Fertigstellungsreihenfolge:
+ * <ul>
+ *   <li>Standard: Reihenfolge der Eingabeliste. Vorzeitig fertige Dokumente werden zurückgehalten,
+ *       bis alle vorherigen geschrieben sind.</li>
+ *   <li>Nach Abrechnungszeitraum: jedes Dokument wird sofort in eine eigene Teildatei geschrieben;
+ *       beim Abschluss werden die Teildateien sortiert (wie {@link PdfDokument#compareTo}) aneinandergehängt.</li>
+ * </ul>
+ * In beiden Fällen schreibt der Schreib-Thread in Eingabereihenfolge. Übergeben werden nur Dokumente innerhalb
+ * eines Fensters von "Kapazität" Positionen ab dem nächsten zu schreibenden; spätere warten in {@link #uebergebe}.
+ * So bleiben höchstens Warteschlange plus Fenster im Speicher, auch wenn ein einzelnes Dokument lange braucht.
+ * Das Dokument an der nächsten Position liegt immer im Fenster; da der Pool die Aufträge in Eingabereihenfolge
+ * startet, wird es stets übergeben.
+ * <p>
+ * Die CSV-Kopfzeile hängt von der breitesten Tabelle ab und wird deshalb erst beim Abschluss
+ * geschrieben und vorangestellt. Kürzere Zeilen werden - anders als beim Gesamtexport - nicht aufgefüllt.
+ * Bei ".gz" ist jede Teildatei ein eigenes GZIP-Mitglied; aneinandergehängt ergeben sie eine gültige GZIP-Datei.
+ */
+public class ExportPipeline {
+    private static final Logger log = LoggerFactory.getLogger(ExportPipeline.class);
+
+    public static final int STANDARD_KAPAZITAET = 32;
+
+    /** Markiert das Ende der Übergaben in der Warteschlange. */
+    private static final Eintrag ENDE = new Eintrag(-1, null);
+
+    private final Path ziel;
+    private final boolean ndjson;
+    private final boolean nachZeitraumSortieren;
+    private final BlockingQueue<Eintrag> warteschlange;
+    private final Path arbeitsVerzeichnis;
+    private final Thread schreibThread;
+    private final int kapazitaet;
+
+    // Fenster für die Eingabereihenfolge: Übergaben ab fensterAnfang + kapazitaet warten (geschützt durch fenster)
+    private final Object fenster = new Object();
+    private int fensterAnfang;
+    private boolean schreiberBeendet;
+
+    // Nur vom Schreib-Thread verwendet
+    private DokumentSchreiber rumpfSchreiber;
+    private final List<Teil> teile = new ArrayList<>();
+    private int datenSpalten;
+    private int geschrieben;
+    private volatile IOException fehler;
+
+    /**
+     * Erstellt die Pipeline und startet den Schreib-Thread.
+     * @param ziel Die Zieldatei; ".ndjson", ".jsonl" (jeweils optional mit ".gz") = NDJSON, sonst CSV.
+     * @param nachZeitraumSortieren true = Dokumente nach Abrechnungszeitraum ordnen, false = Eingabereihenfolge.
+     * @param kapazitaet Maximale Anzahl wartender Dokumente in der Warteschlange.
+     * @throws IOException Wenn das Arbeitsverzeichnis nicht angelegt werden kann.
+     */
+    public ExportPipeline(Path ziel, boolean nachZeitraumSortieren, int kapazitaet) throws IOException {
+        this.ziel = ziel.toAbsolutePath();
+        this.ndjson = istNdjson(ziel);
+        this.nachZeitraumSortieren = nachZeitraumSortieren;
+        this.warteschlange = new ArrayBlockingQueue<>(kapazitaet);
+        this.kapazitaet = kapazitaet;
+        // Neben der Zieldatei, damit das abschließende Verschieben/Zusammenfügen auf demselben Dateisystem passiert
+        this.arbeitsVerzeichnis = Files.createTempDirectory(this.ziel.getParent(), ".export-");
+        this.schreibThread = new Thread(this::schreibeSchleife, "export-pipeline");
+        this.schreibThread.setDaemon(true);
+        this.schreibThread.start();
+        log.info("Export-Pipeline gestartet: {} ({}, {})", this.ziel, ndjson ? "NDJSON" : "CSV",
+                nachZeitraumSortieren ? "nach Abrechnungszeitraum" : "Eingabereihenfolge");
+    }
+
+    /** @return true, wenn der Pfad eine NDJSON-Datei bezeichnet (".ndjson"/".jsonl", optional mit ".gz"). */
+    public static boolean istNdjson(Path pfad) {
+        String name = pfad.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) name = name.substring(0, name.length() - 3);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl");
+    }
+
+    /**
+     * Übergibt ein fertig verarbeitetes Dokument. Blockiert, solange die Warteschlange voll ist oder
+     * die Position zu weit vor dem nächsten zu schreibenden Dokument liegt.
+     * @param position Position des Dokuments in der Eingabeliste (0-basiert, jede genau einmal).
+     * @param doc Das Dokument (auch Fehler-Dokumente); null gibt die Position frei, ohne etwas zu schreiben.
+     * @throws InterruptedException Wenn der Thread beim Warten unterbrochen wird.
+     */
+    public void uebergebe(int position, PdfDokument doc) throws InterruptedException {
+        synchronized (fenster) {
+            while (!schreiberBeendet && position >= fensterAnfang + kapazitaet) fenster.wait();
+        }
+        warteschlange.put(new Eintrag(position, doc));
+    }
+
+    /**
+     * Beendet die Übergaben, wartet auf den Schreib-Thread und setzt die Zieldatei zusammen.
+     * Darf erst aufgerufen werden, wenn alle Dokumente übergeben wurden.
+     * @return Die Zieldatei.
+     * @throws IOException Wenn beim Schreiben ein Fehler aufgetreten ist.
+     * @throws InterruptedException Wenn der Thread beim Warten unterbrochen wird.
+     */
+    public Path abschliessen() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        warteschlange.put(ENDE);
+        schreibThread.join();
+        try {
+            if (fehler != null) throw fehler;
+            setzeZusammen();
+        } finally {
+            loescheArbeitsVerzeichnis();
+        }
+        log.info("Export-Pipeline nach {} abgeschlossen: {} Dokumente, Zusammensetzen {} ms.",
+                ziel, geschrieben, (System.nanoTime() - start) / 1_000_000);
+        return ziel;
+    }
+
+    // --- Schreib-Thread ---
+
+    private void schreibeSchleife() {
+        TreeMap<Integer, PdfDokument> zurueckgehalten = new TreeMap<>();
+        int naechste = 0;
+        boolean ende = false;
+        try {
+            while (true) {
+                Eintrag eintrag = warteschlange.take();
+                if (eintrag == ENDE) {
+                    ende = true;
+                    break;
+                }
+                zurueckgehalten.put(eintrag.position, eintrag.doc);
+                boolean weiter = false;
+                while (zurueckgehalten.containsKey(naechste)) {
+                    PdfDokument doc = zurueckgehalten.remove(naechste);
+                    if (doc != null) schreibe(naechste, doc);
+                    naechste++;
+                    weiter = true;
+                }
+                if (weiter) verschiebeFenster(naechste);
+            }
+            if (!zurueckgehalten.isEmpty()) {
+                // Einziger Weg, auf dem die Eingabereihenfolge nicht eingehalten wird: Ein Aufrufer hat eine
+                // Position nie übergeben. Die Lücke soll den Export nicht verhindern.
+                log.warn("Export-Pipeline: Dokument an Position {} fehlt, schreibe {} zurückgehaltene Dokumente.", naechste, zurueckgehalten.size());
+                for (Map.Entry<Integer, PdfDokument> e : zurueckgehalten.entrySet()) {
+                    if (e.getValue() != null) schreibe(e.getKey(), e.getValue());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Fehler im Schreib-Thread der Export-Pipeline: {}", e.getMessage(), e);
+            fehler = e;
+            if (!ende) leereWarteschlange(); // Damit die Extraktions-Threads nicht blockieren
+        } catch (InterruptedException e) {
+            fehler = new IOException("Export-Pipeline unterbrochen.", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (fenster) { // Wartende Übergaben freigeben (auch nach Fehlern)
+                schreiberBeendet = true;
+                fenster.notifyAll();
+            }
+            try {
+                if (rumpfSchreiber != null) rumpfSchreiber.close();
+            } catch (IOException e) {
+                if (fehler == null) fehler = e;
+            }
+        }
+    }
+
+    private void verschiebeFenster(int naechste) {
+        synchronized (fenster) {
+            fensterAnfang = naechste;
+            fenster.notifyAll();
+        }
+    }
+
+    /** Verwirft alle weiteren Übergaben bis zum Ende. */
+    private void leereWarteschlange() {
+        try {
+            while (warteschlange.take() != ENDE) {
+                // verwerfen
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void schreibe(int position, PdfDokument doc) throws IOException {
+        if (doc.getTables() != null) {
+            for (ExtrahierteTabelle tabelle : doc.getTables()) datenSpalten = Math.max(datenSpalten, tabelle.getMaxSpalten());
+        }
+        if (nachZeitraumSortieren) {
+            Path teilPfad = arbeitsVerzeichnis.resolve("teil-" + position + endung());
+            try (DokumentSchreiber schreiber = oeffne(teilPfad)) {
+                schreiber.schreibeDokument(doc);
+            }
+            teile.add(new Teil(doc, teilPfad));
+        } else {
+            if (rumpfSchreiber == null) rumpfSchreiber = oeffne(rumpfPfad());
+            rumpfSchreiber.schreibeDokument(doc);
+        }
+        geschrieben++;
+    }
+
+    // --- Abschluss ---
+
+    private void setzeZusammen() throws IOException {
+        List<Path> quellen = new ArrayList<>();
+        if (nachZeitraumSortieren) {
+            teile.sort(Comparator.comparing((Teil t) -> t.doc)); // Stabil: gleiche Zeiträume bleiben in Eingabereihenfolge
+            for (Teil teil : teile) quellen.add(teil.pfad);
+        } else if (rumpfSchreiber != null) {
+            if (ndjson) { // Keine Kopfzeile: Rumpf ist bereits die fertige Datei
+                Files.move(rumpfPfad(), ziel, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            }
+            quellen.add(rumpfPfad());
+        }
+        if (ndjson) {
+            Files.deleteIfExists(ziel);
+            Files.createFile(ziel);
+        } else {
+            try (CsvExportService.CsvSchreiber kopf = new CsvExportService.CsvSchreiber(ziel, datenSpalten)) {
+                kopf.schreibeKopf();
+            }
+        }
+        try (FileChannel aus = FileChannel.open(ziel, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (Path quelle : quellen) {
+                try (FileChannel ein = FileChannel.open(quelle, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long groesse = ein.size();
+                    while (position < groesse) position += ein.transferTo(position, groesse - position, aus);
+                }
+            }
+        }
+    }
+
+    private DokumentSchreiber oeffne(Path pfad) throws IOException {
+        return ndjson ? new NdjsonExportService.NdjsonSchreiber(pfad) : new CsvExportService.CsvSchreiber(pfad, 0);
+    }
+
+    private Path rumpfPfad() {
+        return arbeitsVerzeichnis.resolve("rumpf" + endung());
+    }
+
+    /** Endung der Teildateien; ".gz" bewirkt die Komprimierung durch den NDJSON-Schreiber. */
+    private String endung() {
+        if (!ndjson) return ".csv";
+        return NdjsonExportService.istKomprimiert(ziel) ? ".ndjson.gz" : ".ndjson";
+    }
+
+    private void loescheArbeitsVerzeichnis() {
+        try (Stream<Path> dateien = Files.list(arbeitsVerzeichnis)) {
+            for (Path datei : (Iterable<Path>) dateien::iterator) Files.deleteIfExists(datei);
+            Files.deleteIfExists(arbeitsVerzeichnis);
+        } catch (IOException e) {
+            log.warn("Arbeitsverzeichnis {} konnte nicht gelöscht werden: {}", arbeitsVerzeichnis, e.getMessage());
+        }
+    }
+
+    private static final class Eintrag {
+        final int position;
+        final PdfDokument doc;
+
+        Eintrag(int position, PdfDokument doc) {
+            this.position = position;
+            this.doc = doc;
+        }
+    }
+
+    private static final class Teil {
+        final PdfDokument doc;
+        final Path pfad;
+
+        Teil(PdfDokument doc, Path pfad) {
+            this.doc = doc;
+            this.pfad = pfad;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package de.anton.invoice.cecker.invoice_checker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.List;
 import java.util.Objects; // Für equals/hashCode
@@ -12,6 +13,7 @@ public class ExtrahierteTabelle {
     private double whitespace;
     private String flavor;
     private List<List<String>> data;
+    private transient int maxSpalten; // Breiteste Zeile, beim Setzen der Daten einmalig ermittelt
 
     // --- Getter und Setter ---
     public int getIndex() { return index; }
@@ -25,7 +27,23 @@ public class ExtrahierteTabelle {
     public String getFlavor() { return flavor; }
     public void setFlavor(String flavor) { this.flavor = flavor; }
     public List<List<String>> getData() { return data; }
-    public void setData(List<List<String>> data) { this.data = data; }
+    public void setData(List<List<String>> data) {
+        this.data = data;
+        int max = 0;
+        if (data != null) {
+            for (List<String> zeile : data) {
+                if (zeile != null) max = Math.max(max, zeile.size());
+            }
+        }
+        this.maxSpalten = max;
+    }
+
+    /**
+     * @return Die Anzahl der Zellen der breitesten Zeile (inkl. Kopfzeile), 0 ohne Daten.
+     *         Wird beim Setzen der Daten berechnet, damit z.B. der Export keinen eigenen Durchlauf braucht.
+     */
+    @JsonIgnore
+    public int getMaxSpalten() { return maxSpalten; }
 
     // Verbesserte toString für die Anzeige in der ComboBox
     @Override
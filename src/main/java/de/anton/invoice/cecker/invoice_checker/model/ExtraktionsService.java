@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 // Java IO und NIO Imports für Dateizugriff und Prozesssteuerung
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 // import java.io.File; // Nicht mehr benötigt für PATH-Manipulation
 import java.io.IOException;
@@ -23,12 +24,14 @@ import java.nio.file.Paths;
 
 // Java Util Imports
 import java.util.ArrayList; // Für Kommandozeilenliste
+import java.util.EnumMap;
 import java.util.List;    // Für Kommandozeilenliste
 import java.util.Map;     // Für Parameterübergabe
 
 // Java Concurrency Imports für Prozess-Timeout und Atomare Referenz
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Diese Klasse ist verantwortlich für das Aufrufen des externen Python-Skripts
@@ -39,6 +42,34 @@ import java.util.concurrent.atomic.AtomicReference;
 public class ExtraktionsService {
 
     private static final Logger log = LoggerFactory.getLogger(ExtraktionsService.class);
+
+    /** Ursachen fehlgeschlagener Extraktionen, je eine Zählmetrik "extraktion.fehler.&lt;name&gt;". */
+    private enum FehlerUrsache {
+        SKRIPT_FEHLT("skriptFehlt"), PDF_FEHLT("pdfFehlt"), TIMEOUT("timeout"), EXIT_CODE("exitCode"),
+        LEERE_AUSGABE("leereAusgabe"), JSON_UNGUELTIG("jsonUngueltig"), SKRIPT_MELDUNG("skriptMeldung"),
+        UNTERBROCHEN("unterbrochen"), IO_FEHLER("ioFehler");
+
+        private final String metrikName;
+
+        FehlerUrsache(String metrikName) {
+            this.metrikName = metrikName;
+        }
+    }
+
+    // Metriken (siehe MetrikRegistry): einmal aufgelöst, das Erfassen erzeugt keine Objekte
+    private static final LongAdder EXTRAKTIONEN = MetrikRegistry.global().zaehler("extraktion.anzahl", "Gestartete Extraktionen");
+    private static final LongAdder ERFOLGREICH = MetrikRegistry.global().zaehler("extraktion.erfolgreich", "Extraktionen mit geparstem Ergebnis ohne Fehler");
+    private static final Map<FehlerUrsache, LongAdder> FEHLER = new EnumMap<>(FehlerUrsache.class);
+    private static final LatenzHistogramm PROZESS_START_MS = MetrikRegistry.global().latenz("extraktion.prozessStart", "Start des Python-Prozesses (ms)");
+    private static final LatenzHistogramm PROZESS_LAUFZEIT_MS = MetrikRegistry.global().latenz("extraktion.prozessLaufzeit", "Laufzeit des Python-Prozesses bis zum Ende der Ausgabe (ms)");
+    private static final Verteilung JSON_ZEICHEN = MetrikRegistry.global().verteilung("extraktion.jsonGroesse", "Länge der JSON-Ausgabe (Zeichen)");
+    private static final LatenzHistogramm JSON_PARSEN_MS = MetrikRegistry.global().latenz("extraktion.jsonParsen", "Parsen der JSON-Ausgabe (ms)");
+
+    static {
+        for (FehlerUrsache ursache : FehlerUrsache.values()) {
+            FEHLER.put(ursache, MetrikRegistry.global().zaehler("extraktion.fehler." + ursache.metrikName, "Fehlgeschlagene Extraktionen: " + ursache.metrikName));
+        }
+    }
     private final ObjectMapper objectMapper; // Zum Parsen der JSON-Antwort des Python-Skripts
     private final String pythonAusfuehrbar; // Der Befehl oder Pfad zum Python-Interpreter
     private final String skriptPfad;       // Der Pfad zum Python-Extraktionsskript
@@ -48,16 +79,38 @@ public class ExtraktionsService {
      * Initialisiert den Python-Pfad, den Skript-Pfad und den ObjectMapper.
      */
     public ExtraktionsService() {
+        this(standardPythonAusfuehrbar(), standardSkriptPfad());
+    }
+
+    /**
+     * Konstruktor mit frei gewähltem Interpreter und Skript, z.B. für den Durchsatz-Messstand in den Benchmarks,
+     * der statt Camelot ein Stub-Skript mit synthetischer Ausgabe aufruft. Das Skript muss dieselben
+     * Kommandozeilenargumente akzeptieren und dasselbe JSON ausgeben wie "tabellen_extraktor.py".
+     * @param pythonAusfuehrbar Befehl oder Pfad des Python-Interpreters.
+     * @param skriptPfad Pfad des aufzurufenden Skripts.
+     */
+    public ExtraktionsService(String pythonAusfuehrbar, String skriptPfad) {
+        this.pythonAusfuehrbar = pythonAusfuehrbar;
+        this.skriptPfad = skriptPfad;
+        log.info("Verwende Python-Interpreter: {}", this.pythonAusfuehrbar);
+        log.info("Verwende Python-Skript: {}", Paths.get(this.skriptPfad).toAbsolutePath());
+
+        // --- Konfiguration: ObjectMapper initialisieren ---
+        this.objectMapper = erstelleObjectMapper();
+    }
+
+    // Paketweit sichtbar für die Job-Wiedergabe im Modul "benchmarks"
+    static String standardPythonAusfuehrbar() {
         // --- Konfiguration: Python-Interpreter festlegen ---
         // Hier wird der Pfad zum Python-Interpreter fest codiert.
         // TODO: Dies sollte idealerweise konfigurierbar sein (z.B. über eine Konfigurationsdatei).
         // Beispiel Windows (Pfad anpassen! Doppelte Backslashes verwenden!):
-        this.pythonAusfuehrbar = "C:\\Python\\Python3\\python.exe"; // <- Sicherstellen, dass dies korrekt ist
+        return "C:\\Python\\Python3\\python.exe"; // <- Sicherstellen, dass dies korrekt ist
         // Beispiel Linux/Mac (Pfad anpassen!):
-        // this.pythonAusfuehrbar = "/usr/bin/python3"; // Oder /usr/local/bin/python3 etc.
-
-        log.info("Verwende Python-Interpreter (festgelegt): {}", this.pythonAusfuehrbar);
+        // return "/usr/bin/python3"; // Oder /usr/local/bin/python3 etc.
+    }
 
+    static String standardSkriptPfad() {
         // --- Konfiguration: Pfad zum Python-Skript finden ---
         // Versucht zuerst, das Skript im 'target/scripts'-Verzeichnis zu finden (nach Maven-Build).
         // Als Fallback wird das 'scripts'-Verzeichnis im Projektstamm gesucht (nützlich beim Ausführen aus der IDE).
@@ -65,22 +118,25 @@ public class ExtraktionsService {
         if (!Files.exists(Paths.get(zielSkriptPfad))) {
             String ideSkriptPfad = Paths.get("scripts", "tabellen_extraktor.py").toString();
             if (Files.exists(Paths.get(ideSkriptPfad))) {
-                this.skriptPfad = ideSkriptPfad;
+                return ideSkriptPfad;
             } else {
                 log.error("Python-Skript nicht gefunden unter {} oder {}",
                         Paths.get(zielSkriptPfad).toAbsolutePath(),
                         Paths.get(ideSkriptPfad).toAbsolutePath());
-                // Setze den Pfad trotzdem, um NPE zu vermeiden, aber die Extraktion wird fehlschlagen.
-                this.skriptPfad = zielSkriptPfad;
+                // Gib den Pfad trotzdem zurück, um NPE zu vermeiden, aber die Extraktion wird fehlschlagen.
+                return zielSkriptPfad;
             }
-        } else {
-            this.skriptPfad = zielSkriptPfad;
         }
-        log.info("Verwende Python-Skript: {}", Paths.get(this.skriptPfad).toAbsolutePath());
+        return zielSkriptPfad;
+    }
 
-        // --- Konfiguration: ObjectMapper initialisieren ---
-        // Konfiguriert Jackson, um unbekannte Felder im JSON zu ignorieren und Java Date/Time zu unterstützen.
-        this.objectMapper = new ObjectMapper()
+    /**
+     * Konfiguriert Jackson, um unbekannte Felder im JSON zu ignorieren und Java Date/Time zu unterstützen.
+     * Paketweit sichtbar, damit die Benchmarks genau diese Konfiguration messen.
+     * @return Ein neuer ObjectMapper für die JSON-Ausgabe des Python-Skripts.
+     */
+    static ObjectMapper erstelleObjectMapper() {
+        return new ObjectMapper()
                 .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
                 .registerModule(new JavaTimeModule());
     }
@@ -96,21 +152,43 @@ public class ExtraktionsService {
      * @return Ein PdfDokument-Objekt, das die extrahierten Daten oder eine Fehlermeldung enthält.
      */
     public PdfDokument extrahiereTabellenAusPdf(Path pdfPfad, Map<String, String> parameter) {
+        return extrahiereTabellenAusPdf(pdfPfad, parameter, null);
+    }
+
+    /**
+     * Wie {@link #extrahiereTabellenAusPdf(Path, Map)}, erfasst dabei aber die Laufzeiten von
+     * Prozessstart, Python-Laufzeit und JSON-Parsen.
+     *
+     * @param pdfPfad Der Pfad zur PDF-Datei, die verarbeitet werden soll.
+     * @param parameter Eine Map mit Parametern für das Python-Skript. Kann null sein.
+     * @param zeiten Nimmt die Laufzeiten der Stufen und den Verlauf der Einzelschritte auf. Kann null sein.
+     * @return Ein PdfDokument-Objekt, das die extrahierten Daten oder eine Fehlermeldung enthält.
+     */
+    public PdfDokument extrahiereTabellenAusPdf(Path pdfPfad, Map<String, String> parameter, StufenZeiten zeiten) {
         log.info("Starte Extraktion für: {} mit Parametern: {}", pdfPfad, parameter);
+        EXTRAKTIONEN.increment();
         // PdfDokument-Objekt für potenzielle Fehler vorbereiten
         PdfDokument fehlerDok = new PdfDokument();
         fehlerDok.setSourcePdf(pdfPfad.getFileName().toString());
         fehlerDok.setFullPath(pdfPfad.toString());
+        if (zeiten == null) zeiten = new StufenZeiten(); // Einzelschritte für JFR auch ohne Statistik des Aufrufers
+        final String datei = fehlerDok.getSourcePdf();
 
         // --- Vorprüfungen: Skript und PDF-Datei vorhanden? ---
-        if (!Files.exists(Paths.get(skriptPfad))) {
+        ExtraktionsStufeEreignis schritt = ExtraktionsStufeEreignis.beginne(datei, ExtraktionsStufeEreignis.VORPRUEFUNG);
+        boolean skriptVorhanden = Files.exists(Paths.get(skriptPfad));
+        boolean pdfVorhanden = Files.exists(pdfPfad);
+        schritt.beende(zeiten);
+        if (!skriptVorhanden) {
             log.error("Python-Skript nicht gefunden unter: {}", Paths.get(skriptPfad).toAbsolutePath());
             fehlerDok.setError("Konfigurationsfehler: Python-Skript nicht gefunden.");
+            FEHLER.get(FehlerUrsache.SKRIPT_FEHLT).increment();
             return fehlerDok;
         }
-        if (!Files.exists(pdfPfad)) {
+        if (!pdfVorhanden) {
             log.error("Eingabe-PDF nicht gefunden unter: {}", pdfPfad.toAbsolutePath());
             fehlerDok.setError("Eingabe-PDF-Datei nicht gefunden.");
+            FEHLER.get(FehlerUrsache.PDF_FEHLT).increment();
             return fehlerDok;
         }
 
@@ -175,7 +253,13 @@ public class ExtraktionsService {
 
         try {
             // Starte den Python-Prozess
+            long stufenStart = System.nanoTime();
+            schritt = ExtraktionsStufeEreignis.beginne(datei, ExtraktionsStufeEreignis.PROZESS_START);
             process = processBuilder.start();
+            schritt.beende(zeiten);
+            zeiten.erfasse(Verarbeitungsstufe.PROZESS_START, stufenStart);
+            PROZESS_START_MS.erfasse((System.nanoTime() - stufenStart) / 1_000_000);
+            stufenStart = System.nanoTime();
 
             // Erstelle eine finale Referenz auf den Prozess für den Lambda-Ausdruck
             final Process finalProcess = process;
@@ -194,7 +278,15 @@ public class ExtraktionsService {
             stderrReaderThread.start(); // Starte den Thread, der stderr liest
 
             // --- Lese stdout (hier erwarten wir das JSON) ---
-            try (BufferedReader stdoutReader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            // Zeit bis zum ersten Byte getrennt messen: Bis dahin rechnet das Skript, danach wird nur noch übertragen
+            schritt = ExtraktionsStufeEreignis.beginne(datei, ExtraktionsStufeEreignis.ERSTES_BYTE);
+            BufferedInputStream stdout = new BufferedInputStream(process.getInputStream());
+            stdout.mark(1);
+            stdout.read(); // Blockiert bis zum ersten Byte (oder Ende der Ausgabe)
+            stdout.reset();
+            schritt.beende(zeiten);
+            schritt = ExtraktionsStufeEreignis.beginne(datei, ExtraktionsStufeEreignis.PROZESS_ENDE);
+            try (BufferedReader stdoutReader = new BufferedReader(new InputStreamReader(stdout, StandardCharsets.UTF_8))) {
                 String line;
                 while ((line = stdoutReader.readLine()) != null) {
                     processStdOutput.append(line).append(System.lineSeparator());
@@ -212,6 +304,9 @@ public class ExtraktionsService {
                  }
             }
 
+            schritt.beende(zeiten);
+            zeiten.erfasse(Verarbeitungsstufe.PYTHON, stufenStart);
+            PROZESS_LAUFZEIT_MS.erfasse((System.nanoTime() - stufenStart) / 1_000_000);
             int exitCode = finished ? process.exitValue() : -1; // -1 bei Timeout
 
             // --- Prozess-Ergebnis prüfen ---
@@ -220,6 +315,7 @@ public class ExtraktionsService {
                 log.error("Skript stdout (letzte Zeilen):\n{}", processStdOutput.substring(Math.max(0, processStdOutput.length() - 1000)));
                 log.error("Skript erste stderr Zeile: {}", firstStderrLine.get());
                 fehlerDok.setError("Python-Skript fehlgeschlagen (Exit-Code: " + exitCode + "). " + (firstStderrLine.get() != null ? firstStderrLine.get() : "Details siehe Log."));
+                FEHLER.get(finished ? FehlerUrsache.EXIT_CODE : FehlerUrsache.TIMEOUT).increment();
                 return fehlerDok; // Gib das Fehlerobjekt zurück
             }
 
@@ -228,21 +324,33 @@ public class ExtraktionsService {
 
             // --- JSON-Verarbeitung ---
             String jsonString = processStdOutput.toString().trim(); // Bereinige die stdout-Ausgabe
+            JSON_ZEICHEN.erfasse(jsonString.length());
             if (jsonString.isEmpty()) {
                 log.error("Python-Skript lieferte leere stdout-Ausgabe trotz Exit-Code 0.");
                 log.error("Skript erste stderr Zeile: {}", firstStderrLine.get()); // Prüfe stderr für Hinweise
                 fehlerDok.setError("Python-Skript lieferte leere Ausgabe." + (firstStderrLine.get() != null ? " Möglicher Hinweis: " + firstStderrLine.get() : ""));
+                FEHLER.get(FehlerUrsache.LEERE_AUSGABE).increment();
                 return fehlerDok;
             }
 
             // Versuche, die JSON-Zeichenkette (aus stdout) in ein PdfDokument-Objekt zu parsen
+            stufenStart = System.nanoTime();
+            schritt = ExtraktionsStufeEreignis.beginne(datei, ExtraktionsStufeEreignis.JSON_PARSEN);
             PdfDokument doc = objectMapper.readValue(jsonString, PdfDokument.class);
+            schritt.beende(zeiten);
+            zeiten.erfasse(Verarbeitungsstufe.JSON_PARSEN, stufenStart);
+            JSON_PARSEN_MS.erfasse((System.nanoTime() - stufenStart) / 1_000_000);
+            // Zeiten der Python-Seite in den Verlauf übernehmen
+            PythonStufeEreignis.melde(datei, doc.getPythonZeiten(), zeiten);
             log.info("Daten erfolgreich extrahiert und geparst für: {}", pdfPfad.getFileName());
 
             // Prüfe, ob das Python-Skript selbst einen Fehler im JSON-Objekt gemeldet hat
             if (doc.getError() != null && !doc.getError().isBlank()) {
                 log.warn("Python-Skript meldete einen internen Fehler im JSON für {}: {}", pdfPfad.getFileName(), doc.getError());
                 // Das Dokument wird trotzdem zurückgegeben, der Fehler steht im Objekt.
+                FEHLER.get(FehlerUrsache.SKRIPT_MELDUNG).increment();
+            } else {
+                ERFOLGREICH.increment();
             }
             return doc; // Erfolgreich geparst, gib das Ergebnis zurück
 
@@ -251,6 +359,7 @@ public class ExtraktionsService {
             Thread.currentThread().interrupt(); // Setze den Interrupt-Status für den aufrufenden Code
             log.error("Warten auf Python-Prozess/stderr unterbrochen: {}", e.getMessage(), e);
             fehlerDok.setError("Java Fehler: Warten auf Python-Prozess/stderr unterbrochen.");
+            FEHLER.get(FehlerUrsache.UNTERBROCHEN).increment();
             return fehlerDok;
         } catch (JsonParseException | JsonMappingException e) {
             // Wird ausgelöst, wenn Jacksons ObjectMapper die stdout-Ausgabe nicht parsen/mappen kann
@@ -264,11 +373,13 @@ public class ExtraktionsService {
                 errorMsg += ": " + e.getOriginalMessage();
             }
             fehlerDok.setError(errorMsg);
+            FEHLER.get(FehlerUrsache.JSON_UNGUELTIG).increment();
             return fehlerDok;
         } catch (IOException e) {
             // Fängt andere IOExceptions ab (z.B. von process.start(), InputStream/ErrorStream lesen)
             log.error("I/O Fehler beim Ausführen oder Lesen vom Python-Skript: {}", e.getMessage(), e);
             fehlerDok.setError("Java I/O Fehler: Konnte Python-Skript nicht ausführen/lesen: " + e.getMessage());
+            FEHLER.get(FehlerUrsache.IO_FEHLER).increment();
             return fehlerDok;
         } finally {
              // --- Aufräumen im finally-Block ---
@@ -0,0 +1,61 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Ereignis für einen Schritt der Extraktion auf der Java-Seite (Vorprüfung, Prozessstart, erstes stdout-Byte,
+ * Prozessende, JSON-Parsen, Übernahme ins Modell). Liegt mit echter Start- und Endzeit im Thread des Workers,
+ * sodass eine Aufzeichnung (z.B. {@code -XX:StartFlightRecording} oder {@code jcmd <pid> JFR.start}) in
+ * JDK Mission Control zeigt, wo die Zeit eines Dokuments geblieben ist.
+ */
+@Name("de.anton.invoice.Extraktionsschritt")
+@Label("Extraktionsschritt")
+@Category({"Invoice Checker", "Extraktion"})
+@Description("Ein Schritt der Verarbeitung eines PDFs auf der Java-Seite")
+@StackTrace(false)
+class ExtraktionsStufeEreignis extends Event {
+    static final String VORPRUEFUNG = "Vorprüfung";
+    static final String PROZESS_START = "Prozessstart";
+    static final String ERSTES_BYTE = "Erstes stdout-Byte";
+    static final String PROZESS_ENDE = "Prozessende";
+    static final String JSON_PARSEN = "JSON-Parsen";
+    static final String UEBERNAHME = "Übernahme";
+
+    @Label("Datei")
+    String datei;
+
+    @Label("Schritt")
+    String schritt;
+
+    private transient long startNanos; // Nicht aufgezeichnet, nur für den Verlauf in StufenZeiten
+
+    /**
+     * Beginnt einen Schritt.
+     * @param datei Dateiname des PDFs.
+     * @param schritt Eine der Konstanten dieser Klasse.
+     * @return Das laufende Ereignis; mit {@link #beende(StufenZeiten)} abschließen.
+     */
+    static ExtraktionsStufeEreignis beginne(String datei, String schritt) {
+        ExtraktionsStufeEreignis ereignis = new ExtraktionsStufeEreignis();
+        ereignis.datei = datei;
+        ereignis.schritt = schritt;
+        ereignis.startNanos = System.nanoTime();
+        ereignis.begin();
+        return ereignis;
+    }
+
+    /**
+     * Beendet den Schritt, trägt ihn in den Verlauf des Dokuments ein und meldet ihn an JFR (falls aufgezeichnet wird).
+     * @param zeiten Der Verlauf des Dokuments.
+     */
+    void beende(StufenZeiten zeiten) {
+        end();
+        zeiten.erfasseSchritt(StufenZeiten.Quelle.JAVA, schritt, System.nanoTime() - startNanos);
+        commit();
+    }
+}
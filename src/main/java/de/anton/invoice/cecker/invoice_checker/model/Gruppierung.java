@@ -0,0 +1,73 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Merkmale, nach denen die Zeilen einer {@link Abfrage} gruppiert werden können.
+ * Alle Merkmale hängen nur von Dokument bzw. Tabelle ab, der Gruppenschlüssel wird daher
+ * einmal pro Tabelle und nicht pro Zeile berechnet.
+ */
+public enum Gruppierung {
+    LIEFERANT("Lieferant"),
+    ABRECHNUNGSMONAT("Abrechnungsmonat"),
+    QUELLDATEI("Quelldatei"),
+    SEITE("Seite"),
+    FLAVOR("Flavor");
+
+    private final String anzeigeName;
+
+    Gruppierung(String anzeigeName) {
+        this.anzeigeName = anzeigeName;
+    }
+
+    public String getAnzeigeName() {
+        return anzeigeName;
+    }
+
+    /**
+     * Ermittelt den Wert des Merkmals für eine Tabelle.
+     * @param doc Das Dokument.
+     * @param tabelle Die Tabelle des Dokuments (für Lieferant, Monat und Quelldatei nicht benötigt, darf dann null sein).
+     * @return Der Gruppenwert (nie null).
+     */
+    public String wertFuer(PdfDokument doc, ExtrahierteTabelle tabelle) {
+        switch (this) {
+            case LIEFERANT:
+                return doc.getLieferant() != null ? doc.getLieferant() : "unbekannt";
+            case ABRECHNUNGSMONAT:
+                LocalDate datum = doc.getAbrechnungszeitraumStart() != null ? doc.getAbrechnungszeitraumStart() : doc.getAbrechnungszeitraumEnde();
+                return datum != null ? YearMonth.from(datum).toString() : "ohne Zeitraum";
+            case QUELLDATEI:
+                return doc.getSourcePdf() != null ? doc.getSourcePdf() : "";
+            case SEITE:
+                return String.valueOf(tabelle.getPage());
+            case FLAVOR:
+                return tabelle.getFlavor() != null ? tabelle.getFlavor() : "";
+            default:
+                throw new IllegalStateException("Unbekannte Gruppierung: " + this);
+        }
+    }
+
+    /**
+     * Sucht eine Gruppierung anhand ihres Namens (ohne Beachtung der Groß-/Kleinschreibung).
+     * Neben den Konstantennamen werden die Kurzformen "monat" und "datei" akzeptiert.
+     * @param name Der Name, z.B. "lieferant".
+     * @return Die Gruppierung.
+     * @throws IllegalArgumentException Wenn der Name unbekannt ist.
+     */
+    public static Gruppierung vonName(String name) {
+        String n = name.trim().toLowerCase();
+        if (n.equals("monat")) return ABRECHNUNGSMONAT;
+        if (n.equals("datei")) return QUELLDATEI;
+        for (Gruppierung g : values()) {
+            if (g.name().toLowerCase().equals(n)) return g;
+        }
+        throw new IllegalArgumentException("Unbekannte Gruppierung: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return anzeigeName;
+    }
+}
@@ -0,0 +1,173 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ausgeglichener Intervallbaum (AVL-Baum, nach Intervallbeginn sortiert und um das maximale
+ * Intervallende je Teilbaum erweitert). Einfügen und Entfernen kosten O(log n), Abfragen nach
+ * einem Punkt oder einem überlappenden Intervall O(log n + k) bei k Treffern.
+ * Intervallgrenzen sind inklusive. Nicht thread-sicher; die Synchronisation übernimmt der Aufrufer.
+ *
+ * @param <T> Der Typ der zu einem Intervall gespeicherten Werte.
+ */
+class IntervallBaum<T> {
+
+    private static final class Knoten<T> {
+        final long start;
+        final long ende;
+        final long id;      // Eindeutige Id zur Unterscheidung gleicher Intervalle
+        final T wert;
+        long maxEnde;       // Maximales Intervallende im Teilbaum
+        int hoehe = 1;
+        Knoten<T> links;
+        Knoten<T> rechts;
+
+        Knoten(long start, long ende, long id, T wert) {
+            this.start = start;
+            this.ende = ende;
+            this.id = id;
+            this.wert = wert;
+            this.maxEnde = ende;
+        }
+    }
+
+    private Knoten<T> wurzel;
+    private int groesse;
+
+    /**
+     * Fügt ein Intervall ein.
+     * @param start Beginn (inklusive).
+     * @param ende Ende (inklusive), muss &gt;= start sein.
+     * @param id Eindeutige Id des Eintrags (wird zum Entfernen benötigt).
+     * @param wert Der zugehörige Wert.
+     */
+    void einfuegen(long start, long ende, long id, T wert) {
+        wurzel = einfuegen(wurzel, new Knoten<>(start, ende, id, wert));
+        groesse++;
+    }
+
+    /**
+     * Entfernt das Intervall mit der gegebenen Id.
+     * @return true, wenn ein Eintrag entfernt wurde.
+     */
+    boolean entfernen(long start, long ende, long id) {
+        int vorher = groesse;
+        wurzel = entfernen(wurzel, start, ende, id);
+        return groesse < vorher;
+    }
+
+    /** @return Alle Werte, deren Intervall den Punkt enthält. */
+    List<T> enthaltend(long punkt) {
+        return ueberlappend(punkt, punkt);
+    }
+
+    /** @return Alle Werte, deren Intervall [start, ende] überlappt. */
+    List<T> ueberlappend(long start, long ende) {
+        List<T> ergebnis = new ArrayList<>();
+        sammle(wurzel, start, ende, ergebnis);
+        return ergebnis;
+    }
+
+    int groesse() {
+        return groesse;
+    }
+
+    /** Höhe des Baums (0 für den leeren Baum). */
+    int hoehe() {
+        return hoehe(wurzel);
+    }
+
+    // --- Interne Baumoperationen ---
+
+    private void sammle(Knoten<T> k, long start, long ende, List<T> ergebnis) {
+        if (k == null || k.maxEnde < start) return; // Kein Intervall im Teilbaum reicht bis start
+        sammle(k.links, start, ende, ergebnis);
+        if (k.start > ende) return; // Dieser Knoten und alle rechts davon beginnen zu spät
+        if (k.ende >= start) ergebnis.add(k.wert);
+        sammle(k.rechts, start, ende, ergebnis);
+    }
+
+    private static int vergleiche(long start, long ende, long id, Knoten<?> k) {
+        if (start != k.start) return Long.compare(start, k.start);
+        if (ende != k.ende) return Long.compare(ende, k.ende);
+        return Long.compare(id, k.id);
+    }
+
+    private Knoten<T> einfuegen(Knoten<T> k, Knoten<T> neu) {
+        if (k == null) return neu;
+        if (vergleiche(neu.start, neu.ende, neu.id, k) < 0) {
+            k.links = einfuegen(k.links, neu);
+        } else {
+            k.rechts = einfuegen(k.rechts, neu);
+        }
+        return ausgleichen(k);
+    }
+
+    private Knoten<T> entfernen(Knoten<T> k, long start, long ende, long id) {
+        if (k == null) return null;
+        int c = vergleiche(start, ende, id, k);
+        if (c < 0) {
+            k.links = entfernen(k.links, start, ende, id);
+        } else if (c > 0) {
+            k.rechts = entfernen(k.rechts, start, ende, id);
+        } else {
+            groesse--;
+            if (k.links == null) return k.rechts;
+            if (k.rechts == null) return k.links;
+            // Nachfolger (kleinster Knoten rechts) ersetzt den entfernten Knoten
+            Knoten<T> nachfolger = k.rechts;
+            while (nachfolger.links != null) nachfolger = nachfolger.links;
+            Knoten<T> ersatz = new Knoten<>(nachfolger.start, nachfolger.ende, nachfolger.id, nachfolger.wert);
+            groesse++; // Das folgende Entfernen des Nachfolgers zählt erneut herunter
+            ersatz.rechts = entfernen(k.rechts, nachfolger.start, nachfolger.ende, nachfolger.id);
+            ersatz.links = k.links;
+            return ausgleichen(ersatz);
+        }
+        return ausgleichen(k);
+    }
+
+    private static <T> int hoehe(Knoten<T> k) {
+        return k == null ? 0 : k.hoehe;
+    }
+
+    private static <T> void aktualisiere(Knoten<T> k) {
+        k.hoehe = 1 + Math.max(hoehe(k.links), hoehe(k.rechts));
+        long max = k.ende;
+        if (k.links != null) max = Math.max(max, k.links.maxEnde);
+        if (k.rechts != null) max = Math.max(max, k.rechts.maxEnde);
+        k.maxEnde = max;
+    }
+
+    private Knoten<T> ausgleichen(Knoten<T> k) {
+        aktualisiere(k);
+        int balance = hoehe(k.links) - hoehe(k.rechts);
+        if (balance > 1) {
+            if (hoehe(k.links.links) < hoehe(k.links.rechts)) k.links = rotiereLinks(k.links);
+            return rotiereRechts(k);
+        }
+        if (balance < -1) {
+            if (hoehe(k.rechts.rechts) < hoehe(k.rechts.links)) k.rechts = rotiereRechts(k.rechts);
+            return rotiereLinks(k);
+        }
+        return k;
+    }
+
+    private Knoten<T> rotiereRechts(Knoten<T> k) {
+        Knoten<T> l = k.links;
+        k.links = l.rechts;
+        l.rechts = k;
+        aktualisiere(k);
+        aktualisiere(l);
+        return l;
+    }
+
+    private Knoten<T> rotiereLinks(Knoten<T> k) {
+        Knoten<T> r = k.rechts;
+        k.rechts = r.links;
+        r.links = k;
+        aktualisiere(k);
+        aktualisiere(r);
+        return r;
+    }
+}
@@ -0,0 +1,78 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Eine Zeile im Jobprotokoll des {@link JobRekorder}: ein verarbeitetes PDF mit Ankunftszeit, Wartezeit im Pool,
+ * Dauer je {@link Verarbeitungsstufe} und Ergebnis. Grundlage für die Wiedergabe der Last auf anderer Hardware.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"ankunft_ms", "wartezeit_ms", "worker", "datei", "sha256", "seiten", "parameter", "dauer_ms", "ergebnis"})
+public class JobEintrag {
+    public static final String ERGEBNIS_OK = "ok";
+    public static final String ERGEBNIS_FEHLER = "fehler";
+
+    @JsonProperty("ankunft_ms")
+    private long ankunftMillis; // Einreichen beim Modell, Epoch-Millisekunden
+    @JsonProperty("wartezeit_ms")
+    private double wartezeitMs; // Einreichen bis Beginn im Pool
+    private int worker; // Größe des Extraktions-Pools bei der Aufzeichnung
+    private String datei;
+    private String sha256; // Inhalt des PDFs (null, wenn nicht lesbar)
+    private int seiten = -1; // -1: unbekannt
+    private Map<String, String> parameter = new LinkedHashMap<>();
+    @JsonProperty("dauer_ms")
+    private Map<Verarbeitungsstufe, Double> dauerMs = new EnumMap<>(Verarbeitungsstufe.class);
+    private String ergebnis;
+    private int tabellen;
+    private int zeilen; // Summe der Zeilen aller Tabellen (mit Kopfzeilen)
+
+    public long getAnkunftMillis() { return ankunftMillis; }
+    public void setAnkunftMillis(long ankunftMillis) { this.ankunftMillis = ankunftMillis; }
+    public double getWartezeitMs() { return wartezeitMs; }
+    public void setWartezeitMs(double wartezeitMs) { this.wartezeitMs = wartezeitMs; }
+    public int getWorker() { return worker; }
+    public void setWorker(int worker) { this.worker = worker; }
+    public String getDatei() { return datei; }
+    public void setDatei(String datei) { this.datei = datei; }
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+    public int getSeiten() { return seiten; }
+    public void setSeiten(int seiten) { this.seiten = seiten; }
+    public Map<String, String> getParameter() { return parameter; }
+    public void setParameter(Map<String, String> parameter) { this.parameter = parameter != null ? parameter : new LinkedHashMap<>(); }
+    public Map<Verarbeitungsstufe, Double> getDauerMs() { return dauerMs; }
+    public void setDauerMs(Map<Verarbeitungsstufe, Double> dauerMs) { this.dauerMs = dauerMs != null ? dauerMs : new EnumMap<>(Verarbeitungsstufe.class); }
+    public String getErgebnis() { return ergebnis; }
+    public void setErgebnis(String ergebnis) { this.ergebnis = ergebnis; }
+    public int getTabellen() { return tabellen; }
+    public void setTabellen(int tabellen) { this.tabellen = tabellen; }
+    public int getZeilen() { return zeilen; }
+    public void setZeilen(int zeilen) { this.zeilen = zeilen; }
+
+    /** @return Die aufgezeichnete Dauer der Stufe in Nanosekunden (0, wenn nicht erfasst). */
+    @JsonIgnore
+    public long getDauerNanos(Verarbeitungsstufe stufe) {
+        return Math.round(dauerMs.getOrDefault(stufe, 0.0) * 1_000_000);
+    }
+
+    /** @return true, wenn die Verarbeitung ohne Fehler endete. */
+    @JsonIgnore
+    public boolean istErfolgreich() {
+        return ERGEBNIS_OK.equals(ergebnis);
+    }
+
+    @Override
+    public String toString() {
+        return datei + " @" + ankunftMillis + " (" + ergebnis + ", " + dauerMs.getOrDefault(Verarbeitungsstufe.GESAMT, 0.0) + " ms)";
+    }
+}
@@ -0,0 +1,194 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zeichnet jede Verarbeitung eines PDFs im {@link AnwendungsModell} als eine NDJSON-Zeile ({@link JobEintrag}) auf:
+ * Ankunftszeit, Wartezeit, Dauer je Stufe, Parameter, Ergebnis sowie SHA-256 und Seitenzahl des PDFs.
+ * Aus dem Protokoll lässt sich die reale Last (z.B. eines Quartals) auf anderer Hardware oder mit anderer
+ * Workeranzahl wiedergeben (siehe "JobWiedergabe" im Modul "benchmarks").
+ * <p>
+ * Prüfsumme, Seitenzahl und Schreiben laufen in einem eigenen Thread, damit die Worker nicht auf die Platte warten;
+ * jede Zeile wird sofort geschrieben, sodass das Protokoll auch nach einem Absturz bis zum letzten Job lesbar ist.
+ * Neue Einträge werden an eine vorhandene Datei angehängt.
+ */
+public class JobRekorder implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(JobRekorder.class);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BufferedWriter schreiber;
+    private final boolean inhaltErfassen;
+    private final ExecutorService schreibThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "job-rekorder");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong anzahl = new AtomicLong();
+    private final Path datei;
+
+    /**
+     * @param datei Das Protokoll (wird angelegt oder fortgeschrieben).
+     * @throws IOException Wenn die Datei nicht geöffnet werden kann.
+     */
+    public JobRekorder(Path datei) throws IOException {
+        this(datei, true);
+    }
+
+    /**
+     * @param datei Das Protokoll (wird angelegt oder fortgeschrieben).
+     * @param inhaltErfassen false = ohne Prüfsumme und Seitenzahl (z.B. bei der Wiedergabe, die nur die Zeiten braucht).
+     * @throws IOException Wenn die Datei nicht geöffnet werden kann.
+     */
+    public JobRekorder(Path datei, boolean inhaltErfassen) throws IOException {
+        this.datei = datei;
+        this.inhaltErfassen = inhaltErfassen;
+        Path verzeichnis = datei.toAbsolutePath().getParent();
+        if (verzeichnis != null) Files.createDirectories(verzeichnis);
+        this.schreiber = Files.newBufferedWriter(datei, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("Jobprotokoll wird geschrieben nach: {}", datei.toAbsolutePath());
+    }
+
+    /**
+     * Erfasst einen abgeschlossenen Job. Wird aus den Worker-Threads aufgerufen; kehrt sofort zurück.
+     * @param pdfPfad Das verarbeitete PDF.
+     * @param parameter Die Extraktionsparameter.
+     * @param ankunftMillis Zeitpunkt des Einreichens (Epoch-Millisekunden).
+     * @param wartezeitNanos Einreichen bis Beginn der Verarbeitung im Pool.
+     * @param worker Größe des Extraktions-Pools.
+     * @param zeiten Die Stufenzeiten des Jobs (werden hier nur gelesen).
+     * @param doc Das Ergebnis (auch Fehler-Dokumente; null wird als Fehler gewertet).
+     */
+    public void erfasse(Path pdfPfad, Map<String, String> parameter, long ankunftMillis, long wartezeitNanos,
+                        int worker, StufenZeiten zeiten, PdfDokument doc) {
+        JobEintrag eintrag = new JobEintrag();
+        eintrag.setAnkunftMillis(ankunftMillis);
+        eintrag.setWartezeitMs(runde(wartezeitNanos));
+        eintrag.setWorker(worker);
+        eintrag.setDatei(pdfPfad.toAbsolutePath().toString());
+        eintrag.setParameter(new LinkedHashMap<>(parameter));
+        for (Verarbeitungsstufe stufe : Verarbeitungsstufe.values()) {
+            if (zeiten.hat(stufe)) eintrag.getDauerMs().put(stufe, runde(zeiten.getNanos(stufe)));
+        }
+        boolean ok = doc != null && (doc.getError() == null || doc.getError().isBlank()); // Wie PipelineStatistik
+        eintrag.setErgebnis(ok ? JobEintrag.ERGEBNIS_OK : JobEintrag.ERGEBNIS_FEHLER);
+        if (doc != null && doc.getTables() != null) {
+            int zeilen = 0;
+            for (ExtrahierteTabelle tabelle : doc.getTables()) {
+                if (tabelle.getData() != null) zeilen += tabelle.getData().size();
+            }
+            eintrag.setTabellen(doc.getTables().size());
+            eintrag.setZeilen(zeilen);
+        }
+        try {
+            schreibThread.execute(() -> schreibe(pdfPfad, eintrag));
+        } catch (RejectedExecutionException e) {
+            log.debug("--> Jobprotokoll bereits geschlossen, Eintrag für {} verworfen.", pdfPfad);
+        }
+    }
+
+    private void schreibe(Path pdfPfad, JobEintrag eintrag) {
+        if (inhaltErfassen && Files.isRegularFile(pdfPfad)) {
+            try {
+                eintrag.setSha256(DateiHasher.sha256(pdfPfad));
+            } catch (IOException e) {
+                log.debug("--> Prüfsumme für {} nicht ermittelbar: {}", pdfPfad, e.getMessage());
+            }
+            try (PDDocument pdf = PDDocument.load(pdfPfad.toFile())) {
+                eintrag.setSeiten(pdf.getNumberOfPages());
+            } catch (IOException e) {
+                log.debug("--> Seitenzahl für {} nicht ermittelbar: {}", pdfPfad, e.getMessage());
+            }
+        }
+        try {
+            schreiber.write(mapper.writeValueAsString(eintrag));
+            schreiber.newLine();
+            schreiber.flush();
+            anzahl.incrementAndGet();
+        } catch (IOException e) {
+            log.error("Fehler beim Schreiben ins Jobprotokoll {}", datei, e);
+        }
+    }
+
+    /** @return Anzahl der bisher geschriebenen Einträge. */
+    public long getAnzahl() {
+        return anzahl.get();
+    }
+
+    /** @return Der Pfad des Protokolls. */
+    public Path getDatei() {
+        return datei;
+    }
+
+    /**
+     * Schreibt alle erfassten Einträge und schließt die Datei. Danach erfasste Jobs werden verworfen.
+     */
+    @Override
+    public void close() throws IOException {
+        schreibThread.shutdown();
+        try {
+            if (!schreibThread.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Jobprotokoll: nicht alle Einträge rechtzeitig geschrieben.");
+                schreibThread.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            schreibThread.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        schreiber.close();
+        log.info("Jobprotokoll {} geschlossen ({} Einträge).", datei, anzahl.get());
+    }
+
+    /**
+     * Liest ein Jobprotokoll. Unlesbare Zeilen (z.B. eine abgeschnittene letzte Zeile nach einem Absturz) werden
+     * übersprungen.
+     * @param datei Das Protokoll.
+     * @return Die Einträge, nach Ankunftszeit sortiert.
+     * @throws IOException Wenn die Datei nicht gelesen werden kann.
+     */
+    public static List<JobEintrag> lese(Path datei) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<JobEintrag> eintraege = new ArrayList<>();
+        int uebersprungen = 0;
+        try (BufferedReader leser = Files.newBufferedReader(datei, StandardCharsets.UTF_8)) {
+            String zeile;
+            while ((zeile = leser.readLine()) != null) {
+                if (zeile.isBlank()) continue;
+                try {
+                    eintraege.add(mapper.readValue(zeile, JobEintrag.class));
+                } catch (IOException e) {
+                    uebersprungen++;
+                }
+            }
+        }
+        if (uebersprungen > 0) log.warn("Jobprotokoll {}: {} unlesbare Zeilen übersprungen.", datei, uebersprungen);
+        eintraege.sort(Comparator.comparingLong(JobEintrag::getAnkunftMillis)); // stabil: Reihenfolge im Stapel bleibt
+        return eintraege;
+    }
+
+    /** @return Millisekunden mit drei Nachkommastellen. */
+    private static double runde(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
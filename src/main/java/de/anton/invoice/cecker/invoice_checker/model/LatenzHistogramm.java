@@ -0,0 +1,88 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-sicheres Histogramm für Laufzeiten mit festen, annähernd logarithmischen Klassen
+ * (1-2-5-Reihe von 1 ms bis 5 min). Erfassen kostet nur wenige atomare Operationen;
+ * Perzentile werden als Obergrenze der Klasse angegeben, in die sie fallen.
+ */
+public class LatenzHistogramm {
+    /** Obergrenzen der Klassen in ms (einschließlich); die letzte Klasse nimmt alles darüber auf. */
+    private static final long[] GRENZEN_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 20_000, 60_000, 300_000};
+
+    private final AtomicLongArray zaehler = new AtomicLongArray(GRENZEN_MS.length + 1);
+    private final AtomicLong anzahl = new AtomicLong();
+    private final AtomicLong summeMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    public void erfasse(long ms) {
+        zaehler.incrementAndGet(klasse(ms));
+        anzahl.incrementAndGet();
+        summeMs.addAndGet(ms);
+        maxMs.accumulateAndGet(ms, Math::max);
+    }
+
+    public void zuruecksetzen() {
+        for (int i = 0; i < zaehler.length(); i++) zaehler.set(i, 0);
+        anzahl.set(0);
+        summeMs.set(0);
+        maxMs.set(0);
+    }
+
+    public long getAnzahl() { return anzahl.get(); }
+    public long getMaxMs() { return maxMs.get(); }
+
+    /** @return Mittelwert in ms (0 ohne Werte). */
+    public long getMittelMs() {
+        long n = anzahl.get();
+        return n == 0 ? 0 : summeMs.get() / n;
+    }
+
+    /**
+     * @param p Perzentil zwischen 0 und 100.
+     * @return Obergrenze der Klasse, in die das Perzentil fällt, höchstens das Maximum (0 ohne Werte).
+     */
+    public long getPerzentilMs(double p) {
+        long n = anzahl.get();
+        if (n == 0) return 0;
+        long rang = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+        long kumuliert = 0;
+        for (int i = 0; i < zaehler.length(); i++) {
+            kumuliert += zaehler.get(i);
+            if (kumuliert >= rang) return Math.min(i < GRENZEN_MS.length ? GRENZEN_MS[i] : Long.MAX_VALUE, maxMs.get());
+        }
+        return maxMs.get();
+    }
+
+    /** @return Momentaufnahme der Klassenbesetzungen (Länge = {@link #getKlassenAnzahl()}). */
+    public long[] getZaehler() {
+        long[] kopie = new long[zaehler.length()];
+        for (int i = 0; i < kopie.length; i++) kopie[i] = zaehler.get(i);
+        return kopie;
+    }
+
+    public static int getKlassenAnzahl() {
+        return GRENZEN_MS.length + 1;
+    }
+
+    /** @return Beschriftung der Klasse, z.B. "≤50 ms" oder ">5 min". */
+    public static String getKlassenName(int klasse) {
+        if (klasse >= GRENZEN_MS.length) return ">" + formatiere(GRENZEN_MS[GRENZEN_MS.length - 1]);
+        return "≤" + formatiere(GRENZEN_MS[klasse]);
+    }
+
+    private static String formatiere(long ms) {
+        if (ms >= 60_000) return (ms / 60_000) + " min";
+        if (ms >= 1_000) return (ms / 1_000) + " s";
+        return ms + " ms";
+    }
+
+    private static int klasse(long ms) {
+        for (int i = 0; i < GRENZEN_MS.length; i++) {
+            if (ms <= GRENZEN_MS[i]) return i;
+        }
+        return GRENZEN_MS.length;
+    }
+}
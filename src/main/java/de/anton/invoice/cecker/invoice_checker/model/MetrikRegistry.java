@@ -0,0 +1,296 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Kennzahlen für den Betrieb: Zähler, Messwerte und Verteilungen mit Namen der Form "gruppe.name"
+ * (z.B. "extraktion.fehler.timeout"). Die Services holen sich ihre Metriken einmal beim Erzeugen
+ * und erfassen danach nur noch über {@link LongAdder}, {@link LatenzHistogramm} und {@link Verteilung} -
+ * ohne Map-Zugriff, Sperren oder Objekterzeugung im Verarbeitungspfad.
+ * <p>
+ * Gelesen wird über JMX (je Gruppe ein MBean "de.anton.invoice.cecker:type=Metriken,name=gruppe",
+ * z.B. in JConsole oder VisualVM) und über eine periodische Zusammenfassung im Log.
+ * Es gibt eine gemeinsame Registry je Prozess ({@link #global()}), da auch der MBean-Server prozessweit ist.
+ */
+public class MetrikRegistry {
+    private static final Logger log = LoggerFactory.getLogger(MetrikRegistry.class);
+    private static final String JMX_DOMAIN = "de.anton.invoice.cecker";
+    private static final MetrikRegistry GLOBAL = new MetrikRegistry();
+
+    /** Eine registrierte Metrik; {@code wert} ist LongAdder, LongSupplier, LatenzHistogramm oder Verteilung. */
+    private static final class Eintrag {
+        final String name;
+        final String beschreibung;
+        final Object wert;
+
+        Eintrag(String name, String beschreibung, Object wert) {
+            this.name = name;
+            this.beschreibung = beschreibung;
+            this.wert = wert;
+        }
+    }
+
+    // Nach Namen sortiert, damit JMX-Attribute und Log-Ausgabe stabil gruppiert sind
+    private final ConcurrentSkipListMap<String, Eintrag> eintraege = new ConcurrentSkipListMap<>();
+    // Zugriff auf beide nur synchronisiert auf this
+    private final Map<String, ObjectName> registrierteGruppen = new LinkedHashMap<>();
+    private boolean jmxAktiv = false;
+    private ScheduledExecutorService logAusgabe;
+
+    /** @return Die prozessweite Registry. */
+    public static MetrikRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @param name Name der Form "gruppe.name".
+     * @param beschreibung Text für JMX.
+     * @return Der (bei gleichem Namen gemeinsame) Zähler.
+     */
+    public LongAdder zaehler(String name, String beschreibung) {
+        return hole(name, beschreibung, new LongAdder(), LongAdder.class);
+    }
+
+    /**
+     * @param name Name der Form "gruppe.name".
+     * @param beschreibung Text für JMX.
+     * @return Das (bei gleichem Namen gemeinsame) Histogramm für Laufzeiten in ms.
+     */
+    public LatenzHistogramm latenz(String name, String beschreibung) {
+        return hole(name, beschreibung, new LatenzHistogramm(), LatenzHistogramm.class);
+    }
+
+    /**
+     * @param name Name der Form "gruppe.name".
+     * @param beschreibung Text für JMX (mit Einheit).
+     * @return Die (bei gleichem Namen gemeinsame) Verteilung.
+     */
+    public Verteilung verteilung(String name, String beschreibung) {
+        return hole(name, beschreibung, new Verteilung(), Verteilung.class);
+    }
+
+    /**
+     * Registriert einen Messwert, der erst beim Lesen abgefragt wird (z.B. Länge einer Warteschlange).
+     * Ein vorhandener Messwert gleichen Namens wird ersetzt, z.B. wenn ein neues Modell erzeugt wird.
+     * @param name Name der Form "gruppe.name".
+     * @param beschreibung Text für JMX.
+     * @param quelle Liefert den aktuellen Wert; muss threadsicher und schnell sein.
+     */
+    public void messwert(String name, String beschreibung, LongSupplier quelle) {
+        eintraege.put(name, new Eintrag(name, beschreibung, quelle));
+        registriereGruppe(gruppe(name));
+    }
+
+    private <T> T hole(String name, String beschreibung, T neu, Class<T> typ) {
+        Eintrag eintrag = eintraege.computeIfAbsent(name, n -> new Eintrag(n, beschreibung, neu));
+        if (!typ.isInstance(eintrag.wert)) {
+            throw new IllegalArgumentException("Metrik '" + name + "' ist bereits als " + eintrag.wert.getClass().getSimpleName() + " registriert.");
+        }
+        registriereGruppe(gruppe(name));
+        return typ.cast(eintrag.wert);
+    }
+
+    /**
+     * Meldet je Gruppe ein MBean beim Plattform-MBean-Server an; später hinzukommende Gruppen werden
+     * automatisch nachgemeldet. Mehrfacher Aufruf ist unschädlich.
+     */
+    public synchronized void registriereJmx() {
+        jmxAktiv = true;
+        for (Eintrag e : eintraege.values()) registriereGruppe(gruppe(e.name));
+    }
+
+    /**
+     * Schreibt alle Kennzahlen periodisch ins Log (INFO, eine Zeile je Gruppe).
+     * @param intervallSekunden Abstand der Ausgaben; 0 oder kleiner schaltet die Ausgabe ab.
+     */
+    public synchronized void starteLogAusgabe(long intervallSekunden) {
+        if (logAusgabe != null) {
+            logAusgabe.shutdownNow();
+            logAusgabe = null;
+        }
+        if (intervallSekunden <= 0) return;
+        logAusgabe = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metriken-log");
+            t.setDaemon(true);
+            return t;
+        });
+        logAusgabe.scheduleAtFixedRate(() -> {
+            for (String zeile : zusammenfassung()) log.info("--> Metriken {}", zeile);
+        }, intervallSekunden, intervallSekunden, TimeUnit.SECONDS);
+        log.info("Metriken werden alle {} s protokolliert.", intervallSekunden);
+    }
+
+    /** Beendet die Log-Ausgabe und meldet alle MBeans ab. */
+    public synchronized void beenden() {
+        starteLogAusgabe(0);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objektName : registrierteGruppen.values()) {
+            try {
+                server.unregisterMBean(objektName);
+            } catch (JMException e) {
+                log.debug("--> MBean {} war nicht registriert: {}", objektName, e.getMessage());
+            }
+        }
+        registrierteGruppen.clear();
+        jmxAktiv = false;
+    }
+
+    /**
+     * @return Je Gruppe eine Zeile "gruppe: name=wert, ...", wie sie auch periodisch protokolliert wird.
+     */
+    public List<String> zusammenfassung() {
+        List<String> zeilen = new ArrayList<>();
+        String aktuelleGruppe = null;
+        StringBuilder sb = null;
+        for (Map.Entry<String, Number> wert : werte(null).entrySet()) {
+            String gruppe = gruppe(wert.getKey());
+            if (!gruppe.equals(aktuelleGruppe)) {
+                if (sb != null) zeilen.add(sb.toString());
+                sb = new StringBuilder(gruppe).append(':');
+                aktuelleGruppe = gruppe;
+            } else {
+                sb.append(',');
+            }
+            sb.append(' ').append(wert.getKey().substring(gruppe.length() + 1)).append('=').append(wert.getValue());
+        }
+        if (sb != null) zeilen.add(sb.toString());
+        return zeilen;
+    }
+
+    /**
+     * Liest alle Metriken (oder die einer Gruppe) als Einzelwerte; Histogramme und Verteilungen
+     * werden in Anzahl, Mittel, p50, p99 und Maximum aufgeteilt.
+     * @param gruppe Die Gruppe oder null für alle.
+     * @return Name -> Wert, nach Namen sortiert.
+     */
+    public Map<String, Number> werte(String gruppe) {
+        Map<String, Number> werte = new LinkedHashMap<>();
+        Map<String, Eintrag> auswahl = gruppe == null ? eintraege : eintraege.subMap(gruppe + ".", gruppe + "/");
+        for (Eintrag e : auswahl.values()) {
+            if (e.wert instanceof LongAdder) {
+                werte.put(e.name, ((LongAdder) e.wert).sum());
+            } else if (e.wert instanceof LongSupplier) {
+                werte.put(e.name, ((LongSupplier) e.wert).getAsLong());
+            } else if (e.wert instanceof LatenzHistogramm) {
+                LatenzHistogramm h = (LatenzHistogramm) e.wert;
+                werte.put(e.name + ".anzahl", h.getAnzahl());
+                werte.put(e.name + ".mittelMs", h.getMittelMs());
+                werte.put(e.name + ".p50Ms", h.getPerzentilMs(50));
+                werte.put(e.name + ".p99Ms", h.getPerzentilMs(99));
+                werte.put(e.name + ".maxMs", h.getMaxMs());
+            } else if (e.wert instanceof Verteilung) {
+                Verteilung v = (Verteilung) e.wert;
+                werte.put(e.name + ".anzahl", v.getAnzahl());
+                werte.put(e.name + ".summe", v.getSumme());
+                werte.put(e.name + ".mittel", v.getMittel());
+                werte.put(e.name + ".p50", v.getPerzentil(50));
+                werte.put(e.name + ".p99", v.getPerzentil(99));
+                werte.put(e.name + ".max", v.getMax());
+            }
+        }
+        return werte;
+    }
+
+    private String beschreibung(String attributName) {
+        // Attribute von Histogrammen tragen ein Suffix; die Beschreibung gehört zum Namen ohne Suffix
+        Map.Entry<String, Eintrag> e = eintraege.floorEntry(attributName);
+        return e != null && attributName.startsWith(e.getKey()) ? e.getValue().beschreibung : attributName;
+    }
+
+    private synchronized void registriereGruppe(String gruppe) {
+        if (!jmxAktiv || registrierteGruppen.containsKey(gruppe)) return;
+        try {
+            ObjectName objektName = new ObjectName(JMX_DOMAIN + ":type=Metriken,name=" + gruppe);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objektName)) server.unregisterMBean(objektName);
+            server.registerMBean(new GruppenMBean(gruppe), objektName);
+            registrierteGruppen.put(gruppe, objektName);
+            log.debug("--> MBean {} registriert", objektName);
+        } catch (JMException e) {
+            log.warn("Konnte Metriken der Gruppe '{}' nicht per JMX bereitstellen: {}", gruppe, e.getMessage());
+        }
+    }
+
+    private static String gruppe(String name) {
+        int punkt = name.indexOf('.');
+        return punkt > 0 ? name.substring(0, punkt) : name;
+    }
+
+    /**
+     * Nur lesbares MBean für die Metriken einer Gruppe; Attributnamen ohne Gruppenpräfix.
+     */
+    private final class GruppenMBean implements DynamicMBean {
+        private final String gruppe;
+
+        GruppenMBean(String gruppe) {
+            this.gruppe = gruppe;
+        }
+
+        @Override
+        public Object getAttribute(String attribut) throws AttributeNotFoundException {
+            Number wert = werte(gruppe).get(gruppe + "." + attribut);
+            if (wert == null) throw new AttributeNotFoundException("Unbekannte Metrik: " + attribut);
+            return wert;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attribute) {
+            Map<String, Number> werte = werte(gruppe);
+            AttributeList liste = new AttributeList();
+            for (String attribut : attribute) {
+                Number wert = werte.get(gruppe + "." + attribut);
+                if (wert != null) liste.add(new Attribute(attribut, wert));
+            }
+            return liste;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metriken sind nur lesbar: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attribute) {
+            return new AttributeList(); // Nichts schreibbar
+        }
+
+        @Override
+        public Object invoke(String aktion, Object[] parameter, String[] signatur) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(aktion), "Keine Operationen verfügbar.");
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attribute = new ArrayList<>();
+            for (String name : werte(gruppe).keySet()) {
+                attribute.add(new MBeanAttributeInfo(name.substring(gruppe.length() + 1), Long.class.getName(),
+                        beschreibung(name), true, false, false));
+            }
+            return new MBeanInfo(getClass().getName(), "Metriken der Gruppe " + gruppe,
+                    attribute.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+    }
+}
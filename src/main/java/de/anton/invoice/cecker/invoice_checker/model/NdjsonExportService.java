@@ -0,0 +1,119 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportiert die extrahierten Tabellenzeilen als NDJSON (ein JSON-Objekt pro Zeile), z.B. für ETL-Jobs.
+ * Endet der Dateiname auf ".gz", wird die Ausgabe mit GZIP komprimiert. Geschrieben wird
+ * zeilenweise über einen Jackson-{@link JsonGenerator} direkt aus den Dokumenten.
+ * <p>
+ * Aufbau einer Zeile:
+ * {@code {"quelldatei":"...","abrechnungszeitraum_start":"2024-01-01","abrechnungszeitraum_ende":"2024-01-31",
+ * "seite":1,"tabellenindex":0,"flavor":"lattice","zeilenindex":3,"zellen":["...","..."]}}.
+ * Für Dokumente mit Verarbeitungsfehler: {@code {"quelldatei":"...","fehler":"..."}}.
+ */
+public class NdjsonExportService {
+    private static final Logger log = LoggerFactory.getLogger(NdjsonExportService.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int PUFFER_GROESSE = 256 * 1024;
+
+    /**
+     * Exportiert alle Zeilen aller Tabellen der Dokumente als NDJSON.
+     * @param dokumente Die Dokumente.
+     * @param ausgabePfad Die Zieldatei (".gz" = komprimiert; wird überschrieben).
+     * @throws IOException Wenn keine Dokumente vorhanden sind oder beim Schreiben ein Fehler auftritt.
+     */
+    public void exportiere(List<PdfDokument> dokumente, Path ausgabePfad) throws IOException {
+        if (dokumente == null || dokumente.isEmpty()) {
+            throw new IOException("Keine Dokumente zum Exportieren angegeben.");
+        }
+        log.info("Starte NDJSON-Export von {} Dokumenten nach: {}", dokumente.size(), ausgabePfad);
+        long start = System.nanoTime();
+        try (NdjsonSchreiber schreiber = new NdjsonSchreiber(ausgabePfad)) {
+            for (PdfDokument doc : dokumente) schreiber.schreibeDokument(doc);
+        }
+        log.info("NDJSON-Export nach {} abgeschlossen ({} ms).", ausgabePfad, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** @return true, wenn der Pfad auf ".gz" endet und daher komprimiert geschrieben wird. */
+    public static boolean istKomprimiert(Path pfad) {
+        return pfad.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    /**
+     * Schreibt NDJSON-Zeilen in eine Datei. Kann auch dokumentweise verwendet werden (z.B. für Teildateien).
+     */
+    public static class NdjsonSchreiber implements DokumentSchreiber {
+        private final JsonGenerator generator;
+
+        /**
+         * @param ziel Die Zieldatei (".gz" = komprimiert; wird angelegt bzw. überschrieben).
+         */
+        public NdjsonSchreiber(Path ziel) throws IOException {
+            OutputStream aus = new BufferedOutputStream(Files.newOutputStream(ziel), PUFFER_GROESSE);
+            if (istKomprimiert(ziel)) {
+                aus = new GZIPOutputStream(aus, PUFFER_GROESSE);
+            }
+            this.generator = JSON_FACTORY.createGenerator(aus, JsonEncoding.UTF8);
+            // Kein Trennzeichen zwischen den Objekten (Standard wäre ein Leerzeichen), den Zeilenumbruch schreiben wir selbst
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void schreibeDokument(PdfDokument doc) throws IOException {
+            if (doc.getTables() == null || doc.getTables().isEmpty()) {
+                if (doc.getError() != null && !doc.getError().isBlank()) {
+                    generator.writeStartObject();
+                    generator.writeStringField("quelldatei", doc.getSourcePdf());
+                    generator.writeStringField("fehler", doc.getError());
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+                return;
+            }
+            String start = doc.getAbrechnungszeitraumStart() != null ? doc.getAbrechnungszeitraumStart().toString() : null;
+            String ende = doc.getAbrechnungszeitraumEnde() != null ? doc.getAbrechnungszeitraumEnde().toString() : null;
+            for (ExtrahierteTabelle tabelle : doc.getTables()) {
+                List<List<String>> daten = tabelle.getData();
+                if (daten == null) continue;
+                for (int z = 0; z < daten.size(); z++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("quelldatei", doc.getSourcePdf());
+                    generator.writeStringField("abrechnungszeitraum_start", start);
+                    generator.writeStringField("abrechnungszeitraum_ende", ende);
+                    generator.writeNumberField("seite", tabelle.getPage());
+                    generator.writeNumberField("tabellenindex", tabelle.getIndex());
+                    generator.writeStringField("flavor", tabelle.getFlavor());
+                    generator.writeNumberField("zeilenindex", z);
+                    generator.writeArrayFieldStart("zellen");
+                    List<String> zeile = daten.get(z);
+                    if (zeile != null) {
+                        for (String zelle : zeile) generator.writeString(zelle);
+                    }
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close(); // Schließt auch den (GZIP-)Stream
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package de.anton.invoice.cecker.invoice_checker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -8,13 +9,25 @@ import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class PdfDokument implements Comparable<PdfDokument> {
 
+    // Wörter im Dateinamen, die keinen Lieferanten bezeichnen (Dokumentart, Monatsnamen)
+    private static final Set<String> FUELLWOERTER = new HashSet<>(Arrays.asList(
+            "rechnung", "abrechnung", "rg", "re", "nr", "invoice", "scan", "kopie", "pdf",
+            "korrektur", "gutschrift", "storno", "mahnung", "beleg",
+            "januar", "februar", "märz", "maerz", "april", "mai", "juni", "juli", "august",
+            "september", "oktober", "november", "dezember",
+            "jan", "feb", "mär", "mar", "apr", "jun", "jul", "aug", "sep", "okt", "nov", "dez"));
+
     @JsonProperty("source_pdf")
     private String sourcePdf; // Dateiname
 
@@ -30,12 +43,17 @@ public class PdfDokument implements Comparable<PdfDokument> {
     private List<ExtrahierteTabelle> tables = new ArrayList<>(); // Tabellen
     private String error; // Fehlermeldung aus Python-Skript speichern
 
+    @JsonProperty("timings")
+    private List<PythonStufenZeit> pythonZeiten = new ArrayList<>(); // Laufzeiten der Python-Schritte
+
     private transient LocalDate abrechnungszeitraumStart; // Geparsstes Datum
     private transient LocalDate abrechnungszeitraumEnde; // Geparsstes Datum
+    private transient String lieferant; // Aus dem Dateinamen abgeleitet (lazy)
+    private transient boolean lieferantErmittelt;
 
     // Getter und Setter
     public String getSourcePdf() { return sourcePdf; }
-    public void setSourcePdf(String sourcePdf) { this.sourcePdf = sourcePdf; }
+    public void setSourcePdf(String sourcePdf) { this.sourcePdf = sourcePdf; this.lieferant = null; this.lieferantErmittelt = false; }
     public String getFullPath() { return fullPath; }
     public void setFullPath(String fullPath) { this.fullPath = fullPath; }
     public String getAbrechnungszeitraumStartStr() { return abrechnungszeitraumStartStr; }
@@ -52,9 +70,39 @@ public class PdfDokument implements Comparable<PdfDokument> {
     public void setTables(List<ExtrahierteTabelle> tables) { this.tables = tables; }
     public String getError() { return error; }
     public void setError(String error) { this.error = error; }
+    public List<PythonStufenZeit> getPythonZeiten() { return pythonZeiten; }
+    public void setPythonZeiten(List<PythonStufenZeit> pythonZeiten) { this.pythonZeiten = pythonZeiten != null ? pythonZeiten : new ArrayList<>(); }
     public LocalDate getAbrechnungszeitraumStart() { return abrechnungszeitraumStart; }
     public LocalDate getAbrechnungszeitraumEnde() { return abrechnungszeitraumEnde; }
 
+    /**
+     * Gibt den Lieferanten des Dokuments zurück. Das Python-Skript liefert (noch) keinen Lieferanten,
+     * daher wird er aus dem Dateinamen abgeleitet: Ziffern, Trennzeichen, Monatsnamen und Wörter
+     * wie "Rechnung" werden entfernt ("Stadtwerke_Rechnung_2023-01.pdf" -> "stadtwerke").
+     * @return Der normalisierte Lieferantenname oder null, wenn der Dateiname keinen Lieferanten erkennen lässt
+     *         (nur Füllwörter, Ziffern und Datumsangaben).
+     */
+    @JsonIgnore
+    public String getLieferant() {
+        if (!lieferantErmittelt) {
+            lieferant = ermittleLieferant(sourcePdf);
+            lieferantErmittelt = true;
+        }
+        return lieferant;
+    }
+
+    static String ermittleLieferant(String dateiname) {
+        if (dateiname == null || dateiname.isBlank()) return null;
+        String stamm = dateiname.replaceFirst("(?i)\\.pdf$", "").toLowerCase(Locale.GERMAN);
+        StringBuilder name = new StringBuilder();
+        for (String teil : stamm.split("[^\\p{L}]+")) {
+            if (teil.length() < 2 || FUELLWOERTER.contains(teil)) continue;
+            if (name.length() > 0) name.append(' ');
+            name.append(teil);
+        }
+        return name.length() > 0 ? name.toString() : null;
+    }
+
     // Methode zum Parsen der Datumsstrings, nachdem sie gesetzt wurden (z.B. durch Jackson)
     private void parseDaten() {
         this.abrechnungszeitraumStart = versucheDatumParsen(this.abrechnungszeitraumStartStr);
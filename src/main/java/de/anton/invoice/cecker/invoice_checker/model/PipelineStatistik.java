@@ -0,0 +1,152 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Laufende Kennzahlen der PDF-Verarbeitung: wartende, laufende und fertige Dokumente,
+ * Durchsatz, Laufzeit-Histogramme je {@link Verarbeitungsstufe} und die langsamsten Dokumente.
+ * Wird von den Worker-Threads befüllt und kann jederzeit (z.B. periodisch von der GUI) gelesen werden.
+ */
+public class PipelineStatistik {
+    /** Zeitfenster für den Durchsatz. */
+    private static final long DURCHSATZ_FENSTER_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int MAX_LANGSAMSTE = 10;
+
+    private final int worker;
+    private final AtomicInteger wartend = new AtomicInteger();
+    private final AtomicInteger laufend = new AtomicInteger();
+    private final AtomicInteger fertig = new AtomicInteger();
+    private final AtomicInteger fehler = new AtomicInteger();
+    private final Map<Verarbeitungsstufe, LatenzHistogramm> histogramme = new EnumMap<>(Verarbeitungsstufe.class);
+    // Zugriff auf beide nur synchronisiert auf this
+    private final ArrayDeque<Long> abschluesse = new ArrayDeque<>(); // nanoTime der Abschlüsse im Fenster
+    private final PriorityQueue<LangsamesDokument> langsamste = new PriorityQueue<>(Comparator.comparingLong(LangsamesDokument::getGesamtMs));
+    private long ersterStart = 0;
+
+    /**
+     * @param worker Anzahl der Worker-Threads (nur zur Anzeige).
+     */
+    public PipelineStatistik(int worker) {
+        this.worker = worker;
+        for (Verarbeitungsstufe stufe : Verarbeitungsstufe.values()) histogramme.put(stufe, new LatenzHistogramm());
+    }
+
+    /** Dokumente wurden zur Verarbeitung eingereicht. */
+    public void eingereicht(int anzahl) {
+        wartend.addAndGet(anzahl);
+    }
+
+    /** Ein Worker hat mit einem Dokument begonnen. */
+    public void gestartet() {
+        wartend.decrementAndGet();
+        laufend.incrementAndGet();
+        synchronized (this) {
+            if (ersterStart == 0) ersterStart = System.nanoTime();
+        }
+    }
+
+    /**
+     * Ein Dokument ist fertig verarbeitet (auch im Fehlerfall).
+     * @param doc Das Ergebnis (Fehler-Dokumente zählen als Fehler).
+     * @param zeiten Die Laufzeiten der einzelnen Stufen; GESAMT muss erfasst sein.
+     */
+    public void abgeschlossen(PdfDokument doc, StufenZeiten zeiten) {
+        for (Map.Entry<Verarbeitungsstufe, LatenzHistogramm> e : histogramme.entrySet()) {
+            if (zeiten.hat(e.getKey())) e.getValue().erfasse(zeiten.getMillis(e.getKey()));
+        }
+        laufend.decrementAndGet();
+        fertig.incrementAndGet();
+        if (doc == null || (doc.getError() != null && !doc.getError().isBlank())) fehler.incrementAndGet();
+        long jetzt = System.nanoTime();
+        LangsamesDokument eintrag = new LangsamesDokument(doc != null ? doc.getSourcePdf() : "?", zeiten);
+        synchronized (this) {
+            abschluesse.addLast(jetzt);
+            entferneAlteAbschluesse(jetzt);
+            langsamste.add(eintrag);
+            if (langsamste.size() > MAX_LANGSAMSTE) langsamste.poll(); // Schnellstes entfernen
+        }
+    }
+
+    /** Setzt alle Kennzahlen außer wartenden und laufenden Dokumenten zurück. */
+    public synchronized void zuruecksetzen() {
+        fertig.set(0);
+        fehler.set(0);
+        histogramme.values().forEach(LatenzHistogramm::zuruecksetzen);
+        abschluesse.clear();
+        langsamste.clear();
+        ersterStart = laufend.get() > 0 ? System.nanoTime() : 0;
+    }
+
+    public int getWorker() { return worker; }
+    public int getWartend() { return wartend.get(); }
+    public int getLaufend() { return laufend.get(); }
+    public int getFertig() { return fertig.get(); }
+    public int getFehler() { return fehler.get(); }
+    public LatenzHistogramm getHistogramm(Verarbeitungsstufe stufe) { return histogramme.get(stufe); }
+
+    /**
+     * @return Fertige Dokumente pro Minute in der letzten Minute (bzw. seit dem ersten Start, falls kürzer).
+     */
+    public synchronized double getDokumenteProMinute() {
+        if (ersterStart == 0) return 0;
+        long jetzt = System.nanoTime();
+        entferneAlteAbschluesse(jetzt);
+        long fenster = Math.min(DURCHSATZ_FENSTER_NANOS, jetzt - ersterStart);
+        if (fenster <= 0) return 0;
+        return abschluesse.size() * (double) TimeUnit.MINUTES.toNanos(1) / fenster;
+    }
+
+    /** @return Die langsamsten Dokumente, langsamstes zuerst. */
+    public synchronized List<LangsamesDokument> getLangsamsteDokumente() {
+        List<LangsamesDokument> liste = new ArrayList<>(langsamste);
+        liste.sort(Comparator.comparingLong(LangsamesDokument::getGesamtMs).reversed());
+        return liste;
+    }
+
+    /** @return Einzeilige Zusammenfassung für das Log. */
+    public String zusammenfassung() {
+        LatenzHistogramm gesamt = getHistogramm(Verarbeitungsstufe.GESAMT);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d fertig (%d Fehler), %.1f Dok./min mit %d Workern; ", getFertig(), getFehler(), getDokumenteProMinute(), worker));
+        sb.append(String.format("gesamt p50 %d ms, p90 %d ms, max %d ms", gesamt.getPerzentilMs(50), gesamt.getPerzentilMs(90), gesamt.getMaxMs()));
+        for (Verarbeitungsstufe stufe : Verarbeitungsstufe.values()) {
+            if (stufe == Verarbeitungsstufe.GESAMT) continue;
+            sb.append("; ").append(stufe.getAnzeigeName()).append(" Ø ").append(getHistogramm(stufe).getMittelMs()).append(" ms");
+        }
+        return sb.toString();
+    }
+
+    private void entferneAlteAbschluesse(long jetzt) {
+        while (!abschluesse.isEmpty() && jetzt - abschluesse.peekFirst() > DURCHSATZ_FENSTER_NANOS) abschluesse.removeFirst();
+    }
+
+    /**
+     * Ein verarbeitetes Dokument mit seinen Stufenzeiten (für die Liste der langsamsten Dokumente).
+     */
+    public static class LangsamesDokument {
+        private final String datei;
+        private final StufenZeiten zeiten;
+
+        LangsamesDokument(String datei, StufenZeiten zeiten) {
+            this.datei = datei;
+            this.zeiten = zeiten;
+        }
+
+        public String getDatei() { return datei; }
+        public StufenZeiten getZeiten() { return zeiten; }
+        public long getGesamtMs() { return zeiten.getMillis(Verarbeitungsstufe.GESAMT); }
+
+        @Override
+        public String toString() {
+            return datei + " (" + getGesamtMs() + " ms)";
+        }
+    }
+}
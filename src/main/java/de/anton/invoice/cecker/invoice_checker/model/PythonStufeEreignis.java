@@ -0,0 +1,53 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR-Ereignis für einen vom Python-Skript gemessenen Schritt (siehe {@link PythonStufenZeit}).
+ * Die Zeiten kommen erst mit der Ausgabe des Skripts an; das Ereignis trägt deshalb die Dauer als Feld
+ * und wird beim Parsen gemeldet, nicht zur tatsächlichen Zeit des Schritts.
+ */
+@Name("de.anton.invoice.PythonSchritt")
+@Label("Python-Schritt")
+@Category({"Invoice Checker", "Extraktion"})
+@Description("Vom Python-Skript gemeldete Laufzeit eines Schritts (Importe, Datumssuche, Camelot)")
+@StackTrace(false)
+class PythonStufeEreignis extends Event {
+    @Label("Datei")
+    String datei;
+
+    @Label("Schritt")
+    String schritt;
+
+    @Label("Flavor")
+    String flavor;
+
+    @Label("Dauer")
+    @Timespan(Timespan.NANOSECONDS)
+    long dauer;
+
+    /**
+     * Meldet die Python-Zeiten eines Dokuments an JFR und trägt sie in den Verlauf ein.
+     * @param datei Dateiname des PDFs.
+     * @param pythonZeiten Die Zeiten aus dem JSON.
+     * @param zeiten Der Verlauf des Dokuments.
+     */
+    static void melde(String datei, Iterable<PythonStufenZeit> pythonZeiten, StufenZeiten zeiten) {
+        for (PythonStufenZeit zeit : pythonZeiten) {
+            zeiten.erfasseSchritt(StufenZeiten.Quelle.PYTHON, zeit.getBezeichnung(), zeit.getNanos());
+            PythonStufeEreignis ereignis = new PythonStufeEreignis();
+            if (!ereignis.isEnabled()) continue;
+            ereignis.datei = datei;
+            ereignis.schritt = zeit.getStufe();
+            ereignis.flavor = zeit.getFlavor();
+            ereignis.dauer = zeit.getNanos();
+            ereignis.commit();
+        }
+    }
+}
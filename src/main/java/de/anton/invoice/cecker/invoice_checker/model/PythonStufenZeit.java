@@ -0,0 +1,41 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Vom Python-Skript gemessene Laufzeit eines Schritts (Eintrag der Liste "timings" im JSON),
+ * z.B. die Importe, die Datumssuche mit PyPDF2 oder ein Aufruf von camelot.read_pdf.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PythonStufenZeit {
+    @JsonProperty("stage")
+    private String stufe; // z.B. "imports", "datum_scan", "camelot.read_pdf", "stream_fallback", "gesamt"
+    private double ms;
+    private String flavor; // Nur bei Camelot-Aufrufen
+
+    public String getStufe() { return stufe; }
+    public void setStufe(String stufe) { this.stufe = stufe; }
+    public double getMs() { return ms; }
+    public void setMs(double ms) { this.ms = ms; }
+    public String getFlavor() { return flavor; }
+    public void setFlavor(String flavor) { this.flavor = flavor; }
+
+    /** @return Die Dauer in Nanosekunden. */
+    @JsonIgnore
+    public long getNanos() {
+        return Math.round(ms * 1_000_000);
+    }
+
+    /** @return Stufe mit Flavor, z.B. "camelot.read_pdf (lattice)". */
+    @JsonIgnore
+    public String getBezeichnung() {
+        return flavor == null || flavor.isBlank() ? String.valueOf(stufe) : stufe + " (" + flavor + ")";
+    }
+
+    @Override
+    public String toString() {
+        return getBezeichnung() + " " + ms + " ms";
+    }
+}
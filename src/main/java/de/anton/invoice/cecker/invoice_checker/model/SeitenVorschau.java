@@ -0,0 +1,33 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+
+/**
+ * Eine gerenderte PDF-Seite für die Vorschau.
+ */
+public class SeitenVorschau {
+    private final Path pdfPfad;
+    private final int seite;
+    private final int seitenAnzahl;
+    private final BufferedImage bild;
+
+    public SeitenVorschau(Path pdfPfad, int seite, int seitenAnzahl, BufferedImage bild) {
+        this.pdfPfad = pdfPfad;
+        this.seite = seite;
+        this.seitenAnzahl = seitenAnzahl;
+        this.bild = bild;
+    }
+
+    // --- Getter ---
+    public Path getPdfPfad() { return pdfPfad; }
+    /** @return Die Seitennummer (1-basiert, wie bei Camelot). */
+    public int getSeite() { return seite; }
+    public int getSeitenAnzahl() { return seitenAnzahl; }
+    public BufferedImage getBild() { return bild; }
+
+    /** @return Ungefährer Speicherbedarf des Bildes in Bytes (4 Bytes je Pixel). */
+    public long getGroesseInBytes() {
+        return 4L * bild.getWidth() * bild.getHeight();
+    }
+}
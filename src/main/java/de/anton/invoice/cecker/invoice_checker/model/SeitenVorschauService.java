@@ -0,0 +1,198 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rendert PDF-Seiten für die Vorschau im Hintergrund (PDFBox).
+ * <p>
+ * Gerenderte Seiten liegen in einem LRU-Cache, der durch den Speicherbedarf der Bilder begrenzt ist.
+ * Nach jeder angeforderten Seite werden die Nachbarseiten vorausgeladen, sodass Blättern nach der
+ * ersten Ansicht ohne Wartezeit aus dem Cache bedient wird. Gleichzeitige Anfragen für dieselbe Seite
+ * teilen sich einen Auftrag. Gerendert wird in einem einzigen Thread, weil ein PDDocument nicht
+ * threadsicher ist; das zuletzt verwendete PDF bleibt dafür geöffnet.
+ */
+public class SeitenVorschauService {
+    private static final Logger log = LoggerFactory.getLogger(SeitenVorschauService.class);
+
+    public static final float STANDARD_DPI = 96f;
+    public static final long STANDARD_CACHE_BYTES = 64L * 1024 * 1024;
+    /** Vorauszuladende Seiten relativ zur angeforderten (Reihenfolge = Priorität). */
+    private static final int[] NACHBARN = {1, -1, 2};
+
+    // Trefferquote des Caches für angeforderte Seiten (Vorausladen zählt nicht mit), siehe MetrikRegistry
+    private static final LongAdder CACHE_TREFFER = MetrikRegistry.global().zaehler("vorschau.cacheTreffer", "Angeforderte Seiten aus dem Cache");
+    private static final LongAdder CACHE_FEHLGRIFFE = MetrikRegistry.global().zaehler("vorschau.cacheFehlgriffe", "Angeforderte Seiten, die gerendert werden mussten");
+
+    private final float dpi;
+    private final long maxCacheBytes;
+    private final ExecutorService renderThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "seiten-vorschau");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Cache: Schlüssel -> Seite, in Zugriffsreihenfolge (für LRU); Zugriff nur synchronisiert
+    private final LinkedHashMap<String, SeitenVorschau> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cacheBytes = 0;
+    private final Map<String, CompletableFuture<SeitenVorschau>> inArbeit = new ConcurrentHashMap<>();
+
+    // Nur im Render-Thread verwendet
+    private Path offenerPfad;
+    private PDDocument offenesDokument;
+    private PDFRenderer renderer;
+
+    public SeitenVorschauService() {
+        this(STANDARD_DPI, STANDARD_CACHE_BYTES);
+    }
+
+    /**
+     * @param dpi Auflösung der Vorschau.
+     * @param maxCacheBytes Obergrenze für den Speicherbedarf aller zwischengespeicherten Seiten.
+     */
+    public SeitenVorschauService(float dpi, long maxCacheBytes) {
+        this.dpi = dpi;
+        this.maxCacheBytes = maxCacheBytes;
+        MetrikRegistry.global().messwert("vorschau.trefferquoteProzent", "Anteil der Cache-Treffer an allen angeforderten Seiten (%)", () -> {
+            long treffer = CACHE_TREFFER.sum();
+            long gesamt = treffer + CACHE_FEHLGRIFFE.sum();
+            return gesamt == 0 ? 0 : treffer * 100 / gesamt;
+        });
+        MetrikRegistry.global().messwert("vorschau.cacheBytes", "Speicherbedarf der zwischengespeicherten Seiten", this::getCacheBytes);
+    }
+
+    /**
+     * Liefert eine Seite - sofort aus dem Cache oder nach dem Rendern im Hintergrund - und lädt die
+     * Nachbarseiten voraus. Blockiert nie; das Future wird im Render-Thread abgeschlossen.
+     * @param pdfPfad Die PDF-Datei.
+     * @param seite Die Seite (1-basiert).
+     * @return Future mit der Seite; schlägt fehl, wenn die Datei nicht lesbar ist oder die Seite nicht existiert.
+     */
+    public CompletableFuture<SeitenVorschau> ladeSeite(Path pdfPfad, int seite) {
+        SeitenVorschau vorhanden = ausCache(schluessel(pdfPfad, seite));
+        (vorhanden != null ? CACHE_TREFFER : CACHE_FEHLGRIFFE).increment();
+        CompletableFuture<SeitenVorschau> ergebnis = vorhanden != null ? CompletableFuture.completedFuture(vorhanden) : rendereAsync(pdfPfad, seite);
+        ergebnis.thenAccept(v -> {
+            for (int abstand : NACHBARN) {
+                int nachbar = seite + abstand;
+                if (nachbar >= 1 && nachbar <= v.getSeitenAnzahl() && ausCache(schluessel(pdfPfad, nachbar)) == null) {
+                    rendereAsync(pdfPfad, nachbar);
+                }
+            }
+        });
+        return ergebnis;
+    }
+
+    /**
+     * Beendet den Render-Thread und schließt das geöffnete PDF.
+     */
+    public void schliessen() {
+        renderThread.submit(this::schliesseDokument);
+        renderThread.shutdown();
+        try {
+            renderThread.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (cache) {
+            cache.clear();
+            cacheBytes = 0;
+        }
+    }
+
+    private CompletableFuture<SeitenVorschau> rendereAsync(Path pdfPfad, int seite) {
+        String key = schluessel(pdfPfad, seite);
+        CompletableFuture<SeitenVorschau> auftrag = inArbeit.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+            try {
+                SeitenVorschau v = ausCache(k); // Evtl. inzwischen gerendert
+                return v != null ? v : rendere(pdfPfad, seite, k);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                inArbeit.remove(k);
+            }
+        }, renderThread)); // remove() im Render-Thread wartet, bis computeIfAbsent den Eintrag angelegt hat
+        return auftrag;
+    }
+
+    /** Läuft im Render-Thread. */
+    private SeitenVorschau rendere(Path pdfPfad, int seite, String key) throws IOException {
+        long start = System.nanoTime();
+        if (!pdfPfad.equals(offenerPfad)) {
+            schliesseDokument();
+            offenesDokument = PDDocument.load(pdfPfad.toFile());
+            renderer = new PDFRenderer(offenesDokument);
+            offenerPfad = pdfPfad;
+        }
+        int seitenAnzahl = offenesDokument.getNumberOfPages();
+        if (seite < 1 || seite > seitenAnzahl) {
+            throw new IOException("Seite " + seite + " existiert nicht in " + pdfPfad.getFileName() + " (" + seitenAnzahl + " Seiten).");
+        }
+        BufferedImage bild = renderer.renderImageWithDPI(seite - 1, dpi, ImageType.RGB);
+        SeitenVorschau vorschau = new SeitenVorschau(pdfPfad, seite, seitenAnzahl, bild);
+        inCache(key, vorschau);
+        log.debug("--> Seite {} von {} gerendert in {} ms", seite, pdfPfad.getFileName(), (System.nanoTime() - start) / 1_000_000);
+        return vorschau;
+    }
+
+    private void schliesseDokument() {
+        if (offenesDokument == null) return;
+        try {
+            offenesDokument.close();
+        } catch (IOException e) {
+            log.warn("PDF {} konnte nicht geschlossen werden: {}", offenerPfad, e.getMessage());
+        }
+        offenesDokument = null;
+        renderer = null;
+        offenerPfad = null;
+    }
+
+    /** @return Speicherbedarf aller zwischengespeicherten Seiten in Bytes. */
+    public long getCacheBytes() {
+        synchronized (cache) {
+            return cacheBytes;
+        }
+    }
+
+    private SeitenVorschau ausCache(String key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void inCache(String key, SeitenVorschau vorschau) {
+        synchronized (cache) {
+            SeitenVorschau alt = cache.put(key, vorschau);
+            if (alt != null) cacheBytes -= alt.getGroesseInBytes();
+            cacheBytes += vorschau.getGroesseInBytes();
+            // Am längsten nicht verwendete Seiten entfernen, die neue Seite bleibt in jedem Fall
+            Iterator<SeitenVorschau> it = cache.values().iterator();
+            while (cacheBytes > maxCacheBytes && cache.size() > 1) {
+                SeitenVorschau aeltester = it.next();
+                cacheBytes -= aeltester.getGroesseInBytes();
+                it.remove();
+            }
+        }
+    }
+
+    private static String schluessel(Path pdfPfad, int seite) {
+        return pdfPfad.toAbsolutePath() + "#" + seite;
+    }
+}
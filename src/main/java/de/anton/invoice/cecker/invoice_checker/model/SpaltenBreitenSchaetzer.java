@@ -0,0 +1,129 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.Arrays;
+
+/**
+ * Schätzt Spaltenbreiten für den Excel-Export, während die Zeilen geschrieben werden.
+ * Statt jede Zelle mit AWT-Fontmetriken zu vermessen (wie {@link Sheet#autoSizeColumn(int)}),
+ * wird pro Spalte nur die breiteste Zelle gemerkt. Die Breite eines Textes ergibt sich aus einer
+ * Tabelle relativer Zeichenbreiten der Standardschrift (Calibri 11) bezogen auf die Ziffer "0",
+ * der Einheit der Excel-Spaltenbreite. Optional werden nach den ersten Zeilen nur Stichproben erfasst.
+ * Nicht thread-sicher; jeder Export verwendet eine eigene Instanz.
+ */
+public class SpaltenBreitenSchaetzer {
+
+    /** Zeilen, die auch bei Stichproben immer vollständig erfasst werden. */
+    public static final int VOLL_ERFASSTE_ZEILEN = 1000;
+    private static final float FETT_FAKTOR = 1.1f;
+    private static final float RAND_ZEICHEN = 1.0f;    // Innenabstand links/rechts
+    private static final int MAX_BREITE = 255 * 256;    // Obergrenze von Excel
+    private static final float MAX_ZEICHENBREITE = 1.6f;
+
+    // Relative Zeichenbreiten (Ziffer "0" = 1.0) für ASCII; alle übrigen Zeichen zählen 1.0
+    private static final float[] ZEICHENBREITEN = new float[128];
+    static {
+        Arrays.fill(ZEICHENBREITEN, 0.9f);                       // Kleinbuchstaben und Sonstiges
+        for (char c = '0'; c <= '9'; c++) ZEICHENBREITEN[c] = 1.0f;
+        for (char c = 'A'; c <= 'Z'; c++) ZEICHENBREITEN[c] = 1.15f;
+        for (char c : " .,:;'!|()[]".toCharArray()) ZEICHENBREITEN[c] = 0.45f;
+        for (char c : "iljIJ".toCharArray()) ZEICHENBREITEN[c] = 0.45f;
+        for (char c : "frt-/".toCharArray()) ZEICHENBREITEN[c] = 0.65f;
+        for (char c : "mwMW@%".toCharArray()) ZEICHENBREITEN[c] = 1.55f;
+    }
+
+    private float[] maxBreite = new float[16]; // Breiteste Zelle je Spalte in Zeichen
+    private int spaltenAnzahl = 0;
+    private int stichprobenIntervall = 1;
+
+    /**
+     * @param intervall 1 = jede Zeile erfassen; n &gt; 1 = nach den ersten {@value #VOLL_ERFASSTE_ZEILEN}
+     *                  Zeilen nur jede n-te Zeile erfassen.
+     */
+    public void setStichprobenIntervall(int intervall) {
+        if (intervall < 1) throw new IllegalArgumentException("Stichprobenintervall muss mindestens 1 sein: " + intervall);
+        this.stichprobenIntervall = intervall;
+    }
+
+    /**
+     * @param zeilenIndex Der Index der geschriebenen Zeile.
+     * @return true, wenn die Zellen dieser Zeile erfasst werden sollen.
+     */
+    public boolean istStichprobe(int zeilenIndex) {
+        return stichprobenIntervall == 1 || zeilenIndex < VOLL_ERFASSTE_ZEILEN || zeilenIndex % stichprobenIntervall == 0;
+    }
+
+    /** Erfasst den Inhalt einer Zelle in Normalschrift. */
+    public void erfasse(int spalte, String text) {
+        erfasse(spalte, text, false);
+    }
+
+    /**
+     * Erfasst den Inhalt einer Zelle.
+     * @param spalte Der Spaltenindex.
+     * @param text Der Zellinhalt (null wird ignoriert).
+     * @param fett true für fette Schrift (z.B. Kopfzeile).
+     */
+    public void erfasse(int spalte, String text, boolean fett) {
+        if (text == null || text.isEmpty()) return;
+        if (spalte >= maxBreite.length) maxBreite = Arrays.copyOf(maxBreite, Math.max(spalte + 1, maxBreite.length * 2));
+        if (spalte >= spaltenAnzahl) spaltenAnzahl = spalte + 1;
+        float faktor = fett ? FETT_FAKTOR : 1.0f;
+        // Schneller Ausschluss: Auch aus lauter breiten Zeichen wäre der Text nicht breiter
+        if (text.length() * MAX_ZEICHENBREITE * faktor <= maxBreite[spalte]) return;
+        float breite = textBreite(text) * faktor;
+        if (breite > maxBreite[spalte]) maxBreite[spalte] = breite;
+    }
+
+    /**
+     * Erfasst eine Zelle, deren Anzeige aus der angegebenen Anzahl Ziffern (bzw. ziffernbreiter Zeichen)
+     * besteht, z.B. Zahlen oder Datumswerte, ohne dafür einen Text erzeugen zu müssen.
+     */
+    public void erfasseZiffern(int spalte, int anzahl) {
+        if (anzahl <= 0) return;
+        if (spalte >= maxBreite.length) maxBreite = Arrays.copyOf(maxBreite, Math.max(spalte + 1, maxBreite.length * 2));
+        if (spalte >= spaltenAnzahl) spaltenAnzahl = spalte + 1;
+        if (anzahl > maxBreite[spalte]) maxBreite[spalte] = anzahl;
+    }
+
+    /**
+     * @param spalte Der Spaltenindex.
+     * @return Die geschätzte Breite in Excel-Einheiten (1/256 Zeichenbreite), 0 für nie erfasste Spalten.
+     */
+    public int getBreite(int spalte) {
+        if (spalte >= spaltenAnzahl || maxBreite[spalte] == 0f) return 0;
+        return Math.min(MAX_BREITE, Math.round((maxBreite[spalte] + RAND_ZEICHEN) * 256));
+    }
+
+    public int getSpaltenAnzahl() {
+        return spaltenAnzahl;
+    }
+
+    /**
+     * Setzt die geschätzten Breiten für die Spalten 0 bis anzahl-1 im Blatt.
+     * Spalten ohne Inhalt behalten die Standardbreite.
+     */
+    public void wendeAn(Sheet sheet, int anzahl) {
+        for (int i = 0; i < anzahl; i++) {
+            int breite = getBreite(i);
+            if (breite > 0) sheet.setColumnWidth(i, breite);
+        }
+    }
+
+    /** Breite der längsten Zeile eines (ggf. mehrzeiligen) Textes in Zeichen der Ziffer "0". */
+    static float textBreite(String text) {
+        float max = 0f;
+        float aktuell = 0f;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                if (aktuell > max) max = aktuell;
+                aktuell = 0f;
+            } else if (c != '\r') {
+                aktuell += c < 128 ? ZEICHENBREITEN[c] : 1.0f;
+            }
+        }
+        return Math.max(max, aktuell);
+    }
+}
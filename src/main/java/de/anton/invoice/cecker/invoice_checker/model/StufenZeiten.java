@@ -0,0 +1,123 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Laufzeiten der {@link Verarbeitungsstufe}n für ein einzelnes PDF, dazu der feinere Verlauf aus
+ * Einzelschritten der Java-Seite und den vom Python-Skript gemeldeten Zeiten (für JFR und Log).
+ * Wird von dem Thread befüllt, der das PDF verarbeitet; nach der Übergabe an die Statistik nicht mehr verändern.
+ */
+public class StufenZeiten {
+    /** Quelle eines Schritts im Verlauf. */
+    public enum Quelle { JAVA, PYTHON }
+
+    private final Map<Verarbeitungsstufe, Long> nanos = new EnumMap<>(Verarbeitungsstufe.class);
+    private final List<Schritt> verlauf = new ArrayList<>();
+
+    /**
+     * Erfasst die Dauer einer Stufe (wird bei mehrfachem Aufruf addiert).
+     * @param stufe Die Stufe.
+     * @param startNanos Startzeitpunkt aus {@link System#nanoTime()}; Ende ist jetzt.
+     */
+    public void erfasse(Verarbeitungsstufe stufe, long startNanos) {
+        nanos.merge(stufe, System.nanoTime() - startNanos, Long::sum);
+    }
+
+    /** @return true, wenn für die Stufe eine Dauer erfasst wurde. */
+    public boolean hat(Verarbeitungsstufe stufe) {
+        return nanos.containsKey(stufe);
+    }
+
+    /** @return Die Dauer der Stufe in Millisekunden (0, wenn nicht erfasst). */
+    public long getMillis(Verarbeitungsstufe stufe) {
+        return nanos.getOrDefault(stufe, 0L) / 1_000_000;
+    }
+
+    /** @return Die Dauer der Stufe in Nanosekunden (0, wenn nicht erfasst). */
+    public long getNanos(Verarbeitungsstufe stufe) {
+        return nanos.getOrDefault(stufe, 0L);
+    }
+
+    /**
+     * Hängt einen Einzelschritt an den Verlauf an.
+     * @param quelle Java oder Python.
+     * @param name Name des Schritts (z.B. "Prozessstart" oder "camelot.read_pdf (lattice)").
+     * @param dauerNanos Dauer in Nanosekunden.
+     */
+    public void erfasseSchritt(Quelle quelle, String name, long dauerNanos) {
+        verlauf.add(new Schritt(quelle, name, dauerNanos));
+    }
+
+    /** @return Die Einzelschritte in der Reihenfolge ihrer Erfassung. */
+    public List<Schritt> getVerlauf() {
+        return Collections.unmodifiableList(verlauf);
+    }
+
+    /**
+     * @param quelle Java oder Python.
+     * @param name Name des Schritts.
+     * @return Summe der Dauern aller Schritte dieses Namens in Nanosekunden (0, wenn keiner erfasst wurde).
+     */
+    public long getSchrittNanos(Quelle quelle, String name) {
+        long summe = 0;
+        for (Schritt s : verlauf) {
+            if (s.quelle == quelle && s.name.equals(name)) summe += s.dauerNanos;
+        }
+        return summe;
+    }
+
+    /**
+     * @param pythonNach Name des Java-Schritts, hinter dem die Python-Schritte eingeordnet werden
+     *                   (sie laufen, bevor das Skript seine Ausgabe schreibt).
+     * @return Der Verlauf als eine Zeile, z.B. "Prozessstart 12 ms &gt; Erstes stdout-Byte 3400 ms
+     *         [Python: imports 850 ms, ...] &gt; JSON-Parsen 2 ms".
+     */
+    public String verlaufAlsText(String pythonNach) {
+        StringBuilder java = new StringBuilder();
+        StringBuilder python = new StringBuilder();
+        for (Schritt s : verlauf) {
+            StringBuilder ziel = s.quelle == Quelle.PYTHON ? python : java;
+            if (ziel.length() > 0) ziel.append(s.quelle == Quelle.PYTHON ? ", " : " > ");
+            ziel.append(s.name).append(' ').append(s.dauerNanos / 1_000_000).append(" ms");
+        }
+        if (python.length() == 0) return java.toString();
+        String block = " [Python: " + python + "]";
+        int nach = java.indexOf(pythonNach + " ");
+        if (nach < 0) return java + block;
+        int ende = java.indexOf(" > ", nach);
+        return ende < 0 ? java + block : java.substring(0, ende) + block + java.substring(ende);
+    }
+
+    /**
+     * Ein Einzelschritt im Verlauf.
+     */
+    public static final class Schritt {
+        private final Quelle quelle;
+        private final String name;
+        private final long dauerNanos;
+
+        Schritt(Quelle quelle, String name, long dauerNanos) {
+            this.quelle = quelle;
+            this.name = name;
+            this.dauerNanos = dauerNanos;
+        }
+
+        public Quelle getQuelle() { return quelle; }
+        public String getName() { return name; }
+        public long getDauerNanos() { return dauerNanos; }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Verarbeitungsstufe, Long> e : nanos.entrySet()) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(e.getKey().getAnzeigeName()).append(' ').append(e.getValue() / 1_000_000).append(" ms");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,40 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.util.List;
+
+/**
+ * Ein Treffer der Volltextsuche: Dokument, Tabelle und Zeile, in der alle Suchbegriffe vorkommen.
+ */
+public class SuchTreffer {
+    private final PdfDokument dokument;
+    private final ExtrahierteTabelle tabelle;
+    private final int zeilenIndex; // Index in ExtrahierteTabelle.getData() (0 = Kopfzeile)
+
+    public SuchTreffer(PdfDokument dokument, ExtrahierteTabelle tabelle, int zeilenIndex) {
+        this.dokument = dokument;
+        this.tabelle = tabelle;
+        this.zeilenIndex = zeilenIndex;
+    }
+
+    // --- Getter ---
+    public PdfDokument getDokument() { return dokument; }
+    public ExtrahierteTabelle getTabelle() { return tabelle; }
+    public int getZeilenIndex() { return zeilenIndex; }
+
+    /**
+     * Gibt den Inhalt der Trefferzeile zurück (Zellen mit " | " verbunden).
+     * @return Die Zeile als Text oder ein Leerstring, falls die Zeile nicht (mehr) existiert.
+     */
+    public String getZeilenText() {
+        List<List<String>> daten = tabelle.getData();
+        if (daten == null || zeilenIndex < 0 || zeilenIndex >= daten.size()) return "";
+        return String.join(" | ", daten.get(zeilenIndex)).replace('\n', ' ');
+    }
+
+    // Wird für die Anzeige in der Trefferliste verwendet
+    @Override
+    public String toString() {
+        return dokument.getSourcePdf() + " - S. " + tabelle.getPage() + ", Tab. " + tabelle.getIndex()
+                + ", Zeile " + zeilenIndex + ": " + getZeilenText();
+    }
+}
@@ -0,0 +1,162 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Zeilenweiser Vergleich zweier Tabelleninhalte, z.B. derselben Tabelle vor und nach einer Neuextraktion
+ * mit anderen Parametern.
+ * <p>
+ * Gemeinsamer Anfang und gemeinsames Ende werden direkt übersprungen, für den Rest wird die längste gemeinsame
+ * Zeilenfolge nach Myers (O((N+M)·D) bei D Unterschieden) bestimmt. Zeilen werden zuerst über ihren Hash und nur
+ * bei gleichem Hash über equals verglichen. Übersteigt die Zahl der Unterschiede {@link #MAX_UNTERSCHIEDE},
+ * wird der ganze mittlere Bereich als ein ersetzter Abschnitt gemeldet.
+ */
+public final class TabellenDiff {
+
+    /** Höchstzahl an eingefügten plus entfernten Zeilen, bis zu der genau verglichen wird. */
+    static final int MAX_UNTERSCHIEDE = 1000;
+
+    private TabellenDiff() {
+    }
+
+    /**
+     * Ein zusammenhängender geänderter Bereich: {@code altAnzahl} Zeilen ab {@code altStart} wurden durch
+     * {@code neuAnzahl} Zeilen ab {@code neuStart} ersetzt (eine der beiden Anzahlen kann 0 sein).
+     */
+    public static final class Abschnitt {
+        private final int altStart;
+        private final int altAnzahl;
+        private final int neuStart;
+        private final int neuAnzahl;
+
+        Abschnitt(int altStart, int altAnzahl, int neuStart, int neuAnzahl) {
+            this.altStart = altStart;
+            this.altAnzahl = altAnzahl;
+            this.neuStart = neuStart;
+            this.neuAnzahl = neuAnzahl;
+        }
+
+        public int getAltStart() { return altStart; }
+        public int getAltAnzahl() { return altAnzahl; }
+        public int getNeuStart() { return neuStart; }
+        public int getNeuAnzahl() { return neuAnzahl; }
+
+        @Override
+        public String toString() {
+            return "alt[" + altStart + "+" + altAnzahl + "] -> neu[" + neuStart + "+" + neuAnzahl + "]";
+        }
+    }
+
+    /**
+     * Vergleicht zwei Zeilenlisten.
+     * @param alt Bisherige Zeilen (inkl. Kopfzeile, wird nicht verändert).
+     * @param neu Neue Zeilen (inkl. Kopfzeile, wird nicht verändert).
+     * @return Die geänderten Abschnitte in aufsteigender Reihenfolge; leer, wenn beide Listen gleich sind.
+     */
+    public static List<Abschnitt> vergleiche(List<List<String>> alt, List<List<String>> neu) {
+        int n = alt.size();
+        int m = neu.size();
+        int[] altHash = hashes(alt);
+        int[] neuHash = hashes(neu);
+
+        int anfang = 0;
+        while (anfang < n && anfang < m && gleich(alt, altHash, anfang, neu, neuHash, anfang)) anfang++;
+        int ende = 0;
+        while (ende < n - anfang && ende < m - anfang
+                && gleich(alt, altHash, n - 1 - ende, neu, neuHash, m - 1 - ende)) ende++;
+        if (anfang == n && anfang == m) return Collections.emptyList();
+
+        int altMitte = n - anfang - ende;
+        int neuMitte = m - anfang - ende;
+        boolean[] entfernt = new boolean[altMitte];
+        boolean[] eingefuegt = new boolean[neuMitte];
+        if (!myers(alt, altHash, neu, neuHash, anfang, altMitte, neuMitte, entfernt, eingefuegt)) {
+            return Collections.singletonList(new Abschnitt(anfang, altMitte, anfang, neuMitte));
+        }
+
+        // Nicht entfernte alte und nicht eingefügte neue Zeilen sind paarweise gleich (in Reihenfolge)
+        List<Abschnitt> abschnitte = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < altMitte || j < neuMitte) {
+            if (i < altMitte && j < neuMitte && !entfernt[i] && !eingefuegt[j]) {
+                i++;
+                j++;
+                continue;
+            }
+            int altStart = i;
+            int neuStart = j;
+            while (i < altMitte && entfernt[i]) i++;
+            while (j < neuMitte && eingefuegt[j]) j++;
+            abschnitte.add(new Abschnitt(anfang + altStart, i - altStart, anfang + neuStart, j - neuStart));
+        }
+        return abschnitte;
+    }
+
+    /**
+     * Myers-Algorithmus auf dem mittleren Bereich; markiert die Zeilen, die nicht zur längsten gemeinsamen Folge gehören.
+     * @return false, wenn mehr als {@link #MAX_UNTERSCHIEDE} Unterschiede bestehen.
+     */
+    private static boolean myers(List<List<String>> alt, int[] altHash, List<List<String>> neu, int[] neuHash,
+                                 int basis, int n, int m, boolean[] entfernt, boolean[] eingefuegt) {
+        int max = Math.min(n + m, MAX_UNTERSCHIEDE);
+        int versatz = max + 1;
+        int[] v = new int[2 * max + 3];
+        // Je Schritt d der Stand von v[-d..d] vor dem Schritt, für den Rückweg
+        List<int[]> verlauf = new ArrayList<>();
+        for (int d = 0; d <= max; d++) {
+            verlauf.add(Arrays.copyOfRange(v, versatz - d, versatz + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[versatz + k - 1] < v[versatz + k + 1]))
+                        ? v[versatz + k + 1] : v[versatz + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && gleich(alt, altHash, basis + x, neu, neuHash, basis + y)) {
+                    x++;
+                    y++;
+                }
+                v[versatz + k] = x;
+                if (x >= n && y >= m) {
+                    markiereRueckweg(verlauf, d, n, m, entfernt, eingefuegt);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void markiereRueckweg(List<int[]> verlauf, int schritte, int n, int m,
+                                         boolean[] entfernt, boolean[] eingefuegt) {
+        int x = n;
+        int y = m;
+        for (int d = schritte; d > 0; d--) {
+            int[] vorher = verlauf.get(d); // v[-d..d] vor Schritt d, Index k + d
+            int k = x - y;
+            boolean einfuegen = k == -d || (k != d && vorher[k - 1 + d] < vorher[k + 1 + d]);
+            int vorherK = einfuegen ? k + 1 : k - 1;
+            int vorherX = vorher[vorherK + d];
+            int vorherY = vorherX - vorherK;
+            if (einfuegen) {
+                eingefuegt[vorherY] = true; // Schritt nach unten: neue Zeile vorherY
+            } else {
+                entfernt[vorherX] = true; // Schritt nach rechts: alte Zeile vorherX
+            }
+            x = vorherX;
+            y = vorherY;
+        }
+    }
+
+    private static int[] hashes(List<List<String>> zeilen) {
+        int[] ergebnis = new int[zeilen.size()];
+        for (int i = 0; i < ergebnis.length; i++) ergebnis[i] = Objects.hashCode(zeilen.get(i));
+        return ergebnis;
+    }
+
+    private static boolean gleich(List<List<String>> alt, int[] altHash, int i,
+                                  List<List<String>> neu, int[] neuHash, int j) {
+        return altHash[i] == neuHash[j] && Objects.equals(alt.get(i), neu.get(j));
+    }
+}
@@ -0,0 +1,22 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+/**
+ * Stufen der Verarbeitung eines PDFs, für die die {@link PipelineStatistik} Laufzeiten erfasst.
+ */
+public enum Verarbeitungsstufe {
+    PROZESS_START("Prozessstart"),
+    PYTHON("Python-Laufzeit"),
+    JSON_PARSEN("JSON-Parsen"),
+    UEBERNAHME("Übernahme ins Modell"),
+    GESAMT("Gesamt");
+
+    private final String anzeigeName;
+
+    Verarbeitungsstufe(String anzeigeName) {
+        this.anzeigeName = anzeigeName;
+    }
+
+    public String getAnzeigeName() {
+        return anzeigeName;
+    }
+}
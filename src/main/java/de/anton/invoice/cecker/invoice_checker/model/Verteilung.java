@@ -0,0 +1,65 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-sichere Häufigkeitsverteilung für nicht-negative Größen (z.B. Bytes oder Zeilen) mit Klassen
+ * in Zweierpotenzen: Klasse k enthält die Werte von 2^(k-1)+1 bis 2^k. Erfassen kostet wie beim
+ * {@link LatenzHistogramm} nur wenige atomare Operationen und erzeugt keine Objekte; Perzentile werden
+ * als Obergrenze der Klasse angegeben, in die sie fallen.
+ */
+public class Verteilung {
+    private static final int KLASSEN = 64;
+
+    private final AtomicLongArray zaehler = new AtomicLongArray(KLASSEN);
+    private final AtomicLong anzahl = new AtomicLong();
+    private final AtomicLong summe = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /** @param wert Der Wert (negative Werte zählen als 0). */
+    public void erfasse(long wert) {
+        long w = Math.max(0, wert);
+        zaehler.incrementAndGet(klasse(w));
+        anzahl.incrementAndGet();
+        summe.addAndGet(w);
+        max.accumulateAndGet(w, Math::max);
+    }
+
+    public void zuruecksetzen() {
+        for (int i = 0; i < KLASSEN; i++) zaehler.set(i, 0);
+        anzahl.set(0);
+        summe.set(0);
+        max.set(0);
+    }
+
+    public long getAnzahl() { return anzahl.get(); }
+    public long getSumme() { return summe.get(); }
+    public long getMax() { return max.get(); }
+
+    /** @return Mittelwert (0 ohne Werte). */
+    public long getMittel() {
+        long n = anzahl.get();
+        return n == 0 ? 0 : summe.get() / n;
+    }
+
+    /**
+     * @param p Perzentil zwischen 0 und 100.
+     * @return Obergrenze der Klasse, in die das Perzentil fällt, höchstens das Maximum (0 ohne Werte).
+     */
+    public long getPerzentil(double p) {
+        long n = anzahl.get();
+        if (n == 0) return 0;
+        long rang = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+        long kumuliert = 0;
+        for (int i = 0; i < KLASSEN; i++) {
+            kumuliert += zaehler.get(i);
+            if (kumuliert >= rang) return Math.min(i == KLASSEN - 1 ? Long.MAX_VALUE : 1L << i, max.get());
+        }
+        return max.get();
+    }
+
+    private static int klasse(long wert) {
+        return wert <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(wert - 1);
+    }
+}
@@ -0,0 +1,327 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-Memory-Invertierter-Index über alle Zellinhalte der extrahierten Tabellen.
+ * Wird inkrementell aufgebaut, sobald ein Dokument verarbeitet wurde, und beantwortet
+ * Suchanfragen ("Welche Rechnung enthielt Artikel 4711?") mit Treffern auf Zeilenebene.
+ *
+ * Jede Zeile wird als 64-Bit-Referenz (Dokument-Id | Tabellennummer | Zeilennummer) in den
+ * Postings-Listen der enthaltenen Tokens abgelegt. Da Dokument-Ids aufsteigend vergeben werden,
+ * sind alle Postings-Listen sortiert und lassen sich per Binärsuche schneiden.
+ * Das letzte Suchwort wird als Präfix behandelt (Suche während der Eingabe).
+ * Neu verarbeitete Dokumente erhalten eine neue Id; die alte wird als gelöscht markiert und beim
+ * Suchen übersprungen. Sobald die Referenzen gelöschter Dokumente die Hälfte aller Referenzen
+ * ausmachen, werden sie aus allen Postings-Listen entfernt (Kompaktierung, amortisiert konstant je Referenz).
+ * Tabellen bzw. Zeilen jenseits der Grenzen der Referenz (4096 Tabellen, 1.048.575 Zeilen je
+ * Dokument) werden nicht indiziert; das wird protokolliert.
+ */
+public class VolltextIndex {
+    private static final Logger log = LoggerFactory.getLogger(VolltextIndex.class);
+
+    // Aufteilung der 64-Bit-Referenz: 31 Bit Dokument-Id, 12 Bit Tabelle, 20 Bit Zeile
+    private static final int TABELLEN_BITS = 12;
+    private static final int ZEILEN_BITS = 20;
+    private static final long TABELLEN_MASKE = (1L << TABELLEN_BITS) - 1;
+    private static final long ZEILEN_MASKE = (1L << ZEILEN_BITS) - 1;
+    // Präfixe, die kürzer sind, werden exakt gesucht (ein einzelnes Zeichen träfe fast alles)
+    private static final int MIN_PRAEFIX_LAENGE = 2;
+    // Bis zu dieser Anzahl an Präfix-Tokens lohnt das Nachschlagen statt des Zusammenführens
+    private static final int MAX_PRAEFIX_LISTEN_FUER_SONDIERUNG = 64;
+    // Kleine Indizes werden nicht kompaktiert (das Überspringen beim Suchen kostet dort kaum etwas)
+    private static final long MIN_REFS_FUER_KOMPAKTIERUNG = 1024;
+
+    /** Wachsende, sortierte Liste von Zeilenreferenzen für ein Token. */
+    private static final class Postings {
+        long[] refs = new long[4];
+        int anzahl;
+
+        /** @return true, wenn die Referenz neu hinzugekommen ist. */
+        boolean add(long ref) {
+            if (anzahl > 0 && refs[anzahl - 1] == ref) return false; // Token mehrfach in derselben Zeile
+            if (anzahl == refs.length) refs = Arrays.copyOf(refs, anzahl * 2);
+            refs[anzahl++] = ref;
+            return true;
+        }
+
+        /** Entfernt die Referenzen gelöschter Dokumente (Reihenfolge bleibt erhalten). */
+        void entferneGeloeschte(BitSet geloeschteIds) {
+            int neu = 0;
+            for (int i = 0; i < anzahl; i++) {
+                if (!geloeschteIds.get(dokumentId(refs[i]))) refs[neu++] = refs[i];
+            }
+            anzahl = neu;
+            if (refs.length > 4 && anzahl < refs.length / 4) refs = Arrays.copyOf(refs, Math.max(4, anzahl * 2));
+        }
+
+        boolean enthaelt(long ref) {
+            return Arrays.binarySearch(refs, 0, anzahl, ref) >= 0;
+        }
+    }
+
+    /** Lesezeiger in eine Postings-Liste für den k-Wege-Merge. */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Postings postings;
+        private int position;
+
+        Cursor(Postings postings) { this.postings = postings; }
+
+        long aktuell() { return postings.refs[position]; }
+
+        boolean weiter() { return ++position < postings.anzahl; }
+
+        @Override
+        public int compareTo(Cursor o) { return Long.compare(aktuell(), o.aktuell()); }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postings = new TreeMap<>();   // Token -> Zeilenreferenzen
+    private final List<PdfDokument> dokumenteNachId = new ArrayList<>();  // Dokument-Id -> Dokument
+    private final Map<String, Integer> aktuelleIds = new HashMap<>();     // Schlüssel (voller Pfad) -> aktuelle Id
+    private final BitSet geloeschteIds = new BitSet();                    // Ids ersetzter, noch nicht kompaktierter Dokumente
+    private int[] refsProId = new int[16];                                // Dokument-Id -> Anzahl Referenzen
+    private long refsGesamt;                                              // Alle Referenzen in den Postings-Listen
+    private long refsGeloescht;                                           // Davon zu gelöschten Dokumenten
+
+    /**
+     * Nimmt alle Tabellen eines Dokuments in den Index auf. Ein bereits indiziertes Dokument
+     * mit demselben Pfad wird dabei ersetzt.
+     * @param doc Das verarbeitete Dokument.
+     */
+    public void indiziere(PdfDokument doc) {
+        String schluessel = doc.getFullPath() != null ? doc.getFullPath() : doc.getSourcePdf();
+        List<String> tokens = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            Integer alteId = aktuelleIds.remove(schluessel);
+            if (alteId != null) {
+                geloeschteIds.set(alteId);
+                dokumenteNachId.set(alteId, null); // Referenz freigeben, Postings werden beim Suchen übersprungen
+                refsGeloescht += refsProId[alteId];
+            }
+            int id = dokumenteNachId.size();
+            dokumenteNachId.add(doc);
+            aktuelleIds.put(schluessel, id);
+            if (id == refsProId.length) refsProId = Arrays.copyOf(refsProId, id * 2);
+
+            List<ExtrahierteTabelle> tabellen = doc.getTables();
+            if (tabellen != null) {
+                int refs = 0;
+                if (tabellen.size() > TABELLEN_MASKE + 1) {
+                    log.warn("Volltextindex: {} hat {} Tabellen, nur die ersten {} werden durchsuchbar.",
+                            schluessel, tabellen.size(), TABELLEN_MASKE + 1);
+                }
+                for (int t = 0; t < tabellen.size() && t <= TABELLEN_MASKE; t++) {
+                    List<List<String>> daten = tabellen.get(t).getData();
+                    if (daten == null) continue;
+                    if (daten.size() > ZEILEN_MASKE + 1) {
+                        log.warn("Volltextindex: Tabelle {} in {} hat {} Zeilen, nur die ersten {} werden durchsuchbar.",
+                                t, schluessel, daten.size(), ZEILEN_MASKE);
+                    }
+                    // Zeile 0 enthält bei Camelot nur die Spaltennummern und wird nicht indiziert
+                    for (int z = 1; z < daten.size() && z <= ZEILEN_MASKE; z++) {
+                        long ref = referenz(id, t, z);
+                        for (String zelle : daten.get(z)) {
+                            tokens.clear();
+                            tokenisiere(zelle, tokens);
+                            for (String token : tokens) {
+                                if (postings.computeIfAbsent(token, k -> new Postings()).add(ref)) refs++;
+                            }
+                        }
+                    }
+                }
+                refsProId[id] = refs;
+                refsGesamt += refs;
+            }
+            if (refsGeloescht >= MIN_REFS_FUER_KOMPAKTIERUNG && refsGeloescht * 2 >= refsGesamt) kompaktiere();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sucht alle Zeilen, die sämtliche Wörter der Anfrage enthalten. Das letzte Wort wird als Präfix
+     * behandelt, sofern die Anfrage nicht mit einem Leerzeichen endet.
+     *
+     * @param anfrage Die Suchanfrage (z.B. "4711" oder "strom 2023").
+     * @param maxTreffer Maximale Anzahl zurückgegebener Treffer.
+     * @return Die Treffer in Dokument-/Tabellen-/Zeilenreihenfolge (leer bei leerer Anfrage).
+     */
+    public List<SuchTreffer> suche(String anfrage, int maxTreffer) {
+        List<String> woerter = new ArrayList<>();
+        tokenisiere(anfrage, woerter);
+        if (woerter.isEmpty() || maxTreffer <= 0) return Collections.emptyList();
+        boolean letztesAlsPraefix = !Character.isWhitespace(anfrage.charAt(anfrage.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            // Exakte Wörter: Postings-Listen holen, die kürzeste treibt die Schnittmenge
+            List<Postings> exakt = new ArrayList<>();
+            int exaktAnzahl = letztesAlsPraefix ? woerter.size() - 1 : woerter.size();
+            for (int i = 0; i < exaktAnzahl; i++) {
+                Postings p = postings.get(woerter.get(i));
+                if (p == null) return Collections.emptyList();
+                exakt.add(p);
+            }
+            exakt.sort((a, b) -> Integer.compare(a.anzahl, b.anzahl));
+
+            List<SuchTreffer> treffer = new ArrayList<>();
+            if (letztesAlsPraefix) {
+                List<Postings> praefixListen = new ArrayList<>(praefixBereich(woerter.get(woerter.size() - 1)).values());
+                long praefixGesamt = 0;
+                for (Postings p : praefixListen) praefixGesamt += p.anzahl;
+                if (!exakt.isEmpty() && exakt.get(0).anzahl < praefixGesamt && praefixListen.size() <= MAX_PRAEFIX_LISTEN_FUER_SONDIERUNG) {
+                    // Seltenes exaktes Wort: dessen Zeilen durchlaufen und in den wenigen Präfix-Listen nachschlagen
+                    Postings treiber = exakt.remove(0);
+                    for (int i = 0; i < treiber.anzahl && treffer.size() < maxTreffer; i++) {
+                        long ref = treiber.refs[i];
+                        for (Postings p : praefixListen) {
+                            if (p.enthaelt(ref)) {
+                                pruefeUndSammle(ref, exakt, treffer);
+                                break;
+                            }
+                        }
+                    }
+                    return treffer;
+                }
+                // Sonst alle Präfix-Listen aufsteigend zusammenführen (k-Wege-Merge),
+                // bis genügend Treffer gefunden sind - die Listen werden nie vollständig gelesen.
+                PriorityQueue<Cursor> cursor = new PriorityQueue<>();
+                for (Postings p : praefixListen) {
+                    if (p.anzahl > 0) cursor.add(new Cursor(p));
+                }
+                long letzte = -1;
+                while (!cursor.isEmpty() && treffer.size() < maxTreffer) {
+                    Cursor c = cursor.poll();
+                    long ref = c.aktuell();
+                    if (c.weiter()) cursor.add(c);
+                    if (ref == letzte) continue; // Mehrere Tokens mit dem Präfix in derselben Zeile
+                    letzte = ref;
+                    pruefeUndSammle(ref, exakt, treffer);
+                }
+            } else {
+                Postings treiber = exakt.remove(0);
+                for (int i = 0; i < treiber.anzahl && treffer.size() < maxTreffer; i++) {
+                    pruefeUndSammle(treiber.refs[i], exakt, treffer);
+                }
+            }
+            return treffer;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return Anzahl der unterschiedlichen Tokens im Index. */
+    public int getTokenAnzahl() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return Anzahl der Zeilenreferenzen in allen Postings-Listen (inkl. noch nicht kompaktierter gelöschter). */
+    long getReferenzAnzahl() {
+        lock.readLock().lock();
+        try {
+            return refsGesamt;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Entfernt die Referenzen aller gelöschten Dokumente aus den Postings-Listen und leere Listen aus
+     * dem Index. Muss unter der Schreibsperre aufgerufen werden.
+     */
+    private void kompaktiere() {
+        long start = System.nanoTime();
+        Iterator<Postings> it = postings.values().iterator();
+        while (it.hasNext()) {
+            Postings p = it.next();
+            p.entferneGeloeschte(geloeschteIds);
+            if (p.anzahl == 0) it.remove();
+        }
+        log.debug("--> Volltextindex kompaktiert: {} von {} Referenzen entfernt in {} ms.",
+                refsGeloescht, refsGesamt, (System.nanoTime() - start) / 1_000_000);
+        refsGesamt -= refsGeloescht;
+        refsGeloescht = 0;
+        geloeschteIds.clear(); // Ids werden nie wiederverwendet, es gibt keine Referenzen mehr auf sie
+    }
+
+    /**
+     * Liefert alle Tokens mit dem gegebenen Präfix. Sehr kurze Präfixe werden exakt gesucht,
+     * da sie sonst nahezu den gesamten Index treffen würden.
+     */
+    private NavigableMap<String, Postings> praefixBereich(String praefix) {
+        if (praefix.length() < MIN_PRAEFIX_LAENGE) {
+            TreeMap<String, Postings> bereich = new TreeMap<>();
+            Postings p = postings.get(praefix);
+            if (p != null) bereich.put(praefix, p);
+            return bereich;
+        }
+        return postings.subMap(praefix, true, praefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Prüft, ob die Zeile in allen exakten Postings-Listen enthalten ist und zu einem aktuellen
+     * (nicht ersetzten) Dokument gehört, und fügt sie dann den Treffern hinzu.
+     */
+    private void pruefeUndSammle(long ref, List<Postings> exakt, List<SuchTreffer> treffer) {
+        int id = dokumentId(ref);
+        if (geloeschteIds.get(id)) return;
+        for (Postings p : exakt) {
+            if (!p.enthaelt(ref)) return;
+        }
+        PdfDokument doc = dokumenteNachId.get(id);
+        int t = (int) ((ref >>> ZEILEN_BITS) & TABELLEN_MASKE);
+        treffer.add(new SuchTreffer(doc, doc.getTables().get(t), (int) (ref & ZEILEN_MASKE)));
+    }
+
+    private static int dokumentId(long ref) {
+        return (int) (ref >>> (TABELLEN_BITS + ZEILEN_BITS));
+    }
+
+    private static long referenz(int dokumentId, int tabelle, int zeile) {
+        return ((long) dokumentId << (TABELLEN_BITS + ZEILEN_BITS)) | ((long) tabelle << ZEILEN_BITS) | zeile;
+    }
+
+    /**
+     * Zerlegt einen Text in kleingeschriebene Tokens aus Buchstaben und Ziffern.
+     * "Art.-Nr. 4711" ergibt z.B. [art, nr, 4711].
+     */
+    static void tokenisiere(String text, List<String> ziel) {
+        if (text == null) return;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wortZeichen = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wortZeichen && start < 0) {
+                start = i;
+            } else if (!wortZeichen && start >= 0) {
+                ziel.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VolltextIndex[tokens=" + getTokenAnzahl() + "]";
+    }
+}
@@ -0,0 +1,34 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import java.time.LocalDate;
+
+/**
+ * Zwei Rechnungen desselben Lieferanten, deren Abrechnungszeiträume sich überschneiden
+ * (Hinweis auf Doppelabrechnung).
+ */
+public class ZeitraumUeberschneidung {
+    private final PdfDokument dokument;
+    private final PdfDokument anderesDokument;
+    private final LocalDate ueberschneidungStart;
+    private final LocalDate ueberschneidungEnde;
+
+    public ZeitraumUeberschneidung(PdfDokument dokument, PdfDokument anderesDokument,
+                                   LocalDate ueberschneidungStart, LocalDate ueberschneidungEnde) {
+        this.dokument = dokument;
+        this.anderesDokument = anderesDokument;
+        this.ueberschneidungStart = ueberschneidungStart;
+        this.ueberschneidungEnde = ueberschneidungEnde;
+    }
+
+    // --- Getter ---
+    public PdfDokument getDokument() { return dokument; }
+    public PdfDokument getAnderesDokument() { return anderesDokument; }
+    public LocalDate getUeberschneidungStart() { return ueberschneidungStart; }
+    public LocalDate getUeberschneidungEnde() { return ueberschneidungEnde; }
+
+    @Override
+    public String toString() {
+        return dokument.getSourcePdf() + " überschneidet sich mit " + anderesDokument.getSourcePdf()
+                + " (" + ueberschneidungStart + " bis " + ueberschneidungEnde + ")";
+    }
+}
@@ -0,0 +1,77 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gemeinsamer Vorrat an Zellstilen für eine Arbeitsmappe. Jeder Stil (und jedes Zahlenformat)
+ * wird nur einmal angelegt und dann für alle Zellen wiederverwendet; Excel begrenzt die Anzahl
+ * der Stile je Datei, und jeder zusätzliche Stil vergrößert die Datei.
+ * Nicht thread-sicher; jede Arbeitsmappe bekommt ihren eigenen Pool.
+ */
+class ZellStilPool {
+    static final String FORMAT_DATUM = "dd.mm.yyyy";
+    static final String FORMAT_GANZZAHL = "0";
+    static final String FORMAT_BETRAG = "#,##0.00";
+
+    private final Workbook workbook;
+    private final DataFormat formate;
+    private final Map<String, CellStyle> stile = new HashMap<>();
+
+    ZellStilPool(Workbook workbook) {
+        this.workbook = workbook;
+        this.formate = workbook.createDataFormat();
+    }
+
+    /** @return Stil für Kopfzellen (fett, zentriert). */
+    CellStyle kopf() {
+        return stile.computeIfAbsent("kopf", k -> {
+            CellStyle style = workbook.createCellStyle();
+            Font font = workbook.createFont();
+            font.setBold(true); // Fett
+            style.setFont(font);
+            style.setAlignment(HorizontalAlignment.CENTER); // Zentriert
+            return style;
+        });
+    }
+
+    /** @return Stil für Verweise (blau, unterstrichen). */
+    CellStyle verweis() {
+        return stile.computeIfAbsent("verweis", k -> {
+            CellStyle style = workbook.createCellStyle();
+            Font font = workbook.createFont();
+            font.setUnderline(Font.U_SINGLE);
+            font.setColor(IndexedColors.BLUE.getIndex());
+            style.setFont(font);
+            return style;
+        });
+    }
+
+    CellStyle datum() { return mitFormat(FORMAT_DATUM); }
+    CellStyle ganzzahl() { return mitFormat(FORMAT_GANZZAHL); }
+    CellStyle betrag() { return mitFormat(FORMAT_BETRAG); }
+
+    /**
+     * @param format Ein Excel-Zahlenformat, z.B. "#,##0.00".
+     * @return Der (einmalig angelegte) Stil mit diesem Zahlenformat.
+     */
+    CellStyle mitFormat(String format) {
+        return stile.computeIfAbsent("format:" + format, k -> {
+            CellStyle style = workbook.createCellStyle();
+            style.setDataFormat(formate.getFormat(format));
+            return style;
+        });
+    }
+
+    /** @return Anzahl der bisher angelegten Stile. */
+    int getAnzahl() {
+        return stile.size();
+    }
+}
@@ -0,0 +1,146 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import de.anton.invoice.cecker.invoice_checker.model.Abfrage;
+import de.anton.invoice.cecker.invoice_checker.model.AbfrageErgebnis;
+import de.anton.invoice.cecker.invoice_checker.model.AbfrageGruppe;
+import de.anton.invoice.cecker.invoice_checker.model.Gruppierung;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ActionListener;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * Dialog für Auswertungen über alle geladenen Tabellenzeilen
+ * (Filter, Gruppierung, Anzahl/Summe/Min/Max der Wertspalte).
+ * Die Abfrage selbst wird vom Controller im Hintergrund ausgeführt.
+ */
+public class AuswertungsDialog extends JDialog {
+    private static final int MAX_WERTSPALTE = 30;
+    private static final NumberFormat ZAHLEN_FORMAT = NumberFormat.getNumberInstance(Locale.GERMANY);
+    static {
+        ZAHLEN_FORMAT.setMinimumFractionDigits(2);
+        ZAHLEN_FORMAT.setMaximumFractionDigits(2);
+    }
+
+    private final Map<Gruppierung, JCheckBox> gruppierungsBoxen = new EnumMap<>(Gruppierung.class);
+    private final JComboBox<String> wertSpalteComboBox = new JComboBox<>();
+    private final JTextField filterFeld = new JTextField(15);
+    private final JTextField lieferantFeld = new JTextField(10);
+    private final JButton auswertenButton = new JButton("Auswerten");
+    private final DefaultTableModel ergebnisModell = new DefaultTableModel() {
+        @Override
+        public boolean isCellEditable(int row, int column) { return false; }
+    };
+    private final JLabel infoLabel = new JLabel(" ");
+
+    public AuswertungsDialog(Frame besitzer) {
+        super(besitzer, "Auswertung über alle Tabellen", false);
+        setSize(800, 500);
+        setLocationRelativeTo(besitzer);
+
+        wertSpalteComboBox.addItem("Letzter Betrag der Zeile");
+        for (int i = 1; i <= MAX_WERTSPALTE; i++) wertSpalteComboBox.addItem("Spalte " + i);
+        filterFeld.setToolTipText("Nur Zeilen, die diesen Text enthalten (leer = alle)");
+        lieferantFeld.setToolTipText("Nur Rechnungen dieses Lieferanten (aus dem Dateinamen, leer = alle)");
+
+        JPanel gruppierungsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        gruppierungsPanel.add(new JLabel("Gruppieren nach:"));
+        for (Gruppierung g : Gruppierung.values()) {
+            JCheckBox box = new JCheckBox(g.getAnzeigeName(), g == Gruppierung.LIEFERANT);
+            gruppierungsBoxen.put(g, box);
+            gruppierungsPanel.add(box);
+        }
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Wert:"));
+        filterPanel.add(wertSpalteComboBox);
+        filterPanel.add(new JLabel("Textfilter:"));
+        filterPanel.add(filterFeld);
+        filterPanel.add(new JLabel("Lieferant:"));
+        filterPanel.add(lieferantFeld);
+        filterPanel.add(auswertenButton);
+
+        JPanel kopf = new JPanel(new GridLayout(2, 1));
+        kopf.add(gruppierungsPanel);
+        kopf.add(filterPanel);
+
+        JTable ergebnisTabelle = new JTable(ergebnisModell);
+        ergebnisTabelle.setAutoCreateRowSorter(true);
+        infoLabel.setBorder(BorderFactory.createEmptyBorder(3, 5, 3, 5));
+
+        setLayout(new BorderLayout());
+        add(kopf, BorderLayout.NORTH);
+        add(new JScrollPane(ergebnisTabelle), BorderLayout.CENTER);
+        add(infoLabel, BorderLayout.SOUTH);
+        getRootPane().setDefaultButton(auswertenButton);
+    }
+
+    // --- Methoden für den Controller ---
+    public void addAuswertenListener(ActionListener listener) { auswertenButton.addActionListener(listener); }
+
+    /**
+     * Erstellt die Abfrage aus den Eingaben des Dialogs.
+     * @return Die Abfrage.
+     */
+    public Abfrage getAbfrage() {
+        List<Gruppierung> gruppierungen = new ArrayList<>();
+        for (Map.Entry<Gruppierung, JCheckBox> e : gruppierungsBoxen.entrySet()) {
+            if (e.getValue().isSelected()) gruppierungen.add(e.getKey());
+        }
+        int auswahl = wertSpalteComboBox.getSelectedIndex();
+        return new Abfrage()
+                .gruppiertNach(gruppierungen)
+                .mitWertSpalte(auswahl <= 0 ? Abfrage.LETZTER_BETRAG : auswahl - 1)
+                .mitTextFilter(filterFeld.getText())
+                .mitLieferant(lieferantFeld.getText());
+    }
+
+    /** Sperrt den Auswerten-Button während einer laufenden Abfrage. */
+    public void setLaeuft(boolean laeuft) {
+        auswertenButton.setEnabled(!laeuft);
+        if (laeuft) infoLabel.setText("Auswertung läuft...");
+    }
+
+    public void setInfo(String text) { infoLabel.setText(text); }
+
+    /**
+     * Zeigt ein Abfrageergebnis an. Muss im EDT aufgerufen werden.
+     * @param ergebnis Das Ergebnis.
+     */
+    public void zeigeErgebnis(AbfrageErgebnis ergebnis) {
+        Vector<String> spalten = new Vector<>();
+        for (Gruppierung g : ergebnis.getGruppierungen()) spalten.add(g.getAnzeigeName());
+        spalten.add("Zeilen");
+        spalten.add("Mit Wert");
+        spalten.add("Summe");
+        spalten.add("Minimum");
+        spalten.add("Maximum");
+        spalten.add("Durchschnitt");
+
+        Vector<Vector<Object>> zeilen = new Vector<>();
+        for (AbfrageGruppe g : ergebnis.getGruppen()) {
+            Vector<Object> zeile = new Vector<>(g.getSchluessel());
+            zeile.add(g.getAnzahlZeilen());
+            zeile.add(g.getAnzahlWerte());
+            zeile.add(formatiere(g.getSumme()));
+            zeile.add(formatiere(g.getMin()));
+            zeile.add(formatiere(g.getMax()));
+            zeile.add(formatiere(g.getDurchschnitt()));
+            zeilen.add(zeile);
+        }
+        ergebnisModell.setDataVector(zeilen, spalten);
+        infoLabel.setText(ergebnis.getGruppen().size() + " Gruppen, " + ergebnis.getTrefferZeilen() + " von "
+                + ergebnis.getGepruefteZeilen() + " Zeilen (" + ergebnis.getDauerMs() + " ms)");
+    }
+
+    private static String formatiere(double wert) {
+        return Double.isNaN(wert) ? "" : ZAHLEN_FORMAT.format(wert);
+    }
+}
@@ -0,0 +1,127 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import de.anton.invoice.cecker.invoice_checker.model.PipelineStatistik;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.beans.PropertyChangeListener;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Diagnosedialog mit zwei Reitern: dem {@link PipelineDashboard} der PDF-Verarbeitung und den vom
+ * {@link EdtWaechter} erkannten Blockaden der Oberfläche. Bei den Blockaden oben die Liste (neueste zuerst),
+ * unten die Stichproben der ausgewählten Blockade. Beide Reiter aktualisieren sich, solange der Dialog geöffnet ist.
+ */
+public class DiagnoseDialog extends JDialog {
+    private static final DateTimeFormatter ZEIT_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    private final EdtWaechter waechter;
+    private final PipelineDashboard dashboard;
+    private final DefaultTableModel stallModell = new DefaultTableModel(
+            new Object[]{"Zeit", "Dauer (ms)", "Auslöser", "Stichproben", "Häufigster Frame"}, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) { return false; }
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex == 1 || columnIndex == 3 ? Long.class : String.class;
+        }
+    };
+    private final JTable stallTabelle = new JTable(stallModell);
+    private final JTextArea detailText = new JTextArea();
+    private final JLabel infoLabel = new JLabel(" ");
+    private List<EdtWaechter.Stall> angezeigteStalls;
+    private final PropertyChangeListener stallListener = e -> {
+        if (isVisible()) aktualisieren();
+    };
+
+    public DiagnoseDialog(Frame besitzer, EdtWaechter waechter, PipelineStatistik statistik) {
+        super(besitzer, "Diagnose", false);
+        this.waechter = waechter;
+        this.dashboard = new PipelineDashboard(statistik);
+        setSize(900, 600);
+        setLocationRelativeTo(besitzer);
+
+        JSpinner schwelleSpinner = new JSpinner(new SpinnerNumberModel((int) waechter.getSchwelleMs(), 10, 60_000, 50));
+        schwelleSpinner.addChangeListener(e -> waechter.setSchwelleMs(((Number) schwelleSpinner.getValue()).longValue()));
+        JButton leerenButton = new JButton("Leeren");
+        leerenButton.addActionListener(e -> {
+            waechter.leeren();
+            aktualisieren();
+        });
+        JPanel kopf = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        kopf.add(new JLabel("Schwelle (ms):"));
+        kopf.add(schwelleSpinner);
+        kopf.add(leerenButton);
+
+        stallTabelle.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        stallTabelle.getColumnModel().getColumn(2).setPreferredWidth(250);
+        stallTabelle.getColumnModel().getColumn(4).setPreferredWidth(250);
+        stallTabelle.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) zeigeDetails();
+        });
+        detailText.setEditable(false);
+        detailText.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(stallTabelle), new JScrollPane(detailText));
+        splitPane.setResizeWeight(0.4);
+        infoLabel.setBorder(BorderFactory.createEmptyBorder(3, 5, 3, 5));
+
+        JPanel edtPanel = new JPanel(new BorderLayout());
+        edtPanel.add(kopf, BorderLayout.NORTH);
+        edtPanel.add(splitPane, BorderLayout.CENTER);
+        edtPanel.add(infoLabel, BorderLayout.SOUTH);
+
+        JTabbedPane reiter = new JTabbedPane();
+        reiter.addTab("Verarbeitung", dashboard);
+        reiter.addTab("EDT-Blockaden", edtPanel);
+        setLayout(new BorderLayout());
+        add(reiter, BorderLayout.CENTER);
+        waechter.addPropertyChangeListener(stallListener);
+    }
+
+    @Override
+    public void setVisible(boolean b) {
+        if (b) {
+            aktualisieren();
+            dashboard.starteAktualisierung();
+        } else {
+            dashboard.stoppeAktualisierung();
+        }
+        super.setVisible(b);
+    }
+
+    /**
+     * Liest die Blockaden neu vom Wächter. Muss im EDT aufgerufen werden.
+     */
+    public void aktualisieren() {
+        int auswahl = stallTabelle.getSelectedRow();
+        EdtWaechter.Stall ausgewaehlt = auswahl >= 0 && angezeigteStalls != null ? angezeigteStalls.get(auswahl) : null;
+        List<EdtWaechter.Stall> stalls = waechter.getStalls();
+        Collections.reverse(stalls); // Neueste zuerst
+        angezeigteStalls = stalls;
+        stallModell.setRowCount(0);
+        for (EdtWaechter.Stall s : stalls) {
+            List<String> frames = s.getHeisseFrames(1);
+            stallModell.addRow(new Object[]{ZEIT_FORMAT.format(s.getZeitpunkt()), s.getDauerMs(), s.getEreignis(),
+                    (long) s.getStichproben().size(), frames.isEmpty() ? "" : frames.get(0)});
+        }
+        int neueAuswahl = ausgewaehlt != null ? stalls.indexOf(ausgewaehlt) : -1;
+        if (neueAuswahl >= 0) stallTabelle.setRowSelectionInterval(neueAuswahl, neueAuswahl);
+        else zeigeDetails();
+        infoLabel.setText(stalls.isEmpty() ? "Keine Blockaden über " + waechter.getSchwelleMs() + " ms erkannt."
+                : stalls.size() + " Blockade(n) erkannt.");
+    }
+
+    private void zeigeDetails() {
+        int zeile = stallTabelle.getSelectedRow();
+        if (zeile < 0 || angezeigteStalls == null) {
+            detailText.setText("");
+            return;
+        }
+        detailText.setText(angezeigteStalls.get(zeile).alsText());
+        detailText.setCaretPosition(0);
+    }
+}
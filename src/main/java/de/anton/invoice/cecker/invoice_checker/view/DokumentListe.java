@@ -0,0 +1,137 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import de.anton.invoice.cecker.invoice_checker.model.PdfDokument;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListSelectionListener;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Filterbare Liste der geladenen Dokumente (ersetzt die PDF-ComboBox).
+ * Die JList zeichnet nur die sichtbaren Zeilen (feste Zellgröße, keine Vermessung aller Einträge),
+ * Bestandsänderungen übernimmt das {@link DokumentListenModell} an Ort und Stelle.
+ * Auswahl-Listener werden nur bei Auswahl durch den Benutzer benachrichtigt.
+ */
+public class DokumentListe extends JPanel {
+    private final DokumentListenModell listenModell = new DokumentListenModell();
+    private final JList<PdfDokument> liste = new JList<>(listenModell);
+    private final JTextField filterFeld = new JTextField();
+    private final JComboBox<DokumentListenModell.StatusFilter> statusComboBox = new JComboBox<>(DokumentListenModell.StatusFilter.values());
+    private final JLabel infoLabel = new JLabel(" ");
+    private boolean programmatisch = false; // Auswahländerung durch Code, nicht durch den Benutzer
+
+    public DokumentListe() {
+        super(new BorderLayout(0, 3));
+        setBorder(BorderFactory.createTitledBorder("Dokumente"));
+
+        filterFeld.setToolTipText("Nach Dateiname oder Abrechnungszeitraum (z.B. 2024-03) filtern");
+        filterFeld.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { filtern(); }
+            @Override public void removeUpdate(DocumentEvent e) { filtern(); }
+            @Override public void changedUpdate(DocumentEvent e) { filtern(); }
+        });
+        statusComboBox.addActionListener(e -> filtern());
+
+        liste.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Feste Zellgröße: JList muss dann nicht jede Zelle vermessen (wichtig bei vielen Dokumenten)
+        liste.setFixedCellHeight(liste.getFontMetrics(liste.getFont()).getHeight() + 4);
+        liste.setFixedCellWidth(100); // Mindestbreite; im ScrollPane wird die Breite des Viewports verwendet
+        liste.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                PdfDokument doc = (PdfDokument) value;
+                if (!isSelected && doc.getError() != null && !doc.getError().isBlank()) setForeground(Color.RED.darker());
+                setToolTipText(doc.getError() != null && !doc.getError().isBlank() ? doc.getError() : doc.getFullPath());
+                return this;
+            }
+        });
+        infoLabel.setFont(infoLabel.getFont().deriveFont(Font.ITALIC));
+
+        JPanel filterPanel = new JPanel(new BorderLayout(3, 0));
+        filterPanel.add(filterFeld, BorderLayout.CENTER);
+        filterPanel.add(statusComboBox, BorderLayout.EAST);
+        JPanel kopf = new JPanel(new BorderLayout(0, 2));
+        kopf.add(filterPanel, BorderLayout.NORTH);
+        kopf.add(infoLabel, BorderLayout.SOUTH);
+        add(kopf, BorderLayout.NORTH);
+        add(new JScrollPane(liste), BorderLayout.CENTER);
+    }
+
+    /**
+     * Registriert einen Listener für Auswahländerungen durch den Benutzer
+     * (nicht bei {@link #waehleAus} und nicht während der Auswahl noch angepasst wird).
+     */
+    public void addAuswahlListener(ListSelectionListener listener) {
+        liste.addListSelectionListener(e -> {
+            if (!programmatisch && !e.getValueIsAdjusting()) listener.valueChanged(e);
+        });
+    }
+
+    /** @return Das ausgewählte Dokument oder null. */
+    public PdfDokument getAusgewaehltesDokument() {
+        return liste.getSelectedValue();
+    }
+
+    /**
+     * Übernimmt den aktuellen Dokumentenbestand, die Auswahl bleibt erhalten. Muss im EDT aufgerufen werden.
+     * @param dokumente Alle Dokumente in Anzeigereihenfolge.
+     */
+    public void setDokumente(List<PdfDokument> dokumente) {
+        PdfDokument auswahl = liste.getSelectedValue();
+        programmatisch = true;
+        try {
+            listenModell.setDokumente(dokumente);
+            stelleAuswahlWiederHer(auswahl, false);
+        } finally {
+            programmatisch = false;
+        }
+        aktualisiereInfo();
+    }
+
+    /**
+     * Wählt ein Dokument aus, ohne die Auswahl-Listener zu benachrichtigen (z.B. zur Synchronisation mit dem Modell).
+     * Ist das Dokument ausgefiltert, wird die Auswahl aufgehoben.
+     * @param doc Das Dokument oder null.
+     */
+    public void waehleAus(PdfDokument doc) {
+        if (liste.getSelectedValue() == doc) return;
+        programmatisch = true;
+        try {
+            stelleAuswahlWiederHer(doc, true);
+        } finally {
+            programmatisch = false;
+        }
+    }
+
+    private void filtern() {
+        PdfDokument auswahl = liste.getSelectedValue();
+        programmatisch = true;
+        try {
+            listenModell.setFilter(filterFeld.getText(), (DokumentListenModell.StatusFilter) statusComboBox.getSelectedItem());
+            stelleAuswahlWiederHer(auswahl, true);
+        } finally {
+            programmatisch = false;
+        }
+        aktualisiereInfo();
+    }
+
+    private void stelleAuswahlWiederHer(PdfDokument doc, boolean sichtbarMachen) {
+        int index = doc != null ? listenModell.indexVon(doc) : -1;
+        if (index < 0) {
+            liste.clearSelection();
+        } else {
+            if (liste.getSelectedIndex() != index) liste.setSelectedIndex(index);
+            if (sichtbarMachen) liste.ensureIndexIsVisible(index); // Nicht bei Bestandsänderungen, sonst springt die Liste beim Laden
+        }
+    }
+
+    private void aktualisiereInfo() {
+        int gesamt = listenModell.getGesamtAnzahl();
+        int sichtbar = listenModell.getSize();
+        infoLabel.setText(sichtbar == gesamt ? gesamt + " Dokument(e)" : sichtbar + " von " + gesamt + " Dokument(en)");
+    }
+}
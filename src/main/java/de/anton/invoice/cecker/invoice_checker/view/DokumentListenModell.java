@@ -0,0 +1,150 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import de.anton.invoice.cecker.invoice_checker.model.PdfDokument;
+
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ListModel für die Dokumentenliste mit Filter nach Text (Dateiname oder Abrechnungszeitraum)
+ * und Fehlerstatus.
+ * <p>
+ * Änderungen werden an Ort und Stelle übernommen: Alte und neue sichtbare Liste werden über gemeinsamen
+ * Anfang und gemeinsames Ende verglichen, gemeldet wird nur der geänderte Bereich dazwischen
+ * (beim Einfügen eines Dokuments also genau eine Zeile). Der Suchtext je Dokument wird einmal berechnet
+ * und zwischengespeichert; wird der Filtertext nur verlängert, wird nur die bisher sichtbare Teilmenge geprüft.
+ */
+public class DokumentListenModell extends AbstractListModel<PdfDokument> {
+
+    /** Filter nach Fehlerstatus. */
+    public enum StatusFilter {
+        ALLE("Alle"),
+        NUR_FEHLER("Nur fehlerhafte"),
+        OHNE_FEHLER("Nur fehlerfreie");
+
+        private final String anzeigeName;
+
+        StatusFilter(String anzeigeName) {
+            this.anzeigeName = anzeigeName;
+        }
+
+        @Override
+        public String toString() {
+            return anzeigeName;
+        }
+    }
+
+    private List<PdfDokument> alle = Collections.emptyList();
+    private List<PdfDokument> sichtbar = Collections.emptyList();
+    // Suchtext je Dokument (Identität, da equals() nur den Pfad vergleicht und neu verarbeitete Dokumente andere Daten haben)
+    private Map<PdfDokument, String> suchTexte = new IdentityHashMap<>();
+    private String filterText = "";
+    private StatusFilter statusFilter = StatusFilter.ALLE;
+
+    /**
+     * Übernimmt den aktuellen Dokumentenbestand. Muss im EDT aufgerufen werden.
+     * @param dokumente Alle Dokumente in Anzeigereihenfolge (wird nicht kopiert, danach nicht verändern).
+     */
+    public void setDokumente(List<PdfDokument> dokumente) {
+        for (PdfDokument doc : dokumente) suchTexte.computeIfAbsent(doc, DokumentListenModell::suchTextFuer);
+        if (suchTexte.size() > 2 * dokumente.size() + 16) {
+            // Viele ersetzte/entfernte Dokumente: Cache auf den aktuellen Bestand verkleinern
+            Map<PdfDokument, String> aktuell = new IdentityHashMap<>(dokumente.size() * 2);
+            for (PdfDokument doc : dokumente) aktuell.put(doc, suchTexte.get(doc));
+            suchTexte = aktuell;
+        }
+        alle = dokumente;
+        uebernehme(filtere(alle));
+    }
+
+    /**
+     * Setzt den Filter. Muss im EDT aufgerufen werden.
+     * @param text Teiltext von Dateiname oder Abrechnungszeitraum (JJJJ-MM-TT), Groß-/Kleinschreibung egal.
+     * @param status Filter nach Fehlerstatus.
+     */
+    public void setFilter(String text, StatusFilter status) {
+        String neuerText = text == null ? "" : text.trim().toLowerCase(Locale.GERMAN);
+        if (neuerText.equals(filterText) && status == statusFilter) return;
+        // Verlängerter Text bei gleichem Status kann nur weniger Treffer liefern: nur die sichtbaren prüfen
+        boolean eingeschraenkt = status == statusFilter && neuerText.contains(filterText);
+        filterText = neuerText;
+        statusFilter = status;
+        uebernehme(filtere(eingeschraenkt ? sichtbar : alle));
+    }
+
+    /** @return Anzahl aller Dokumente (ungefiltert). */
+    public int getGesamtAnzahl() {
+        return alle.size();
+    }
+
+    /**
+     * @return Position des Dokuments in der gefilterten Liste oder -1. Ist das Dokument selbst nicht
+     *         enthalten, zählt ein neu verarbeitetes Dokument mit demselben Pfad (equals).
+     */
+    public int indexVon(PdfDokument doc) {
+        for (int i = 0; i < sichtbar.size(); i++) {
+            if (sichtbar.get(i) == doc) return i;
+        }
+        return sichtbar.indexOf(doc);
+    }
+
+    @Override
+    public int getSize() {
+        return sichtbar.size();
+    }
+
+    @Override
+    public PdfDokument getElementAt(int index) {
+        return sichtbar.get(index);
+    }
+
+    private List<PdfDokument> filtere(List<PdfDokument> basis) {
+        if (filterText.isEmpty() && statusFilter == StatusFilter.ALLE) return basis;
+        List<PdfDokument> ergebnis = new ArrayList<>();
+        for (PdfDokument doc : basis) {
+            if (passt(doc)) ergebnis.add(doc);
+        }
+        return ergebnis;
+    }
+
+    private boolean passt(PdfDokument doc) {
+        if (statusFilter != StatusFilter.ALLE) {
+            boolean fehler = doc.getError() != null && !doc.getError().isBlank();
+            if (fehler != (statusFilter == StatusFilter.NUR_FEHLER)) return false;
+        }
+        return filterText.isEmpty() || suchTexte.get(doc).contains(filterText);
+    }
+
+    /**
+     * Ersetzt die sichtbare Liste und meldet nur den Bereich zwischen gemeinsamem Anfang und Ende als geändert.
+     */
+    private void uebernehme(List<PdfDokument> neu) {
+        List<PdfDokument> alt = sichtbar;
+        sichtbar = neu;
+        int anfang = 0;
+        int max = Math.min(alt.size(), neu.size());
+        while (anfang < max && alt.get(anfang) == neu.get(anfang)) anfang++;
+        int ende = 0;
+        while (ende < max - anfang && alt.get(alt.size() - 1 - ende) == neu.get(neu.size() - 1 - ende)) ende++;
+        int entfernt = alt.size() - anfang - ende;
+        int hinzu = neu.size() - anfang - ende;
+        int geaendert = Math.min(entfernt, hinzu);
+        if (geaendert > 0) fireContentsChanged(this, anfang, anfang + geaendert - 1);
+        if (entfernt > hinzu) fireIntervalRemoved(this, anfang + geaendert, anfang + entfernt - 1);
+        if (hinzu > entfernt) fireIntervalAdded(this, anfang + geaendert, anfang + hinzu - 1);
+    }
+
+    private static String suchTextFuer(PdfDokument doc) {
+        StringBuilder sb = new StringBuilder();
+        if (doc.getSourcePdf() != null) sb.append(doc.getSourcePdf());
+        if (doc.getAbrechnungszeitraumStart() != null) sb.append(' ').append(doc.getAbrechnungszeitraumStart());
+        else if (doc.getAbrechnungszeitraumStartStr() != null) sb.append(' ').append(doc.getAbrechnungszeitraumStartStr());
+        if (doc.getAbrechnungszeitraumEnde() != null) sb.append(' ').append(doc.getAbrechnungszeitraumEnde());
+        return sb.toString().toLowerCase(Locale.GERMAN);
+    }
+}
@@ -0,0 +1,340 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.InvocationEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Erkennt Blockaden des Event Dispatch Threads (EDT).
+ * <p>
+ * Eine eigene EventQueue misst die Dauer jedes Ereignisses. Ein Hintergrund-Thread prüft in festen
+ * Abständen, ob das laufende Ereignis die Schwelle überschritten hat, und nimmt dann bei jeder Prüfung
+ * den Stack des EDT auf. Nach dem Ende des Ereignisses wird die Blockade mit auslösendem Ereignis,
+ * Dauer und den am häufigsten gesehenen Frames protokolliert und an die Listener gemeldet
+ * (Eigenschaft {@link #STALL_PROPERTY}, im EDT). Die Zeit in verschachtelten Event-Schleifen
+ * (modale Dialoge) zählt nicht als Blockade des äußeren Ereignisses: Wartet der EDT darin auf das nächste
+ * Ereignis, ruht die Messung des äußeren Ereignisses und läuft erst nach einem verschachtelten Ereignis
+ * bzw. nach dem Ende der Schleife weiter.
+ */
+public class EdtWaechter {
+    private static final Logger log = LoggerFactory.getLogger(EdtWaechter.class);
+
+    public static final String STALL_PROPERTY = "edtStall";
+    public static final long STANDARD_SCHWELLE_MS = 200;
+    public static final long STANDARD_ABTASTINTERVALL_MS = 50;
+    private static final int MAX_STICHPROBEN = 200;
+    private static final int MAX_GESPEICHERTE_STALLS = 100;
+    private static final String APP_PAKET = "de.anton.";
+
+    private static volatile EdtWaechter aktiv;
+
+    private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+    private final long abtastIntervallMs;
+    private volatile long schwelleMs;
+    private final ArrayDeque<Stall> stalls = new ArrayDeque<>(); // Zugriff nur synchronisiert
+    private volatile Dispatch aktuell; // null auch, während eine verschachtelte Schleife auf Ereignisse wartet
+    private final ArrayDeque<Dispatch> laufend = new ArrayDeque<>(); // Verschachtelte Ereignisse, nur im EDT
+    private volatile Thread edt;
+    private Thread abtaster;
+
+    public EdtWaechter() {
+        this(STANDARD_SCHWELLE_MS, STANDARD_ABTASTINTERVALL_MS);
+    }
+
+    /**
+     * @param schwelleMs Ab dieser Dauer gilt ein Ereignis als Blockade.
+     * @param abtastIntervallMs Abstand der Prüfungen bzw. Stack-Aufnahmen während einer Blockade.
+     */
+    public EdtWaechter(long schwelleMs, long abtastIntervallMs) {
+        this.schwelleMs = schwelleMs;
+        this.abtastIntervallMs = Math.max(1, abtastIntervallMs);
+    }
+
+    /**
+     * Installiert die überwachende EventQueue und startet die Abtastung. Darf nur einmal aufgerufen werden.
+     */
+    public synchronized void starten() {
+        if (abtaster != null) throw new IllegalStateException("EDT-Wächter läuft bereits.");
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new UeberwachteEventQueue());
+        abtaster = new Thread(this::abtasten, "edt-waechter");
+        abtaster.setDaemon(true);
+        abtaster.start();
+        aktiv = this;
+        log.info("EDT-Wächter gestartet (Schwelle {} ms, Abtastintervall {} ms).", schwelleMs, abtastIntervallMs);
+    }
+
+    /**
+     * Beschreibt das gerade laufende EDT-Ereignis genauer (z.B. "propertyChange documentsUpdated"),
+     * damit Blockaden nicht nur als anonymes InvocationEvent gemeldet werden. Ohne aktiven Wächter wirkungslos.
+     * @param kontext Die Beschreibung; gilt bis zum Ende des aktuellen Ereignisses.
+     */
+    public static void setzeKontext(String kontext) {
+        EdtWaechter waechter = aktiv;
+        if (waechter == null) return;
+        Dispatch d = waechter.aktuell;
+        if (d != null && Thread.currentThread() == waechter.edt) d.kontext = kontext;
+    }
+
+    public long getSchwelleMs() { return schwelleMs; }
+    public void setSchwelleMs(long schwelleMs) { this.schwelleMs = Math.max(1, schwelleMs); }
+
+    /** @return Die zuletzt erkannten Blockaden (älteste zuerst, höchstens {@value #MAX_GESPEICHERTE_STALLS}). */
+    public List<Stall> getStalls() {
+        synchronized (stalls) {
+            return new ArrayList<>(stalls);
+        }
+    }
+
+    public void leeren() {
+        synchronized (stalls) {
+            stalls.clear();
+        }
+    }
+
+    public void addPropertyChangeListener(PropertyChangeListener l) { support.addPropertyChangeListener(l); }
+    public void removePropertyChangeListener(PropertyChangeListener l) { support.removePropertyChangeListener(l); }
+
+    // Hintergrund-Thread: prüft das laufende Ereignis und nimmt während einer Blockade Stacks auf
+    private void abtasten() {
+        while (true) {
+            try {
+                Thread.sleep(abtastIntervallMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Dispatch d = aktuell;
+            Thread thread = edt;
+            if (d == null || thread == null) continue;
+            long dauerMs = d.dauerNanos(System.nanoTime()) / 1_000_000;
+            if (dauerMs < schwelleMs) continue;
+            StackTraceElement[] stack = thread.getStackTrace();
+            if (d != aktuell) continue; // Ereignis inzwischen beendet, Stack gehört nicht mehr dazu
+            synchronized (d.stichproben) {
+                if (d.stichproben.isEmpty()) {
+                    log.warn("--> EDT blockiert seit {} ms: {}", dauerMs, d.beschreibung());
+                }
+                if (d.stichproben.size() < MAX_STICHPROBEN) d.stichproben.add(stack);
+            }
+        }
+    }
+
+    // Im EDT nach dem Ende eines Ereignisses
+    private void abschliessen(Dispatch d, long ende) {
+        long dauerMs = d.dauerNanos(ende) / 1_000_000;
+        if (dauerMs < schwelleMs) return;
+        List<StackTraceElement[]> stichproben;
+        synchronized (d.stichproben) {
+            stichproben = new ArrayList<>(d.stichproben);
+        }
+        Stall stall = new Stall(LocalDateTime.now(), d.beschreibung(), dauerMs, stichproben);
+        synchronized (stalls) {
+            if (stalls.size() >= MAX_GESPEICHERTE_STALLS) stalls.removeFirst();
+            stalls.addLast(stall);
+        }
+        log.warn("EDT blockiert für {} ms durch {} ({} Stichproben, häufigste Frames: {})",
+                dauerMs, stall.getEreignis(), stichproben.size(), stall.getHeisseFrames(3));
+        if (log.isDebugEnabled() && !stichproben.isEmpty()) log.debug("--> Stichproben der Blockade:\n{}", stall.alsText());
+        support.firePropertyChange(STALL_PROPERTY, null, stall);
+    }
+
+    /**
+     * Liefert eine lesbare Beschreibung eines AWT-Ereignisses, z.B. "ActionEvent 'PDF(s) laden' (JButton)".
+     */
+    static String beschreibe(AWTEvent event) {
+        String quelle = event.getSource() != null ? event.getSource().getClass().getSimpleName() : "?";
+        if (event instanceof ActionEvent) {
+            return "ActionEvent '" + ((ActionEvent) event).getActionCommand() + "' (" + quelle + ")";
+        }
+        if (event instanceof InvocationEvent) {
+            // paramString enthält "runnable=<Klasse>@<Hash>"; Lambdas heißen z.B. MainFrame$$Lambda$123/0x...
+            String param = event.paramString();
+            int von = param.indexOf("runnable=");
+            if (von >= 0) {
+                String runnable = param.substring(von + 9);
+                int bis = runnable.indexOf(',');
+                if (bis >= 0) runnable = runnable.substring(0, bis);
+                runnable = runnable.replaceAll("@[0-9a-f]+$", "").replaceAll("\\$\\$Lambda.*", " (Lambda)");
+                return "InvocationEvent " + runnable.substring(runnable.lastIndexOf('.') + 1);
+            }
+            return "InvocationEvent";
+        }
+        String param = event.paramString();
+        int komma = param.indexOf(',');
+        return event.getClass().getSimpleName() + " " + (komma >= 0 ? param.substring(0, komma) : param) + " (" + quelle + ")";
+    }
+
+    /** Ein laufendes Ereignis. */
+    private static final class Dispatch {
+        final AWTEvent event;
+        volatile long start; // Beginn des aktuellen Abschnitts
+        volatile long bisherNanos; // Dauer der früheren Abschnitte (vor verschachtelten Ereignissen bzw. Wartezeiten)
+        boolean pausiert; // Nur im EDT
+        volatile String kontext;
+        final List<StackTraceElement[]> stichproben = new ArrayList<>();
+
+        Dispatch(AWTEvent event, long start) {
+            this.event = event;
+            this.start = start;
+        }
+
+        String beschreibung() {
+            String k = kontext;
+            return k != null ? k : beschreibe(event);
+        }
+
+        /** @return Bisherige Dauer ohne verschachtelte Ereignisse und Wartezeiten. */
+        long dauerNanos(long jetzt) {
+            return bisherNanos + (pausiert ? 0 : jetzt - start);
+        }
+
+        /** Beendet den laufenden Abschnitt (verschachteltes Ereignis oder Warten beginnt). Im EDT. */
+        void unterbrechen(long jetzt) {
+            if (pausiert) return;
+            bisherNanos += jetzt - start;
+            pausiert = true;
+        }
+
+        /** Beginnt einen neuen Abschnitt. Im EDT. */
+        void fortsetzen(long jetzt) {
+            start = jetzt;
+            pausiert = false;
+        }
+    }
+
+    /** Misst jedes Ereignis; wird per {@link EventQueue#push} vor die System-EventQueue gesetzt. */
+    private final class UeberwachteEventQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            edt = Thread.currentThread(); // Der EDT kann nach einem Absturz neu gestartet werden
+            long start = System.nanoTime();
+            Dispatch aussen = laufend.peek();
+            if (aussen != null) aussen.unterbrechen(start); // Verschachtelte Event-Schleife (z.B. modaler Dialog)
+            Dispatch d = new Dispatch(event, start);
+            laufend.push(d);
+            aktuell = d;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                long ende = System.nanoTime();
+                laufend.pop();
+                // Zurück im äußeren Ereignis bzw. seiner Schleife; wartet diese wieder, pausiert getNextEvent erneut
+                if (aussen != null) aussen.fortsetzen(ende);
+                aktuell = aussen;
+                abschliessen(d, ende);
+            }
+        }
+
+        @Override
+        public AWTEvent getNextEvent() throws InterruptedException {
+            if (Thread.currentThread() == edt) {
+                Dispatch aussen = laufend.peek();
+                if (aussen != null) { // Verschachtelte Schleife wartet auf Eingaben: keine Blockade des äußeren Ereignisses
+                    aktuell = null;
+                    aussen.unterbrechen(System.nanoTime());
+                }
+            }
+            return super.getNextEvent();
+        }
+    }
+
+    /**
+     * Eine erkannte Blockade mit den währenddessen aufgenommenen Stacks des EDT.
+     */
+    public static final class Stall {
+        private final LocalDateTime zeitpunkt;
+        private final String ereignis;
+        private final long dauerMs;
+        private final List<StackTraceElement[]> stichproben;
+
+        Stall(LocalDateTime zeitpunkt, String ereignis, long dauerMs, List<StackTraceElement[]> stichproben) {
+            this.zeitpunkt = zeitpunkt;
+            this.ereignis = ereignis;
+            this.dauerMs = dauerMs;
+            this.stichproben = Collections.unmodifiableList(stichproben);
+        }
+
+        // --- Getter ---
+        public LocalDateTime getZeitpunkt() { return zeitpunkt; }
+        public String getEreignis() { return ereignis; }
+        public long getDauerMs() { return dauerMs; }
+        public List<StackTraceElement[]> getStichproben() { return stichproben; }
+
+        /**
+         * Ermittelt die Frames, in denen der EDT am häufigsten gesehen wurde. Je Stichprobe zählt der
+         * oberste Frame aus dem Anwendungscode, ersatzweise der oberste Frame überhaupt.
+         * @param anzahl Maximale Anzahl Frames.
+         * @return z.B. ["MainFrame.updatePdfComboBox:312 (80%)"]
+         */
+        public List<String> getHeisseFrames(int anzahl) {
+            Map<String, Integer> zaehler = new HashMap<>();
+            for (StackTraceElement[] stack : stichproben) {
+                String frame = anwendungsFrame(stack);
+                if (frame != null) zaehler.merge(frame, 1, Integer::sum);
+            }
+            List<Map.Entry<String, Integer>> sortiert = new ArrayList<>(zaehler.entrySet());
+            sortiert.sort((a, b) -> b.getValue() - a.getValue());
+            List<String> ergebnis = new ArrayList<>();
+            for (int i = 0; i < Math.min(anzahl, sortiert.size()); i++) {
+                Map.Entry<String, Integer> e = sortiert.get(i);
+                ergebnis.add(e.getKey() + " (" + (100 * e.getValue() / stichproben.size()) + "%)");
+            }
+            return ergebnis;
+        }
+
+        /**
+         * @return Die häufigsten Frames und alle unterschiedlichen Stacks mit ihrer Häufigkeit als Text.
+         */
+        public String alsText() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(ereignis).append(" - ").append(dauerMs).append(" ms, ").append(stichproben.size()).append(" Stichproben\n");
+            if (stichproben.isEmpty()) {
+                sb.append("\nKeine Stichproben (Blockade kürzer als ein Abtastintervall nach der Schwelle).\n");
+                return sb.toString();
+            }
+            sb.append("\nHäufigste Frames:\n");
+            for (String frame : getHeisseFrames(5)) sb.append("  ").append(frame).append('\n');
+            // Gleiche Stacks zusammenfassen (Reihenfolge des ersten Auftretens)
+            Map<List<StackTraceElement>, Integer> gleicheStacks = new LinkedHashMap<>();
+            for (StackTraceElement[] stack : stichproben) gleicheStacks.merge(Arrays.asList(stack), 1, Integer::sum);
+            for (Map.Entry<List<StackTraceElement>, Integer> e : gleicheStacks.entrySet()) {
+                sb.append("\n").append(e.getValue()).append("x:\n");
+                for (StackTraceElement frame : e.getKey()) {
+                    sb.append("    at ").append(frame).append('\n');
+                    if (frame.getClassName().startsWith(UeberwachteEventQueue.class.getName())) break; // Rest ist AWT-Infrastruktur
+                }
+            }
+            return sb.toString();
+        }
+
+        private static String anwendungsFrame(StackTraceElement[] stack) {
+            if (stack.length == 0) return null;
+            for (StackTraceElement frame : stack) {
+                if (frame.getClassName().startsWith(APP_PAKET) && !frame.getClassName().startsWith(EdtWaechter.class.getName())) {
+                    return kurz(frame);
+                }
+            }
+            return kurz(stack[0]);
+        }
+
+        private static String kurz(StackTraceElement frame) {
+            String klasse = frame.getClassName();
+            return klasse.substring(klasse.lastIndexOf('.') + 1) + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+        }
+    }
+}
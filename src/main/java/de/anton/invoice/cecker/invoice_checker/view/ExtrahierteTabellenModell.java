@@ -0,0 +1,201 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import de.anton.invoice.cecker.invoice_checker.model.ExtrahierteTabelle;
+import de.anton.invoice.cecker.invoice_checker.model.TabellenDiff;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * TableModel, das die Zellen direkt aus einer {@link ExtrahierteTabelle} liest, ohne sie zu kopieren.
+ * Zeile 0 der Daten liefert die Spaltennamen, die übrigen Zeilen den Tabelleninhalt.
+ * Ein Tabellenwechsel tauscht nur die Referenz aus und ist damit unabhängig von der Zeilenzahl;
+ * gelesen wird nur, was die JTable tatsächlich darstellt. Die Zellen sind nicht editierbar.
+ * <p>
+ * Ein neu extrahierter Stand derselben Tabelle kann mit {@link #aktualisiereTabelle} übernommen werden:
+ * Dann werden nur die geänderten Zeilen als eingefügt, geändert oder entfernt gemeldet (Auswahl, Scrollposition
+ * und Spaltenbreiten der JTable bleiben erhalten) und die geänderten Zellen bis zum nächsten Tabellenwechsel markiert.
+ */
+public class ExtrahierteTabellenModell extends AbstractTableModel {
+
+    private List<List<String>> daten = Collections.emptyList();
+    private int spaltenAnzahl = 0;
+    // Geänderte Spalten je Zeile seit der letzten Neuextraktion; Schlüssel ist die Zeilenliste selbst (Identität),
+    // damit die Markierung beim Einfügen/Entfernen anderer Zeilen und beim Sortieren an ihrer Zeile bleibt
+    private Map<List<String>, BitSet> markierteZellen = new IdentityHashMap<>();
+
+    /**
+     * Ergebnis von {@link #aktualisiereTabelle}: Anzahl geänderter, eingefügter und entfernter Zeilen.
+     */
+    public static final class Aktualisierung {
+        private final boolean vollstaendig;
+        private final int geaendert;
+        private final int eingefuegt;
+        private final int entfernt;
+
+        Aktualisierung(boolean vollstaendig, int geaendert, int eingefuegt, int entfernt) {
+            this.vollstaendig = vollstaendig;
+            this.geaendert = geaendert;
+            this.eingefuegt = eingefuegt;
+            this.entfernt = entfernt;
+        }
+
+        /** @return true, wenn sich Spalten oder Kopfzeile geändert haben und die Tabelle komplett neu aufgebaut wurde. */
+        public boolean isVollstaendig() { return vollstaendig; }
+        public int getGeaendert() { return geaendert; }
+        public int getEingefuegt() { return eingefuegt; }
+        public int getEntfernt() { return entfernt; }
+
+        @Override
+        public String toString() {
+            if (vollstaendig) return "Spalten geändert, Tabelle neu aufgebaut";
+            if (geaendert + eingefuegt + entfernt == 0) return "keine Änderungen";
+            return geaendert + " geändert, " + eingefuegt + " neu, " + entfernt + " entfernt";
+        }
+    }
+
+    /**
+     * Zeigt eine andere Tabelle an (oder keine). Muss im EDT aufgerufen werden.
+     * @param tabelle Die anzuzeigende Tabelle oder null.
+     */
+    public void setTabelle(ExtrahierteTabelle tabelle) {
+        markierteZellen = new IdentityHashMap<>();
+        if (tabelle == null || tabelle.getData() == null) {
+            daten = Collections.emptyList();
+            spaltenAnzahl = 0;
+        } else {
+            daten = tabelle.getData();
+            spaltenAnzahl = tabelle.getMaxSpalten(); // Beim Setzen der Daten berechnet, kein Durchlauf nötig
+        }
+        fireTableStructureChanged();
+    }
+
+    /**
+     * Übernimmt einen neuen Stand der angezeigten Tabelle (z.B. nach Neuextraktion mit anderen Parametern)
+     * und meldet nur die Unterschiede. Sind Spaltenzahl oder Kopfzeile anders, wird wie bei
+     * {@link #setTabelle} neu aufgebaut. Muss im EDT aufgerufen werden.
+     * @param tabelle Der neue Stand der Tabelle (nicht null).
+     * @return Was sich geändert hat.
+     */
+    public Aktualisierung aktualisiereTabelle(ExtrahierteTabelle tabelle) {
+        List<List<String>> neu = tabelle.getData() != null ? tabelle.getData() : Collections.emptyList();
+        if (daten.isEmpty() || neu.isEmpty() || tabelle.getMaxSpalten() != spaltenAnzahl
+                || !Objects.equals(daten.get(0), neu.get(0))) {
+            setTabelle(tabelle);
+            return new Aktualisierung(true, 0, 0, 0);
+        }
+
+        List<TabellenDiff.Abschnitt> abschnitte = TabellenDiff.vergleiche(daten, neu);
+        markierteZellen = new IdentityHashMap<>();
+        // Die Abschnitte schrittweise auf eine Kopie anwenden, damit jedes Event zum Stand des Modells passt.
+        // Die Kopfzeile ist gleich, Datenindex i entspricht also Modellzeile i - 1.
+        List<List<String>> arbeit = new ArrayList<>(daten);
+        daten = arbeit;
+        int geaendert = 0;
+        int eingefuegt = 0;
+        int entfernt = 0;
+        for (TabellenDiff.Abschnitt a : abschnitte) {
+            int position = a.getNeuStart(); // Davor entspricht die Kopie bereits dem neuen Stand
+            int gemeinsam = Math.min(a.getAltAnzahl(), a.getNeuAnzahl());
+            if (gemeinsam > 0) {
+                for (int i = position; i < position + gemeinsam; i++) {
+                    markiere(arbeit.get(i), neu.get(i));
+                    arbeit.set(i, neu.get(i));
+                }
+                fireTableRowsUpdated(position - 1, position + gemeinsam - 2);
+                geaendert += gemeinsam;
+            }
+            int von = position + gemeinsam;
+            if (a.getAltAnzahl() > gemeinsam) {
+                int anzahl = a.getAltAnzahl() - gemeinsam;
+                arbeit.subList(von, von + anzahl).clear();
+                fireTableRowsDeleted(von - 1, von + anzahl - 2);
+                entfernt += anzahl;
+            } else if (a.getNeuAnzahl() > gemeinsam) {
+                int anzahl = a.getNeuAnzahl() - gemeinsam;
+                List<List<String>> hinzu = neu.subList(von, von + anzahl);
+                for (List<String> zeile : hinzu) markiere(null, zeile);
+                arbeit.addAll(von, hinzu);
+                fireTableRowsInserted(von - 1, von + anzahl - 2);
+                eingefuegt += anzahl;
+            }
+        }
+        daten = neu; // Inhaltlich gleich mit der Kopie; ab jetzt wieder direkt aus der Tabelle lesen
+        return new Aktualisierung(false, geaendert, eingefuegt, entfernt);
+    }
+
+    /**
+     * @param rowIndex Modellzeile.
+     * @param columnIndex Modellspalte.
+     * @return true, wenn die Zelle bei der letzten {@link #aktualisiereTabelle Aktualisierung} neu oder geändert war.
+     */
+    public boolean istMarkiert(int rowIndex, int columnIndex) {
+        if (markierteZellen.isEmpty() || rowIndex + 1 >= daten.size()) return false;
+        BitSet spalten = markierteZellen.get(daten.get(rowIndex + 1));
+        return spalten != null && spalten.get(columnIndex);
+    }
+
+    /** Merkt die Spalten vor, in denen sich die neue Zeile von der alten unterscheidet (alle, wenn neu eingefügt). */
+    private void markiere(List<String> alt, List<String> neu) {
+        BitSet spalten = new BitSet(spaltenAnzahl);
+        for (int s = 0; s < spaltenAnzahl; s++) {
+            if (alt == null || !wert(alt, s).equals(wert(neu, s))) spalten.set(s);
+        }
+        if (!spalten.isEmpty()) markierteZellen.put(neu, spalten);
+    }
+
+    /**
+     * @return Die Rohdaten der angezeigten Tabelle inkl. Kopfzeile (nicht kopiert, nicht verändern).
+     *         Die Referenz bleibt gültig, auch wenn danach eine andere Tabelle angezeigt wird.
+     */
+    List<List<String>> getDaten() {
+        return daten;
+    }
+
+    @Override
+    public int getRowCount() {
+        return Math.max(0, daten.size() - 1); // Ohne Kopfzeile
+    }
+
+    @Override
+    public int getColumnCount() {
+        return spaltenAnzahl;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        String name = zelle(0, column);
+        return name.isEmpty() ? "Spalte " + (column + 1) : name;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return zelle(rowIndex + 1, columnIndex);
+    }
+
+    /**
+     * @param zeilenIndex Index in den Rohdaten (0 = Kopfzeile).
+     * @return Der Zellinhalt, "" für fehlende Zellen kürzerer Zeilen.
+     */
+    private String zelle(int zeilenIndex, int spalte) {
+        if (zeilenIndex >= daten.size()) return "";
+        return wert(daten.get(zeilenIndex), spalte);
+    }
+
+    private static String wert(List<String> zeile, int spalte) {
+        if (zeile == null || spalte >= zeile.size()) return "";
+        String wert = zeile.get(spalte);
+        return wert != null ? wert : "";
+    }
+}
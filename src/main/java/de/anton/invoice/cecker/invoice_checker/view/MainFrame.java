@@ -3,9 +3,11 @@ package de.anton.invoice.cecker.invoice_checker.view;
 // Benötigte Swing und AWT Klassen
 import javax.swing.*;
 import javax.swing.event.ChangeListener; // Für JSpinner Listener
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableColumn;
-import javax.swing.table.TableColumnModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
@@ -25,9 +27,9 @@ import de.anton.invoice.cecker.invoice_checker.model.ExtrahierteTabelle;
 import de.anton.invoice.cecker.invoice_checker.model.PdfDokument;
 
 // Hilfsklassen und Java Util
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
-import java.util.Vector;
 import java.util.Objects;
 
 
@@ -39,20 +41,35 @@ import java.util.Objects;
  */
 public class MainFrame extends JFrame implements PropertyChangeListener {
     private static final Logger log = LoggerFactory.getLogger(MainFrame.class);
+    private static final Color MARKIERUNG_FARBE = new Color(255, 243, 176); // Bei Neuextraktion geänderte Zellen
 
     private final AnwendungsModell model;
     // GUI Elemente
     private JButton ladePdfButton;
     private JButton exportExcelButton;
-    private JComboBox<PdfDokument> pdfComboBox;
+    private JButton auswertungButton;
+    private JButton diagnoseButton;
+    private DokumentListe dokumentListe;
+    private boolean dokumentListeAktualisierungGeplant = false; // Mehrere Bestandsänderungen zu einer Aktualisierung zusammenfassen
     private JComboBox<ExtrahierteTabelle> tabelleComboBox;
     private JTable datenTabelle;
-    private DefaultTableModel tabellenModell;
+    private ExtrahierteTabellenModell tabellenModell; // Liest direkt aus der ausgewählten Tabelle
+    private TabellenSpaltenAnpasser spaltenAnpasser; // Einmal für die JTable, cached die Breiten je Tabelle
+    private TabellenSortierer tabellenSortierer; // Sortierung und Zeilenfilter, berechnet im Hintergrund
+    private JTextField zeilenFilterFeld;
+    private Timer zeilenFilterTimer; // Filtert erst nach einer kurzen Eingabepause
     private JLabel statusLabel;
+    private SuchPanel suchPanel;
+    private SeitenVorschauPanel vorschauPanel;
     // Parameter Elemente
     private JComboBox<String> flavorComboBox;
     private JSpinner rowToleranceSpinner;
     private JLabel rowToleranceLabel;
+    // Aktuell angezeigte Tabelle und ausstehender Sprung zu einer Zeile (z.B. aus der Volltextsuche)
+    private ExtrahierteTabelle angezeigteTabelle;
+    private PdfDokument angezeigtesDokument; // Dokument der angezeigten Tabelle (erkennt Neuextraktionen)
+    private ExtrahierteTabelle sprungTabelle;
+    private int sprungZeile = -1;
 
 
     public MainFrame(AnwendungsModell model) {
@@ -86,8 +103,12 @@ public class MainFrame extends JFrame implements PropertyChangeListener {
         ladePdfButton = new JButton("PDF(s) laden");
         exportExcelButton = new JButton("Nach Excel exportieren");
         exportExcelButton.setEnabled(false); // Initial deaktiviert
+        auswertungButton = new JButton("Auswertung...");
+        auswertungButton.setEnabled(false); // Erst mit geladenen Dokumenten sinnvoll
+        diagnoseButton = new JButton("Diagnose...");
+        diagnoseButton.setToolTipText("Verarbeitungsstatistik und Blockaden der Oberfläche anzeigen");
 
-        pdfComboBox = new JComboBox<>();
+        dokumentListe = new DokumentListe();
         tabelleComboBox = new JComboBox<>();
         tabelleComboBox.setEnabled(false); // Initial deaktiviert
 
@@ -101,9 +122,40 @@ public class MainFrame extends JFrame implements PropertyChangeListener {
         rowToleranceLabel = new JLabel("Row Tol (Stream):"); // Label angepasst
 
         // Tabelle initialisieren
-        tabellenModell = new DefaultTableModel();
+        tabellenModell = new ExtrahierteTabellenModell();
         datenTabelle = new JTable(tabellenModell);
         datenTabelle.setAutoResizeMode(JTable.AUTO_RESIZE_OFF); // Horizontales Scrollen erlauben
+        spaltenAnpasser = new TabellenSpaltenAnpasser(datenTabelle);
+        spaltenAnpasser.setWidthFactor(2.0); // Großzügige Spalten wie bisher (doppelte Breite)
+        datenTabelle.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                // Bei der letzten Neuextraktion geänderte Zellen hervorheben
+                boolean markiert = tabellenModell.istMarkiert(table.convertRowIndexToModel(row), table.convertColumnIndexToModel(column));
+                if (!isSelected) setBackground(markiert ? MARKIERUNG_FARBE : table.getBackground());
+                return this;
+            }
+        });
+        tabellenSortierer = new TabellenSortierer(tabellenModell);
+        datenTabelle.setRowSorter(tabellenSortierer); // Klick auf den Spaltenkopf sortiert
+        tabellenSortierer.addRowSorterListener(e -> {
+            if (e.getType() == RowSorterEvent.Type.SORTED) zeigeZeilenInfo();
+        });
+        zeilenFilterFeld = new JTextField(20);
+        zeilenFilterFeld.setToolTipText("Nur Zeilen mit diesem Text anzeigen, oder Beträge vergleichen (z.B. \"> 100\" oder \"<= -5,50\")");
+        zeilenFilterTimer = new Timer(200, e -> tabellenSortierer.setFilterText(zeilenFilterFeld.getText()));
+        zeilenFilterTimer.setRepeats(false);
+        zeilenFilterFeld.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { zeilenFilterTimer.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { zeilenFilterTimer.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { zeilenFilterTimer.restart(); }
+        });
+
+        // Volltextsuche
+        suchPanel = new SuchPanel();
+        // Vorschau der PDF-Seite zur ausgewählten Tabelle
+        vorschauPanel = new SeitenVorschauPanel(model);
 
         // Statusleiste
         statusLabel = new JLabel("Bereit. Laden Sie PDFs, um zu starten.");
@@ -123,10 +175,11 @@ public class MainFrame extends JFrame implements PropertyChangeListener {
         topPanel.add(ladePdfButton);
         topPanel.add(Box.createHorizontalStrut(10)); // Abstand
         topPanel.add(exportExcelButton);
-        topPanel.add(Box.createHorizontalStrut(20)); // Größerer Abstand
-        topPanel.add(new JLabel("PDF:"));
-        topPanel.add(pdfComboBox);
         topPanel.add(Box.createHorizontalStrut(10));
+        topPanel.add(auswertungButton);
+        topPanel.add(Box.createHorizontalStrut(10));
+        topPanel.add(diagnoseButton);
+        topPanel.add(Box.createHorizontalStrut(20)); // Größerer Abstand
         topPanel.add(new JLabel("Tabelle:"));
         topPanel.add(tabelleComboBox);
 
@@ -145,20 +198,35 @@ public class MainFrame extends JFrame implements PropertyChangeListener {
         parameterPanel.add(rowToleranceSpinner);
         topPanel.add(parameterPanel);
 
-        // Hauptbereich für die Tabelle
-        JScrollPane tableScrollPane = new JScrollPane(datenTabelle);
+        // Hauptbereich für die Tabelle, links daneben Dokumentenliste und Suche, rechts die Seitenvorschau
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        filterPanel.add(new JLabel("Zeilen filtern:"));
+        filterPanel.add(zeilenFilterFeld);
+        JPanel tabellenPanel = new JPanel(new BorderLayout());
+        tabellenPanel.add(filterPanel, BorderLayout.NORTH);
+        tabellenPanel.add(new JScrollPane(datenTabelle), BorderLayout.CENTER);
+        JSplitPane tabelleUndVorschau = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, tabellenPanel, vorschauPanel);
+        tabelleUndVorschau.setResizeWeight(0.6); // Zusätzlicher Platz geht überwiegend an die Tabelle
+        tabelleUndVorschau.setOneTouchExpandable(true);
+        JSplitPane dokumenteUndSuche = new JSplitPane(JSplitPane.VERTICAL_SPLIT, dokumentListe, suchPanel);
+        dokumenteUndSuche.setResizeWeight(0.5);
+        JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, dokumenteUndSuche, tabelleUndVorschau);
+        splitPane.setDividerLocation(300);
+        splitPane.setOneTouchExpandable(true);
 
         // Gesamtlayout des Frames
         setLayout(new BorderLayout());
         add(topPanel, BorderLayout.NORTH); // Obere Leiste
-        add(tableScrollPane, BorderLayout.CENTER); // Tabelle in der Mitte
+        add(splitPane, BorderLayout.CENTER); // Suche und Tabelle in der Mitte
         add(statusLabel, BorderLayout.SOUTH); // Statusleiste unten
     }
 
     // --- Methoden für den Controller (um Listener zu registrieren) ---
     public void addLadeButtonListener(ActionListener listener) { ladePdfButton.addActionListener(listener); }
     public void addExportButtonListener(ActionListener listener) { exportExcelButton.addActionListener(listener); }
-    public void addPdfComboBoxListener(ActionListener listener) { pdfComboBox.addActionListener(listener); }
+    public void addAuswertungButtonListener(ActionListener listener) { auswertungButton.addActionListener(listener); }
+    public void addDiagnoseButtonListener(ActionListener listener) { diagnoseButton.addActionListener(listener); }
+    public void addDokumentAuswahlListener(ListSelectionListener listener) { dokumentListe.addAuswahlListener(listener); }
     public void addTabelleComboBoxListener(ActionListener listener) { tabelleComboBox.addActionListener(listener); }
     // Methoden zum Hinzufügen von Listenern für Parameter-Komponenten
     public void addFlavorComboBoxListener(ActionListener listener) { flavorComboBox.addActionListener(listener); }
@@ -167,62 +235,50 @@ public class MainFrame extends JFrame implements PropertyChangeListener {
     // --- Getter für Komponenten (damit Controller darauf zugreifen kann) ---
     public JComboBox<String> getFlavorComboBox() { return flavorComboBox; }
     public JSpinner getRowToleranceSpinner() { return rowToleranceSpinner; }
-    public JComboBox<PdfDokument> getPdfComboBox() { return pdfComboBox; }
+    public DokumentListe getDokumentListe() { return dokumentListe; }
     public JComboBox<ExtrahierteTabelle> getTabelleComboBox() { return tabelleComboBox; }
+    public SuchPanel getSuchPanel() { return suchPanel; }
 
     // --- Methoden zur Aktualisierung der UI-Komponenten (werden vom PropertyChangeListener aufgerufen) ---
 
     /**
-     * Aktualisiert die PDF-ComboBox mit der Liste der geladenen Dokumente aus dem Modell.
-     * Wählt automatisch das erste Element aus, wenn die Liste nicht leer ist.
+     * Fasst Änderungen des Dokumentenbestands zusammen: Während der Verarbeitung kommt je Dokument ein Event,
+     * die Liste wird aber nur einmal aktualisiert, nachdem alle bereits anstehenden Events abgearbeitet sind.
      */
-    private void updatePdfComboBox() {
-        log.info("MainFrame.updatePdfComboBox wird aufgerufen.");
-        Object selectedPdf = pdfComboBox.getSelectedItem(); // Aktuelle Auswahl merken
-
-        // Listener temporär entfernen
-        ActionListener[] pdfListeners = pdfComboBox.getActionListeners();
-        for (ActionListener l : pdfListeners) pdfComboBox.removeActionListener(l);
+    private void planeDokumentListeAktualisierung() {
+        if (dokumentListeAktualisierungGeplant) return;
+        dokumentListeAktualisierungGeplant = true;
+        SwingUtilities.invokeLater(() -> {
+            dokumentListeAktualisierungGeplant = false;
+            EdtWaechter.setzeKontext("updateDokumentListe");
+            updateDokumentListe();
+        });
+    }
 
-        pdfComboBox.removeAllItems(); // Leeren
+    /**
+     * Aktualisiert die Dokumentenliste mit den geladenen Dokumenten aus dem Modell (Änderungen an Ort und Stelle,
+     * die Auswahl bleibt erhalten). Ist im Modell noch kein Dokument ausgewählt, wird das erste ausgewählt.
+     */
+    private void updateDokumentListe() {
         List<PdfDokument> dokumente = model.getDokumente(); // Aktuelle Liste holen
-        log.debug("--> Fülle PDF ComboBox mit {} Dokumenten.", (dokumente != null ? dokumente.size() : 0));
-        boolean hatPdfElemente = false;
-        if (dokumente != null && !dokumente.isEmpty()) {
-            for (PdfDokument doc : dokumente) {
-                pdfComboBox.addItem(doc);
-            }
-            exportExcelButton.setEnabled(true); // Export ermöglichen
-            hatPdfElemente = true;
-        } else {
-            exportExcelButton.setEnabled(false); // Export nicht möglich
+        log.debug("MainFrame.updateDokumentListe: {} Dokumente.", dokumente.size());
+        dokumentListe.setDokumente(dokumente);
+        boolean hatDokumente = !dokumente.isEmpty();
+        exportExcelButton.setEnabled(hatDokumente); // Export nur mit Dokumenten möglich
+        auswertungButton.setEnabled(hatDokumente);
+
+        PdfDokument modelDoc = model.getAusgewaehltesDokument();
+        if (modelDoc != null && !dokumente.contains(modelDoc)) {
+            log.info("--> Ausgewähltes PDF nicht mehr vorhanden, lösche Auswahl im Modell.");
+            model.setAusgewaehltesDokument(null); // Löst Event aus -> updateTabelleComboBox etc.
+            modelDoc = null;
         }
-
-        // Auswahl wiederherstellen oder erste Auswahl treffen
-        boolean selectionSet = false;
-        if (selectedPdf instanceof PdfDokument && dokumente != null && dokumente.contains(selectedPdf)) {
-            // Wenn das vorher ausgewählte Element noch existiert, wähle es wieder aus
-            pdfComboBox.setSelectedItem(selectedPdf);
-            log.debug("--> PDF Auswahl wiederhergestellt: {}", selectedPdf);
-            selectionSet = true;
-        } else if (hatPdfElemente) {
-            // Wenn es Elemente gibt, aber die alte Auswahl weg ist (oder es keine gab), wähle das erste
-            PdfDokument erstesElement = dokumente.get(0);
-            pdfComboBox.setSelectedItem(erstesElement);
-            log.info("--> Setze erstes PDF '{}' als ausgewählt in ComboBox.", erstesElement.getSourcePdf());
-            // Das Modell wird über den Listener oder das initale Setzen im Modell selbst aktualisiert.
-            selectionSet = true;
-        }
-
-        // Wenn keine Auswahl gesetzt wurde (weil Liste leer), stelle sicher, dass Modellauswahl auch null ist
-        if (!selectionSet && model.getAusgewaehltesDokument() != null) {
-             log.info("--> Keine PDFs mehr in ComboBox, lösche Auswahl im Modell.");
-             model.setAusgewaehltesDokument(null); // Löst Event aus -> updateTabelleComboBox etc.
+        if (modelDoc == null && hatDokumente) {
+            log.info("--> Setze erstes PDF '{}' als ausgewählt.", dokumente.get(0).getSourcePdf());
+            model.setAusgewaehltesDokument(dokumente.get(0)); // Die Liste folgt über SELECTED_DOCUMENT_PROPERTY
+        } else {
+            dokumentListe.waehleAus(modelDoc);
         }
-
-        // Listener wieder hinzufügen
-        for (ActionListener l : pdfListeners) pdfComboBox.addActionListener(l);
-        log.debug("PDF ComboBox Update abgeschlossen.");
     }
 
     /**
@@ -287,7 +343,7 @@ public class MainFrame extends JFrame implements PropertyChangeListener {
 
     /**
      * Aktualisiert die JTable (datenTabelle) mit den Daten der aktuell im Modell ausgewählten Tabelle.
-     * Beinhaltet auch die automatische Anpassung und Verdopplung der Spaltenbreiten.
+     * Beinhaltet auch die automatische Anpassung der Spaltenbreiten.
      */
  // In MainFrame.java -> updateDatenTabelle
 
@@ -298,39 +354,56 @@ public class MainFrame extends JFrame implements PropertyChangeListener {
         if (tabellenDatenOpt.isPresent()) {
             List<List<String>> tabellenDaten = tabellenDatenOpt.get();
             log.debug("--> Tabellendaten erhalten ({} Zeilen)", tabellenDaten.size());
-            if (!tabellenDaten.isEmpty() && tabellenDaten.size() > 0) { // Zeige auch an, wenn nur Header da ist
-                Vector<String> headers = new Vector<>(tabellenDaten.get(0));
-                Vector<Vector<Object>> datenVektor = new Vector<>();
-                for (int i = 1; i < tabellenDaten.size(); i++) {
-                    datenVektor.add(new Vector<>(tabellenDaten.get(i)));
-                }
-                log.info("---> Setze Daten für Tabelle: {} Datenzeilen, {} Spalten (Header: {})",
-                         datenVektor.size(), headers.size(), headers);
-                // Setze Daten UND Header neu
-                tabellenModell.setDataVector(datenVektor, headers);
-                setStatus("Zeige Tabelle: " + model.getAusgewaehlteTabelle());
-
-                TabellenSpaltenAnpasser tca = new TabellenSpaltenAnpasser(datenTabelle);
-                tca.adjustColumns();
-                TableColumnModel columnModel = datenTabelle.getColumnModel();
-                for (int i = 0; i < columnModel.getColumnCount(); i++) {
-                    TableColumn column = columnModel.getColumn(i);
-                    int aktuelleBreite = column.getPreferredWidth();
-                    int neueBreite = aktuelleBreite * 2;
-                    column.setPreferredWidth(neueBreite);
+            if (!tabellenDaten.isEmpty()) { // Zeige auch an, wenn nur Header da ist
+                ExtrahierteTabelle tabelle = model.getAusgewaehlteTabelle();
+                if (istNeuerStandDerAngezeigtenTabelle(tabelle)) {
+                    // Neuextraktion derselben Tabelle: nur die Unterschiede melden, Spaltenbreiten,
+                    // Auswahl und Scrollposition bleiben erhalten
+                    spaltenAnpasser.setDynamicAdjustment(false);
+                    List<List<String>> alteDaten = tabellenModell.getDaten();
+                    ExtrahierteTabellenModell.Aktualisierung aenderung;
+                    try {
+                        aenderung = tabellenModell.aktualisiereTabelle(tabelle);
+                    } finally {
+                        spaltenAnpasser.setDynamicAdjustment(true);
+                    }
+                    log.info("---> Tabelle neu extrahiert: {}", aenderung);
+                    if (aenderung.isVollstaendig()) {
+                        spaltenAnpasser.adjustColumns();
+                    } else {
+                        // Neue Datenliste, gleiche Spalten: gemessene Breiten übernehmen statt neu messen
+                        spaltenAnpasser.transferDataWidths(alteDaten, tabellenModell.getDaten());
+                    }
+                    setStatus("Tabelle neu extrahiert (" + aenderung + "): " + tabelle);
+                } else {
+                    // Keine Kopie der Zeilen: das TableModel liest direkt aus der Tabelle
+                    tabellenModell.setTabelle(tabelle);
+                    log.info("---> Setze Daten für Tabelle: {} Datenzeilen, {} Spalten",
+                             tabellenModell.getRowCount(), tabellenModell.getColumnCount());
+                    setStatus("Zeige Tabelle: " + tabelle);
+
+                    // Aus dem Cache sofort, sonst Kopfbreiten jetzt und Datenbreiten nach der Messung im Hintergrund
+                    spaltenAnpasser.adjustColumns();
                 }
-                log.debug("---> Alle Spaltenbreiten nach Verdopplung angepasst.");
+                aktualisiereVorschau();
+                angezeigteTabelle = tabelle;
+                angezeigtesDokument = model.getAusgewaehltesDokument();
+                fuehreSprungAus(); // Evtl. ausstehenden Sprung aus der Suche ausführen
 
             } else {
                  log.warn("--> Tabellendaten sind komplett leer. Leere Tabelle.");
-                 // KORREKTUR: Explizit leere Daten und leere Header setzen
-                 tabellenModell.setDataVector(new Vector<>(), new Vector<>());
+                 tabellenModell.setTabelle(null);
+                 vorschauPanel.leeren();
+                 angezeigteTabelle = null;
+                 angezeigtesDokument = null;
                  setStatus("Ausgewählte Tabelle hat keine Daten oder Header: " + model.getAusgewaehlteTabelle());
             }
         } else {
             log.warn("--> Keine Tabellendaten vom Modell erhalten (Optional ist leer). Leere Tabelle.");
-            // KORREKTUR: Explizit leere Daten und leere Header setzen
-            tabellenModell.setDataVector(new Vector<>(), new Vector<>());
+            tabellenModell.setTabelle(null);
+            vorschauPanel.leeren();
+            angezeigteTabelle = null;
+            angezeigtesDokument = null;
             // Setze passende Statusmeldung
             if (model.getAusgewaehltesDokument() != null && model.getAusgewaehlteTabelle() != null) {
                  setStatus("Keine Daten verfügbar für Tabelle: " + model.getAusgewaehlteTabelle());
@@ -343,6 +416,75 @@ public class MainFrame extends JFrame implements PropertyChangeListener {
         }
     }
 
+    /**
+     * @return true, wenn die Tabelle der neu extrahierte Stand der angezeigten Tabelle ist
+     *         (gleiche Seite und gleicher Index in einem neu verarbeiteten Objekt desselben Dokuments).
+     */
+    private boolean istNeuerStandDerAngezeigtenTabelle(ExtrahierteTabelle tabelle) {
+        PdfDokument doc = model.getAusgewaehltesDokument();
+        return angezeigteTabelle != null && tabelle != angezeigteTabelle && angezeigteTabelle.equals(tabelle)
+                && angezeigtesDokument != null && angezeigtesDokument != doc && angezeigtesDokument.equals(doc);
+    }
+
+    /**
+     * Zeigt die PDF-Seite der ausgewählten Tabelle in der Vorschau (gerendert im Hintergrund).
+     */
+    private void aktualisiereVorschau() {
+        PdfDokument doc = model.getAusgewaehltesDokument();
+        ExtrahierteTabelle tabelle = model.getAusgewaehlteTabelle();
+        if (doc != null && tabelle != null && doc.getFullPath() != null && tabelle.getPage() > 0) {
+            vorschauPanel.zeigeSeite(Paths.get(doc.getFullPath()), tabelle.getPage());
+        } else {
+            vorschauPanel.leeren();
+        }
+    }
+
+    /**
+     * Markiert eine Zeile der Datentabelle und scrollt zu ihr. Wird die Tabelle gerade noch nicht
+     * angezeigt (Auswahl im Modell läuft noch), wird der Sprung nach dem nächsten Tabellen-Update ausgeführt.
+     * Muss im EDT aufgerufen werden.
+     * @param tabelle Die Tabelle, in der die Zeile liegt.
+     * @param zeilenIndex Index in {@link ExtrahierteTabelle#getData()} (0 = Kopfzeile).
+     */
+    public void springeZuZeile(ExtrahierteTabelle tabelle, int zeilenIndex) {
+        sprungTabelle = tabelle;
+        sprungZeile = zeilenIndex;
+        if (angezeigteTabelle == tabelle) {
+            fuehreSprungAus();
+        }
+    }
+
+    /**
+     * Führt einen ausstehenden Sprung aus, falls er die angezeigte Tabelle betrifft.
+     */
+    private void fuehreSprungAus() {
+        if (sprungTabelle == null || sprungTabelle != angezeigteTabelle) return;
+        int modellZeile = sprungZeile - 1; // Zeile 0 der Daten ist der Header der JTable
+        sprungTabelle = null;
+        sprungZeile = -1;
+        if (modellZeile < 0 || modellZeile >= tabellenModell.getRowCount()) return;
+        int tabellenZeile = datenTabelle.convertRowIndexToView(modellZeile); // Sortierung/Filter berücksichtigen
+        if (tabellenZeile < 0) {
+            setStatus("Die gesuchte Zeile ist durch den Zeilenfilter ausgeblendet.");
+        } else {
+            datenTabelle.setRowSelectionInterval(tabellenZeile, tabellenZeile);
+            datenTabelle.scrollRectToVisible(datenTabelle.getCellRect(tabellenZeile, 0, true));
+        }
+    }
+
+    /**
+     * Zeigt nach einer Sortierung/Filterung an, wie viele Zeilen sichtbar sind.
+     */
+    private void zeigeZeilenInfo() {
+        int sichtbar = datenTabelle.getRowCount();
+        int gesamt = tabellenModell.getRowCount();
+        if (!tabellenSortierer.getFilterText().isEmpty()) {
+            setStatus(sichtbar + " von " + gesamt + " Zeilen entsprechen dem Filter '" + tabellenSortierer.getFilterText() + "'.");
+        } else if (!tabellenSortierer.getSortKeys().isEmpty()) {
+            setStatus(gesamt + " Zeilen sortiert nach '" + tabellenModell.getColumnName(tabellenSortierer.getSortKeys().get(0).getColumn()) + "'.");
+        }
+    }
+
     /**
      * Setzt den Text im StatusLabel (stellt sicher, dass dies im EDT geschieht).
      * @param nachricht Die anzuzeigende Nachricht.
@@ -363,15 +505,18 @@ public class MainFrame extends JFrame implements PropertyChangeListener {
 
         // Führe GUI-Updates immer im Event Dispatch Thread aus
         SwingUtilities.invokeLater(() -> {
+             EdtWaechter.setzeKontext("propertyChange " + propertyName); // Auslöser für die Blockade-Erkennung
              switch (propertyName) {
                  case AnwendungsModell.DOCUMENTS_UPDATED_PROPERTY:
                      // Die Liste der Dokumente wurde geändert (hinzugefügt, entfernt, neu sortiert)
-                     log.info("-> propertyChange: Aktualisiere PDF ComboBox wegen '{}'.", propertyName);
-                     updatePdfComboBox(); // Aktualisiert die PDF-Auswahl
+                     log.debug("-> propertyChange: Aktualisiere Dokumentenliste wegen '{}'.", propertyName);
+                     planeDokumentListeAktualisierung(); // Aktualisiert die PDF-Auswahl (zusammengefasst)
                      break;
                  case AnwendungsModell.SELECTED_DOCUMENT_PROPERTY:
                      // Das im Modell ausgewählte PDF-Dokument hat sich geändert
                      log.info("-> propertyChange: Aktualisiere Tabellen ComboBox wegen '{}'.", propertyName);
+                     // Stelle sicher, dass die Dokumentenliste synchronisiert ist (Auswahl kann auch aus der Suche kommen)
+                     dokumentListe.waehleAus(model.getAusgewaehltesDokument());
                      updateTabelleComboBox(); // Aktualisiert die Liste der verfügbaren Tabellen
                      // Die Tabelle selbst wird durch das nachfolgende SELECTED_TABLE_PROPERTY Event aktualisiert
                      break;
@@ -388,6 +533,23 @@ public class MainFrame extends JFrame implements PropertyChangeListener {
                           for(ActionListener l:listeners)tabelleComboBox.addActionListener(l);
                      }
                      break;
+                 case AnwendungsModell.DUPLICATES_FOUND_PROPERTY:
+                     // Beim Einfügen eines Dokuments wurden (Beinahe-)Duplikate erkannt
+                     Object treffer = evt.getNewValue();
+                     if (treffer instanceof List && !((List<?>) treffer).isEmpty()) {
+                          log.info("-> propertyChange: Duplikat(e) erkannt: {}", treffer);
+                          setStatus("Mögliches Duplikat: " + ((List<?>) treffer).get(0)
+                                  + (((List<?>) treffer).size() > 1 ? " (+" + (((List<?>) treffer).size() - 1) + " weitere)" : ""));
+                     }
+                     break;
+                 case AnwendungsModell.BILLING_OVERLAP_PROPERTY:
+                     // Überschneidende Abrechnungszeiträume desselben Lieferanten (mögliche Doppelabrechnung)
+                     Object ueberschneidungen = evt.getNewValue();
+                     if (ueberschneidungen instanceof List && !((List<?>) ueberschneidungen).isEmpty()) {
+                          log.info("-> propertyChange: Zeitraum-Überschneidung(en): {}", ueberschneidungen);
+                          setStatus("Mögliche Doppelabrechnung: " + ((List<?>) ueberschneidungen).get(0));
+                     }
+                     break;
                  default:
                      // Ignoriere andere Events
                      log.debug("-> propertyChange: Ignoriere Event '{}'", propertyName);
@@ -0,0 +1,183 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import de.anton.invoice.cecker.invoice_checker.model.LatenzHistogramm;
+import de.anton.invoice.cecker.invoice_checker.model.PipelineStatistik;
+import de.anton.invoice.cecker.invoice_checker.model.StufenZeiten;
+import de.anton.invoice.cecker.invoice_checker.model.Verarbeitungsstufe;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+
+/**
+ * Live-Ansicht der {@link PipelineStatistik}: Warteschlange, Durchsatz, Laufzeiten je
+ * Verarbeitungsstufe (Tabelle und Histogramm der ausgewählten Stufe) und die langsamsten Dokumente.
+ * Liest die Statistik periodisch, solange die Aktualisierung gestartet ist.
+ */
+public class PipelineDashboard extends JPanel {
+    private static final int AKTUALISIERUNG_MS = 1000;
+    private static final Verarbeitungsstufe[] STUFEN = Verarbeitungsstufe.values();
+
+    private final PipelineStatistik statistik;
+    private final JLabel wartendLabel = new JLabel();
+    private final JLabel laufendLabel = new JLabel();
+    private final JLabel fertigLabel = new JLabel();
+    private final JLabel durchsatzLabel = new JLabel();
+    private final DefaultTableModel stufenModell = new NurLesenModell(new Object[]{"Stufe", "Anzahl", "Ø ms", "p50 ms", "p90 ms", "p99 ms", "Max ms"});
+    private final JTable stufenTabelle = new JTable(stufenModell);
+    private final HistogrammAnzeige histogrammAnzeige = new HistogrammAnzeige();
+    private final DefaultTableModel langsamsteModell;
+    private final Timer timer = new Timer(AKTUALISIERUNG_MS, e -> aktualisieren());
+
+    public PipelineDashboard(PipelineStatistik statistik) {
+        super(new BorderLayout(0, 5));
+        this.statistik = statistik;
+
+        JButton zuruecksetzenButton = new JButton("Zurücksetzen");
+        zuruecksetzenButton.addActionListener(e -> {
+            statistik.zuruecksetzen();
+            aktualisieren();
+        });
+        JPanel kopf = new JPanel(new FlowLayout(FlowLayout.LEFT, 15, 5));
+        kopf.add(wartendLabel);
+        kopf.add(laufendLabel);
+        kopf.add(fertigLabel);
+        kopf.add(durchsatzLabel);
+        kopf.add(new JLabel("Worker: " + statistik.getWorker()));
+        kopf.add(zuruecksetzenButton);
+
+        for (Verarbeitungsstufe stufe : STUFEN) stufenModell.addRow(new Object[]{stufe.getAnzeigeName(), 0L, 0L, 0L, 0L, 0L, 0L});
+        stufenTabelle.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        stufenTabelle.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) aktualisiereHistogramm();
+        });
+        int gesamt = Verarbeitungsstufe.GESAMT.ordinal();
+        stufenTabelle.setRowSelectionInterval(gesamt, gesamt);
+        JScrollPane stufenScroll = new JScrollPane(stufenTabelle);
+        stufenScroll.setPreferredSize(new Dimension(450, stufenTabelle.getRowHeight() * (STUFEN.length + 2)));
+        histogrammAnzeige.setBorder(BorderFactory.createTitledBorder("Verteilung der ausgewählten Stufe"));
+        JPanel stufenPanel = new JPanel(new BorderLayout(5, 0));
+        stufenPanel.add(stufenScroll, BorderLayout.WEST);
+        stufenPanel.add(histogrammAnzeige, BorderLayout.CENTER);
+
+        Object[] langsamsteSpalten = new Object[STUFEN.length + 1];
+        langsamsteSpalten[0] = "Datei";
+        for (int i = 0; i < STUFEN.length; i++) langsamsteSpalten[i + 1] = STUFEN[i].getAnzeigeName() + " (ms)";
+        langsamsteModell = new NurLesenModell(langsamsteSpalten);
+        JTable langsamsteTabelle = new JTable(langsamsteModell);
+        langsamsteTabelle.getColumnModel().getColumn(0).setPreferredWidth(250);
+        JScrollPane langsamsteScroll = new JScrollPane(langsamsteTabelle);
+        langsamsteScroll.setBorder(BorderFactory.createTitledBorder("Langsamste Dokumente"));
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, stufenPanel, langsamsteScroll);
+        splitPane.setResizeWeight(0.5);
+        add(kopf, BorderLayout.NORTH);
+        add(splitPane, BorderLayout.CENTER);
+        aktualisieren();
+    }
+
+    /** Startet die periodische Aktualisierung (z.B. beim Anzeigen). */
+    public void starteAktualisierung() {
+        aktualisieren();
+        timer.start();
+    }
+
+    /** Stoppt die periodische Aktualisierung (z.B. beim Schließen). */
+    public void stoppeAktualisierung() {
+        timer.stop();
+    }
+
+    /**
+     * Liest die aktuellen Kennzahlen. Muss im EDT aufgerufen werden.
+     */
+    public void aktualisieren() {
+        wartendLabel.setText("Wartend: " + statistik.getWartend());
+        laufendLabel.setText("Laufend: " + statistik.getLaufend());
+        fertigLabel.setText("Fertig: " + statistik.getFertig() + " (Fehler: " + statistik.getFehler() + ")");
+        durchsatzLabel.setText(String.format("Durchsatz: %.1f Dok./min", statistik.getDokumenteProMinute()));
+
+        // Zeilen der Stufentabelle sind fest, nur die Werte ändern sich (Auswahl bleibt erhalten)
+        for (int i = 0; i < STUFEN.length; i++) {
+            LatenzHistogramm h = statistik.getHistogramm(STUFEN[i]);
+            stufenModell.setValueAt(h.getAnzahl(), i, 1);
+            stufenModell.setValueAt(h.getMittelMs(), i, 2);
+            stufenModell.setValueAt(h.getPerzentilMs(50), i, 3);
+            stufenModell.setValueAt(h.getPerzentilMs(90), i, 4);
+            stufenModell.setValueAt(h.getPerzentilMs(99), i, 5);
+            stufenModell.setValueAt(h.getMaxMs(), i, 6);
+        }
+        aktualisiereHistogramm();
+
+        langsamsteModell.setRowCount(0);
+        for (PipelineStatistik.LangsamesDokument doc : statistik.getLangsamsteDokumente()) {
+            Object[] zeile = new Object[STUFEN.length + 1];
+            zeile[0] = doc.getDatei();
+            StufenZeiten zeiten = doc.getZeiten();
+            for (int i = 0; i < STUFEN.length; i++) zeile[i + 1] = zeiten.hat(STUFEN[i]) ? zeiten.getMillis(STUFEN[i]) : null;
+            langsamsteModell.addRow(zeile);
+        }
+    }
+
+    private void aktualisiereHistogramm() {
+        int zeile = stufenTabelle.getSelectedRow();
+        if (zeile < 0) zeile = Verarbeitungsstufe.GESAMT.ordinal();
+        histogrammAnzeige.setZaehler(statistik.getHistogramm(STUFEN[zeile]).getZaehler());
+    }
+
+    /** Nicht editierbares Tabellenmodell mit Zahlenspalten ab Spalte 1. */
+    private static class NurLesenModell extends DefaultTableModel {
+        NurLesenModell(Object[] spalten) {
+            super(spalten, 0);
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) { return false; }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex == 0 ? String.class : Long.class;
+        }
+    }
+
+    /** Einfaches Balkendiagramm über die Klassen eines {@link LatenzHistogramm}s. */
+    private static class HistogrammAnzeige extends JComponent {
+        private long[] zaehler = new long[LatenzHistogramm.getKlassenAnzahl()];
+
+        HistogrammAnzeige() {
+            setPreferredSize(new Dimension(400, 150));
+        }
+
+        void setZaehler(long[] zaehler) {
+            this.zaehler = zaehler;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Insets rand = getInsets();
+            int breite = getWidth() - rand.left - rand.right;
+            FontMetrics fm = g.getFontMetrics();
+            int beschriftung = fm.getHeight();
+            int hoehe = getHeight() - rand.top - rand.bottom - 2 * beschriftung;
+            if (breite <= 0 || hoehe <= 0) return;
+            long max = 1;
+            for (long z : zaehler) max = Math.max(max, z);
+            int balkenBreite = Math.max(1, breite / zaehler.length);
+            int basis = rand.top + beschriftung + hoehe;
+            for (int i = 0; i < zaehler.length; i++) {
+                int x = rand.left + i * balkenBreite;
+                int h = (int) (hoehe * zaehler[i] / max);
+                g.setColor(new Color(70, 130, 180));
+                g.fillRect(x + 1, basis - h, balkenBreite - 2, h);
+                g.setColor(getForeground());
+                if (zaehler[i] > 0) {
+                    String anzahl = Long.toString(zaehler[i]);
+                    g.drawString(anzahl, x + (balkenBreite - fm.stringWidth(anzahl)) / 2, basis - h - 2);
+                }
+                if (i % 2 == 0) { // Nur jede zweite Klasse beschriften, sonst überlappen die Texte
+                    g.drawString(LatenzHistogramm.getKlassenName(i), x + 1, basis + fm.getAscent());
+                }
+            }
+        }
+    }
+}
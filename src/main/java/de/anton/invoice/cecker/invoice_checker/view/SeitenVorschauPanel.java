@@ -0,0 +1,106 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import de.anton.invoice.cecker.invoice_checker.model.AnwendungsModell;
+import de.anton.invoice.cecker.invoice_checker.model.SeitenVorschau;
+
+import javax.swing.*;
+import java.awt.*;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Vorschau der PDF-Seite, auf der die ausgewählte Tabelle liegt, mit Blättern.
+ * Die Seiten werden vom Modell im Hintergrund gerendert und zwischengespeichert; das Panel
+ * zeigt nur das Ergebnis an und blockiert den EDT nie. Antworten auf überholte Anfragen
+ * (z.B. nach schnellem Blättern) werden verworfen.
+ */
+public class SeitenVorschauPanel extends JPanel {
+    private final AnwendungsModell model;
+    private final JLabel bildLabel = new JLabel("", SwingConstants.CENTER);
+    private final JLabel seitenLabel = new JLabel(" ", SwingConstants.CENTER);
+    private final JButton zurueckButton = new JButton("◀");
+    private final JButton weiterButton = new JButton("▶");
+
+    private Path pdfPfad;
+    private int seite;
+    private int seitenAnzahl;
+    private int anfrage = 0; // Nur die Antwort auf die letzte Anfrage wird angezeigt
+
+    public SeitenVorschauPanel(AnwendungsModell model) {
+        super(new BorderLayout(0, 3));
+        this.model = model;
+        setBorder(BorderFactory.createTitledBorder("PDF-Vorschau"));
+
+        zurueckButton.setToolTipText("Vorherige Seite");
+        weiterButton.setToolTipText("Nächste Seite");
+        zurueckButton.addActionListener(e -> blaettern(-1));
+        weiterButton.addActionListener(e -> blaettern(1));
+        JPanel navigation = new JPanel(new BorderLayout(5, 0));
+        navigation.add(zurueckButton, BorderLayout.WEST);
+        navigation.add(seitenLabel, BorderLayout.CENTER);
+        navigation.add(weiterButton, BorderLayout.EAST);
+        add(navigation, BorderLayout.NORTH);
+
+        bildLabel.setVerticalAlignment(SwingConstants.TOP);
+        JScrollPane scrollPane = new JScrollPane(bildLabel);
+        scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        add(scrollPane, BorderLayout.CENTER);
+        leeren();
+    }
+
+    /**
+     * Zeigt eine Seite an. Muss im EDT aufgerufen werden.
+     * @param pdfPfad Die PDF-Datei.
+     * @param seite Die Seite (1-basiert).
+     */
+    public void zeigeSeite(Path pdfPfad, int seite) {
+        if (pdfPfad.equals(this.pdfPfad) && seite == this.seite) return;
+        if (!pdfPfad.equals(this.pdfPfad)) seitenAnzahl = 0;
+        this.pdfPfad = pdfPfad;
+        this.seite = seite;
+        final int dieseAnfrage = ++anfrage;
+        seitenLabel.setText("Seite " + seite + (seitenAnzahl > 0 ? " / " + seitenAnzahl : "") + " (lädt...)");
+        aktualisiereButtons();
+        model.ladeSeitenVorschau(pdfPfad, seite).whenComplete((vorschau, fehler) -> SwingUtilities.invokeLater(() -> {
+            if (dieseAnfrage != anfrage) return; // Überholt
+            if (fehler != null) {
+                Throwable ursache = fehler instanceof CompletionException && fehler.getCause() != null ? fehler.getCause() : fehler;
+                bildLabel.setIcon(null);
+                bildLabel.setText("Vorschau nicht verfügbar: " + ursache.getMessage());
+                seitenLabel.setText("Seite " + seite);
+            } else {
+                seitenAnzahl = vorschau.getSeitenAnzahl();
+                bildLabel.setText("");
+                bildLabel.setIcon(new ImageIcon(vorschau.getBild()));
+                seitenLabel.setText("Seite " + seite + " / " + seitenAnzahl);
+            }
+            aktualisiereButtons();
+        }));
+    }
+
+    /**
+     * Entfernt die Vorschau (z.B. wenn keine Tabelle ausgewählt ist). Muss im EDT aufgerufen werden.
+     */
+    public void leeren() {
+        anfrage++;
+        pdfPfad = null;
+        seite = 0;
+        seitenAnzahl = 0;
+        bildLabel.setIcon(null);
+        bildLabel.setText("Keine Tabelle ausgewählt.");
+        seitenLabel.setText(" ");
+        aktualisiereButtons();
+    }
+
+    private void blaettern(int richtung) {
+        if (pdfPfad == null) return;
+        int ziel = seite + richtung;
+        if (ziel < 1 || (seitenAnzahl > 0 && ziel > seitenAnzahl)) return;
+        zeigeSeite(pdfPfad, ziel);
+    }
+
+    private void aktualisiereButtons() {
+        zurueckButton.setEnabled(pdfPfad != null && seite > 1);
+        weiterButton.setEnabled(pdfPfad != null && (seitenAnzahl == 0 || seite < seitenAnzahl));
+    }
+}
@@ -0,0 +1,61 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import de.anton.invoice.cecker.invoice_checker.model.SuchTreffer;
+
+import javax.swing.*;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListSelectionListener;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Panel für die Volltextsuche über alle geladenen Tabellen.
+ * Enthält das Suchfeld, eine Infozeile (Trefferzahl, Dauer) und die Trefferliste.
+ * Die eigentliche Suche wird vom Controller angestoßen (Suche während der Eingabe).
+ */
+public class SuchPanel extends JPanel {
+    private final JTextField suchFeld = new JTextField();
+    private final JLabel infoLabel = new JLabel(" ");
+    private final DefaultListModel<SuchTreffer> trefferModell = new DefaultListModel<>();
+    private final JList<SuchTreffer> trefferListe = new JList<>(trefferModell);
+
+    public SuchPanel() {
+        super(new BorderLayout(0, 3));
+        setBorder(BorderFactory.createTitledBorder("Suche in allen Tabellen"));
+
+        suchFeld.setToolTipText("Suchbegriffe eingeben (z.B. Artikelnummer). Das letzte Wort wird als Präfix gesucht.");
+        trefferListe.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Feste Zellhöhe: JList muss dann nicht jede Zelle vermessen (wichtig bei vielen Treffern)
+        trefferListe.setFixedCellHeight(trefferListe.getFontMetrics(trefferListe.getFont()).getHeight() + 4);
+        infoLabel.setFont(infoLabel.getFont().deriveFont(Font.ITALIC));
+
+        JPanel kopf = new JPanel(new BorderLayout(0, 2));
+        kopf.add(suchFeld, BorderLayout.NORTH);
+        kopf.add(infoLabel, BorderLayout.SOUTH);
+        add(kopf, BorderLayout.NORTH);
+        add(new JScrollPane(trefferListe), BorderLayout.CENTER);
+    }
+
+    // --- Methoden für den Controller ---
+    public void addSuchfeldListener(DocumentListener listener) { suchFeld.getDocument().addDocumentListener(listener); }
+    public void addTrefferAuswahlListener(ListSelectionListener listener) { trefferListe.addListSelectionListener(listener); }
+    public String getSuchbegriff() { return suchFeld.getText(); }
+    public SuchTreffer getAusgewaehlterTreffer() { return trefferListe.getSelectedValue(); }
+
+    /**
+     * Ersetzt die angezeigten Treffer. Muss im EDT aufgerufen werden.
+     * @param treffer Die neuen Treffer.
+     * @param maxTreffer Die angefragte Obergrenze (für den Hinweis "mehr als ...").
+     * @param dauerMs Die Dauer der Suche in Millisekunden.
+     */
+    public void zeigeTreffer(List<SuchTreffer> treffer, int maxTreffer, long dauerMs) {
+        trefferModell.clear();
+        trefferModell.addAll(treffer);
+        if (suchFeld.getText().isBlank()) {
+            infoLabel.setText(" ");
+        } else {
+            infoLabel.setText((treffer.size() >= maxTreffer ? "Mehr als " + maxTreffer : String.valueOf(treffer.size()))
+                    + " Treffer (" + dauerMs + " ms)");
+        }
+    }
+}
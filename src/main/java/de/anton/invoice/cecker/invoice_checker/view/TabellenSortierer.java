@@ -0,0 +1,444 @@
+package de.anton.invoice.cecker.invoice_checker.view;
+
+import de.anton.invoice.cecker.invoice_checker.model.BetragParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * RowSorter für das {@link ExtrahierteTabellenModell}, der Sortierung und Zeilenfilter im Hintergrund berechnet.
+ * <p>
+ * Sortiert wird nach einer Spalte (Klick auf den Spaltenkopf: aufsteigend, absteigend, unsortiert).
+ * Spalten, deren Zellen überwiegend Zahlen bzw. Beträge sind, werden numerisch sortiert, leere und
+ * nicht-numerische Zellen stehen dann immer am Ende. Der Filter sucht einen Text in allen Zellen einer Zeile;
+ * ein Vergleich wie "&gt; 100" oder "&lt;= -5,50" prüft stattdessen die Betragsspalten (Beträge mit zwei
+ * Nachkommastellen, also z.B. nicht Positionsnummern oder Mengen).
+ * <p>
+ * Filter-Bitmap und Sortierpermutation werden in einem Hintergrund-Thread auf primitiven Arrays berechnet und
+ * im EDT in einem Schritt übernommen; bis dahin zeigt die Tabelle die bisherige Reihenfolge. Ergebnisse
+ * überholter Berechnungen (neue Tabelle, neuer Filter, erneuter Klick) werden verworfen.
+ * <p>
+ * Einzelne eingefügte, entfernte oder geänderte Zeilen (z.B. nach einer Neuextraktion) verschieben nur die
+ * bestehende Zuordnung, neue Zeilen stehen vorläufig am Ende; die Neuberechnung folgt einmal für alle Änderungen.
+ */
+public class TabellenSortierer extends RowSorter<ExtrahierteTabellenModell> {
+    private static final Logger log = LoggerFactory.getLogger(TabellenSortierer.class);
+
+    /** Anteil der nicht-leeren Zellen, die Zahlen sein müssen, damit eine Spalte numerisch sortiert wird. */
+    private static final double ANTEIL_NUMERISCH = 0.8;
+    private static final Pattern VERGLEICH = Pattern.compile("^(<=|>=|<|>|=)\\s*(.+)$");
+
+    private final ExtrahierteTabellenModell modell;
+    // Nur im EDT verwendet; null = unsortiert und ungefiltert (Ansicht = Modell)
+    private int[] ansichtZuModell;
+    private int[] modellZuAnsicht;
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private String filterText = "";
+    private int berechnung = 0; // Laufende Nummer gegen veraltete Ergebnisse
+    private boolean berechnungLaeuft = false;
+    private boolean berechnungGeplant = false;
+
+    public TabellenSortierer(ExtrahierteTabellenModell modell) {
+        this.modell = modell;
+    }
+
+    @Override
+    public ExtrahierteTabellenModell getModel() {
+        return modell;
+    }
+
+    /** @return true, solange eine Sortierung oder Filterung im Hintergrund läuft. */
+    public boolean isBerechnungLaeuft() {
+        return berechnungLaeuft;
+    }
+
+    /** @return Der aktuelle Filtertext (leer = kein Filter). */
+    public String getFilterText() {
+        return filterText;
+    }
+
+    /**
+     * Setzt den Zeilenfilter; die gefilterte Ansicht erscheint nach der Berechnung im Hintergrund.
+     * Muss im EDT aufgerufen werden.
+     * @param text Gesuchter Text (Groß-/Kleinschreibung egal) oder Vergleich wie "&gt;= 100"; leer = kein Filter.
+     */
+    public void setFilterText(String text) {
+        String neu = text == null ? "" : text.trim();
+        if (neu.equals(filterText)) return;
+        filterText = neu;
+        berechne();
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        SortOrder neu = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column) {
+            SortOrder bisher = sortKeys.get(0).getSortOrder();
+            neu = bisher == SortOrder.ASCENDING ? SortOrder.DESCENDING
+                    : bisher == SortOrder.DESCENDING ? SortOrder.UNSORTED : SortOrder.ASCENDING;
+        }
+        setSortKeys(neu == SortOrder.UNSORTED ? null : Collections.singletonList(new SortKey(column, neu)));
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> neu = keys == null || keys.isEmpty() ? Collections.emptyList()
+                : Collections.singletonList(keys.get(0)); // Nur eine Sortierspalte
+        if (neu.equals(sortKeys)) return;
+        sortKeys = neu;
+        fireSortOrderChanged(); // Pfeil im Spaltenkopf sofort, Reihenfolge nach der Berechnung
+        berechne();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (ansichtZuModell == null) return index;
+        return ansichtZuModell[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (modellZuAnsicht == null) return index;
+        return index < 0 || index >= modellZuAnsicht.length ? -1 : modellZuAnsicht[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return ansichtZuModell == null ? modell.getRowCount() : ansichtZuModell.length;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return modell.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        // Andere Tabelle: Spalten haben eine andere Bedeutung, Sortierung aufheben, Filter beibehalten
+        if (!sortKeys.isEmpty()) {
+            sortKeys = Collections.emptyList();
+            fireSortOrderChanged();
+        }
+        zuruecksetzenUndBerechnen();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        zuruecksetzenUndBerechnen();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        if (ansichtZuModell == null) {
+            planeBerechnung();
+            return;
+        }
+        int anzahl = endRow - firstRow + 1;
+        int[] alt = ansichtZuModell;
+        int[] neu = Arrays.copyOf(alt, alt.length + anzahl);
+        for (int i = 0; i < alt.length; i++) {
+            if (neu[i] >= firstRow) neu[i] += anzahl;
+        }
+        for (int i = 0; i < anzahl; i++) neu[alt.length + i] = firstRow + i; // Vorläufig am Ende
+        uebernehmeVerschoben(alt, neu);
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        if (ansichtZuModell == null) {
+            planeBerechnung();
+            return;
+        }
+        int anzahl = endRow - firstRow + 1;
+        int[] alt = ansichtZuModell;
+        int[] neu = new int[alt.length];
+        int laenge = 0;
+        for (int modellZeile : alt) {
+            if (modellZeile < firstRow) neu[laenge++] = modellZeile;
+            else if (modellZeile > endRow) neu[laenge++] = modellZeile - anzahl;
+        }
+        uebernehmeVerschoben(alt, Arrays.copyOf(neu, laenge));
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        planeBerechnung(); // Zeilenzahl unverändert, die Zuordnung bleibt bis zur Neuberechnung gültig
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        planeBerechnung();
+    }
+
+    /** Die Zuordnung passt nicht mehr zum Modell: sofort auf die Modellreihenfolge, dann neu berechnen. */
+    private void zuruecksetzenUndBerechnen() {
+        ansichtZuModell = null;
+        modellZuAnsicht = null;
+        berechne();
+    }
+
+    /**
+     * Übernimmt eine verschobene Zuordnung nach eingefügten/entfernten Modellzeilen und plant die Neuberechnung.
+     */
+    private void uebernehmeVerschoben(int[] alt, int[] neu) {
+        ansichtZuModell = neu;
+        int[] umkehrung = new int[modell.getRowCount()];
+        Arrays.fill(umkehrung, -1);
+        for (int i = 0; i < neu.length; i++) umkehrung[neu[i]] = i;
+        modellZuAnsicht = umkehrung;
+        fireRowSorterChanged(alt);
+        planeBerechnung();
+    }
+
+    /**
+     * Berechnet einmal neu, nachdem alle gerade anstehenden Modelländerungen gemeldet wurden
+     * (z.B. alle Abschnitte einer Neuextraktion).
+     */
+    private void planeBerechnung() {
+        if (berechnungGeplant) return;
+        berechnungGeplant = true;
+        berechnung++; // Laufende Berechnungen sind überholt
+        SwingUtilities.invokeLater(() -> {
+            berechnungGeplant = false;
+            berechne();
+        });
+    }
+
+    private void berechne() {
+        final int dieseBerechnung = ++berechnung;
+        final List<List<String>> daten = modell.getDaten();
+        final int spalten = modell.getColumnCount();
+        final SortKey key = sortKeys.isEmpty() ? null : sortKeys.get(0);
+        final String filter = filterText;
+        if (key == null && filter.isEmpty()) {
+            berechnungLaeuft = false;
+            uebernehme(null);
+            return;
+        }
+        berechnungLaeuft = true;
+        new SwingWorker<int[], Void>() {
+            private long dauerMs;
+
+            @Override
+            protected int[] doInBackground() {
+                long start = System.nanoTime();
+                int[] ergebnis = berechneAnsicht(daten, spalten, key, filter);
+                dauerMs = (System.nanoTime() - start) / 1_000_000;
+                return ergebnis;
+            }
+
+            @Override
+            protected void done() {
+                // Nur übernehmen, wenn inzwischen nichts anderes angefordert wurde und die Daten noch dieselben sind
+                if (dieseBerechnung != berechnung || modell.getDaten() != daten) return;
+                berechnungLaeuft = false;
+                try {
+                    int[] ergebnis = get();
+                    log.debug("--> Sortierung/Filter für {} Zeilen berechnet in {} ms ({} sichtbar)", daten.size() - 1, dauerMs, ergebnis.length);
+                    uebernehme(ergebnis);
+                } catch (Exception ex) {
+                    log.error("Fehler beim Sortieren/Filtern der Tabelle: {}", ex.getMessage(), ex);
+                    uebernehme(null);
+                }
+            }
+        }.execute();
+    }
+
+    /** Übernimmt eine neue Zuordnung im EDT und informiert die JTable. */
+    private void uebernehme(int[] neueAnsicht) {
+        if (neueAnsicht == null && ansichtZuModell == null) return; // Ansicht ist bereits die Modellreihenfolge
+        int[] alt = ansichtZuModell != null ? ansichtZuModell : identitaet(modell.getRowCount());
+        ansichtZuModell = neueAnsicht;
+        if (neueAnsicht == null) {
+            modellZuAnsicht = null;
+        } else {
+            int[] umkehrung = new int[modell.getRowCount()];
+            Arrays.fill(umkehrung, -1);
+            for (int i = 0; i < neueAnsicht.length; i++) umkehrung[neueAnsicht[i]] = i;
+            modellZuAnsicht = umkehrung;
+        }
+        fireRowSorterChanged(alt);
+    }
+
+    // --- Berechnung im Hintergrund (nur lokale Daten, kein Zugriff auf Felder) ---
+
+    /**
+     * @return Modellzeilen in Ansichtsreihenfolge (nur die, die den Filter erfüllen).
+     */
+    static int[] berechneAnsicht(List<List<String>> daten, int spalten, SortKey key, String filter) {
+        int zeilen = Math.max(0, daten.size() - 1); // Zeile 0 ist die Kopfzeile
+        boolean[] numerisch = new boolean[spalten];
+        double[][] zahlen = new double[spalten][];
+        Matcher vergleich = VERGLEICH.matcher(filter);
+        double vergleichsWert = Double.NaN;
+        if (vergleich.matches()) {
+            vergleichsWert = BetragParser.parse(vergleich.group(2).trim());
+        }
+        boolean numerischerFilter = !Double.isNaN(vergleichsWert);
+
+        // Zahlenwerte nur für die Spalten bestimmen, die gebraucht werden
+        boolean[] betragsSpalte = new boolean[spalten];
+        for (int s = 0; s < spalten; s++) {
+            if (numerischerFilter || (key != null && key.getColumn() == s)) {
+                zahlen[s] = parseSpalte(daten, s, zeilen);
+                numerisch[s] = istNumerisch(daten, s, zahlen[s]);
+                if (numerischerFilter && numerisch[s]) betragsSpalte[s] = istBetragsSpalte(daten, s, zeilen);
+            }
+        }
+
+        // Filter-Bitmap
+        BitSet sichtbar = new BitSet(zeilen);
+        if (filter.isEmpty()) {
+            sichtbar.set(0, zeilen);
+        } else if (numerischerFilter) {
+            String operator = vergleich.group(1);
+            for (int z = 0; z < zeilen; z++) {
+                for (int s = 0; s < spalten; s++) {
+                    if (betragsSpalte[s] && erfuellt(zahlen[s][z], operator, vergleichsWert)) {
+                        sichtbar.set(z);
+                        break;
+                    }
+                }
+            }
+        } else {
+            for (int z = 0; z < zeilen; z++) {
+                List<String> zeile = daten.get(z + 1);
+                if (zeile == null) continue;
+                for (String zelle : zeile) {
+                    if (zelle != null && enthaeltOhneGrossKlein(zelle, filter)) {
+                        sichtbar.set(z);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int[] ansicht = new int[sichtbar.cardinality()];
+        for (int z = sichtbar.nextSetBit(0), i = 0; z >= 0; z = sichtbar.nextSetBit(z + 1)) ansicht[i++] = z;
+        if (key == null || key.getSortOrder() == SortOrder.UNSORTED || key.getColumn() >= spalten) return ansicht;
+
+        // Sortierpermutation (stabil; leere bzw. nicht-numerische Werte unabhängig von der Richtung am Ende)
+        final boolean absteigend = key.getSortOrder() == SortOrder.DESCENDING;
+        final int spalte = key.getColumn();
+        IndexVergleich vergleicher;
+        if (numerisch[spalte]) {
+            final double[] werte = zahlen[spalte];
+            vergleicher = (a, b) -> {
+                double x = werte[a], y = werte[b];
+                if (Double.isNaN(x) || Double.isNaN(y)) return Double.isNaN(x) ? (Double.isNaN(y) ? 0 : 1) : -1;
+                return absteigend ? Double.compare(y, x) : Double.compare(x, y);
+            };
+        } else {
+            final String[] werte = new String[zeilen];
+            for (int z = 0; z < zeilen; z++) werte[z] = zelle(daten, z, spalte);
+            vergleicher = (a, b) -> {
+                String x = werte[a], y = werte[b];
+                if (x.isEmpty() || y.isEmpty()) return x.isEmpty() ? (y.isEmpty() ? 0 : 1) : -1;
+                int c = x.compareToIgnoreCase(y);
+                return absteigend ? -c : c;
+            };
+        }
+        sortiere(ansicht, vergleicher);
+        return ansicht;
+    }
+
+    /** Vergleich zweier Modellzeilen (ohne Boxing). */
+    interface IndexVergleich {
+        int vergleiche(int a, int b);
+    }
+
+    /** Stabiler Mergesort auf einem int-Array. */
+    static void sortiere(int[] indizes, IndexVergleich vergleich) {
+        int[] puffer = new int[indizes.length];
+        int[] quelle = indizes, ziel = puffer;
+        for (int breite = 1; breite < indizes.length; breite *= 2) {
+            for (int links = 0; links < indizes.length; links += 2 * breite) {
+                int mitte = Math.min(links + breite, indizes.length);
+                int rechts = Math.min(links + 2 * breite, indizes.length);
+                int i = links, j = mitte, k = links;
+                while (i < mitte && j < rechts) ziel[k++] = vergleich.vergleiche(quelle[j], quelle[i]) < 0 ? quelle[j++] : quelle[i++];
+                while (i < mitte) ziel[k++] = quelle[i++];
+                while (j < rechts) ziel[k++] = quelle[j++];
+            }
+            int[] tausch = quelle;
+            quelle = ziel;
+            ziel = tausch;
+        }
+        if (quelle != indizes) System.arraycopy(quelle, 0, indizes, 0, indizes.length);
+    }
+
+    private static double[] parseSpalte(List<List<String>> daten, int spalte, int zeilen) {
+        double[] werte = new double[zeilen];
+        for (int z = 0; z < zeilen; z++) werte[z] = BetragParser.parse(zelle(daten, z, spalte));
+        return werte;
+    }
+
+    private static boolean istNumerisch(List<List<String>> daten, int spalte, double[] werte) {
+        int nichtLeer = 0, zahlen = 0;
+        for (int z = 0; z < werte.length; z++) {
+            if (zelle(daten, z, spalte).isEmpty()) continue;
+            nichtLeer++;
+            if (!Double.isNaN(werte[z])) zahlen++;
+        }
+        return nichtLeer > 0 && zahlen >= ANTEIL_NUMERISCH * nichtLeer;
+    }
+
+    private static boolean istBetragsSpalte(List<List<String>> daten, int spalte, int zeilen) {
+        int nichtLeer = 0, betraege = 0;
+        for (int z = 0; z < zeilen; z++) {
+            String wert = zelle(daten, z, spalte);
+            if (wert.isEmpty()) continue;
+            nichtLeer++;
+            if (BetragParser.istBetrag(wert)) betraege++;
+        }
+        return nichtLeer > 0 && betraege >= ANTEIL_NUMERISCH * nichtLeer;
+    }
+
+    private static boolean erfuellt(double wert, String operator, double vergleichsWert) {
+        if (Double.isNaN(wert)) return false;
+        switch (operator) {
+            case "<": return wert < vergleichsWert;
+            case "<=": return wert <= vergleichsWert;
+            case ">": return wert > vergleichsWert;
+            case ">=": return wert >= vergleichsWert;
+            default: return wert == vergleichsWert;
+        }
+    }
+
+    private static boolean enthaeltOhneGrossKlein(String text, String teil) {
+        int max = text.length() - teil.length();
+        for (int i = 0; i <= max; i++) {
+            if (text.regionMatches(true, i, teil, 0, teil.length())) return true;
+        }
+        return false;
+    }
+
+    /** @param zeile Modellzeile (ohne Kopfzeile). */
+    private static String zelle(List<List<String>> daten, int zeile, int spalte) {
+        List<String> z = daten.get(zeile + 1);
+        if (z == null || spalte >= z.size()) return "";
+        String wert = z.get(spalte);
+        return wert != null ? wert : "";
+    }
+
+    private static int[] identitaet(int n) {
+        int[] ergebnis = new int[n];
+        for (int i = 0; i < n; i++) ergebnis[i] = i;
+        return ergebnis;
+    }
+}
@@ -7,14 +7,28 @@ import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.beans.*;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Class to manage the widths of columns in a JTable.
  * Original source: https://tips4java.wordpress.com/2008/11/10/table-column-adjuster/
  * Author: Rob Camick
  * Modified slightly for integration.
+ * <p>
+ * Modifications for large tables: data widths are estimated from a bounded sample of rows
+ * (first/last rows plus the rows with the longest text per column) instead of rendering every cell.
+ * For {@link ExtrahierteTabellenModell} the sample is measured off the EDT from the raw text with
+ * the table's FontMetrics, and the result is cached per table (LRU), so switching back to a table
+ * is a lookup. The cache only holds weak references to the table data, so tables that are no longer
+ * shown can still be collected. An instance is meant to be created once per JTable and reused.
  *
  * German Class Name: TabellenSpaltenAnpasser
  */
@@ -27,6 +41,25 @@ public class TabellenSpaltenAnpasser implements PropertyChangeListener, Componen
     private boolean isDynamicAdjustment;
     private Map<TableColumn, Integer> columnSizes = new HashMap<>();
 
+    /** Rows at the start and at the end of the table that are always measured. */
+    private static final int SAMPLE_EDGE_ROWS = 50;
+    /** Per column, the rows with the longest text that are measured in addition. */
+    private static final int SAMPLE_LONGEST_ROWS = 20;
+    /** Number of tables whose data widths are kept. */
+    private static final int CACHE_SIZE = 32;
+    /** Border of the default cell renderer (1px left and right). */
+    private static final int RENDERER_PADDING = 2;
+
+    private double widthFactor = 1.0;
+    private WeakIdentityKey pendingKey; // Table data currently measured in the background
+    private final ReferenceQueue<Object> collectedData = new ReferenceQueue<>();
+    private final Map<WeakIdentityKey, int[]> dataWidthCache = new LinkedHashMap<WeakIdentityKey, int[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<WeakIdentityKey, int[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
     /**
      * Specify the table and use default spacing
      * @param table the table to adjust columns for
@@ -53,12 +86,164 @@ public class TabellenSpaltenAnpasser implements PropertyChangeListener, Componen
 
     /**
      * Adjust the widths of all columns in the table.
+     * For an {@link ExtrahierteTabellenModell} the data widths come from the cache or are measured
+     * in the background; the header widths are applied immediately. Must be called on the EDT.
      */
     public void adjustColumns() {
         TableColumnModel tcm = table.getColumnModel();
-        for (int i = 0; i < tcm.getColumnCount(); i++) {
-            adjustColumn(i);
+        if (!isColumnDataIncluded || !(table.getModel() instanceof ExtrahierteTabellenModell)) {
+            for (int i = 0; i < tcm.getColumnCount(); i++) {
+                adjustColumn(i);
+            }
+            return;
+        }
+
+        List<List<String>> data = ((ExtrahierteTabellenModell) table.getModel()).getDaten();
+        expungeCollected();
+        final WeakIdentityKey key = new WeakIdentityKey(data, collectedData);
+        int[] cached = dataWidthCache.get(key);
+        if (cached != null && cached.length == tcm.getColumnCount()) {
+            applyDataWidths(cached);
+            return;
+        }
+        if (key.equals(pendingKey)) return; // Already being measured, the result will be applied
+        pendingKey = key;
+
+        // Header first, data widths follow as soon as the background measurement is done
+        applyDataWidths(new int[tcm.getColumnCount()]);
+        final FontMetrics fontMetrics = table.getFontMetrics(table.getFont());
+        final int extra = RENDERER_PADDING + table.getIntercellSpacing().width;
+        final int columns = tcm.getColumnCount();
+        new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() {
+                return measureDataWidths(data, columns, fontMetrics, extra);
+            }
+
+            @Override
+            protected void done() {
+                if (key.equals(pendingKey)) pendingKey = null;
+                try {
+                    int[] widths = get();
+                    dataWidthCache.put(key, widths);
+                    // Only apply if the table still shows the measured data
+                    if (table.getModel() instanceof ExtrahierteTabellenModell
+                            && ((ExtrahierteTabellenModell) table.getModel()).getDaten() == data
+                            && table.getColumnModel().getColumnCount() == widths.length) {
+                        applyDataWidths(widths);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // Keep the header widths
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Keeps the measured data widths when the model replaced its data list with a new version of the
+     * same table (same columns, only rows changed), so the next adjustment does not measure again and
+     * reset the widths. Does nothing if the old data has not been measured.
+     * @param oldData the data list shown before the update
+     * @param newData the data list shown now
+     */
+    public void transferDataWidths(List<List<String>> oldData, List<List<String>> newData) {
+        if (oldData == newData) return;
+        expungeCollected();
+        int[] widths = dataWidthCache.remove(new WeakIdentityKey(oldData, null));
+        if (widths != null) dataWidthCache.put(new WeakIdentityKey(newData, collectedData), widths);
+    }
+
+    /** Removes the entries of table data that has been garbage collected. */
+    private void expungeCollected() {
+        Reference<?> ref;
+        while ((ref = collectedData.poll()) != null) {
+            dataWidthCache.remove(ref);
+        }
+    }
+
+    /**
+     * Sets each column to the larger of its header width and the given data width.
+     */
+    private void applyDataWidths(int[] dataWidths) {
+        TableColumnModel tcm = table.getColumnModel();
+        for (int i = 0; i < tcm.getColumnCount() && i < dataWidths.length; i++) {
+            if (!tcm.getColumn(i).getResizable()) continue;
+            updateTableColumn(i, Math.max(getColumnHeaderWidth(i), dataWidths[i]));
+        }
+    }
+
+    /**
+     * Measures the sampled rows of raw table data (row 0 is the header and is skipped).
+     * Safe to call off the EDT: only reads the data and uses the given FontMetrics.
+     * @return the data width per column
+     */
+    static int[] measureDataWidths(List<List<String>> data, int columns, FontMetrics fontMetrics, int extra) {
+        int[] widths = new int[columns];
+        int rows = data.size() - 1;
+        if (rows <= 0) return widths;
+        for (int row : sampleRows(data, columns)) {
+            List<String> cells = data.get(row);
+            if (cells == null) continue;
+            for (int c = 0; c < columns && c < cells.size(); c++) {
+                String text = cells.get(c);
+                if (text == null || text.isEmpty()) continue;
+                widths[c] = Math.max(widths[c], fontMetrics.stringWidth(text) + extra);
+            }
+        }
+        return widths;
+    }
+
+    /**
+     * Selects the rows to measure: the first and last {@value #SAMPLE_EDGE_ROWS} rows and,
+     * per column, the {@value #SAMPLE_LONGEST_ROWS} rows with the longest text (by length).
+     * @return indices into data (without the header row 0)
+     */
+    static List<Integer> sampleRows(List<List<String>> data, int columns) {
+        int last = data.size() - 1;
+        List<Integer> sample = new ArrayList<>();
+        if (last < 1) return sample;
+        if (last <= 2 * SAMPLE_EDGE_ROWS + SAMPLE_LONGEST_ROWS) { // Small table: all rows
+            for (int r = 1; r <= last; r++) sample.add(r);
+            return sample;
+        }
+        for (int r = 1; r <= SAMPLE_EDGE_ROWS; r++) sample.add(r);
+        for (int r = last - SAMPLE_EDGE_ROWS + 1; r <= last; r++) sample.add(r);
+
+        // Per column, keep the rows with the longest text (small sorted arrays, no boxing per row)
+        int[][] topRows = new int[columns][SAMPLE_LONGEST_ROWS];
+        int[][] topLengths = new int[columns][SAMPLE_LONGEST_ROWS];
+        for (int r = SAMPLE_EDGE_ROWS + 1; r <= last - SAMPLE_EDGE_ROWS; r++) {
+            List<String> cells = data.get(r);
+            if (cells == null) continue;
+            for (int c = 0; c < columns && c < cells.size(); c++) {
+                String text = cells.get(c);
+                int length = text != null ? text.length() : 0;
+                int[] lengths = topLengths[c];
+                if (length <= lengths[SAMPLE_LONGEST_ROWS - 1]) continue;
+                int pos = SAMPLE_LONGEST_ROWS - 1;
+                while (pos > 0 && lengths[pos - 1] < length) {
+                    lengths[pos] = lengths[pos - 1];
+                    topRows[c][pos] = topRows[c][pos - 1];
+                    pos--;
+                }
+                lengths[pos] = length;
+                topRows[c][pos] = r;
+            }
         }
+        for (int c = 0; c < columns; c++) {
+            for (int i = 0; i < SAMPLE_LONGEST_ROWS && topLengths[c][i] > 0; i++) sample.add(topRows[c][i]);
+        }
+        return sample;
+    }
+
+    /**
+     * Factor applied to every calculated width (including spacing), e.g. 2.0 for extra room.
+     * @param widthFactor the factor, at least 1
+     */
+    public void setWidthFactor(double widthFactor) {
+        this.widthFactor = Math.max(1.0, widthFactor);
     }
 
     /**
@@ -113,7 +298,10 @@ public class TabellenSpaltenAnpasser implements PropertyChangeListener, Componen
         int preferredWidth = 0;
         int maxWidth = table.getColumnModel().getColumn(column).getMaxWidth();
 
-        for (int row = 0; row < table.getRowCount(); row++) {
+        // Only the first and last rows: rendering every cell of a large table stalls the EDT
+        int rowCount = table.getRowCount();
+        for (int row = 0; row < rowCount; row++) {
+            if (row == SAMPLE_EDGE_ROWS && rowCount > 2 * SAMPLE_EDGE_ROWS) row = rowCount - SAMPLE_EDGE_ROWS;
             preferredWidth = Math.max(preferredWidth, getCellDataWidth(row, column));
             // We've exceeded the maximum width, no need to check other rows
             if (preferredWidth >= maxWidth)
@@ -144,7 +332,7 @@ public class TabellenSpaltenAnpasser implements PropertyChangeListener, Componen
         final TableColumn tableColumn = table.getColumnModel().getColumn(column);
         if (!tableColumn.getResizable()) return;
 
-        width += spacing;
+        width = (int) Math.round((width + spacing) * widthFactor);
 
         // Don't shrink the column width if isOnlyAdjustLarger is true
         if (isOnlyAdjustLarger) {
@@ -263,9 +451,36 @@ public class TabellenSpaltenAnpasser implements PropertyChangeListener, Componen
          table.removePropertyChangeListener(this);
          table.removeComponentListener(this);
          removeTableModelListener();
+         dataWidthCache.clear();
     }
     // </editor-fold>
 
+    /**
+     * Cache key comparing the table data by identity (List.equals would compare all cells).
+     * Holds the data only weakly; a collected key is only equal to itself.
+     */
+    private static final class WeakIdentityKey extends WeakReference<Object> {
+        private final int hash;
+
+        WeakIdentityKey(Object ref, ReferenceQueue<Object> queue) {
+            super(ref, queue);
+            this.hash = System.identityHashCode(ref);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof WeakIdentityKey)) return false;
+            Object ref = get();
+            return ref != null && ref == ((WeakIdentityKey) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
 
     // <editor-fold desc="ComponentListener implementation">
     @Override
@@ -0,0 +1,63 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BetragParserTest {
+    private static final double GENAUIGKEIT = 1e-9;
+
+    private static void assertNaN(double wert, String text) {
+        assertTrue(Double.isNaN(wert), "Keine Zahl erwartet für '" + text + "', war " + wert);
+    }
+
+    @Test
+    void deutscheSchreibweise() {
+        assertEquals(1234.56, BetragParser.parse("1.234,56"), GENAUIGKEIT);
+        assertEquals(-12.5, BetragParser.parse("-12,5"), GENAUIGKEIT);
+        assertEquals(1234567.0, BetragParser.parse("1.234.567"), GENAUIGKEIT);
+        assertEquals(1234.56, BetragParser.parse("1.234,56 €"), GENAUIGKEIT);
+        assertEquals(1234.56, BetragParser.parse("1 234,56"), GENAUIGKEIT);
+    }
+
+    @Test
+    void englischeSchreibweise() {
+        assertEquals(1234.56, BetragParser.parse("1,234.56"), GENAUIGKEIT);
+        assertEquals(12.5, BetragParser.parse("12.5"), GENAUIGKEIT);
+        assertEquals(1234567.89, BetragParser.parse("1,234,567.89"), GENAUIGKEIT);
+    }
+
+    @Test
+    void negativeWerte() {
+        assertEquals(-12.5, BetragParser.parse("12,50-"), GENAUIGKEIT);
+        assertEquals(-12.5, BetragParser.parse("(12,50)"), GENAUIGKEIT);
+    }
+
+    @Test
+    void keineZahlen() {
+        for (String text : new String[]{"", "abc", "12.5.2023", "1.23,45", "2 12,50", "3 1.234,00"}) {
+            assertNaN(BetragParser.parse(text), text);
+        }
+    }
+
+    @Test
+    void betragBrauchtZweiNachkommastellen() {
+        assertTrue(BetragParser.istBetrag("1.234,56"));
+        assertTrue(BetragParser.istBetrag("-12,50 €"));
+        assertFalse(BetragParser.istBetrag("4711"));
+        assertFalse(BetragParser.istBetrag("12,5"));
+    }
+
+    @Test
+    void strengerDeutscherBetrag() {
+        assertEquals(1234.56, BetragParser.parseDeutscherBetrag("1.234,56"), GENAUIGKEIT);
+        assertEquals(-12.5, BetragParser.parseDeutscherBetrag("-12,50 €"), GENAUIGKEIT);
+        assertEquals(0.99, BetragParser.parseDeutscherBetrag("0,99"), GENAUIGKEIT);
+        // Englisch, Leerzeichen als Trenner, falsche Gruppen und verschmolzene Zellen gelten nicht
+        for (String text : new String[]{"1,234.56", "1 234,56", "1.23,45", "2 12,50", "12,5", "4711"}) {
+            assertNaN(BetragParser.parseDeutscherBetrag(text), text);
+        }
+    }
+}
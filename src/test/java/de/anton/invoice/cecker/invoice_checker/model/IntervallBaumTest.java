@@ -0,0 +1,120 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervallBaumTest {
+
+    @Test
+    void punktabfrageMitInklusivenGrenzen() {
+        IntervallBaum<String> baum = new IntervallBaum<>();
+        baum.einfuegen(1, 31, 1, "januar");
+        baum.einfuegen(32, 59, 2, "februar");
+        baum.einfuegen(15, 45, 3, "mitte");
+
+        assertEquals(List.of("januar"), baum.enthaltend(1));
+        assertEquals(sortiert("januar", "mitte"), sortiert(baum.enthaltend(31)));
+        assertEquals(sortiert("februar", "mitte"), sortiert(baum.enthaltend(32)));
+        assertTrue(baum.enthaltend(60).isEmpty());
+    }
+
+    @Test
+    void ueberlappungsabfrage() {
+        IntervallBaum<String> baum = new IntervallBaum<>();
+        baum.einfuegen(1, 10, 1, "a");
+        baum.einfuegen(20, 30, 2, "b");
+        baum.einfuegen(5, 25, 3, "c");
+
+        assertEquals(sortiert("a", "c"), sortiert(baum.ueberlappend(8, 12)));
+        assertEquals(sortiert("a", "b", "c"), sortiert(baum.ueberlappend(10, 20)));
+        assertTrue(baum.ueberlappend(31, 40).isEmpty());
+    }
+
+    @Test
+    void gleicheIntervalleWerdenUeberDieIdUnterschieden() {
+        IntervallBaum<String> baum = new IntervallBaum<>();
+        baum.einfuegen(1, 10, 1, "erste");
+        baum.einfuegen(1, 10, 2, "zweite");
+
+        assertTrue(baum.entfernen(1, 10, 2));
+        assertFalse(baum.entfernen(1, 10, 2));
+        assertEquals(List.of("erste"), baum.enthaltend(5));
+        assertEquals(1, baum.groesse());
+    }
+
+    @Test
+    void entfernenUnbekannterEintraegeAendertNichts() {
+        IntervallBaum<String> baum = new IntervallBaum<>();
+        baum.einfuegen(1, 10, 1, "a");
+
+        assertFalse(baum.entfernen(1, 10, 99));
+        assertFalse(baum.entfernen(2, 10, 1));
+        assertEquals(1, baum.groesse());
+    }
+
+    @Test
+    void sortiertesEinfuegenBleibtAusgeglichen() {
+        IntervallBaum<Integer> baum = new IntervallBaum<>();
+        int anzahl = 1023;
+        for (int i = 0; i < anzahl; i++) baum.einfuegen(i, i, i, i);
+
+        assertEquals(anzahl, baum.groesse());
+        assertTrue(baum.hoehe() <= maxAvlHoehe(anzahl), "Höhe " + baum.hoehe());
+        assertEquals(List.of(500), baum.enthaltend(500));
+    }
+
+    @Test
+    void entfernenHaeltBaumAusgeglichenUndMaxEndeKorrekt() {
+        IntervallBaum<Integer> baum = new IntervallBaum<>();
+        List<long[]> eintraege = new ArrayList<>();
+        Random zufall = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            long start = zufall.nextInt(10_000);
+            long ende = start + zufall.nextInt(200);
+            baum.einfuegen(start, ende, i, i);
+            eintraege.add(new long[]{start, ende, i});
+        }
+        Collections.shuffle(eintraege, zufall);
+        List<long[]> verbleibend = new ArrayList<>(eintraege.subList(1500, eintraege.size()));
+        for (long[] e : eintraege.subList(0, 1500)) {
+            assertTrue(baum.entfernen(e[0], e[1], e[2]));
+        }
+
+        assertEquals(500, baum.groesse());
+        assertTrue(baum.hoehe() <= maxAvlHoehe(500), "Höhe " + baum.hoehe());
+        // Abfragen stimmen mit einer linearen Suche überein (prüft das maximale Ende je Teilbaum nach Rotationen)
+        for (long punkt = 0; punkt < 10_300; punkt += 37) {
+            List<Integer> erwartet = new ArrayList<>();
+            for (long[] e : verbleibend) {
+                if (e[0] <= punkt && punkt <= e[1]) erwartet.add((int) e[2]);
+            }
+            assertEquals(sortiert(erwartet), sortiert(baum.enthaltend(punkt)), "Punkt " + punkt);
+        }
+    }
+
+    /** Obergrenze der Höhe eines AVL-Baums mit n Knoten (ca. 1,44 * log2(n + 2)). */
+    private static int maxAvlHoehe(int n) {
+        return (int) Math.floor(1.4405 * Math.log(n + 2) / Math.log(2) - 0.3277);
+    }
+
+    @SafeVarargs
+    private static <T extends Comparable<T>> List<T> sortiert(T... werte) {
+        List<T> liste = new ArrayList<>(List.of(werte));
+        Collections.sort(liste);
+        return liste;
+    }
+
+    private static <T extends Comparable<T>> List<T> sortiert(List<T> werte) {
+        List<T> liste = new ArrayList<>(werte);
+        Collections.sort(liste);
+        return liste;
+    }
+}
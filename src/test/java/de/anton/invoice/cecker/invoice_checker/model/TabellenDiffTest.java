@@ -0,0 +1,90 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TabellenDiffTest {
+
+    private static List<List<String>> tabelle(String... zeilen) {
+        List<List<String>> daten = new ArrayList<>();
+        for (String zeile : zeilen) daten.add(Arrays.asList(zeile.split("\\|", -1)));
+        return daten;
+    }
+
+    private static void pruefe(TabellenDiff.Abschnitt a, int altStart, int altAnzahl, int neuStart, int neuAnzahl) {
+        assertEquals(altStart, a.getAltStart(), "altStart " + a);
+        assertEquals(altAnzahl, a.getAltAnzahl(), "altAnzahl " + a);
+        assertEquals(neuStart, a.getNeuStart(), "neuStart " + a);
+        assertEquals(neuAnzahl, a.getNeuAnzahl(), "neuAnzahl " + a);
+    }
+
+    @Test
+    void gleicheTabellenErgebenKeineAbschnitte() {
+        List<List<String>> alt = tabelle("0|1", "a|1", "b|2", "c|3");
+        List<List<String>> neu = tabelle("0|1", "a|1", "b|2", "c|3"); // Gleicher Inhalt, andere Objekte
+
+        assertTrue(TabellenDiff.vergleiche(alt, neu).isEmpty());
+        assertTrue(TabellenDiff.vergleiche(alt, alt).isEmpty());
+    }
+
+    @Test
+    void nurEingefuegteZeilen() {
+        List<List<String>> alt = tabelle("0|1", "a|1", "b|2", "c|3");
+        List<List<String>> neu = tabelle("0|1", "a|1", "x|9", "y|8", "b|2", "c|3");
+
+        List<TabellenDiff.Abschnitt> abschnitte = TabellenDiff.vergleiche(alt, neu);
+
+        assertEquals(1, abschnitte.size());
+        pruefe(abschnitte.get(0), 2, 0, 2, 2);
+    }
+
+    @Test
+    void eingefuegtAmEnde() {
+        List<List<String>> alt = tabelle("0|1", "a|1");
+        List<List<String>> neu = tabelle("0|1", "a|1", "b|2");
+
+        List<TabellenDiff.Abschnitt> abschnitte = TabellenDiff.vergleiche(alt, neu);
+
+        assertEquals(1, abschnitte.size());
+        pruefe(abschnitte.get(0), 2, 0, 2, 1);
+    }
+
+    @Test
+    void entfernteUndGeaenderteZeilen() {
+        List<List<String>> alt = tabelle("0|1", "a|1", "b|2", "c|3", "d|4");
+        List<List<String>> neu = tabelle("0|1", "a|1", "c|3", "d|5");
+
+        List<TabellenDiff.Abschnitt> abschnitte = TabellenDiff.vergleiche(alt, neu);
+
+        assertEquals(2, abschnitte.size());
+        pruefe(abschnitte.get(0), 2, 1, 2, 0); // "b|2" entfernt
+        pruefe(abschnitte.get(1), 4, 1, 3, 1); // "d|4" durch "d|5" ersetzt
+    }
+
+    @Test
+    void zuVieleUnterschiedeErgebenEinenErsetztenBereich() {
+        List<List<String>> alt = new ArrayList<>();
+        List<List<String>> neu = new ArrayList<>();
+        alt.add(Arrays.asList("0", "1"));
+        neu.add(Arrays.asList("0", "1"));
+        int zeilen = TabellenDiff.MAX_UNTERSCHIEDE; // Jede Zeile geändert: 2 * zeilen Unterschiede
+        for (int i = 0; i < zeilen; i++) {
+            alt.add(Arrays.asList("alt" + i, String.valueOf(i)));
+            neu.add(Arrays.asList("neu" + i, String.valueOf(i)));
+        }
+        alt.add(Arrays.asList("ende", "x"));
+        neu.add(Arrays.asList("ende", "x"));
+
+        List<TabellenDiff.Abschnitt> abschnitte = TabellenDiff.vergleiche(alt, neu);
+
+        // Gemeinsamer Anfang (Kopfzeile) und gemeinsames Ende bleiben außen vor
+        assertEquals(1, abschnitte.size());
+        pruefe(abschnitte.get(0), 1, zeilen, 1, zeilen);
+    }
+}
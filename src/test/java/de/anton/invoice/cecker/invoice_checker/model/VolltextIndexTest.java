@@ -0,0 +1,119 @@
+package de.anton.invoice.cecker.invoice_checker.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VolltextIndexTest {
+
+    /** Dokument mit einer Tabelle; Zeile 0 ist wie bei Camelot die (nicht indizierte) Spaltennummernzeile. */
+    private static PdfDokument dokument(String pfad, String... zeilen) {
+        List<List<String>> daten = new ArrayList<>();
+        daten.add(Arrays.asList("0", "1"));
+        for (String zeile : zeilen) daten.add(Arrays.asList(zeile.split("\\|", -1)));
+        ExtrahierteTabelle tabelle = new ExtrahierteTabelle();
+        tabelle.setData(daten);
+        PdfDokument doc = new PdfDokument();
+        doc.setSourcePdf(pfad.substring(pfad.lastIndexOf('/') + 1));
+        doc.setFullPath(pfad);
+        doc.setTables(new ArrayList<>(Collections.singletonList(tabelle)));
+        return doc;
+    }
+
+    @Test
+    void exakteSucheFindetNurGanzeWoerter() {
+        VolltextIndex index = new VolltextIndex();
+        index.indiziere(dokument("/a.pdf", "Artikel 4711|12,50", "Artikel 47110|3,00"));
+
+        List<SuchTreffer> treffer = index.suche("4711 ", 10);
+
+        assertEquals(1, treffer.size());
+        assertEquals(1, treffer.get(0).getZeilenIndex());
+    }
+
+    @Test
+    void letztesWortWirdAlsPraefixGesucht() {
+        VolltextIndex index = new VolltextIndex();
+        index.indiziere(dokument("/a.pdf", "Strom Grundpreis|10,00", "Stromsteuer|2,05", "Gas|7,00"));
+
+        assertEquals(2, index.suche("strom", 10).size());
+        assertEquals(1, index.suche("strom ", 10).size()); // Mit Leerzeichen: exakt
+        assertEquals(1, index.suche("strom grund", 10).size());
+    }
+
+    @Test
+    void einzelnesZeichenWirdExaktGesucht() {
+        VolltextIndex index = new VolltextIndex();
+        index.indiziere(dokument("/a.pdf", "a|b", "abc|d"));
+
+        assertEquals(1, index.suche("a", 10).size());
+    }
+
+    @Test
+    void mehrereWoerterMuessenInDerselbenZeileStehen() {
+        VolltextIndex index = new VolltextIndex();
+        index.indiziere(dokument("/a.pdf", "Strom|2023", "Gas|2023", "Strom|2024"));
+
+        List<SuchTreffer> treffer = index.suche("2023 strom", 10);
+
+        assertEquals(1, treffer.size());
+        assertEquals(1, treffer.get(0).getZeilenIndex());
+    }
+
+    @Test
+    void maxTrefferBegrenztDasErgebnis() {
+        VolltextIndex index = new VolltextIndex();
+        index.indiziere(dokument("/a.pdf", "Posten 1", "Posten 2", "Posten 3", "Posten 4"));
+
+        assertEquals(2, index.suche("posten", 2).size());
+        assertTrue(index.suche("posten", 0).isEmpty());
+        assertTrue(index.suche("   ", 10).isEmpty());
+    }
+
+    @Test
+    void neuVerarbeitetesDokumentErsetztDasAlte() {
+        VolltextIndex index = new VolltextIndex();
+        index.indiziere(dokument("/a.pdf", "Alter Stand|1,00"));
+        PdfDokument neu = dokument("/a.pdf", "Neuer Stand|2,00");
+        index.indiziere(neu);
+
+        assertTrue(index.suche("alter", 10).isEmpty());
+        List<SuchTreffer> treffer = index.suche("stand", 10);
+        assertEquals(1, treffer.size());
+        assertSame(neu, treffer.get(0).getDokument());
+    }
+
+    @Test
+    void andereDokumenteBleibenNachErsetzenAuffindbar() {
+        VolltextIndex index = new VolltextIndex();
+        index.indiziere(dokument("/a.pdf", "Strom|1,00"));
+        index.indiziere(dokument("/b.pdf", "Strom|2,00"));
+        index.indiziere(dokument("/a.pdf", "Gas|3,00"));
+
+        List<SuchTreffer> treffer = index.suche("strom", 10);
+        assertEquals(1, treffer.size());
+        assertEquals("/b.pdf", treffer.get(0).getDokument().getFullPath());
+    }
+
+    @Test
+    void haeufigesNeuverarbeitenKompaktiertDieReferenzen() {
+        VolltextIndex index = new VolltextIndex();
+        String[] zeilen = new String[100];
+        for (int i = 0; i < zeilen.length; i++) zeilen[i] = "Posten " + i + "|Strom";
+        for (int runde = 0; runde < 100; runde++) {
+            index.indiziere(dokument("/a.pdf", zeilen));
+        }
+
+        // Ein Stand hat 300 Referenzen; gelöschte machen nach der Kompaktierung höchstens die Hälfte aus
+        assertTrue(index.getReferenzAnzahl() <= 2 * 300 + 1024, "Referenzen: " + index.getReferenzAnzahl());
+        assertEquals(100, index.suche("strom", 1000).size());
+        assertEquals(1, index.suche("posten 42 ", 10).size());
+    }
+}